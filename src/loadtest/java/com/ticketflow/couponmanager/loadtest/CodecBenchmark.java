@@ -0,0 +1,137 @@
+package com.ticketflow.couponmanager.loadtest;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ticketflow.couponmanager.coupon.configuration.codec.BinaryObjectMappers;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compares payload size and encode/decode cost of {@link CouponDTO} in JSON, CBOR and Smile, with the same object
+ * mappers the service uses. Every measurement is the median of several rounds after a warm-up round, in nanoseconds
+ * per operation.
+ * <p>
+ * Settings are {@code -Dcodec.iterations} (operations per round), {@code -Dcodec.rounds} and
+ * {@code -Dcodec.list-size} (coupons in the list payload).
+ */
+public class CodecBenchmark {
+
+    private final int iterations = Integer.getInteger("codec.iterations", 20_000);
+    private final int rounds = Integer.getInteger("codec.rounds", 5);
+    private final int listSize = Integer.getInteger("codec.list-size", 100);
+
+    // Keeps the JIT from discarding the work being measured
+    private long sink;
+
+    public static void main(String[] args) throws Exception {
+        Path output = Path.of(System.getProperty("codec.output", "target/loadtest/codecs.json"));
+        new CodecBenchmark().run(output);
+    }
+
+    private void run(Path output) throws IOException {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", BinaryObjectMappers.cbor(new Jackson2ObjectMapperBuilder()));
+        mappers.put("smile", BinaryObjectMappers.smile(new Jackson2ObjectMapperBuilder()));
+
+        List<CouponDTO> coupons = IntStream.range(0, listSize).mapToObj(CodecBenchmark::coupon).toList();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+            ObjectMapper objectMapper = mapper.getValue();
+            JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, CouponDTO.class);
+
+            results.add(measure(mapper.getKey(), "coupon", objectMapper, coupons.get(0), objectMapper.constructType(CouponDTO.class)));
+            results.add(measure(mapper.getKey(), "coupons-" + listSize, objectMapper, coupons, listType));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("iterations", iterations);
+        report.put("rounds", rounds);
+        report.put("results", results);
+
+        ObjectMapper writer = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        writer.writeValue(output.toFile(), report);
+        System.out.println(writer.writeValueAsString(report));
+    }
+
+    private Map<String, Object> measure(String format, String payload, ObjectMapper mapper, Object value, JavaType type) throws IOException {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+        if (!value.equals(mapper.readValue(encoded, type))) {
+            throw new IllegalStateException(format + " does not round trip " + payload);
+        }
+
+        int operations = payload.equals("coupon") ? iterations : Math.max(1, iterations / listSize);
+        List<Long> encodeNanos = new ArrayList<>();
+        List<Long> decodeNanos = new ArrayList<>();
+        for (int round = 0; round <= rounds; round++) {
+            long encode = time(operations, () -> sink += mapper.writeValueAsBytes(value).length);
+            long decode = time(operations, () -> sink += mapper.readValue(encoded, type).hashCode());
+            // the first round only warms up
+            if (round > 0) {
+                encodeNanos.add(encode);
+                decodeNanos.add(decode);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", format);
+        result.put("payload", payload);
+        result.put("bytes", encoded.length);
+        result.put("encodeNanosPerOp", median(encodeNanos));
+        result.put("decodeNanosPerOp", median(decodeNanos));
+        return result;
+    }
+
+    private static long time(int operations, Operation operation) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / operations;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static CouponDTO coupon(int index) {
+        return CouponDTO.builder()
+                .id(String.format("64b7f0c2a1d3e4f5a6b7%04d", index))
+                .name("Summer sale " + index)
+                .description("Discount on tickets for summer shows and festivals")
+                .code("SUMMER" + index)
+                .discountValue(index % 2 == 0 ? 15.5F : null)
+                .discountPercentage(index % 2 == 0 ? null : 12.5F)
+                .status(Status.ACTIVE)
+                .responsibleUser("marketing")
+                .expirationDate(LocalDateTime.now().plusDays(30 + index).truncatedTo(ChronoUnit.MINUTES))
+                .useLimit(1_000)
+                .usesPerUser(2)
+                .applicableCategories(List.of("shows", "festivals"))
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws IOException;
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.ticketflow.couponmanager.loadtest;
+
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CouponWorkload {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int SEED_BATCH_SIZE = 1_000;
+    private static final int SEED_USE_LIMIT = 1_000_000;
+
+    private final WebClient webClient;
+    private final LoadTestConfig config;
+    private final List<String> couponIds = new ArrayList<>();
+    private final AtomicLong createdCoupons = new AtomicLong();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    public CouponWorkload(WebClient webClient, LoadTestConfig config) {
+        this.webClient = webClient;
+        this.config = config;
+    }
+
+    public void seed(ReactiveMongoTemplate mongoTemplate) {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        List<Coupon> coupons = new ArrayList<>(config.coupons());
+
+        for (int i = 0; i < config.coupons(); i++) {
+            String id = "seed-" + i;
+            couponIds.add(id);
+            coupons.add(Coupon.builder()
+                    .id(id)
+                    .name("Seeded coupon " + i)
+                    .description("Load test coupon " + i)
+                    .code("SEED" + i)
+                    .status(Status.ACTIVE)
+                    .discountPercentage((float) random.nextInt(5, 50))
+                    .responsibleUser("user-" + random.nextInt(config.responsibleUsers()))
+                    .expirationDate(LocalDateTime.now().plusYears(1))
+                    .useLimit(SEED_USE_LIMIT)
+                    .applicableCategories(List.of("category-" + random.nextInt(20)))
+                    .build());
+        }
+
+        Flux.fromIterable(coupons)
+                .buffer(SEED_BATCH_SIZE)
+                .concatMap(batch -> mongoTemplate.insert(batch, Coupon.class))
+                .blockLast();
+    }
+
+    public Mono<Integer> execute(Endpoint endpoint) {
+        return switch (endpoint) {
+            case CREATE -> exchange(webClient.post()
+                    .uri("/coupon")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(newCoupon()));
+            case VALIDATE -> exchange(webClient.get().uri("/coupon/{id}/validate", randomCouponId()));
+            case REDEEM -> exchange(webClient.put().uri("/coupon/{id}/redeem", randomCouponId()));
+            case SEARCH -> exchange(webClient.get().uri(uriBuilder -> uriBuilder.path("/coupon")
+                    .queryParam("status", Status.ACTIVE)
+                    .queryParam("responsibleUser", "user-" + ThreadLocalRandom.current().nextInt(config.responsibleUsers()))
+                    .build()));
+        };
+    }
+
+    private Mono<Integer> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+    }
+
+    private String randomCouponId() {
+        return couponIds.get(ThreadLocalRandom.current().nextInt(couponIds.size()));
+    }
+
+    private Map<String, Object> newCoupon() {
+        long sequence = createdCoupons.incrementAndGet();
+        return Map.of(
+                "name", "Load test coupon " + sequence,
+                "description", "Created by the load test",
+                "code", "LT-" + runId + "-" + sequence,
+                "discountValue", 10,
+                "expirationDate", LocalDateTime.now().plusMonths(1).format(DATE_FORMAT),
+                "useLimit", 100,
+                "responsibleUser", "user-" + (sequence % config.responsibleUsers())
+        );
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.ticketflow.couponmanager.loadtest;
+
+public enum Endpoint {
+
+    CREATE("create"),
+    VALIDATE("validate"),
+    REDEEM("redeem"),
+    SEARCH("search");
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+}
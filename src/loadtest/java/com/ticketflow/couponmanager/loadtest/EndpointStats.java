@@ -0,0 +1,85 @@
+package com.ticketflow.couponmanager.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies are measured from the scheduled arrival time, not from the moment the request was sent,
+ * so a slow service cannot hide its queueing delay (coordinated omission).
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Endpoint endpoint;
+    private final double targetRate;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    public EndpointStats(Endpoint endpoint, double targetRate) {
+        this.endpoint = endpoint;
+        this.targetRate = targetRate;
+    }
+
+    public void recordResponse(int status, long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (status >= 500) {
+            errors.increment();
+        }
+    }
+
+    public void recordFailure(long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        errors.increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public void reset() {
+        recorder.reset();
+        errors.reset();
+        dropped.reset();
+        statuses.clear();
+    }
+
+    public Map<String, Object> summary(double elapsedSeconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+        latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+        latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", millis(histogram.getMaxValue()));
+        latency.put("mean", millis((long) histogram.getMean()));
+
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", endpoint.key());
+        summary.put("targetRate", targetRate);
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("throughput", histogram.getTotalCount() / elapsedSeconds);
+        summary.put("errors", errors.sum());
+        summary.put("dropped", dropped.sum());
+        summary.put("statuses", statusCounts);
+        summary.put("latencyMillis", latency);
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.ticketflow.couponmanager.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+public record LoadTestConfig(Duration duration,
+                             Duration warmup,
+                             int coupons,
+                             int responsibleUsers,
+                             long seed,
+                             int maxInFlight,
+                             Path output,
+                             Map<Endpoint, Double> rates,
+                             Map<String, String> applicationProperties) {
+
+    private static final String DEFAULTS = "/loadtest.properties";
+    private static final String APPLICATION_PREFIX = "app.";
+
+    public static LoadTestConfig load() {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream(DEFAULTS)) {
+            if (defaults != null) {
+                properties.load(defaults);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        System.getProperties().forEach((key, value) -> properties.setProperty(key.toString(), value.toString()));
+
+        Map<Endpoint, Double> rates = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            rates.put(endpoint, Double.parseDouble(properties.getProperty("loadtest.rate." + endpoint.key(), "0")));
+        }
+
+        Map<String, String> applicationProperties = new HashMap<>();
+        properties.stringPropertyNames().stream()
+                .filter(key -> key.startsWith(APPLICATION_PREFIX))
+                .forEach(key -> applicationProperties.put(key.substring(APPLICATION_PREFIX.length()), properties.getProperty(key)));
+
+        return new LoadTestConfig(
+                DurationStyle.detectAndParse(properties.getProperty("loadtest.duration")),
+                DurationStyle.detectAndParse(properties.getProperty("loadtest.warmup")),
+                Integer.parseInt(properties.getProperty("loadtest.coupons")),
+                Integer.parseInt(properties.getProperty("loadtest.responsible-users")),
+                Long.parseLong(properties.getProperty("loadtest.seed")),
+                Integer.parseInt(properties.getProperty("loadtest.max-in-flight")),
+                Path.of(properties.getProperty("loadtest.output")),
+                rates,
+                applicationProperties);
+    }
+
+}
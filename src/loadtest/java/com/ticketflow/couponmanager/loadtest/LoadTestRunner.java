@@ -0,0 +1,104 @@
+package com.ticketflow.couponmanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ticketflow.couponmanager.CouponmanagerApplication;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts the service against an in-process Mongo stand-in with discovery and the config server disabled, seeds a
+ * dataset, drives open-model traffic and writes a JSON report with throughput and latency percentiles per endpoint.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+
+        try {
+            config.applicationProperties().forEach(System::setProperty);
+            System.setProperty("spring.data.mongodb.uri",
+                    "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/coupon-loadtest");
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CouponmanagerApplication.class).run(args)) {
+                run(config, context);
+            }
+        } finally {
+            mongoServer.shutdownNow();
+        }
+    }
+
+    private static void run(LoadTestConfig config, ConfigurableApplicationContext context) throws Exception {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(config.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://localhost:" + port)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                    .build();
+
+            CouponWorkload workload = new CouponWorkload(webClient, config);
+            workload.seed(context.getBean(ReactiveMongoTemplate.class));
+
+            Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+            config.rates().forEach((endpoint, rate) -> stats.put(endpoint, new EndpointStats(endpoint, rate)));
+            OpenModelDriver driver = new OpenModelDriver(workload, stats, config.maxInFlight(), config.seed());
+
+            if (!config.warmup().isZero()) {
+                driver.run(config.rates(), config.warmup());
+                stats.values().forEach(EndpointStats::reset);
+            }
+
+            Instant startedAt = Instant.now();
+            OpenModelDriver.Timing timing = driver.run(config.rates(), config.duration());
+
+            writeReport(config, startedAt, timing, stats);
+        } finally {
+            connectionProvider.disposeLater().block(Duration.ofSeconds(10));
+        }
+    }
+
+    private static void writeReport(LoadTestConfig config, Instant startedAt, OpenModelDriver.Timing timing,
+                                    Map<Endpoint, EndpointStats> stats) throws IOException {
+        // Throughput is taken over the window the arrivals were issued in, not the time waiting for the last responses
+        double elapsedSeconds = timing.window().toNanos() / 1_000_000_000.0;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("durationSeconds", elapsedSeconds);
+        report.put("drainSeconds", timing.drain().toNanos() / 1_000_000_000.0);
+        report.put("coupons", config.coupons());
+        report.put("maxInFlight", config.maxInFlight());
+        report.put("endpoints", stats.values().stream().map(endpoint -> endpoint.summary(elapsedSeconds)).toList());
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (config.output().getParent() != null) {
+            Files.createDirectories(config.output().getParent());
+        }
+        objectMapper.writeValue(config.output().toFile(), report);
+        System.out.println(objectMapper.writeValueAsString(report));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.ticketflow.couponmanager.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues requests with Poisson arrivals at a fixed rate per endpoint, independently of how fast the service answers.
+ * Arrivals that find {@code maxInFlight} requests outstanding are counted as dropped instead of queueing in the harness.
+ */
+public class OpenModelDriver {
+
+    private final CouponWorkload workload;
+    private final Map<Endpoint, EndpointStats> stats;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long seed;
+
+    public OpenModelDriver(CouponWorkload workload, Map<Endpoint, EndpointStats> stats, int maxInFlight, long seed) {
+        this.workload = workload;
+        this.stats = stats;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the arrivals for the given duration and then waits for the requests still in flight. The measurement window
+     * closes when the last arrival has been issued, so the time taken to drain is reported apart from it.
+     */
+    public Timing run(Map<Endpoint, Double> rates, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Thread> generators = new ArrayList<>();
+
+        rates.forEach((endpoint, rate) -> {
+            if (rate > 0) {
+                Thread generator = new Thread(() -> generate(endpoint, rate, deadline), "loadtest-" + endpoint.key());
+                generator.setDaemon(true);
+                generator.start();
+                generators.add(generator);
+            }
+        });
+
+        for (Thread generator : generators) {
+            generator.join();
+        }
+        long windowClosed = System.nanoTime();
+        awaitInFlight();
+        return new Timing(Duration.ofNanos(windowClosed - start), Duration.ofNanos(System.nanoTime() - windowClosed));
+    }
+
+    private void generate(Endpoint endpoint, double ratePerSecond, long deadline) {
+        SplittableRandom random = new SplittableRandom(seed + endpoint.ordinal());
+        EndpointStats endpointStats = stats.get(endpoint);
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long nextArrival = System.nanoTime();
+
+        while (nextArrival < deadline) {
+            long wait = nextArrival - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            fire(endpoint, endpointStats, nextArrival);
+            nextArrival += (long) (-Math.log(1.0 - random.nextDouble()) * meanIntervalNanos);
+        }
+    }
+
+    private void fire(Endpoint endpoint, EndpointStats endpointStats, long scheduledAt) {
+        if (!inFlight.tryAcquire()) {
+            endpointStats.recordDropped();
+            return;
+        }
+
+        workload.execute(endpoint)
+                .doFinally(signal -> inFlight.release())
+                .subscribe(status -> endpointStats.recordResponse(status, System.nanoTime() - scheduledAt),
+                        error -> endpointStats.recordFailure(System.nanoTime() - scheduledAt));
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.availablePermits() < maxInFlight && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    public record Timing(Duration window, Duration drain) {
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.ticketflow.couponmanager.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts each configured build of the service (e.g. the JVM jar and the native executable) several times against an
+ * in-process Mongo stand-in, smoke tests it and reports time to ready and resident memory.
+ * <p>
+ * Commands are given as {@code -Dstartup.command.<label>="..."}, for instance
+ * {@code -Dstartup.command.jvm="java -Xmx256m -jar target/couponmanager-1.0.jar"} and
+ * {@code -Dstartup.command.native="target/couponmanager"}.
+ */
+public class StartupBenchmark {
+
+    private static final String COMMAND_PREFIX = "startup.command.";
+    private static final Duration READY_TIMEOUT = Duration.ofSeconds(120);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        Map<String, String> commands = new LinkedHashMap<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith(COMMAND_PREFIX))
+                .sorted()
+                .forEach(key -> commands.put(key.substring(COMMAND_PREFIX.length()), System.getProperty(key)));
+        if (commands.isEmpty()) {
+            throw new IllegalArgumentException("No builds to compare, set at least one -D" + COMMAND_PREFIX + "<label>");
+        }
+
+        int runs = Integer.getInteger("startup.runs", 5);
+        Path output = Path.of(System.getProperty("startup.output", "target/loadtest/startup.json"));
+
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        try {
+            String mongoUri = "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/coupon-startup";
+            StartupBenchmark benchmark = new StartupBenchmark();
+
+            List<Map<String, Object>> builds = new ArrayList<>();
+            for (Map.Entry<String, String> command : commands.entrySet()) {
+                builds.add(benchmark.measure(command.getKey(), command.getValue(), mongoUri, runs));
+            }
+            benchmark.writeReport(output, runs, builds);
+        } finally {
+            mongoServer.shutdownNow();
+        }
+    }
+
+    private Map<String, Object> measure(String label, String command, String mongoUri, int runs) throws Exception {
+        List<Long> readyMillis = new ArrayList<>();
+        List<Long> rssKilobytes = new ArrayList<>();
+
+        for (int run = 0; run < runs; run++) {
+            int port = freePort();
+            List<String> arguments = new ArrayList<>(List.of(command.trim().split("\\s+")));
+            arguments.addAll(List.of(
+                    "--server.port=" + port,
+                    "--spring.rsocket.server.port=0",
+                    "--spring.data.mongodb.uri=" + mongoUri,
+                    "--spring.cloud.config.uri=http://localhost:0",
+                    "--spring.cloud.config.fail-fast=false",
+                    "--coupon.config.snapshot.enabled=false",
+                    "--spring.cloud.discovery.enabled=false",
+                    "--eureka.client.enabled=false",
+                    "--logging.level.root=WARN"));
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(arguments)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            try {
+                String baseUrl = "http://localhost:" + port;
+                awaitReady(baseUrl, process);
+                readyMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+                smokeTest(baseUrl, label + "-" + run);
+                rssKilobytes.add(residentSetKilobytes(process.pid()));
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("build", label);
+        summary.put("command", command);
+        summary.put("readyMillis", readyMillis);
+        summary.put("medianReadyMillis", median(readyMillis));
+        summary.put("rssKilobytes", rssKilobytes);
+        summary.put("medianRssKilobytes", median(rssKilobytes));
+        return summary;
+    }
+
+    private void awaitReady(String baseUrl, Process process) throws Exception {
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build();
+
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with code " + process.exitValue() + " before becoming ready");
+            }
+            try {
+                HttpResponse<String> response = httpClient.send(health, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException ex) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Service was not ready after " + READY_TIMEOUT);
+    }
+
+    private void smokeTest(String baseUrl, String code) throws Exception {
+        Map<String, Object> coupon = Map.of(
+                "name", "Startup smoke test",
+                "description", "Created by the startup benchmark",
+                "code", code,
+                "discountPercentage", 10,
+                "expirationDate", LocalDateTime.now().plusDays(1).format(DATE_FORMAT),
+                "useLimit", 1);
+
+        JsonNode created = send(HttpRequest.newBuilder(URI.create(baseUrl + "/coupon"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(coupon))));
+        String id = created.get("id").asText();
+
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/coupon/" + id + "/validate")));
+        JsonNode redeemed = send(HttpRequest.newBuilder(URI.create(baseUrl + "/coupon/" + id + "/redeem"))
+                .PUT(HttpRequest.BodyPublishers.noBody()));
+        if (redeemed.get("useLimit").asInt() != 0) {
+            throw new IllegalStateException("Smoke test redeemed coupon " + id + " but it still has uses: " + redeemed);
+        }
+    }
+
+    private JsonNode send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Smoke test request " + response.request().uri() + " failed with "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static long residentSetKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1L);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private void writeReport(Path output, int runs, List<Map<String, Object>> builds) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("runs", runs);
+        report.put("builds", builds);
+
+        ObjectMapper writer = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        writer.writeValue(output.toFile(), report);
+        System.out.println(writer.writeValueAsString(report));
+    }
+
+}
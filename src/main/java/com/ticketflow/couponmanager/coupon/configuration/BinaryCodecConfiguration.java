@@ -0,0 +1,61 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.codec.BinaryObjectMappers;
+import com.ticketflow.couponmanager.coupon.configuration.codec.CborListEncoder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolverBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Lets service-to-service callers exchange CBOR ({@code application/cbor}) or Smile
+ * ({@code application/x-jackson-smile}) instead of JSON by setting {@code Accept} and {@code Content-Type}. JSON
+ * stays the default when the caller does not ask for a specific encoding.
+ */
+@Configuration
+public class BinaryCodecConfiguration implements WebFluxConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    // The codecs default to the JSON media types unless told otherwise
+    private static final MimeType[] CBOR_MIME_TYPES = {MediaType.APPLICATION_CBOR};
+    private static final MimeType[] SMILE_MIME_TYPES = {APPLICATION_SMILE, new MediaType("application", "*+x-jackson-smile")};
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public BinaryCodecConfiguration(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper cborMapper = BinaryObjectMappers.cbor(newBuilder());
+        configurer.customCodecs().register(new CborListEncoder(cborMapper, CBOR_MIME_TYPES));
+        configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, CBOR_MIME_TYPES));
+
+        ObjectMapper smileMapper = BinaryObjectMappers.smile(newBuilder());
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MIME_TYPES));
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+    }
+
+    // Custom codecs come before the default JSON codec, so without this a request with no Accept header, or */*,
+    // would get CBOR
+    @Override
+    public void configureContentTypeResolver(RequestedContentTypeResolverBuilder builder) {
+        builder.headerResolver();
+        builder.fixedResolver(MediaType.APPLICATION_JSON, MediaType.ALL);
+    }
+
+    private Jackson2ObjectMapperBuilder newBuilder() {
+        return objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::new);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 100;
+
+    private int minLimit = 10;
+
+    private int maxLimit = 1000;
+
+    // Latency may grow up to this factor over the long-term average before the limit is lowered
+    private double tolerance = 1.5;
+
+    private double smoothing = 0.2;
+
+    private int shortWindow = 10;
+
+    private int longWindow = 600;
+
+    private double normalShare = 0.9;
+
+    private double lowShare = 0.5;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+}
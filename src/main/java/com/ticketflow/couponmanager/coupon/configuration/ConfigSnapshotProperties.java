@@ -0,0 +1,23 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.config.snapshot")
+public class ConfigSnapshotProperties {
+
+    private boolean enabled = true;
+
+    private Path path = Path.of(System.getProperty("java.io.tmpdir"), "coupon-manager", "config-snapshot.properties");
+
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    private Duration maxStaleness = Duration.ofHours(1);
+
+}
@@ -0,0 +1,22 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.replica")
+public class CouponReplicaProperties {
+
+    private boolean enabled = false;
+
+    private Duration rebuildOverlap = Duration.ofMinutes(1);
+
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,27 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.views")
+public class CouponViewsProperties {
+
+    private boolean enabled = false;
+
+    private Path checkpointPath = Path.of(System.getProperty("java.io.tmpdir"), "coupon-manager", "coupon-views.checkpoint");
+
+    private Duration checkpointInterval = Duration.ofMinutes(1);
+
+    private Duration rebuildOverlap = Duration.ofMinutes(1);
+
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+
+}
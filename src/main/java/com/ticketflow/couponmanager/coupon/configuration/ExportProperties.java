@@ -0,0 +1,20 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.export")
+public class ExportProperties {
+
+    private int batchSize = 256;
+
+    private int maxConcurrent = 2;
+
+    private Duration retryAfter = Duration.ofSeconds(30);
+
+}
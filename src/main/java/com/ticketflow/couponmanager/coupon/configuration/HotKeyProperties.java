@@ -0,0 +1,28 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.hot-keys")
+public class HotKeyProperties {
+
+    private boolean enabled = true;
+
+    private int topK = 20;
+
+    private int width = 1024;
+
+    private int depth = 4;
+
+    private Duration window = Duration.ofMinutes(1);
+
+    private int windowSlices = 6;
+
+    private long minRequests = 100;
+
+}
@@ -0,0 +1,26 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.import")
+public class ImportProperties {
+
+    private int batchSize = 1000;
+
+    private int validationParallelism = Runtime.getRuntime().availableProcessors();
+
+    private int writeConcurrency = 4;
+
+    private int maxConcurrent = 1;
+
+    private Duration retryAfter = Duration.ofSeconds(30);
+
+    private Duration reportRetention = Duration.ofHours(1);
+
+}
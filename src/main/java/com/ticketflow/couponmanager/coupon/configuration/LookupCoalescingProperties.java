@@ -0,0 +1,14 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.lookup.coalescing")
+public class LookupCoalescingProperties {
+
+    private boolean enabled = true;
+
+}
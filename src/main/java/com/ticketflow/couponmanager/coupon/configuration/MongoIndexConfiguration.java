@@ -0,0 +1,96 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.ImportReportChunk;
+import com.ticketflow.couponmanager.coupon.model.RedemptionLedgerEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoIndexConfiguration implements SmartInitializingSingleton {
+
+    private static final Duration REQUIRED_INDEX_TIMEOUT = Duration.ofSeconds(30);
+    private static final String CODE_KEY_STRING = "codeKey";
+    private static final int BACKFILL_CONCURRENCY = 8;
+    // Only speed up or clean up their collections, so serving does not wait for them
+    private static final List<Class<?>> BACKGROUND_INDEXED_DOCUMENTS = List.of(Coupon.class, ImportReportChunk.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    /**
+     * The per-user redemption limit is enforced by the unique (couponId, userId) index of the ledger, so it is created
+     * before the web server starts, and the instance does not start without it.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        try {
+            Flux.fromIterable(resolver.resolveIndexFor(RedemptionLedgerEntry.class))
+                    .concatMap(index -> mongoTemplate.indexOps(RedemptionLedgerEntry.class).ensureIndex(index))
+                    .then()
+                    .block(REQUIRED_INDEX_TIMEOUT);
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Could not ensure the indexes of the redemption ledger", ex);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        Flux.fromIterable(BACKGROUND_INDEXED_DOCUMENTS)
+                .flatMap(type -> Flux.fromIterable(resolver.resolveIndexFor(type))
+                        .flatMap(index -> mongoTemplate.indexOps(type).ensureIndex(index)
+                                .onErrorResume(ex -> {
+                                    log.warn("Could not ensure index {} on {}: {}", index.getIndexKeys(),
+                                            type.getSimpleName(), ex.getMessage());
+                                    return Mono.empty();
+                                })))
+                .subscribe(index -> log.debug("Ensured index {}", index),
+                        ex -> log.warn("Could not ensure indexes: {}", ex.getMessage()));
+
+        backfillSearchKeys().subscribe(count -> {
+                    if (count > 0) {
+                        log.info("Added search keys to {} coupons", count);
+                    }
+                },
+                ex -> log.warn("Could not add search keys to existing coupons: {}", ex.getMessage()));
+    }
+
+    // Coupons written before the search keys existed. The keys are derived fields, so the version is left alone.
+    Mono<Long> backfillSearchKeys() {
+        Query legacy = new Query(Criteria.where(CODE_KEY_STRING).exists(false));
+        legacy.fields().include("name", "code");
+
+        return mongoTemplate.find(legacy, Coupon.class)
+                .flatMap(coupon -> {
+                    coupon.refreshSearchKeys();
+                    Query query = new Query(Criteria.where("_id").is(coupon.getId()).and(CODE_KEY_STRING).exists(false));
+                    Update update = new Update().set("nameKey", coupon.getNameKey()).set(CODE_KEY_STRING, coupon.getCodeKey());
+                    return mongoTemplate.updateFirst(query, update, Coupon.class);
+                }, BACKFILL_CONCURRENCY)
+                .count();
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.mongo.resilience")
+public class MongoResilienceProperties {
+
+    private boolean enabled = true;
+
+    private Policy lookup = new Policy(Duration.ofMillis(500), 2, true);
+
+    private Policy search = new Policy(Duration.ofSeconds(5), 1, false);
+
+    private Policy write = new Policy(Duration.ofSeconds(2), 2, false);
+
+    private Policy redeem = new Policy(Duration.ofSeconds(2), 0, false);
+
+    // Exports wait on clients reading slowly, so their deadline between documents is longer
+    private Policy export = new Policy(Duration.ofMinutes(1), 1, false);
+
+    // One import call is a bulk write of a whole batch
+    private Policy bulkImport = new Policy(Duration.ofSeconds(30), 0, false);
+
+    // Updates by filter write every matching coupon in one call, and count them first
+    private Policy bulkUpdate = new Policy(Duration.ofSeconds(30), 0, false);
+
+    private Breaker circuitBreaker = new Breaker();
+
+    /**
+     * Deadline, retries and hedging of one kind of operation. Retries only apply to reads and idempotent writes.
+     */
+    @Getter
+    @Setter
+    public static class Policy {
+
+        private Duration timeout;
+
+        private int retries;
+
+        private Duration backoff = Duration.ofMillis(20);
+
+        private Duration maxBackoff = Duration.ofMillis(200);
+
+        private boolean hedge;
+
+        private double hedgePercentile = 0.95;
+
+        private Duration minHedgeDelay = Duration.ofMillis(5);
+
+        public Policy() {
+        }
+
+        public Policy(Duration timeout, int retries, boolean hedge) {
+            this.timeout = timeout;
+            this.retries = retries;
+            this.hedge = hedge;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Breaker {
+
+        private boolean enabled = true;
+
+        private int window = 50;
+
+        private int minimumCalls = 20;
+
+        private double failureRate = 0.5;
+
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        private int halfOpenCalls = 5;
+
+    }
+
+}
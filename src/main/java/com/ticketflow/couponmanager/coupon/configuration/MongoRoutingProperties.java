@@ -0,0 +1,46 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.mongo.routing")
+public class MongoRoutingProperties {
+
+    private Route search = new Route("secondaryPreferred", null);
+
+    private Route validate = new Route("primary", null);
+
+    private Route redeem = new Route(null, "majority");
+
+    private Route create = new Route(null, "majority");
+
+    /**
+     * Read preference and write concern of one kind of operation. Unset values keep the ones of the Mongo client.
+     */
+    @Getter
+    @Setter
+    public static class Route {
+
+        private String readPreference;
+
+        private Duration maxStaleness = Duration.ofSeconds(90);
+
+        private String writeConcern;
+
+        private Duration writeTimeout = Duration.ofSeconds(5);
+
+        public Route() {
+        }
+
+        public Route(String readPreference, String writeConcern) {
+            this.readPreference = readPreference;
+            this.writeConcern = writeConcern;
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.AppliedCouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CartDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CartItemDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkUpdateDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponImportDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponTallyDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponValidationDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.PricingResultDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.RedeemRequestDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponSearch;
+import com.ticketflow.couponmanager.coupon.enums.CouponViewState;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.exception.util.ErrorMessage;
+import com.ticketflow.couponmanager.coupon.hotkey.HotKeysEndpoint;
+import com.ticketflow.couponmanager.coupon.logging.CountingAsyncAppender;
+import com.ticketflow.couponmanager.coupon.logging.JsonLogEncoder;
+import com.ticketflow.couponmanager.coupon.logging.SamplingFilter;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.ImportReportChunk;
+import com.ticketflow.couponmanager.coupon.model.RedemptionLedgerEntry;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+@Configuration
+@ImportRuntimeHints(NativeHintsConfiguration.CouponRuntimeHints.class)
+public class NativeHintsConfiguration {
+
+    static class CouponRuntimeHints implements RuntimeHintsRegistrar {
+
+        // Read and written by Jackson, the WebFlux data binder or the Mongo mapping layer
+        static final List<Class<?>> BOUND_TYPES = List.of(Coupon.class, RedemptionLedgerEntry.class, ImportReportChunk.class, CouponDTO.class,
+                CouponFilter.class, CouponSearch.class, CartDTO.class, CartItemDTO.class, AppliedCouponDTO.class, PricingResultDTO.class,
+                ErrorMessage.class, CouponChangeDTO.class, RedeemRequestDTO.class, CouponValidationDTO.class, CouponImportDTO.class,
+                CouponBulkChangeDTO.class, CouponBulkUpdateDTO.class, CouponTallyDTO.class, HotKeysEndpoint.HotKeyRate.class, ExportFormat.class,
+                CouponViewState.class);
+
+        // Mapped by ModelMapper, which discovers accessors by introspection and instantiates the destination
+        static final List<Class<?>> MAPPED_TYPES = List.of(Coupon.class, CouponDTO.class);
+
+        // Instantiated and configured through their setters by logback from logback-spring.xml
+        static final List<Class<?>> LOGBACK_TYPES = List.of(JsonLogEncoder.class, CountingAsyncAppender.class, SamplingFilter.class);
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), BOUND_TYPES.toArray(Class<?>[]::new));
+
+            MAPPED_TYPES.forEach(type -> hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INTROSPECT_PUBLIC_METHODS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS));
+
+            LOGBACK_TYPES.forEach(type -> hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INTROSPECT_PUBLIC_METHODS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS));
+
+            hints.resources().registerPattern("messages_*.properties");
+        }
+    }
+
+}
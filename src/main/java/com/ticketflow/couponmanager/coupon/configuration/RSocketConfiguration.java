@@ -0,0 +1,33 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.codec.BinaryObjectMappers;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * RSocket payloads use CBOR with the same mapper as the CBOR HTTP encoding, so dates are epoch milliseconds on both.
+ */
+@Configuration
+public class RSocketConfiguration {
+
+    // Ahead of the Spring Boot CBOR codecs, which would format dates as text
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RSocketStrategiesCustomizer couponRSocketStrategiesCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        return strategies -> {
+            ObjectMapper cborMapper = BinaryObjectMappers.cbor(objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::new));
+            strategies.encoders(encoders -> encoders.add(0, new Jackson2CborEncoder(cborMapper, MediaType.APPLICATION_CBOR)));
+            strategies.decoders(decoders -> decoders.add(0, new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR)));
+        };
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private String clientHeader = "X-Client-Id";
+
+    private Bucket client = new Bucket(50, 25);
+
+    private Bucket coupon = new Bucket(500, 250);
+
+    private long maxTrackedKeys = 100_000;
+
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    @Getter
+    @Setter
+    public static class Bucket {
+
+        private long capacity;
+
+        private double refillPerSecond;
+
+        public Bucket() {
+        }
+
+        public Bucket(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+}
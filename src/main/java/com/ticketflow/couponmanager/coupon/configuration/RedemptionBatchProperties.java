@@ -0,0 +1,20 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.redeem.batch")
+public class RedemptionBatchProperties {
+
+    private boolean enabled = true;
+
+    private Duration maxWait = Duration.ofMillis(5);
+
+    private int maxSize = 64;
+
+}
@@ -0,0 +1,20 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.redeem.ledger")
+public class RedemptionLedgerProperties {
+
+    private int recentRedemptions = 10;
+
+    private long cacheMaxSize = 100_000;
+
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
+}
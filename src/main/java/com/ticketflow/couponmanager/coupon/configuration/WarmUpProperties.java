@@ -0,0 +1,28 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "coupon.warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    private Duration budget = Duration.ofSeconds(30);
+
+    private int iterations = 2_000;
+
+    private int queries = 200;
+
+    private int connections = 10;
+
+    private List<String> hotCouponCodes = new ArrayList<>();
+
+}
@@ -0,0 +1,29 @@
+package com.ticketflow.couponmanager.coupon.configuration.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Object mappers for the binary encodings offered next to JSON. They share the JSON mapper settings, but dates are
+ * written as epoch milliseconds instead of formatted text.
+ */
+public final class BinaryObjectMappers {
+
+    private BinaryObjectMappers() {
+    }
+
+    public static ObjectMapper cbor(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory())
+                .modulesToInstall(new EpochDateTimeModule())
+                .build();
+    }
+
+    public static ObjectMapper smile(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new SmileFactory())
+                .modulesToInstall(new EpochDateTimeModule())
+                .build();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.ticketflow.couponmanager.coupon.configuration.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes {@link LocalDateTime} values as epoch milliseconds, read as UTC, regardless of {@code @JsonFormat}
+ * patterns. Registered after the Java time module so it takes precedence on the binary encodings. Readers also
+ * accept ISO-8601 text.
+ */
+public class EpochDateTimeModule extends SimpleModule {
+
+    public EpochDateTimeModule() {
+        super(EpochDateTimeModule.class.getSimpleName());
+        addSerializer(LocalDateTime.class, new EpochSerializer());
+        addDeserializer(LocalDateTime.class, new EpochDeserializer());
+    }
+
+    static long toEpochMilli(LocalDateTime value) {
+        return value.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMilli(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    private static class EpochSerializer extends StdScalarSerializer<LocalDateTime> {
+
+        EpochSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(toEpochMilli(value));
+        }
+    }
+
+    private static class EpochDeserializer extends StdScalarDeserializer<LocalDateTime> {
+
+        EpochDeserializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return fromEpochMilli(parser.getLongValue());
+            }
+            return LocalDateTimeDeserializer.INSTANCE.deserialize(parser, context);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.ticketflow.couponmanager.coupon.configuration.snapshot;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The configuration last fetched from the Configuration service, as stored on local disk. The fetch time is kept as
+ * the file modification time.
+ */
+public record ConfigSnapshot(Map<String, String> properties, Instant fetchedAt) {
+
+    public static ConfigSnapshot read(Path path) throws IOException {
+        Properties stored = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            stored.load(reader);
+        }
+
+        Map<String, String> properties = new TreeMap<>();
+        stored.stringPropertyNames().forEach(name -> properties.put(name, stored.getProperty(name)));
+        return new ConfigSnapshot(properties, Files.getLastModifiedTime(path).toInstant());
+    }
+
+    /**
+     * Replaces the snapshot at {@code path} atomically, so a crash while writing never leaves a truncated snapshot.
+     */
+    public void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Properties stored = new Properties();
+        stored.putAll(properties);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                stored.store(writer, "Configuration fetched from the Configuration service");
+            }
+            Files.setLastModifiedTime(temporary, FileTime.from(fetchedAt));
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.ticketflow.couponmanager.coupon.configuration.snapshot;
+
+import com.ticketflow.couponmanager.coupon.configuration.ConfigSnapshotProperties;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts the service from the local configuration snapshot when there is one.
+ * <p>
+ * Runs before config data is loaded: the snapshot is added where the Configuration service property sources would
+ * be, and {@code coupon.config.import} is cleared so {@code spring.config.import} does not call the Configuration
+ * service during startup. {@link ConfigSnapshotRefresher} fetches the current configuration in the background.
+ * Only the first start, without a snapshot, waits on the Configuration service.
+ */
+public class ConfigSnapshotEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    public static final String SNAPSHOT_PROPERTY_SOURCE = "configSnapshot";
+    static final String IMPORT_PROPERTY_SOURCE = "configSnapshotImport";
+    static final String IMPORT_PROPERTY = "coupon.config.import";
+
+    private final Log log;
+
+    public ConfigSnapshotEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(ConfigSnapshotEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        ConfigSnapshotProperties properties = Binder.get(environment)
+                .bind("coupon.config.snapshot", ConfigSnapshotProperties.class)
+                .orElseGet(ConfigSnapshotProperties::new);
+
+        if (!properties.isEnabled() || !Files.isReadable(properties.getPath())) {
+            return;
+        }
+
+        ConfigSnapshot snapshot;
+        try {
+            snapshot = ConfigSnapshot.read(properties.getPath());
+        } catch (IOException | IllegalArgumentException ex) {
+            log.warn("Ignoring unreadable configuration snapshot " + properties.getPath() + ": " + ex.getMessage());
+            return;
+        }
+
+        environment.getPropertySources().addLast(new MapPropertySource(SNAPSHOT_PROPERTY_SOURCE, new HashMap<>(snapshot.properties())));
+        environment.getPropertySources().addLast(new MapPropertySource(IMPORT_PROPERTY_SOURCE, Map.of(IMPORT_PROPERTY, "")));
+        log.info("Starting from configuration snapshot " + properties.getPath() + " fetched at " + snapshot.fetchedAt());
+    }
+
+    @Override
+    public int getOrder() {
+        return ConfigDataEnvironmentPostProcessor.ORDER - 1;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.ticketflow.couponmanager.coupon.configuration.snapshot;
+
+import com.ticketflow.couponmanager.coupon.configuration.ConfigSnapshotProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports where the running configuration came from and how old it is. A stale configuration does not take the
+ * service down: it keeps serving with the last known configuration and the {@code stale} detail is raised instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConfigSnapshotHealthIndicator extends AbstractHealthIndicator {
+
+    private final ConfigSnapshotRefresher refresher;
+    private final ConfigSnapshotProperties properties;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        builder.up()
+                .withDetail("source", refresher.isStartedFromSnapshot() ? "snapshot" : "configserver")
+                .withDetail("snapshot", properties.getPath().toString())
+                .withDetail("staleness", refresher.getStaleness().toString())
+                .withDetail("stale", refresher.isStale());
+        refresher.getLastFetch().ifPresent(lastFetch -> builder.withDetail("lastFetch", lastFetch.toString()));
+        refresher.getLastError().ifPresent(lastError -> builder.withDetail("lastError", lastError));
+    }
+
+}
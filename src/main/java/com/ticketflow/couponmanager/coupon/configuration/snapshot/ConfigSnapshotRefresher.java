@@ -0,0 +1,211 @@
+package com.ticketflow.couponmanager.coupon.configuration.snapshot;
+
+import com.ticketflow.couponmanager.coupon.configuration.ConfigSnapshotProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the local configuration snapshot current and, when the service started from it, applies newer configuration
+ * fetched in the background to the running environment.
+ */
+@Slf4j
+@Component
+public class ConfigSnapshotRefresher {
+
+    static final String CONFIG_SERVER_PROPERTY_SOURCE_PREFIX = "configserver:";
+
+    private final ConfigurableEnvironment environment;
+    private final ConfigSnapshotProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Supplier<Map<String, String>> configServerFetcher;
+    private final Clock clock;
+
+    private final boolean startedFromSnapshot;
+    private volatile Instant lastFetch;
+    private volatile String lastError;
+    private Disposable refreshes;
+
+    @Autowired
+    public ConfigSnapshotRefresher(ConfigurableEnvironment environment, ConfigSnapshotProperties properties,
+                                   ApplicationEventPublisher eventPublisher) {
+        this(environment, properties, eventPublisher, () -> fetchFromConfigServer(environment), Clock.systemUTC());
+    }
+
+    ConfigSnapshotRefresher(ConfigurableEnvironment environment, ConfigSnapshotProperties properties,
+                            ApplicationEventPublisher eventPublisher, Supplier<Map<String, String>> configServerFetcher,
+                            Clock clock) {
+        this.environment = environment;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.configServerFetcher = configServerFetcher;
+        this.clock = clock;
+        this.startedFromSnapshot = environment.getPropertySources().contains(ConfigSnapshotEnvironmentPostProcessor.SNAPSHOT_PROPERTY_SOURCE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Duration firstRefresh = properties.getRefreshInterval();
+        if (startedFromSnapshot) {
+            lastFetch = snapshotFetchedAt();
+            firstRefresh = Duration.ZERO;
+        } else {
+            lastFetch = clock.instant();
+            Map<String, String> fetched = configServerProperties();
+            if (!fetched.isEmpty()) {
+                persist(fetched);
+            }
+        }
+
+        refreshes = Flux.interval(firstRefresh, properties.getRefreshInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::refresh).onErrorResume(ex -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+
+    void refresh() {
+        Map<String, String> fetched;
+        try {
+            fetched = configServerFetcher.get();
+        } catch (RuntimeException ex) {
+            lastError = ex.getMessage();
+            log.warn("Could not refresh configuration from the Configuration service: {}", ex.getMessage());
+            return;
+        }
+
+        lastFetch = clock.instant();
+        lastError = null;
+        persist(fetched);
+        if (startedFromSnapshot) {
+            apply(fetched);
+        }
+    }
+
+    public boolean isStartedFromSnapshot() {
+        return startedFromSnapshot;
+    }
+
+    public Optional<Instant> getLastFetch() {
+        return Optional.ofNullable(lastFetch);
+    }
+
+    public Optional<String> getLastError() {
+        return Optional.ofNullable(lastError);
+    }
+
+    public Duration getStaleness() {
+        return lastFetch == null ? Duration.ZERO : Duration.between(lastFetch, clock.instant());
+    }
+
+    public boolean isStale() {
+        return getStaleness().compareTo(properties.getMaxStaleness()) > 0;
+    }
+
+    private void persist(Map<String, String> fetched) {
+        try {
+            new ConfigSnapshot(fetched, clock.instant()).write(properties.getPath());
+        } catch (IOException ex) {
+            log.warn("Could not write configuration snapshot {}: {}", properties.getPath(), ex.getMessage());
+        }
+    }
+
+    private void apply(Map<String, String> fetched) {
+        PropertySource<?> current = environment.getPropertySources().get(ConfigSnapshotEnvironmentPostProcessor.SNAPSHOT_PROPERTY_SOURCE);
+        Map<String, Object> previous = current instanceof MapPropertySource map ? map.getSource() : Map.of();
+
+        Set<String> changedKeys = new HashSet<>(previous.keySet());
+        changedKeys.addAll(fetched.keySet());
+        changedKeys.removeIf(key -> Objects.equals(previous.get(key), fetched.get(key)));
+        if (changedKeys.isEmpty()) {
+            return;
+        }
+
+        environment.getPropertySources().replace(ConfigSnapshotEnvironmentPostProcessor.SNAPSHOT_PROPERTY_SOURCE,
+                new MapPropertySource(ConfigSnapshotEnvironmentPostProcessor.SNAPSHOT_PROPERTY_SOURCE, new HashMap<>(fetched)));
+        log.info("Applied {} configuration changes fetched from the Configuration service", changedKeys.size());
+        eventPublisher.publishEvent(new EnvironmentChangeEvent(changedKeys));
+    }
+
+    private Instant snapshotFetchedAt() {
+        try {
+            return ConfigSnapshot.read(properties.getPath()).fetchedAt();
+        } catch (IOException ex) {
+            return clock.instant();
+        }
+    }
+
+    private Map<String, String> configServerProperties() {
+        List<PropertySource<?>> sources = environment.getPropertySources().stream()
+                .filter(source -> source.getName().startsWith(CONFIG_SERVER_PROPERTY_SOURCE_PREFIX))
+                .toList();
+        return flatten(sources);
+    }
+
+    private static Map<String, String> fetchFromConfigServer(ConfigurableEnvironment environment) {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(environment);
+        Binder.get(environment).bind(ConfigClientProperties.PREFIX, Bindable.ofInstance(clientProperties));
+        // fail fast so a failed fetch surfaces as an error instead of an empty configuration
+        clientProperties.setFailFast(true);
+
+        PropertySource<?> fetched = new ConfigServicePropertySourceLocator(clientProperties).locate(environment);
+        return fetched == null ? Map.of() : flatten(List.of(fetched));
+    }
+
+    // The first source of the list wins, as in the environment
+    private static Map<String, String> flatten(List<PropertySource<?>> sources) {
+        Map<String, String> flattened = new HashMap<>();
+        for (PropertySource<?> source : sources) {
+            if (source instanceof EnumerablePropertySource<?> enumerable) {
+                for (String name : enumerable.getPropertyNames()) {
+                    Object value = enumerable.getProperty(name);
+                    if (value != null) {
+                        flattened.putIfAbsent(name, value.toString());
+                    }
+                }
+            }
+        }
+        return flattened;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkUpdateDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.service.CouponBulkUpdateService;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/coupon/bulk")
+public class CouponBulkController {
+
+    private final CouponBulkUpdateService couponBulkUpdateService;
+
+    public CouponBulkController(CouponBulkUpdateService couponBulkUpdateService) {
+        this.couponBulkUpdateService = couponBulkUpdateService;
+    }
+
+    @PutMapping("/deactivate")
+    public Mono<CouponBulkUpdateDTO> deactivateCoupons(@ModelAttribute("couponFilter") CouponFilter couponFilter,
+                                                       @RequestParam(defaultValue = "false") boolean dryRun) {
+        return couponBulkUpdateService.deactivateCoupons(couponFilter, dryRun);
+    }
+
+    @PutMapping("/expiration")
+    public Mono<CouponBulkUpdateDTO> extendExpiration(@ModelAttribute("couponFilter") CouponFilter couponFilter,
+                                                      @RequestBody CouponBulkChangeDTO change,
+                                                      @RequestParam(defaultValue = "false") boolean dryRun) {
+        return couponBulkUpdateService.extendExpiration(couponFilter, change, dryRun);
+    }
+
+    @PutMapping("/discount")
+    public Mono<CouponBulkUpdateDTO> changeDiscount(@ModelAttribute("couponFilter") CouponFilter couponFilter,
+                                                    @RequestBody CouponBulkChangeDTO change,
+                                                    @RequestParam(defaultValue = "false") boolean dryRun) {
+        return couponBulkUpdateService.changeDiscount(couponFilter, change, dryRun);
+    }
+
+    @PutMapping("/applicable-category/add")
+    public Mono<CouponBulkUpdateDTO> addApplicableCategories(@ModelAttribute("couponFilter") CouponFilter couponFilter,
+                                                             @RequestBody List<String> categoryIds,
+                                                             @RequestParam(defaultValue = "false") boolean dryRun) {
+        return couponBulkUpdateService.addApplicableCategories(couponFilter, categoryIds, dryRun);
+    }
+
+    @PutMapping("/applicable-category/remove")
+    public Mono<CouponBulkUpdateDTO> removeApplicableCategories(@ModelAttribute("couponFilter") CouponFilter couponFilter,
+                                                                @RequestBody List<String> categoryIds,
+                                                                @RequestParam(defaultValue = "false") boolean dryRun) {
+        return couponBulkUpdateService.removeApplicableCategories(couponFilter, categoryIds, dryRun);
+    }
+
+}
@@ -2,16 +2,27 @@ package com.ticketflow.couponmanager.coupon.controller;
 
 import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
 import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponSearch;
 import com.ticketflow.couponmanager.coupon.service.CouponService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 
 @RestController
 @RequestMapping("/coupon")
 public class CouponController {
 
+    private static final String ANY_ETAG = "*";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+    // An If-Match value that is not one of our ETags can never match
+    private static final long UNKNOWN_VERSION = -1L;
+
     private final CouponService couponService;
 
     public CouponController(CouponService couponService) {
@@ -23,9 +34,23 @@ public class CouponController {
         return couponService.getCoupons(couponFilter);
     }
 
+    @GetMapping("/search")
+    public Flux<CouponDTO> searchCoupons(@ModelAttribute("couponSearch") CouponSearch couponSearch) {
+        return couponService.searchCoupons(couponSearch);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CouponDTO>> getCoupon(@PathVariable String id, @RequestHeader HttpHeaders headers) {
+        return couponService.getCoupon(id)
+                .map(coupon -> isNotModified(coupon, headers.getIfNoneMatch())
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(coupon)).<CouponDTO>build()
+                        : withETag(coupon));
+    }
+
     @PostMapping
-    public Mono<CouponDTO> createCoupon(@RequestBody CouponDTO coupon) {
-        return couponService.createCoupon(coupon);
+    public Mono<ResponseEntity<CouponDTO>> createCoupon(@RequestBody CouponDTO coupon) {
+        return couponService.createCoupon(coupon)
+                .map(CouponController::withETag);
     }
 
     @GetMapping("/{id}/validate")
@@ -34,28 +59,98 @@ public class CouponController {
     }
 
     @PutMapping("/{id}/redeem")
-    public Mono<CouponDTO> redeemCoupon(@PathVariable String id) {
-        return couponService.validateAndDecreaseAvailableCoupons(id);
+    public Mono<CouponDTO> redeemCoupon(@PathVariable String id, @RequestParam(required = false) String userId) {
+        return couponService.validateAndDecreaseAvailableCoupons(id, userId);
     }
 
     @PutMapping
-    public Mono<CouponDTO> updateCoupon(@RequestBody CouponDTO couponDTO) {
-        return couponService.updateCoupon(couponDTO);
+    public Mono<ResponseEntity<CouponDTO>> updateCoupon(@RequestBody CouponDTO couponDTO, @RequestHeader HttpHeaders headers) {
+        if (!headers.getIfMatch().isEmpty()) {
+            couponDTO.setVersion(expectedVersion(headers));
+        }
+        return couponService.updateCoupon(couponDTO)
+                .map(CouponController::withETag);
     }
 
     @PutMapping("/{id}/deactivate")
-    public Mono<CouponDTO> deactivateCoupon(@PathVariable String id) {
-        return couponService.deactivateCoupon(id);
+    public Mono<ResponseEntity<CouponDTO>> deactivateCoupon(@PathVariable String id, @RequestHeader HttpHeaders headers) {
+        return couponService.deactivateCoupon(id, expectedVersion(headers))
+                .map(CouponController::withETag);
     }
 
     @PutMapping("/{id}/applicable-category/add/{categoryId}")
-    public Mono<CouponDTO> addApplicableCategory(@PathVariable String id, @PathVariable String categoryId) {
-        return couponService.addApplicableCategory(id, categoryId);
+    public Mono<ResponseEntity<CouponDTO>> addApplicableCategory(@PathVariable String id, @PathVariable String categoryId,
+                                                                 @RequestHeader HttpHeaders headers) {
+        return couponService.addApplicableCategory(id, categoryId, expectedVersion(headers))
+                .map(CouponController::withETag);
     }
 
     @PutMapping("/{id}/applicable-category/remove/{categoryId}")
-    public Mono<CouponDTO> removeApplicableCategory(@PathVariable String id, @PathVariable String categoryId) {
-        return couponService.removeApplicableCategory(id, categoryId);
+    public Mono<ResponseEntity<CouponDTO>> removeApplicableCategory(@PathVariable String id, @PathVariable String categoryId,
+                                                                    @RequestHeader HttpHeaders headers) {
+        return couponService.removeApplicableCategory(id, categoryId, expectedVersion(headers))
+                .map(CouponController::withETag);
+    }
+
+    @PutMapping("/{id}/applicable-category/add")
+    public Mono<ResponseEntity<CouponDTO>> addApplicableCategories(@PathVariable String id, @RequestBody List<String> categoryIds,
+                                                                   @RequestHeader HttpHeaders headers) {
+        return couponService.addApplicableCategories(id, categoryIds, expectedVersion(headers))
+                .map(CouponController::withETag);
+    }
+
+    @PutMapping("/{id}/applicable-category/remove")
+    public Mono<ResponseEntity<CouponDTO>> removeApplicableCategories(@PathVariable String id, @RequestBody List<String> categoryIds,
+                                                                      @RequestHeader HttpHeaders headers) {
+        return couponService.removeApplicableCategories(id, categoryIds, expectedVersion(headers))
+                .map(CouponController::withETag);
+    }
+
+    private static ResponseEntity<CouponDTO> withETag(CouponDTO coupon) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (coupon.getVersion() != null) {
+            response.eTag(eTag(coupon));
+        }
+        return response.body(coupon);
+    }
+
+    private static String eTag(CouponDTO coupon) {
+        return "\"" + coupon.getVersion() + "\"";
+    }
+
+    // If-None-Match uses the weak comparison
+    private static boolean isNotModified(CouponDTO coupon, List<String> ifNoneMatch) {
+        if (coupon.getVersion() == null) {
+            return false;
+        }
+        String eTag = eTag(coupon);
+        return ifNoneMatch.stream()
+                .anyMatch(candidate -> ANY_ETAG.equals(candidate) || eTag.equals(stripWeakPrefix(candidate)));
+    }
+
+    // If-Match uses the strong comparison, so weak ETags never match
+    private static Long expectedVersion(HttpHeaders headers) {
+        List<String> ifMatch = headers.getIfMatch();
+        if (ifMatch.isEmpty() || ifMatch.contains(ANY_ETAG)) {
+            return null;
+        }
+        if (ifMatch.size() > 1) {
+            throw new IllegalArgumentException("Only one ETag can be given in If-Match");
+        }
+
+        String eTag = ifMatch.get(0);
+        if (eTag.startsWith(WEAK_ETAG_PREFIX) || eTag.length() < 2 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            return UNKNOWN_VERSION;
+        }
+        try {
+            return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException ex) {
+            return UNKNOWN_VERSION;
+        }
+    }
+
+    private static String stripWeakPrefix(String eTag) {
+        return eTag.startsWith(WEAK_ETAG_PREFIX) ? eTag.substring(WEAK_ETAG_PREFIX.length()) : eTag;
     }
 
 }
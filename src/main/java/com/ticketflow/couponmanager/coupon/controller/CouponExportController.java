@@ -0,0 +1,83 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.service.CouponExportService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/coupon/export")
+public class CouponExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final String GZIP = "gzip";
+
+    private final CouponExportService couponExportService;
+
+    public CouponExportController(CouponExportService couponExportService) {
+        this.couponExportService = couponExportService;
+    }
+
+    @GetMapping
+    public Mono<Void> exportCoupons(@ModelAttribute("couponFilter") CouponFilter couponFilter,
+                                    @RequestParam(defaultValue = "csv") String format,
+                                    @RequestHeader HttpHeaders headers, ServerHttpResponse response) {
+        ExportFormat exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        boolean gzip = acceptsGzip(headers);
+
+        Flux<DataBuffer> export = couponExportService.exportCoupons(couponFilter, exportFormat, gzip, response.bufferFactory());
+        response.getHeaders().setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        // The export headers are only set once there is data, so a failure before it still gets a JSON error response
+        return response.writeWith(export.switchOnFirst((first, buffers) -> {
+            if (first.hasValue()) {
+                HttpHeaders responseHeaders = response.getHeaders();
+                responseHeaders.setContentType(exportFormat == ExportFormat.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON);
+                responseHeaders.setContentDisposition(ContentDisposition.attachment()
+                        .filename("coupons." + exportFormat.name().toLowerCase(Locale.ROOT))
+                        .build());
+                if (gzip) {
+                    responseHeaders.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+                }
+            }
+            return buffers;
+        }));
+    }
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                if (GZIP.equalsIgnoreCase(parts[0].trim()) && (parts.length == 1 || !isZeroQuality(parts[1]))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        String[] quality = parameter.trim().split("=");
+        try {
+            return quality.length == 2 && "q".equalsIgnoreCase(quality[0].trim()) && Double.parseDouble(quality[1].trim()) == 0;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+}
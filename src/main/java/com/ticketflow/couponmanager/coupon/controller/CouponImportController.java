@@ -0,0 +1,53 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponImportDTO;
+import com.ticketflow.couponmanager.coupon.service.CouponImportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/coupon/import")
+public class CouponImportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final CouponImportService couponImportService;
+
+    public CouponImportController(CouponImportService couponImportService) {
+        this.couponImportService = couponImportService;
+    }
+
+    // The body is read as it arrives instead of being bound, so the file is never held in memory
+    @PostMapping
+    public Mono<CouponImportDTO> importCoupons(ServerHttpRequest request) {
+        return couponImportService.importCoupons(request.getBody());
+    }
+
+    @GetMapping("/{importId}/errors")
+    public Mono<Void> getErrorReport(@PathVariable String importId, ServerHttpResponse response) {
+        // The report headers are only set once there is data, so a missing report still gets a JSON error response
+        return response.writeWith(couponImportService.getErrorReport(importId, response.bufferFactory())
+                .switchOnFirst((first, buffers) -> {
+                    if (first.hasValue()) {
+                        HttpHeaders headers = response.getHeaders();
+                        headers.setContentType(TEXT_CSV);
+                        headers.setContentDisposition(ContentDisposition.attachment()
+                                .filename("coupon-import-" + importId + "-errors.csv")
+                                .build());
+                    }
+                    return buffers;
+                }));
+    }
+
+}
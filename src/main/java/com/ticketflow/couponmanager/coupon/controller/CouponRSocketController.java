@@ -0,0 +1,142 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.RateLimitProperties;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponValidationDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.RedeemRequestDTO;
+import com.ticketflow.couponmanager.coupon.event.CouponChangePublisher;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.handler.ControllerExceptionHandler;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.exception.util.ErrorMessage;
+import com.ticketflow.couponmanager.coupon.exception.util.GeneralErrorCode;
+import com.ticketflow.couponmanager.coupon.ratelimit.CouponRateLimiter;
+import com.ticketflow.couponmanager.coupon.service.CouponService;
+import io.rsocket.exceptions.ApplicationErrorException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.annotation.ConnectMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RSocket routes for the checkout calls. Many requests share one connection and the requester's demand drives the
+ * change stream. Errors are sent as application errors whose message is the same {@link ErrorMessage} JSON the HTTP
+ * API returns.
+ * <p>
+ * Callers identify themselves for rate limiting with the setup payload, as they do with the client header over HTTP.
+ */
+@Slf4j
+@Controller
+public class CouponRSocketController {
+
+    public static final int MAX_BATCH_SIZE = 100;
+    static final int CHANGES_BUFFER_SIZE = 256;
+    private static final int BATCH_CONCURRENCY = 16;
+
+    private final CouponService couponService;
+    private final CouponChangePublisher couponChangePublisher;
+    private final CouponRateLimiter couponRateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+    private final ControllerExceptionHandler exceptionHandler;
+    private final ObjectMapper objectMapper;
+
+    private final Map<RSocketRequester, String> clientIds = new ConcurrentHashMap<>();
+
+    public CouponRSocketController(CouponService couponService, CouponChangePublisher couponChangePublisher,
+                                   CouponRateLimiter couponRateLimiter, RateLimitProperties rateLimitProperties,
+                                   ControllerExceptionHandler exceptionHandler, ObjectMapper objectMapper) {
+        this.couponService = couponService;
+        this.couponChangePublisher = couponChangePublisher;
+        this.couponRateLimiter = couponRateLimiter;
+        this.rateLimitProperties = rateLimitProperties;
+        this.exceptionHandler = exceptionHandler;
+        this.objectMapper = objectMapper;
+    }
+
+    @ConnectMapping
+    public void connect(RSocketRequester requester, @Payload(required = false) String clientId) {
+        String resolvedClientId = clientId == null || clientId.isBlank() ? "rsocket-" + UUID.randomUUID() : clientId;
+        clientIds.put(requester, resolvedClientId);
+        requester.rsocketClient().source()
+                .flatMap(rsocket -> rsocket.onClose())
+                .doFinally(signal -> clientIds.remove(requester))
+                .subscribe(null, ex -> log.debug("RSocket connection of {} closed with error: {}", resolvedClientId, ex.getMessage()));
+    }
+
+    @MessageMapping("coupon.validate")
+    public Mono<CouponDTO> validateCoupon(RSocketRequester requester, String couponId) {
+        return acquire(requester, couponId)
+                .then(Mono.defer(() -> couponService.validateCoupon(couponId)));
+    }
+
+    @MessageMapping("coupon.redeem")
+    public Mono<CouponDTO> redeemCoupon(RSocketRequester requester, RedeemRequestDTO request) {
+        return acquire(requester, request.getCouponId())
+                .then(Mono.defer(() -> couponService.validateAndDecreaseAvailableCoupons(request.getCouponId(), request.getUserId())));
+    }
+
+    @MessageMapping("coupon.validate.batch")
+    public Mono<List<CouponValidationDTO>> validateCoupons(RSocketRequester requester, List<String> couponIds) {
+        if (couponIds.size() > MAX_BATCH_SIZE) {
+            return Mono.error(new CouponException(CouponErrorCode.TOO_MANY_COUPONS_TO_VALIDATE.withParams(MAX_BATCH_SIZE)));
+        }
+
+        return Flux.fromIterable(couponIds)
+                .flatMapSequential(couponId -> acquire(requester, couponId)
+                        .then(Mono.defer(() -> couponService.validateCoupon(couponId)))
+                        .map(coupon -> CouponValidationDTO.builder().couponId(couponId).valid(true).coupon(coupon).build())
+                        .onErrorResume(ex -> exceptionHandler.resolve(ex)
+                                .map(error -> Mono.just(CouponValidationDTO.builder().couponId(couponId).valid(false).error(error).build()))
+                                .orElseGet(() -> Mono.error(ex))), BATCH_CONCURRENCY)
+                .collectList();
+    }
+
+    // Each subscriber gets its own bounded buffer, so a slow consumer only loses its own oldest changes
+    @MessageMapping("coupon.changes")
+    public Flux<CouponChangeDTO> couponChanges() {
+        return couponChangePublisher.changes()
+                .onBackpressureBuffer(CHANGES_BUFFER_SIZE,
+                        dropped -> log.debug("Dropped coupon change {} for a slow subscriber", dropped.getType()),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    @MessageExceptionHandler
+    public Mono<Void> handleException(Exception ex) {
+        ErrorMessage error = exceptionHandler.resolve(ex).orElse(null);
+        if (error == null) {
+            return Mono.error(ex);
+        }
+        try {
+            return Mono.error(new ApplicationErrorException(objectMapper.writeValueAsString(error)));
+        } catch (JsonProcessingException jsonException) {
+            return Mono.error(new ApplicationErrorException(error.getCode()));
+        }
+    }
+
+    private Mono<Void> acquire(RSocketRequester requester, String couponId) {
+        if (!rateLimitProperties.isEnabled()) {
+            return Mono.empty();
+        }
+
+        String clientId = clientIds.getOrDefault(requester, "rsocket-anonymous");
+        if (couponRateLimiter.tryAcquire(clientId, couponId) > 0) {
+            return Mono.error(new CouponException(GeneralErrorCode.TOO_MANY_REQUESTS.withParams()));
+        }
+        return Mono.empty();
+    }
+
+}
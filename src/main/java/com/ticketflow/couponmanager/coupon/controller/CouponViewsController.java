@@ -0,0 +1,40 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponTallyDTO;
+import com.ticketflow.couponmanager.coupon.views.CouponTally;
+import com.ticketflow.couponmanager.coupon.views.CouponViews;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/coupon/views")
+public class CouponViewsController {
+
+    private final CouponViews couponViews;
+
+    public CouponViewsController(CouponViews couponViews) {
+        this.couponViews = couponViews;
+    }
+
+    @GetMapping("/responsible-users/{responsibleUser}")
+    public Mono<CouponTallyDTO> byResponsibleUser(@PathVariable String responsibleUser) {
+        return Mono.fromSupplier(() -> toDTO(couponViews.byResponsibleUser(responsibleUser)));
+    }
+
+    @GetMapping("/categories/{categoryId}")
+    public Mono<CouponTallyDTO> byCategory(@PathVariable String categoryId) {
+        return Mono.fromSupplier(() -> toDTO(couponViews.byCategory(categoryId)));
+    }
+
+    private static CouponTallyDTO toDTO(CouponTally tally) {
+        return CouponTallyDTO.builder()
+                .coupons(tally.coupons())
+                .activeCoupons(tally.activeCoupons())
+                .remainingUses(tally.remainingUses())
+                .build();
+    }
+
+}
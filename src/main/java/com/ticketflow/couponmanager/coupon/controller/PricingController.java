@@ -0,0 +1,28 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CartDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.PricingResultDTO;
+import com.ticketflow.couponmanager.coupon.service.CartPricingService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+
+@RestController
+@RequestMapping("/coupon/pricing")
+public class PricingController {
+
+    private final CartPricingService cartPricingService;
+
+    public PricingController(CartPricingService cartPricingService) {
+        this.cartPricingService = cartPricingService;
+    }
+
+    @PostMapping
+    public Mono<PricingResultDTO> priceCart(@RequestBody CartDTO cart) {
+        return cartPricingService.priceCart(cart);
+    }
+
+}
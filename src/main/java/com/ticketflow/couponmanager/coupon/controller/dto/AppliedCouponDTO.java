@@ -0,0 +1,22 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppliedCouponDTO {
+
+    private String id;
+
+    private String code;
+
+    private BigDecimal discount;
+
+}
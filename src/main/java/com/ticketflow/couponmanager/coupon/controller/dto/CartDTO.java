@@ -0,0 +1,20 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDTO {
+
+    private List<CartItemDTO> items;
+
+    private List<String> couponCodes;
+
+}
@@ -0,0 +1,23 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemDTO {
+
+    private String categoryId;
+
+    private BigDecimal price;
+
+    @Builder.Default
+    private int quantity = 1;
+
+}
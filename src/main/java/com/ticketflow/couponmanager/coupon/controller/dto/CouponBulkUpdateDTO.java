@@ -0,0 +1,23 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CouponBulkUpdateDTO {
+
+    private long matched;
+
+    // Not set on a dry run, which only counts the matching coupons
+    private Long modified;
+
+    private boolean dryRun;
+
+}
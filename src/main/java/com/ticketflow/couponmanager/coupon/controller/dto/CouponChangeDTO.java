@@ -0,0 +1,23 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponChangeDTO {
+
+    private CouponChangeType type;
+
+    private CouponDTO coupon;
+
+    private Instant changedAt;
+
+}
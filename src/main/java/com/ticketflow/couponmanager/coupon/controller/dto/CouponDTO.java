@@ -43,8 +43,12 @@ public class CouponDTO {
 
     private int useLimit;
 
+    private Integer usesPerUser;
+
     private List<String> applicableCategories;
 
+    private Long version;
+
     public void activate() {
         status = Status.ACTIVE;
     }
@@ -53,10 +57,6 @@ public class CouponDTO {
         return status == Status.ACTIVE;
     }
 
-    public void decrementUseLimit() {
-        useLimit = useLimit - 1;
-    }
-
     @JsonIgnore
     public List<String> getEmptyFields() {
         List<String> emptyFields = new ArrayList<>();
@@ -0,0 +1,30 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CouponImportDTO {
+
+    private String importId;
+
+    private long rows;
+
+    private long inserted;
+
+    private long updated;
+
+    private long superseded;
+
+    private long failed;
+
+    private String errorReport;
+
+}
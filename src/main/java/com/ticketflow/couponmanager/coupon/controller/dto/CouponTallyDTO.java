@@ -0,0 +1,21 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponTallyDTO {
+
+    private long coupons;
+
+    private long activeCoupons;
+
+    // Uses left on the active coupons that have a use limit
+    private long remainingUses;
+
+}
@@ -0,0 +1,25 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ticketflow.couponmanager.coupon.exception.util.ErrorMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CouponValidationDTO {
+
+    private String couponId;
+
+    private boolean valid;
+
+    private CouponDTO coupon;
+
+    private ErrorMessage error;
+
+}
@@ -0,0 +1,27 @@
+package com.ticketflow.couponmanager.coupon.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingResultDTO {
+
+    private BigDecimal subtotal;
+
+    private BigDecimal discount;
+
+    private BigDecimal total;
+
+    private List<AppliedCouponDTO> appliedCoupons;
+
+    private List<String> rejectedCoupons;
+
+}
@@ -3,6 +3,7 @@ package com.ticketflow.couponmanager.coupon.controller.filter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.ticketflow.couponmanager.coupon.enums.Status;
 import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 
@@ -28,16 +29,26 @@ public class CouponFilter {
     private String responsibleUser;
 
     @JsonFormat(pattern = "dd/MM/yyyy")
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
     private LocalDate expirationDate;
 
     @JsonFormat(pattern = "dd/MM/yyyy")
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
     private LocalDate expirationDateStart;
 
     @JsonFormat(pattern = "dd/MM/yyyy")
+    @DateTimeFormat(pattern = "dd/MM/yyyy")
     private LocalDate expirationDateEnd;
 
     private String code;
 
     private String applicableCategories;
 
+    // applicableCategories is not matched by the repositories, so it does not narrow the coupons down on its own
+    public boolean hasCriteria() {
+        return id != null || name != null || description != null || discountValue != null || discountPercentage != null
+                || status != null || responsibleUser != null || expirationDate != null || expirationDateStart != null
+                || expirationDateEnd != null || code != null;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.ticketflow.couponmanager.coupon.controller.filter;
+
+import com.ticketflow.couponmanager.coupon.enums.SearchMode;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponSearch {
+
+    private String q;
+
+    @Builder.Default
+    private SearchMode mode = SearchMode.TEXT;
+
+    @Builder.Default
+    private int page = 0;
+
+    @Builder.Default
+    private int size = 20;
+
+}
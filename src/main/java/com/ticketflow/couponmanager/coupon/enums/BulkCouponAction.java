@@ -0,0 +1,9 @@
+package com.ticketflow.couponmanager.coupon.enums;
+
+public enum BulkCouponAction {
+    DEACTIVATE,
+    EXTEND_EXPIRATION,
+    CHANGE_DISCOUNT,
+    ADD_CATEGORIES,
+    REMOVE_CATEGORIES
+}
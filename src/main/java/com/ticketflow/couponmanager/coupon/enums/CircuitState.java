@@ -0,0 +1,7 @@
+package com.ticketflow.couponmanager.coupon.enums;
+
+public enum CircuitState {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+}
@@ -0,0 +1,8 @@
+package com.ticketflow.couponmanager.coupon.enums;
+
+public enum CouponChangeType {
+    CREATED,
+    UPDATED,
+    DEACTIVATED,
+    REDEEMED
+}
@@ -0,0 +1,6 @@
+package com.ticketflow.couponmanager.coupon.enums;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
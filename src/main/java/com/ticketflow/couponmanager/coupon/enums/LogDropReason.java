@@ -0,0 +1,7 @@
+package com.ticketflow.couponmanager.coupon.enums;
+
+public enum LogDropReason {
+    SAMPLED,
+    DISCARDED,
+    QUEUE_FULL
+}
@@ -0,0 +1,11 @@
+package com.ticketflow.couponmanager.coupon.enums;
+
+public enum StorageOperation {
+    LOOKUP,
+    SEARCH,
+    WRITE,
+    REDEEM,
+    EXPORT,
+    IMPORT,
+    BULK_UPDATE
+}
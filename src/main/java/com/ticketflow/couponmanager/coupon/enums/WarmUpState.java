@@ -0,0 +1,9 @@
+package com.ticketflow.couponmanager.coupon.enums;
+
+public enum WarmUpState {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    TIMED_OUT,
+    DISABLED
+}
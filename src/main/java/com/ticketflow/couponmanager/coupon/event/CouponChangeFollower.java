@@ -0,0 +1,141 @@
+package com.ticketflow.couponmanager.coupon.event;
+
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.exception.ChangeHistoryLostException;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps an in-memory copy of the coupons current from the coupon change stream.
+ * <p>
+ * The copy is followed from the resume token of the last change it applied. Without a token, or when the changes
+ * after it are no longer retained, the copy is rebuilt: the change stream is opened a little before a scan of the
+ * coupons starts, and its changes are applied once the scan is done. Changes the scan already saw are applied again,
+ * which is harmless since each change carries the whole coupon. Failures are retried with backoff, for as long as
+ * the follower runs.
+ */
+@Slf4j
+public class CouponChangeFollower {
+
+    /**
+     * The in-memory copy a follower maintains. Changes are applied by one thread at a time.
+     */
+    public interface Target {
+
+        /**
+         * Resume token of the last change applied, or {@code null} when the copy has to be rebuilt.
+         */
+        String resumeToken();
+
+        /**
+         * Called when the changes after {@link #resumeToken()} are lost; the next attempt rebuilds the copy.
+         */
+        void forgetResumeToken();
+
+        /**
+         * Builds a new copy from the scanned coupons and puts it in place of the current one when the scan completes.
+         */
+        Mono<Void> rebuild(Flux<Coupon> coupons);
+
+        void apply(CouponChange change);
+
+    }
+
+    private final String name;
+    private final CouponRepository couponRepository;
+    private final CouponFilter scanFilter;
+    private final Target target;
+    private final Duration rebuildOverlap;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Clock clock;
+
+    private volatile String lastError;
+    private Disposable follower;
+
+    public CouponChangeFollower(String name, CouponRepository couponRepository, CouponFilter scanFilter, Target target,
+                                Duration rebuildOverlap, Duration retryBackoff, Duration maxRetryBackoff, Clock clock) {
+        this.name = name;
+        this.couponRepository = couponRepository;
+        this.scanFilter = scanFilter;
+        this.target = target;
+        this.rebuildOverlap = rebuildOverlap;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.clock = clock;
+    }
+
+    public synchronized void start() {
+        if (follower != null) {
+            return;
+        }
+        follower = Flux.defer(this::changes)
+                .doOnNext(target::apply)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, retryBackoff)
+                        .maxBackoff(maxRetryBackoff)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> onFailure(signal.failure())))
+                .repeat()
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
+
+    public synchronized void stop() {
+        if (follower != null) {
+            follower.dispose();
+        }
+    }
+
+    public Optional<String> getLastError() {
+        return Optional.ofNullable(lastError);
+    }
+
+    private Flux<CouponChange> changes() {
+        String resumeToken = target.resumeToken();
+        if (resumeToken == null) {
+            return rebuild();
+        }
+        return couponRepository.watch(resumeToken, null)
+                .doOnSubscribe(subscription -> lastError = null);
+    }
+
+    private Flux<CouponChange> rebuild() {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            Sinks.Many<CouponChange> buffered = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable watching = couponRepository.watch(null, clock.instant().minus(rebuildOverlap))
+                    .subscribe(buffered::tryEmitNext, buffered::tryEmitError, buffered::tryEmitComplete);
+
+            return target.rebuild(couponRepository.streamByFilter(scanFilter))
+                    .then(Mono.fromRunnable(() -> {
+                        lastError = null;
+                        log.info("Rebuilt {} in {} ms", name, (System.nanoTime() - start) / 1_000_000);
+                    }))
+                    .thenMany(buffered.asFlux())
+                    .doFinally(signal -> watching.dispose());
+        });
+    }
+
+    private void onFailure(Throwable failure) {
+        lastError = failure.getMessage();
+        if (failure instanceof ChangeHistoryLostException) {
+            log.warn("Coupon changes after the resume token of {} are lost, rebuilding: {}", name, failure.getMessage());
+            target.forgetResumeToken();
+        } else {
+            log.warn("Coupon change stream of {} failed, resuming: {}", name, failure.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.ticketflow.couponmanager.coupon.event;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+
+/**
+ * Broadcasts the coupon changes made by this instance to whoever is listening. Nothing is buffered for absent or
+ * slow subscribers: each subscriber applies its own backpressure strategy.
+ */
+@Component
+public class CouponChangePublisher {
+
+    private final Sinks.Many<CouponChangeDTO> sink = Sinks.many().multicast().directBestEffort();
+    private final Clock clock;
+
+    public CouponChangePublisher() {
+        this(Clock.systemUTC());
+    }
+
+    CouponChangePublisher(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void publish(CouponChangeType type, CouponDTO coupon) {
+        if (sink.currentSubscriberCount() == 0) {
+            return;
+        }
+
+        CouponChangeDTO change = CouponChangeDTO.builder()
+                .type(type)
+                .coupon(coupon)
+                .changedAt(clock.instant())
+                .build();
+        // Changes are published from many request threads and the sink does not accept concurrent emissions
+        synchronized (sink) {
+            sink.tryEmitNext(change);
+        }
+    }
+
+    public Flux<CouponChangeDTO> changes() {
+        return sink.asFlux();
+    }
+
+    public int getSubscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+
+}
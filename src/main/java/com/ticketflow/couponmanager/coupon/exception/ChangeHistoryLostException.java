@@ -0,0 +1,17 @@
+package com.ticketflow.couponmanager.coupon.exception;
+
+/**
+ * The changes since a resume token or start time are no longer retained by the storage, so whoever follows them has
+ * to read the coupons again.
+ */
+public class ChangeHistoryLostException extends RuntimeException {
+
+    public ChangeHistoryLostException(String message) {
+        super(message);
+    }
+
+    public ChangeHistoryLostException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
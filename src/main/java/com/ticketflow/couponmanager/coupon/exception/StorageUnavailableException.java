@@ -0,0 +1,14 @@
+package com.ticketflow.couponmanager.coupon.exception;
+
+import com.ticketflow.couponmanager.coupon.exception.util.ErrorCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+public class StorageUnavailableException extends ConfigException {
+
+    public StorageUnavailableException(final ErrorCode errorCode) {
+        super(errorCode);
+    }
+
+}
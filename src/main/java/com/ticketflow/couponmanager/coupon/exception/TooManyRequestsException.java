@@ -0,0 +1,23 @@
+package com.ticketflow.couponmanager.coupon.exception;
+
+import com.ticketflow.couponmanager.coupon.exception.util.ErrorCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(code = HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends ConfigException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(final ErrorCode errorCode, final Duration retryAfter) {
+        super(errorCode);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
@@ -3,19 +3,28 @@ package com.ticketflow.couponmanager.coupon.exception.handler;
 
 import com.ticketflow.couponmanager.coupon.exception.ConfigException;
 import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
+import com.ticketflow.couponmanager.coupon.exception.StorageUnavailableException;
+import com.ticketflow.couponmanager.coupon.exception.TooManyRequestsException;
 import com.ticketflow.couponmanager.coupon.exception.util.ErrorMessage;
 import com.ticketflow.couponmanager.coupon.exception.util.GeneralErrorCode;
+import com.ticketflow.couponmanager.coupon.logging.RequestLogging;
 import jakarta.ws.rs.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.spi.LoggingEventBuilder;
 import org.springframework.context.MessageSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
 
 import java.time.format.DateTimeParseException;
 import java.util.Locale;
+import java.util.Optional;
 
 @Slf4j
 @RestControllerAdvice
@@ -27,58 +36,132 @@ public class ControllerExceptionHandler {
 
     @ExceptionHandler(CouponException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ErrorMessage couponHandler(CouponException ex) {
+    public ErrorMessage couponHandler(CouponException ex, ServerWebExchange exchange) {
         ErrorMessage error = new ErrorMessage(
                 ex.getErrorCode().code(),
                 messageSource.getMessage(ex.getErrorCode().code(), ex.getErrorCode().parameters(), Locale.getDefault())
         );
 
-        log.warn(ex.getMessage(), ex);
+        logHandled(error, ex, exchange, false);
         return error;
     }
 
     @ExceptionHandler(ConfigException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ErrorMessage genericHandler(ConfigException ex) {
+    public ErrorMessage genericHandler(ConfigException ex, ServerWebExchange exchange) {
         ErrorMessage error = new ErrorMessage(
                 ex.getErrorCode().code(),
                 messageSource.getMessage(ex.getErrorCode().code(), ex.getErrorCode().parameters(), Locale.getDefault())
         );
-        log.warn(ex.getMessage(), ex);
+        logHandled(error, ex, exchange, true);
         return error;
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorMessage preconditionFailedHandler(PreconditionFailedException ex, ServerWebExchange exchange) {
+        ErrorMessage error = new ErrorMessage(
+                ex.getErrorCode().code(),
+                messageSource.getMessage(ex.getErrorCode().code(), ex.getErrorCode().parameters(), Locale.getDefault())
+        );
+        logHandled(error, ex, exchange, false);
+        return error;
+    }
+
+    @ExceptionHandler(StorageUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorMessage storageUnavailableHandler(StorageUnavailableException ex, ServerWebExchange exchange) {
+        ErrorMessage error = new ErrorMessage(
+                ex.getErrorCode().code(),
+                messageSource.getMessage(ex.getErrorCode().code(), ex.getErrorCode().parameters(), Locale.getDefault())
+        );
+        logHandled(error, ex, exchange, false);
+        return error;
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorMessage> tooManyRequestsHandler(TooManyRequestsException ex, ServerWebExchange exchange) {
+        ErrorMessage error = new ErrorMessage(
+                ex.getErrorCode().code(),
+                messageSource.getMessage(ex.getErrorCode().code(), ex.getErrorCode().parameters(), Locale.getDefault())
+        );
+        logHandled(error, ex, exchange, false);
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
     @ExceptionHandler(DateTimeParseException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorMessage handleDateTimeParseException(DateTimeParseException ex) {
+    public ErrorMessage handleDateTimeParseException(DateTimeParseException ex, ServerWebExchange exchange) {
         ErrorMessage error = new ErrorMessage(
                 GeneralErrorCode.INVALID_DATE_FORMAT.getCode(),
                 messageSource.getMessage(GeneralErrorCode.INVALID_DATE_FORMAT.getCode(), null, Locale.getDefault())
         );
-        log.warn(ex.getMessage(), ex);
+        logHandled(error, ex, exchange, false);
         return error;
     }
 
     @ExceptionHandler(BadRequestException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorMessage badRequestHandler(BadRequestException ex) {
+    public ErrorMessage badRequestHandler(BadRequestException ex, ServerWebExchange exchange) {
         ErrorMessage error = new ErrorMessage(
                 GeneralErrorCode.BAD_REQUEST_ERROR.getCode(),
                 messageSource.getMessage("BAD_REQUEST_ERROR", null, Locale.getDefault())
         );
-        log.warn(ex.getMessage(), ex);
+        logHandled(error, ex, exchange, false);
         return error;
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorMessage illegalArgumentHandler(IllegalArgumentException ex) {
+    public ErrorMessage illegalArgumentHandler(IllegalArgumentException ex, ServerWebExchange exchange) {
         ErrorMessage error = new ErrorMessage(
                 GeneralErrorCode.ILLEGAL_ARGUMENT_ERROR.getCode(),
                 messageSource.getMessage(GeneralErrorCode.ILLEGAL_ARGUMENT_ERROR.getCode(), null, Locale.getDefault())
         );
-        log.warn(ex.getMessage(), ex);
+        logHandled(error, ex, exchange, false);
         return error;
     }
 
-}
\ No newline at end of file
+    /**
+     * Maps an exception to the same error body the HTTP API returns, for transports that do not go through this
+     * advice, such as RSocket.
+     */
+    public Optional<ErrorMessage> resolve(Throwable ex) {
+        if (ex instanceof CouponException couponException) {
+            return Optional.of(couponHandler(couponException, null));
+        }
+        if (ex instanceof PreconditionFailedException preconditionFailedException) {
+            return Optional.of(preconditionFailedHandler(preconditionFailedException, null));
+        }
+        if (ex instanceof StorageUnavailableException storageUnavailableException) {
+            return Optional.of(storageUnavailableHandler(storageUnavailableException, null));
+        }
+        if (ex instanceof TooManyRequestsException tooManyRequestsException) {
+            return Optional.of(tooManyRequestsHandler(tooManyRequestsException, null).getBody());
+        }
+        if (ex instanceof ConfigException configException) {
+            return Optional.of(genericHandler(configException, null));
+        }
+        if (ex instanceof DateTimeParseException dateTimeParseException) {
+            return Optional.of(handleDateTimeParseException(dateTimeParseException, null));
+        }
+        if (ex instanceof IllegalArgumentException illegalArgumentException) {
+            return Optional.of(illegalArgumentHandler(illegalArgumentException, null));
+        }
+        return Optional.empty();
+    }
+
+    // Handled errors are mostly caused by the request, so their stack traces are only logged at DEBUG
+    private void logHandled(ErrorMessage error, Exception ex, ServerWebExchange exchange, boolean withStackTrace) {
+        LoggingEventBuilder event = RequestLogging.withRequestId(log.atWarn(), exchange)
+                .addKeyValue("errorCode", error.getCode());
+        if (withStackTrace || log.isDebugEnabled()) {
+            event = event.setCause(ex);
+        }
+        event.log(ex.getMessage());
+    }
+
+}
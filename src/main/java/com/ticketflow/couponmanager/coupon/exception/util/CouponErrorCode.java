@@ -20,7 +20,23 @@ public enum CouponErrorCode {
     COUPON_USAGE_LIMIT_REACHED("CPM_ERR_11"),
     COUPON_CODE_ALREADY_EXISTS("CPM_ERR_12"),
     APPLICABLE_CATEGORY_ALREADY_ADDED("CPM_ERR_13"),
-    CATEGORY_NOT_IN_COUPON("CPM_ERR_14");
+    CATEGORY_NOT_IN_COUPON("CPM_ERR_14"),
+    USER_ID_REQUIRED("CPM_ERR_15"),
+    COUPON_USER_LIMIT_REACHED("CPM_ERR_16"),
+    CART_ITEMS_REQUIRED("CPM_ERR_17"),
+    TOO_MANY_CANDIDATE_COUPONS("CPM_ERR_18"),
+    TOO_MANY_COUPONS_TO_VALIDATE("CPM_ERR_19"),
+    COUPON_VERSION_CONFLICT("CPM_ERR_20"),
+    INVALID_SEARCH_PAGE("CPM_ERR_21"),
+    STORAGE_UNAVAILABLE("CPM_ERR_22"),
+    TOO_MANY_EXPORTS("CPM_ERR_23"),
+    TOO_MANY_IMPORTS("CPM_ERR_24"),
+    INVALID_IMPORT_VALUE("CPM_ERR_25"),
+    IMPORT_WRITE_FAILED("CPM_ERR_26"),
+    IMPORT_REPORT_NOT_FOUND("CPM_ERR_27"),
+    BULK_FILTER_REQUIRED("CPM_ERR_28"),
+    COUPON_VIEWS_UNAVAILABLE("CPM_ERR_29"),
+    USES_PER_USER_NOT_POSITIVE("CPM_ERR_30");
 
 
     private final String code;
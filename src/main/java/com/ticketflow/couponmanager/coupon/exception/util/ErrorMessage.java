@@ -2,10 +2,12 @@ package com.ticketflow.couponmanager.coupon.exception.util;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @AllArgsConstructor
 public class ErrorMessage {
 
@@ -9,7 +9,9 @@ public enum GeneralErrorCode {
 
     INVALID_DATE_FORMAT("CPM_GNRL_ERR_1"),
     ILLEGAL_ARGUMENT_ERROR("CPM_GNRL_ERR_2"),
-    BAD_REQUEST_ERROR("CPM_GNRL_ERR_3");
+    BAD_REQUEST_ERROR("CPM_GNRL_ERR_3"),
+    TOO_MANY_REQUESTS("CPM_GNRL_ERR_4"),
+    SERVICE_OVERLOADED("CPM_GNRL_ERR_5");
 
     private final String code;
 
@@ -0,0 +1,39 @@
+package com.ticketflow.couponmanager.coupon.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Encodes coupons as they are read into response buffers, a batch at a time, so an export holds at most a few batches
+ * in memory however many coupons it covers. Nothing is emitted before the first batch is read, so a query that fails
+ * right away can still be answered with an error response.
+ */
+@Component
+public class CouponExporter {
+
+    private final JsonFactory jsonFactory;
+
+    public CouponExporter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public Flux<DataBuffer> export(Flux<Coupon> coupons, ExportFormat format, boolean gzip, int batchSize,
+                                   DataBufferFactory bufferFactory) {
+        return Flux.using(
+                        () -> new ExportStream(format, gzip, bufferFactory, jsonFactory),
+                        stream -> coupons.buffer(batchSize)
+                                .map(stream::write)
+                                .concatWith(Mono.fromCallable(stream::finish)),
+                        ExportStream::close)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+}
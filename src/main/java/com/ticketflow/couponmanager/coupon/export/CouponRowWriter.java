@@ -0,0 +1,18 @@
+package com.ticketflow.couponmanager.coupon.export;
+
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+
+import java.io.IOException;
+
+/**
+ * Encodes exported coupons, one row each, into the output stream it was created with.
+ */
+interface CouponRowWriter {
+
+    void writeHeader() throws IOException;
+
+    void writeRow(Coupon coupon) throws IOException;
+
+    void flush() throws IOException;
+
+}
@@ -0,0 +1,104 @@
+package com.ticketflow.couponmanager.coupon.export;
+
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RFC 4180 rows. Text that a spreadsheet would run as a formula is prefixed with a quote.
+ */
+class CsvCouponRowWriter implements CouponRowWriter {
+
+    static final String HEADER = "id,code,name,description,status,discountValue,discountPercentage,expirationDate,"
+            + "responsibleUser,useLimit,usesPerUser,applicableCategories,version";
+
+    private static final String CATEGORY_SEPARATOR = "|";
+    private static final String LINE_END = "\r\n";
+
+    private final Writer writer;
+
+    CsvCouponRowWriter(OutputStream out) {
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        writer.write(HEADER);
+        writer.write(LINE_END);
+    }
+
+    @Override
+    public void writeRow(Coupon coupon) throws IOException {
+        text(coupon.getId());
+        writer.write(',');
+        text(coupon.getCode());
+        writer.write(',');
+        text(coupon.getName());
+        writer.write(',');
+        text(coupon.getDescription());
+        writer.write(',');
+        value(coupon.getStatus());
+        writer.write(',');
+        value(coupon.getDiscountValue());
+        writer.write(',');
+        value(coupon.getDiscountPercentage());
+        writer.write(',');
+        value(coupon.getExpirationDate());
+        writer.write(',');
+        text(coupon.getResponsibleUser());
+        writer.write(',');
+        value(coupon.getUseLimit());
+        writer.write(',');
+        value(coupon.getUsesPerUser());
+        writer.write(',');
+        List<String> categories = coupon.getApplicableCategories();
+        text(categories == null ? null : String.join(CATEGORY_SEPARATOR, categories));
+        writer.write(',');
+        value(coupon.getVersion());
+        writer.write(LINE_END);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void value(Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private void text(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        boolean formula = "=+-@\t\r".indexOf(value.charAt(0)) >= 0;
+        boolean quoted = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quoted) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+}
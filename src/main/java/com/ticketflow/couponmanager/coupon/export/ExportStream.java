@@ -0,0 +1,151 @@
+package com.ticketflow.couponmanager.coupon.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes one export, batch by batch, into buffers of the response's buffer factory. When compressing, every batch is
+ * sync-flushed through the same gzip stream, so each buffer can be sent as soon as it is written.
+ */
+class ExportStream implements AutoCloseable {
+
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+
+    private final DataBufferFactory bufferFactory;
+    private final BufferOutputStream buffers = new BufferOutputStream();
+    private final ReleasableGzipStream gzip;
+    private final CouponRowWriter rows;
+
+    private boolean headerWritten;
+    private boolean closed;
+
+    ExportStream(ExportFormat format, boolean compress, DataBufferFactory bufferFactory, JsonFactory jsonFactory) {
+        this.bufferFactory = bufferFactory;
+        try {
+            this.gzip = compress ? new ReleasableGzipStream(buffers) : null;
+            OutputStream out = compress ? gzip : buffers;
+            this.rows = switch (format) {
+                case CSV -> new CsvCouponRowWriter(out);
+                case NDJSON -> new NdjsonCouponRowWriter(jsonFactory, out);
+            };
+        } catch (IOException ex) {
+            close();
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    synchronized DataBuffer write(List<Coupon> coupons) {
+        try {
+            ensureOpen();
+            writeHeader();
+            for (Coupon coupon : coupons) {
+                rows.writeRow(coupon);
+            }
+            rows.flush();
+            if (gzip != null) {
+                gzip.flush();
+            }
+            return buffers.take();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    synchronized DataBuffer finish() {
+        try {
+            ensureOpen();
+            writeHeader();
+            rows.flush();
+            if (gzip != null) {
+                gzip.finish();
+            }
+            return buffers.take();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (gzip != null) {
+            gzip.release();
+        }
+        buffers.release();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Export was closed");
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (!headerWritten) {
+            rows.writeHeader();
+            headerWritten = true;
+        }
+    }
+
+    /**
+     * Writes into the current buffer, allocating one on the first write after the previous buffer was taken.
+     */
+    private class BufferOutputStream extends OutputStream {
+
+        private DataBuffer current;
+
+        @Override
+        public void write(int b) {
+            current().write((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            current().write(bytes, offset, length);
+        }
+
+        DataBuffer take() {
+            DataBuffer taken = current != null ? current : bufferFactory.allocateBuffer(0);
+            current = null;
+            return taken;
+        }
+
+        void release() {
+            if (current != null) {
+                DataBufferUtils.release(current);
+                current = null;
+            }
+        }
+
+        private DataBuffer current() {
+            if (current == null) {
+                current = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+            }
+            return current;
+        }
+    }
+
+    private static class ReleasableGzipStream extends GZIPOutputStream {
+
+        ReleasableGzipStream(OutputStream out) throws IOException {
+            super(out, GZIP_BUFFER_SIZE, true);
+        }
+
+        // Frees the native memory of the deflater without writing the trailer
+        void release() {
+            def.end();
+        }
+    }
+
+}
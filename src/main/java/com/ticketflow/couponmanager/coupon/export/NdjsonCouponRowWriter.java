@@ -0,0 +1,76 @@
+package com.ticketflow.couponmanager.coupon.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * One JSON object per line, with the same fields as the CSV export. Missing values are left out.
+ */
+class NdjsonCouponRowWriter implements CouponRowWriter {
+
+    private final JsonGenerator json;
+
+    NdjsonCouponRowWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+        this.json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.json.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void writeHeader() {
+        // every line describes itself
+    }
+
+    @Override
+    public void writeRow(Coupon coupon) throws IOException {
+        json.writeStartObject();
+        text("id", coupon.getId());
+        text("code", coupon.getCode());
+        text("name", coupon.getName());
+        text("description", coupon.getDescription());
+        text("status", coupon.getStatus() == null ? null : coupon.getStatus().name());
+        if (coupon.getDiscountValue() != null) {
+            json.writeNumberField("discountValue", coupon.getDiscountValue());
+        }
+        if (coupon.getDiscountPercentage() != null) {
+            json.writeNumberField("discountPercentage", coupon.getDiscountPercentage());
+        }
+        text("expirationDate", coupon.getExpirationDate() == null ? null : coupon.getExpirationDate().toString());
+        text("responsibleUser", coupon.getResponsibleUser());
+        if (coupon.getUseLimit() != null) {
+            json.writeNumberField("useLimit", coupon.getUseLimit());
+        }
+        if (coupon.getUsesPerUser() != null) {
+            json.writeNumberField("usesPerUser", coupon.getUsesPerUser());
+        }
+        if (coupon.getApplicableCategories() != null) {
+            json.writeArrayFieldStart("applicableCategories");
+            for (String category : coupon.getApplicableCategories()) {
+                json.writeString(category);
+            }
+            json.writeEndArray();
+        }
+        if (coupon.getVersion() != null) {
+            json.writeNumberField("version", coupon.getVersion());
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        json.flush();
+    }
+
+    private void text(String field, String value) throws IOException {
+        if (value != null) {
+            json.writeStringField(field, value);
+        }
+    }
+
+}
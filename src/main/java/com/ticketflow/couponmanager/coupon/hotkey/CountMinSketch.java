@@ -0,0 +1,89 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch over a sliding window made of a ring of slices. Memory is fixed by the width, depth and number of
+ * slices, and counting or estimating a key touches {@code depth * slices} counters whatever the traffic.
+ */
+final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicIntegerArray[] slices;
+    private volatile int current;
+
+    CountMinSketch(int width, int depth, int sliceCount) {
+        if (width < 1 || depth < 1 || sliceCount < 1) {
+            throw new IllegalArgumentException("Sketch width, depth and slices must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.slices = new AtomicIntegerArray[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new AtomicIntegerArray(width * depth);
+        }
+    }
+
+    /**
+     * Counts one occurrence of the key in the current slice.
+     *
+     * @return the estimated occurrences of the key over the whole window
+     */
+    long add(String key) {
+        int[] cells = cells(key);
+        AtomicIntegerArray slice = slices[current];
+        for (int cell : cells) {
+            slice.incrementAndGet(cell);
+        }
+        return estimate(cells);
+    }
+
+    long estimate(String key) {
+        return estimate(cells(key));
+    }
+
+    /**
+     * Starts a new slice, dropping the counts of the oldest one.
+     */
+    void advance() {
+        int next = (current + 1) % slices.length;
+        AtomicIntegerArray slice = slices[next];
+        for (int cell = 0; cell < slice.length(); cell++) {
+            slice.set(cell, 0);
+        }
+        current = next;
+    }
+
+    private long estimate(int[] cells) {
+        long estimate = Long.MAX_VALUE;
+        for (int cell : cells) {
+            long count = 0;
+            for (AtomicIntegerArray slice : slices) {
+                count += slice.get(cell);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    // One cell per row, derived from two hashes of the key (h1 + row * h2)
+    private int[] cells(String key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        int[] cells = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            cells[row] = row * width + Math.floorMod(h1 + row * h2, width);
+        }
+        return cells;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+}
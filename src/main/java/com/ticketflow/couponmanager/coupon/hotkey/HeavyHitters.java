@@ -0,0 +1,66 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * The keys with the highest estimated counts, at most {@code capacity} of them. Tracked keys are updated without
+ * locking; other keys only take the lock when their estimate beats the smallest tracked count.
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+    private volatile long admissionThreshold;
+
+    HeavyHitters(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Heavy hitters capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    void offer(String key, long count) {
+        if (counts.replace(key, count) != null || count <= admissionThreshold) {
+            return;
+        }
+        admit(key, count);
+    }
+
+    /**
+     * Re-estimates every tracked key, for instance after the oldest counts left the window, and drops the keys that
+     * are no longer seen.
+     */
+    synchronized void refresh(ToLongFunction<String> estimator) {
+        counts.replaceAll((key, count) -> estimator.applyAsLong(key));
+        counts.values().removeIf(count -> count == 0);
+        updateAdmissionThreshold();
+    }
+
+    List<Map.Entry<String, Long>> top() {
+        return counts.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .toList();
+    }
+
+    private synchronized void admit(String key, long count) {
+        counts.merge(key, count, Math::max);
+        if (counts.size() > capacity) {
+            counts.entrySet().stream()
+                    .min(Map.Entry.comparingByValue())
+                    .ifPresent(smallest -> counts.remove(smallest.getKey()));
+        }
+        updateAdmissionThreshold();
+    }
+
+    private void updateAdmissionThreshold() {
+        admissionThreshold = counts.size() < capacity
+                ? 0
+                : counts.values().stream().min(Comparator.naturalOrder()).orElse(0L);
+    }
+
+}
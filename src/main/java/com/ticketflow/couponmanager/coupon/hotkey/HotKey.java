@@ -0,0 +1,33 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A coupon id or code and its estimated requests over the hot-key window.
+ */
+public record HotKey(HotKeyType type, String key, long requests) {
+
+    private static final int REDACTED_CODE_BYTES = 8;
+
+    /**
+     * The key as it may be reported outside the service. Codes are redeemable as they are, so only the start of their
+     * SHA-256 is shown; hash a known code to look it up.
+     */
+    public String reportedKey() {
+        if (type != HotKeyType.CODE) {
+            return key;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(digest, 0, REDACTED_CODE_BYTES);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
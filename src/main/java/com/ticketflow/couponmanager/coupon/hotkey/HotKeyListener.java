@@ -0,0 +1,14 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+/**
+ * Told when a coupon id or code starts or stops being hot, for instance to pin it in a cache. Calls are made from the
+ * background task that slides the window, never from the request path.
+ */
+public interface HotKeyListener {
+
+    void onHot(HotKey hotKey);
+
+    default void onCooled(HotKey hotKey) {
+    }
+
+}
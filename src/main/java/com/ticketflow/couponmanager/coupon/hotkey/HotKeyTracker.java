@@ -0,0 +1,124 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+import com.ticketflow.couponmanager.coupon.configuration.HotKeyProperties;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the most requested coupon ids and codes over a sliding window. Each request costs a fixed number of counter
+ * updates in a count-min sketch, and memory does not grow with the number of distinct coupons.
+ */
+@Slf4j
+@Component
+public class HotKeyTracker {
+
+    private final HotKeyProperties properties;
+    private final List<HotKeyListener> listeners;
+    private final Map<HotKeyType, CountMinSketch> sketches = new EnumMap<>(HotKeyType.class);
+    private final Map<HotKeyType, HeavyHitters> heavyHitters = new EnumMap<>(HotKeyType.class);
+
+    private Map<String, HotKey> hotKeys = Map.of();
+    private Disposable slides;
+
+    public HotKeyTracker(HotKeyProperties properties, List<HotKeyListener> listeners) {
+        this.properties = properties;
+        this.listeners = listeners;
+        for (HotKeyType type : HotKeyType.values()) {
+            sketches.put(type, new CountMinSketch(properties.getWidth(), properties.getDepth(), properties.getWindowSlices()));
+            heavyHitters.put(type, new HeavyHitters(properties.getTopK()));
+        }
+    }
+
+    public void record(HotKeyType type, String key) {
+        if (!properties.isEnabled() || key == null) {
+            return;
+        }
+        heavyHitters.get(type).offer(key, sketches.get(type).add(key));
+    }
+
+    /**
+     * @return the most requested keys of the type over the window, most requested first.
+     */
+    public List<HotKey> topKeys(HotKeyType type) {
+        return heavyHitters.get(type).top().stream()
+                .map(entry -> new HotKey(type, entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Duration slice = properties.getWindow().dividedBy(properties.getWindowSlices());
+        slides = Flux.interval(slice, slice, Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::slide).onErrorResume(ex -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (slides != null) {
+            slides.dispose();
+        }
+    }
+
+    /**
+     * Drops the oldest slice of the window and tells the listeners which keys became hot or cooled down.
+     */
+    synchronized void slide() {
+        for (HotKeyType type : HotKeyType.values()) {
+            CountMinSketch sketch = sketches.get(type);
+            sketch.advance();
+            heavyHitters.get(type).refresh(sketch::estimate);
+        }
+
+        Map<String, HotKey> current = new HashMap<>();
+        for (HotKeyType type : HotKeyType.values()) {
+            topKeys(type).stream()
+                    .filter(hotKey -> hotKey.requests() >= properties.getMinRequests())
+                    .forEach(hotKey -> current.put(type + ":" + hotKey.key(), hotKey));
+        }
+
+        current.forEach((id, hotKey) -> {
+            if (!hotKeys.containsKey(id)) {
+                log.info("Coupon {} {} is hot: {} requests in the last {}", hotKey.type(), hotKey.reportedKey(), hotKey.requests(), properties.getWindow());
+                notifyListeners(listener -> listener.onHot(hotKey));
+            }
+        });
+        hotKeys.forEach((id, hotKey) -> {
+            if (!current.containsKey(id)) {
+                notifyListeners(listener -> listener.onCooled(hotKey));
+            }
+        });
+        hotKeys = current;
+    }
+
+    private void notifyListeners(Consumer<HotKeyListener> notification) {
+        for (HotKeyListener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException ex) {
+                log.warn("Hot key listener {} failed: {}", listener.getClass().getSimpleName(), ex.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+import com.ticketflow.couponmanager.coupon.configuration.HotKeyProperties;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@code /actuator/hotkeys}: the most requested coupon ids and codes over the hot-key window, with their estimated
+ * request rate. Codes are reported as hashes (see {@link HotKey#reportedKey()}).
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+    private final HotKeyProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        double windowSeconds = properties.getWindow().toMillis() / 1000.0;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("window", properties.getWindow().toString());
+        for (HotKeyType type : HotKeyType.values()) {
+            List<HotKeyRate> rates = hotKeyTracker.topKeys(type).stream()
+                    .map(hotKey -> new HotKeyRate(hotKey.reportedKey(), hotKey.requests(), hotKey.requests() / windowSeconds))
+                    .toList();
+            report.put(type.name().toLowerCase(Locale.ROOT) + "s", rates);
+        }
+        return report;
+    }
+
+    public record HotKeyRate(String key, long requests, double requestsPerSecond) {
+    }
+
+}
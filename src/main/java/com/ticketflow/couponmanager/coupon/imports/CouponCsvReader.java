@@ -0,0 +1,102 @@
+package com.ticketflow.couponmanager.coupon.imports;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an uploaded CSV file into rows as it arrives, so only the chunk being parsed is held in memory. The first
+ * non-blank record is the header; blank lines are skipped.
+ */
+@Component
+public class CouponCsvReader {
+
+    public Flux<ImportRow> read(Flux<DataBuffer> csv) {
+        return Flux.defer(() -> {
+            Utf8Chunks text = new Utf8Chunks();
+            CsvRecordReader records = new CsvRecordReader();
+            // Whole chunks go through the parser; splitting lines first costs more than parsing them
+            return csv.concatMapIterable(buffer -> {
+                        List<List<String>> completed = new ArrayList<>();
+                        records.accept(text.decode(buffer), completed::add);
+                        return completed;
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        List<List<String>> completed = new ArrayList<>();
+                        records.accept(text.finish(), completed::add);
+                        List<String> last = records.finish();
+                        if (last != null) {
+                            completed.add(last);
+                        }
+                        return Flux.fromIterable(completed);
+                    }))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .index((index, record) -> new NumberedRecord(index + 1, record))
+                    .filter(record -> !record.isBlank())
+                    .switchOnFirst((header, numbered) -> {
+                        if (!header.hasValue()) {
+                            return numbered.then(Mono.empty());
+                        }
+                        CsvCouponRowReader rowReader = new CsvCouponRowReader(header.get().fields());
+                        return numbered.skip(1).map(record -> rowReader.read(record.row(), record.fields()));
+                    });
+        });
+    }
+
+    private record NumberedRecord(long row, List<String> fields) {
+
+        boolean isBlank() {
+            return fields.size() == 1 && fields.get(0).isBlank();
+        }
+    }
+
+    /**
+     * UTF-8 text of consecutive buffers. A character split between two buffers is decoded with the second one.
+     */
+    private static class Utf8Chunks {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private byte[] pending = new byte[0];
+
+        CharBuffer decode(DataBuffer buffer) {
+            byte[] bytes;
+            try {
+                bytes = new byte[pending.length + buffer.readableByteCount()];
+                System.arraycopy(pending, 0, bytes, 0, pending.length);
+                buffer.read(bytes, pending.length, bytes.length - pending.length);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return decode(ByteBuffer.wrap(bytes), false);
+        }
+
+        CharBuffer finish() {
+            CharBuffer text = decode(ByteBuffer.wrap(pending), true);
+            CharBuffer flushed = CharBuffer.allocate(text.remaining() + 2);
+            flushed.put(text);
+            decoder.flush(flushed);
+            return flushed.flip();
+        }
+
+        private CharBuffer decode(ByteBuffer bytes, boolean endOfInput) {
+            CharBuffer chars = CharBuffer.allocate(bytes.remaining() + 1);
+            decoder.decode(bytes, chars, endOfInput);
+            pending = new byte[bytes.remaining()];
+            bytes.get(pending);
+            return chars.flip();
+        }
+    }
+
+}
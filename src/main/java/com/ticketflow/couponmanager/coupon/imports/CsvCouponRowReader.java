@@ -0,0 +1,113 @@
+package com.ticketflow.couponmanager.coupon.imports;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Maps records to coupons by the column names of the header, which are those of the CSV export. Columns may come in
+ * any order; unknown ones, as well as {@code id} and {@code version}, are ignored. Empty values are missing values.
+ */
+class CsvCouponRowReader {
+
+    private static final DateTimeFormatter API_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final Pattern CATEGORY_SEPARATOR = Pattern.compile("\\|");
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    CsvCouponRowReader(List<String> header) {
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (i == 0 && !name.isEmpty() && name.charAt(0) == BYTE_ORDER_MARK) {
+                name = name.substring(1);
+            }
+            columns.putIfAbsent(name.toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    ImportRow read(long row, List<String> record) {
+        String code = text(record, "code");
+        try {
+            CouponDTO coupon = CouponDTO.builder()
+                    .code(code)
+                    .name(text(record, "name"))
+                    .description(text(record, "description"))
+                    .status(value(record, "status", status -> Status.valueOf(status.toUpperCase(Locale.ROOT))))
+                    .discountValue(value(record, "discountValue", Float::valueOf))
+                    .discountPercentage(value(record, "discountPercentage", Float::valueOf))
+                    .expirationDate(value(record, "expirationDate", CsvCouponRowReader::dateTime))
+                    .responsibleUser(text(record, "responsibleUser"))
+                    .useLimit(value(record, "useLimit", Integer::valueOf, 0))
+                    .usesPerUser(value(record, "usesPerUser", Integer::valueOf))
+                    .applicableCategories(value(record, "applicableCategories", CsvCouponRowReader::categories))
+                    .build();
+            return new ImportRow(row, code, coupon, null);
+        } catch (CouponException ex) {
+            return new ImportRow(row, code, null, ex);
+        }
+    }
+
+    private String text(List<String> record, String column) {
+        Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return unguarded(record.get(index));
+    }
+
+    private <T> T value(List<String> record, String column, Function<String, T> parser) {
+        return value(record, column, parser, null);
+    }
+
+    private <T> T value(List<String> record, String column, Function<String, T> parser, T missing) {
+        String text = text(record, column);
+        if (text == null || text.isBlank()) {
+            return missing;
+        }
+        try {
+            return parser.apply(text.strip());
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new CouponException(CouponErrorCode.INVALID_IMPORT_VALUE.withParams(column, text));
+        }
+    }
+
+    // The export quotes text that a spreadsheet would run as a formula
+    private static String unguarded(String value) {
+        if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@\t\r".indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            return LocalDateTime.parse(value, API_DATE_FORMAT);
+        }
+    }
+
+    private static List<String> categories(String value) {
+        List<String> categories = Arrays.stream(CATEGORY_SEPARATOR.split(value))
+                .map(String::strip)
+                .filter(category -> !category.isEmpty())
+                .collect(Collectors.toCollection(ArrayList::new));
+        return categories.isEmpty() ? null : categories;
+    }
+
+}
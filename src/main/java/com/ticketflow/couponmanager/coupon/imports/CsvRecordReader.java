@@ -0,0 +1,83 @@
+package com.ticketflow.couponmanager.coupon.imports;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * RFC 4180 records, fed as text arrives so that records and quoted values may span chunks. Carriage returns outside
+ * quotes are dropped, and characters after a closing quote are kept as they are.
+ */
+class CsvRecordReader {
+
+    static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private enum State {
+        FIELD_START,
+        UNQUOTED,
+        QUOTED,
+        QUOTE_IN_QUOTED
+    }
+
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private State state = State.FIELD_START;
+    private int recordLength;
+
+    /**
+     * Reads the next chunk of text and hands over each record it completes.
+     */
+    void accept(CharSequence text, Consumer<List<String>> records) {
+        for (int i = 0; i < text.length(); i++) {
+            if (++recordLength > MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException("CSV record longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+
+            char c = text.charAt(i);
+            if (state == State.QUOTED) {
+                if (c == '"') {
+                    state = State.QUOTE_IN_QUOTED;
+                } else {
+                    field.append(c);
+                }
+            } else if (state == State.QUOTE_IN_QUOTED && c == '"') {
+                field.append('"');
+                state = State.QUOTED;
+            } else if (c == ',') {
+                endField();
+            } else if (c == '\n') {
+                records.accept(endRecord());
+            } else if (c == '"' && state == State.FIELD_START) {
+                state = State.QUOTED;
+            } else if (c != '\r') {
+                field.append(c);
+                state = State.UNQUOTED;
+            }
+        }
+    }
+
+    /**
+     * The last record when the input did not end with a line feed, or {@code null}.
+     */
+    List<String> finish() {
+        if (fields.isEmpty() && field.length() == 0 && state == State.FIELD_START) {
+            return null;
+        }
+        return endRecord();
+    }
+
+    private void endField() {
+        fields.add(field.toString());
+        field.setLength(0);
+        state = State.FIELD_START;
+    }
+
+    private List<String> endRecord() {
+        endField();
+        List<String> record = List.copyOf(fields);
+        fields.clear();
+        recordLength = 0;
+        return record;
+    }
+
+}
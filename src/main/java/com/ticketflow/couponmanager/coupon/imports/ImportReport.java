@@ -0,0 +1,103 @@
+package com.ticketflow.couponmanager.coupon.imports;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The rows of one import that were not written, as a CSV file of row, code, error code and message. The file is only
+ * created on the first failure, so clean imports never touch the disk. Rows are added from several threads. The file
+ * is temporary: {@link ImportReports} moves it to shared storage when the import finishes.
+ */
+public class ImportReport {
+
+    static final String HEADER = "row,code,errorCode,message";
+
+    private static final String LINE_END = "\r\n";
+
+    private final String importId;
+    private Path file;
+    private BufferedWriter writer;
+    private long failures;
+
+    ImportReport(String importId) {
+        this.importId = importId;
+    }
+
+    public String getImportId() {
+        return importId;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    synchronized Path getFile() {
+        return file;
+    }
+
+    public synchronized void add(long row, String code, String errorCode, String message) {
+        try {
+            if (writer == null) {
+                file = Files.createTempFile("coupon-import-" + importId + "-", ".csv");
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer.write(HEADER);
+                writer.write(LINE_END);
+            }
+            writer.write(Long.toString(row));
+            writer.write(',');
+            text(code);
+            writer.write(',');
+            text(errorCode);
+            writer.write(',');
+            text(message);
+            writer.write(LINE_END);
+            failures++;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    synchronized void delete() {
+        try {
+            close();
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            // left for the temporary directory cleanup
+        }
+    }
+
+    // Same quoting and formula guard as the CSV export
+    private void text(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        boolean formula = "=+-@\t\r".indexOf(value.charAt(0)) >= 0;
+        boolean quoted = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quoted) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+}
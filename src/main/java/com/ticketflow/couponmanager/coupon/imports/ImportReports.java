@@ -0,0 +1,67 @@
+package com.ticketflow.couponmanager.coupon.imports;
+
+import com.ticketflow.couponmanager.coupon.configuration.ImportProperties;
+import com.ticketflow.couponmanager.coupon.repository.ImportReportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.UUID;
+
+/**
+ * Error reports of imports. A report is written to a local temporary file while its import runs, and once the import
+ * finishes it is moved to the {@link ImportReportRepository} for {@code coupon.import.report-retention}, so it can be
+ * downloaded from any instance.
+ */
+@Component
+public class ImportReports {
+
+    private final ImportReportRepository importReportRepository;
+    private final ImportProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public ImportReports(ImportReportRepository importReportRepository, ImportProperties properties) {
+        this(importReportRepository, properties, Clock.systemUTC());
+    }
+
+    ImportReports(ImportReportRepository importReportRepository, ImportProperties properties, Clock clock) {
+        this.importReportRepository = importReportRepository;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public ImportReport start() {
+        return new ImportReport(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Closes the report and keeps it when it has failures. Emits whether it was kept.
+     */
+    public Mono<Boolean> finish(ImportReport report) {
+        return Mono.defer(() -> {
+            try {
+                report.close();
+            } catch (Exception ex) {
+                return Mono.error(ex);
+            }
+            if (report.getFailures() == 0) {
+                return Mono.just(false);
+            }
+            return importReportRepository.save(report.getImportId(), report.getFile(),
+                            clock.instant().plus(properties.getReportRetention()))
+                    .thenReturn(true);
+        }).doFinally(signal -> report.delete());
+    }
+
+    public void discard(ImportReport report) {
+        report.delete();
+    }
+
+    public Flux<byte[]> find(String importId) {
+        return importReportRepository.find(importId);
+    }
+
+}
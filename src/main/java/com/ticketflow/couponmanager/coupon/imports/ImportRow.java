@@ -0,0 +1,11 @@
+package com.ticketflow.couponmanager.coupon.imports;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+
+/**
+ * A data row of an import file and its row number, counting the header as row 1. Rows that could not be read have an
+ * error instead of a coupon, but still their code when it was given.
+ */
+public record ImportRow(long row, String code, CouponDTO coupon, CouponException error) {
+}
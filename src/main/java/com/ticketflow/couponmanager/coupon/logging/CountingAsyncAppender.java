@@ -0,0 +1,29 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.ticketflow.couponmanager.coupon.enums.LogDropReason;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops: TRACE to INFO events discarded while the queue is nearly
+ * full, and any event arriving at a full queue when {@code neverBlock} is set.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Same checks as the parent, which drops silently. Events racing for the last slots may still be dropped
+        // uncounted by the parent.
+        int remainingCapacity = getRemainingCapacity();
+        if (remainingCapacity < getDiscardingThreshold() && isDiscardable(event)) {
+            LogDrops.record(LogDropReason.DISCARDED);
+            return;
+        }
+        if (isNeverBlock() && remainingCapacity == 0) {
+            LogDrops.record(LogDropReason.QUEUE_FULL);
+            return;
+        }
+        super.append(event);
+    }
+
+}
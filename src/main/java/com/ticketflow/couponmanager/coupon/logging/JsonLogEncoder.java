@@ -0,0 +1,108 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes each event as one line of JSON with the timestamp, level, logger, thread and message, followed by the MDC
+ * entries, the key-value pairs added through the fluent logging API (such as {@code requestId} and {@code couponId})
+ * and the exception, if any. Stack traces are cut after {@code maxStackTraceDepth} frames per exception.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_CAUSES = 8;
+
+    private int maxStackTraceDepth = 20;
+
+    public void setMaxStackTraceDepth(int maxStackTraceDepth) {
+        this.maxStackTraceDepth = maxStackTraceDepth;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("timestamp", Instant.ofEpochMilli(event.getTimeStamp()).toString());
+            json.writeStringField("level", event.getLevel().toString());
+            json.writeStringField("logger", event.getLoggerName());
+            json.writeStringField("thread", event.getThreadName());
+            json.writeStringField("message", event.getFormattedMessage());
+
+            for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                json.writeStringField(entry.getKey(), entry.getValue());
+            }
+            List<KeyValuePair> keyValuePairs = event.getKeyValuePairs();
+            if (keyValuePairs != null) {
+                for (KeyValuePair pair : keyValuePairs) {
+                    writeValue(json, pair.key, pair.value);
+                }
+            }
+            if (event.getThrowableProxy() != null) {
+                json.writeFieldName("exception");
+                writeThrowable(json, event.getThrowableProxy(), 0);
+            }
+            json.writeEndObject();
+        } catch (IOException ex) {
+            addError("Could not write log event as JSON", ex);
+            return new byte[0];
+        }
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static void writeValue(JsonGenerator json, String key, Object value) throws IOException {
+        if (value instanceof Number || value instanceof Boolean) {
+            json.writeFieldName(key);
+            json.writeObject(value);
+        } else {
+            json.writeStringField(key, value == null ? null : value.toString());
+        }
+    }
+
+    private void writeThrowable(JsonGenerator json, IThrowableProxy throwable, int causes) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("class", throwable.getClassName());
+        json.writeStringField("message", throwable.getMessage());
+
+        StackTraceElementProxy[] frames = throwable.getStackTraceElementProxyArray();
+        int depth = Math.min(frames.length, maxStackTraceDepth);
+        json.writeArrayFieldStart("stackTrace");
+        for (int i = 0; i < depth; i++) {
+            json.writeString(frames[i].getStackTraceElement().toString());
+        }
+        if (depth < frames.length) {
+            json.writeString("... " + (frames.length - depth) + " more");
+        }
+        json.writeEndArray();
+
+        if (throwable.getCause() != null && causes < MAX_CAUSES) {
+            json.writeFieldName("cause");
+            writeThrowable(json, throwable.getCause(), causes + 1);
+        }
+        json.writeEndObject();
+    }
+
+}
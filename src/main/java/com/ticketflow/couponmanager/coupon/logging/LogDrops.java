@@ -0,0 +1,34 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import com.ticketflow.couponmanager.coupon.enums.LogDropReason;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log events dropped before reaching an appender. Logback is configured before the application context exists, so the
+ * counts are kept here and exported by {@link LoggingMetrics}.
+ */
+public final class LogDrops {
+
+    private static final Map<LogDropReason, LongAdder> DROPS = new EnumMap<>(LogDropReason.class);
+
+    static {
+        for (LogDropReason reason : LogDropReason.values()) {
+            DROPS.put(reason, new LongAdder());
+        }
+    }
+
+    private LogDrops() {
+    }
+
+    static void record(LogDropReason reason) {
+        DROPS.get(reason).increment();
+    }
+
+    public static long count(LogDropReason reason) {
+        return DROPS.get(reason).sum();
+    }
+
+}
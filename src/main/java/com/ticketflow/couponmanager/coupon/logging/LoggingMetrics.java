@@ -0,0 +1,23 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import com.ticketflow.couponmanager.coupon.enums.LogDropReason;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+@Component
+public class LoggingMetrics {
+
+    static final String DROPPED_METRIC = "coupon.logging.dropped";
+
+    public LoggingMetrics(MeterRegistry meterRegistry) {
+        for (LogDropReason reason : LogDropReason.values()) {
+            FunctionCounter.builder(DROPPED_METRIC, reason, LogDrops::count)
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                    .register(meterRegistry);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.regex.Pattern;
+
+/**
+ * Gives each request an id for its log events, taken from the {@value #REQUEST_ID_HEADER} header when the caller sends
+ * one and echoed back in the response.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdWebFilter implements WebFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String requestId = resolveRequestId(exchange.getRequest());
+        exchange.getAttributes().put(RequestLogging.REQUEST_ID, requestId);
+        exchange.getResponse().getHeaders().set(REQUEST_ID_HEADER, requestId);
+
+        return chain.filter(exchange)
+                .contextWrite(Context.of(RequestLogging.REQUEST_ID, requestId));
+    }
+
+    private String resolveRequestId(ServerHttpRequest request) {
+        String requestId = request.getHeaders().getFirst(REQUEST_ID_HEADER);
+        if (requestId != null && VALID_REQUEST_ID.matcher(requestId).matches()) {
+            return requestId;
+        }
+        return request.getId();
+    }
+
+}
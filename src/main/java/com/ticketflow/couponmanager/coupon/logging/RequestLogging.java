@@ -0,0 +1,32 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.util.context.ContextView;
+
+/**
+ * Adds the id of the current request to log events. The id is kept in the Reactor context and in the exchange
+ * attributes by {@link RequestIdWebFilter}, since the thread handling a request changes along the way.
+ */
+public final class RequestLogging {
+
+    public static final String REQUEST_ID = "requestId";
+    public static final String COUPON_ID = "couponId";
+
+    private RequestLogging() {
+    }
+
+    public static LoggingEventBuilder atInfo(Logger log, ContextView context) {
+        LoggingEventBuilder event = log.atInfo();
+        return context.<String>getOrEmpty(REQUEST_ID)
+                .map(requestId -> event.addKeyValue(REQUEST_ID, requestId))
+                .orElse(event);
+    }
+
+    public static LoggingEventBuilder withRequestId(LoggingEventBuilder event, ServerWebExchange exchange) {
+        String requestId = exchange == null ? null : exchange.getAttribute(REQUEST_ID);
+        return requestId == null ? event : event.addKeyValue(REQUEST_ID, requestId);
+    }
+
+}
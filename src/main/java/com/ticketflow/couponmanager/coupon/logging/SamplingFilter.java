@@ -0,0 +1,88 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.ticketflow.couponmanager.coupon.enums.LogDropReason;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps a share of the events of chosen loggers. Rules are given as {@code logger=rate} pairs separated by commas, e.g.
+ * {@code com.ticketflow.couponmanager.coupon.service=0.01}, and apply to the logger and its children, the most
+ * specific rule winning. ERROR events are always kept.
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private static final double KEEP_ALL = 1.0;
+
+    private final Map<String, Double> rules = new HashMap<>();
+    private final Map<String, Double> ratesByLogger = new ConcurrentHashMap<>();
+
+    private String sampling = "";
+
+    public void setSampling(String sampling) {
+        this.sampling = sampling;
+    }
+
+    @Override
+    public void start() {
+        rules.clear();
+        ratesByLogger.clear();
+        for (String rule : sampling == null ? new String[0] : sampling.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] parts = rule.split("=");
+            double rate = parts.length == 2 ? parseRate(parts[1].trim()) : Double.NaN;
+            if (rate >= 0 && rate <= KEEP_ALL) {
+                rules.put(parts[0].trim(), rate);
+            } else {
+                addError("Ignoring log sampling rule '" + rule.trim() + "', expected logger=rate with a rate between 0 and 1");
+            }
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rules.isEmpty() || event.getLevel().isGreaterOrEqual(Level.ERROR)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        double rate = ratesByLogger.computeIfAbsent(event.getLoggerName(), this::rateOf);
+        if (rate >= KEEP_ALL || ThreadLocalRandom.current().nextDouble() < rate) {
+            return FilterReply.NEUTRAL;
+        }
+        LogDrops.record(LogDropReason.SAMPLED);
+        return FilterReply.DENY;
+    }
+
+    private static double parseRate(String rate) {
+        try {
+            return Double.parseDouble(rate);
+        } catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private double rateOf(String loggerName) {
+        String name = loggerName;
+        while (true) {
+            Double rate = rules.get(name);
+            if (rate != null) {
+                return rate;
+            }
+            int parent = name.lastIndexOf('.');
+            if (parent < 0) {
+                return KEEP_ALL;
+            }
+            name = name.substring(0, parent);
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.ticketflow.couponmanager.coupon.model;
+
+/**
+ * Outcome of a change applied by filter. {@code matched} counts the coupons the change applied to when it was written,
+ * and {@code modified} those actually written, which may be fewer when another write changed them in between.
+ */
+public record BulkUpdateResult(long matched, long modified) {
+}
@@ -0,0 +1,15 @@
+package com.ticketflow.couponmanager.coupon.model;
+
+import java.util.Map;
+
+/**
+ * Outcome of an unordered bulk upsert. {@code failures} maps the position of each coupon that was not written, in the
+ * list that was sent, to the reason.
+ */
+public record BulkUpsertResult(int inserted, int updated, Map<Integer, String> failures) {
+
+    public static BulkUpsertResult empty() {
+        return new BulkUpsertResult(0, 0, Map.of());
+    }
+
+}
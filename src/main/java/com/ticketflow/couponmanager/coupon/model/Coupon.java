@@ -6,25 +6,34 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.text.Normalizer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(value = "coupon")
+@Document(value = "coupon", language = "none")
 public class Coupon {
 
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}");
+
     @Id
     private String id;
 
+    @TextIndexed(weight = 2)
     private String name;
 
+    @TextIndexed
     private String description;
 
     private Float discountValue;
@@ -33,6 +42,8 @@ public class Coupon {
 
     private Status status;
 
+    // Lookups and imports match coupons by their exact code
+    @Indexed
     private String code;
 
     private LocalDateTime expirationDate;
@@ -41,8 +52,18 @@ public class Coupon {
 
     private Integer useLimit;
 
+    private Integer usesPerUser;
+
     private List<String> applicableCategories;
 
+    private Long version;
+
+    @Indexed
+    private String nameKey;
+
+    @Indexed
+    private String codeKey;
+
     public void deactivate() {
         status = Status.INACTIVE;
     }
@@ -76,4 +97,32 @@ public class Coupon {
         return useLimit > 0;
     }
 
+    public boolean hasUsesPerUserLimit() {
+        return usesPerUser != null;
+    }
+
+    /**
+     * A copy that shares no mutable state with this coupon.
+     */
+    public Coupon copy() {
+        return toBuilder()
+                .applicableCategories(applicableCategories == null ? null : new ArrayList<>(applicableCategories))
+                .build();
+    }
+
+    public void refreshSearchKeys() {
+        nameKey = searchKey(name);
+        codeKey = searchKey(code);
+    }
+
+    /**
+     * Lower case without accents, so prefix searches on the key match regardless of how the value was typed.
+     */
+    public static String searchKey(String value) {
+        if (value == null) {
+            return null;
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(value.strip(), Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
 }
@@ -0,0 +1,35 @@
+package com.ticketflow.couponmanager.coupon.model;
+
+import com.ticketflow.couponmanager.coupon.enums.BulkCouponAction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One change applied to every coupon a filter matches. Only the fields of its {@code action} are set; a discount
+ * change leaves the discount field it does not inform as it is.
+ */
+public record CouponBulkChange(BulkCouponAction action, LocalDateTime expirationDate, Float discountValue,
+                               Float discountPercentage, List<String> categories) {
+
+    public static CouponBulkChange deactivate() {
+        return new CouponBulkChange(BulkCouponAction.DEACTIVATE, null, null, null, null);
+    }
+
+    public static CouponBulkChange extendExpiration(LocalDateTime expirationDate) {
+        return new CouponBulkChange(BulkCouponAction.EXTEND_EXPIRATION, expirationDate, null, null, null);
+    }
+
+    public static CouponBulkChange changeDiscount(Float discountValue, Float discountPercentage) {
+        return new CouponBulkChange(BulkCouponAction.CHANGE_DISCOUNT, null, discountValue, discountPercentage, null);
+    }
+
+    public static CouponBulkChange addCategories(List<String> categories) {
+        return new CouponBulkChange(BulkCouponAction.ADD_CATEGORIES, null, null, null, categories);
+    }
+
+    public static CouponBulkChange removeCategories(List<String> categories) {
+        return new CouponBulkChange(BulkCouponAction.REMOVE_CATEGORIES, null, null, null, categories);
+    }
+
+}
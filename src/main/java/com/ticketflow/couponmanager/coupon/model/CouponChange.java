@@ -0,0 +1,15 @@
+package com.ticketflow.couponmanager.coupon.model;
+
+import java.time.Instant;
+
+/**
+ * A committed change to a coupon, with the coupon as stored after it, or without one when it was deleted. The
+ * {@code resumeToken} is opaque and resumes the changes right after this one.
+ */
+public record CouponChange(String couponId, Coupon coupon, String resumeToken, Instant changedAt) {
+
+    public boolean isDeletion() {
+        return coupon == null;
+    }
+
+}
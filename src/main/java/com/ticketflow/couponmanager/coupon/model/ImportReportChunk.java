@@ -0,0 +1,38 @@
+package com.ticketflow.couponmanager.coupon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One piece of an import error report. Reports are split like GridFS files, but every piece carries the expiration so
+ * a TTL index removes whole reports.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(value = "coupon_import_report")
+@CompoundIndex(name = "import_sequence_idx", def = "{'importId': 1, 'sequence': 1}", unique = true)
+public class ImportReportChunk {
+
+    @Id
+    private String id;
+
+    private String importId;
+
+    private int sequence;
+
+    private byte[] data;
+
+    @Indexed(name = "expires_at_ttl_idx", expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+}
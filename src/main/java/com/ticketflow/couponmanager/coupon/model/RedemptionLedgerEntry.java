@@ -0,0 +1,35 @@
+package com.ticketflow.couponmanager.coupon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(value = "coupon_redemption")
+@CompoundIndex(name = "coupon_user_idx", def = "{'couponId': 1, 'userId': 1}", unique = true)
+public class RedemptionLedgerEntry {
+
+    @Id
+    private String id;
+
+    private String couponId;
+
+    private String userId;
+
+    private int count;
+
+    private LocalDateTime lastRedemption;
+
+    private List<LocalDateTime> recentRedemptions;
+
+}
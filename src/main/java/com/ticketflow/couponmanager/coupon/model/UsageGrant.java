@@ -0,0 +1,13 @@
+package com.ticketflow.couponmanager.coupon.model;
+
+public record UsageGrant(int granted, int remaining) {
+
+    public boolean isEmpty() {
+        return granted <= 0;
+    }
+
+    public int remainingAfter(int position) {
+        return remaining + granted - (position + 1);
+    }
+
+}
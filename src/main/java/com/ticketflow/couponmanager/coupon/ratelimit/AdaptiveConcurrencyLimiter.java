@@ -0,0 +1,117 @@
+package com.ticketflow.couponmanager.coupon.ratelimit;
+
+import com.ticketflow.couponmanager.coupon.configuration.ConcurrencyLimitProperties;
+import com.ticketflow.couponmanager.coupon.enums.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the requests in flight with a gradient algorithm: the limit shrinks when recent latency grows past the
+ * long-term average and grows back while latency holds. Lower priorities only get a share of the limit, so they are
+ * shed first.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final String REQUESTS_METRIC = "coupon.concurrency.requests";
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<RequestPriority, Counter> admitted = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> shed = new EnumMap<>(RequestPriority.class);
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            admitted.put(priority, Counter.builder(REQUESTS_METRIC).tag("outcome", "admitted").tag("priority", tag).register(meterRegistry));
+            shed.put(priority, Counter.builder(REQUESTS_METRIC).tag("outcome", "shed").tag("priority", tag).register(meterRegistry));
+        }
+        Gauge.builder("coupon.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("coupon.concurrency.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * @return whether the request may proceed. Admitted requests must be followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = allowed(priority);
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= allowed) {
+                shed.get(priority).increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        admitted.get(priority).increment();
+        return true;
+    }
+
+    /**
+     * @param rttNanos time the request took, or a negative value when it was cancelled and says nothing about latency
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        if (rttNanos >= 0) {
+            sample(rttNanos, current);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtCompletion) {
+        double rtt = Math.max(1, rttNanos);
+        if (longRttNanos == 0) {
+            shortRttNanos = rtt;
+            longRttNanos = rtt;
+        } else {
+            shortRttNanos += (rtt - shortRttNanos) / properties.getShortWindow();
+            longRttNanos += (rtt - longRttNanos) / properties.getLongWindow();
+        }
+        // Once latency recovers from a spike, the inflated long-term average would tolerate slow requests for too long
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        // Requests are not queueing, so latency tells nothing about a higher limit
+        if (newLimit > limit && inFlightAtCompletion < limit / 2) {
+            return;
+        }
+
+        newLimit = limit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+
+    private int allowed(RequestPriority priority) {
+        double share = switch (priority) {
+            case CRITICAL -> 1.0;
+            case NORMAL -> properties.getNormalShare();
+            case LOW -> properties.getLowShare();
+        };
+        return Math.max(1, (int) (limit * share));
+    }
+
+}
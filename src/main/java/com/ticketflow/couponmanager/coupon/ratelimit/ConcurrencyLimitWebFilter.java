@@ -0,0 +1,103 @@
+package com.ticketflow.couponmanager.coupon.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.ConcurrencyLimitProperties;
+import com.ticketflow.couponmanager.coupon.enums.RequestPriority;
+import com.ticketflow.couponmanager.coupon.exception.util.GeneralErrorCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Sheds coupon requests with {@code 503} once the adaptive concurrency limit is reached, instead of queueing them on
+ * the event loop until callers time out. Runs after rate limiting, so rate-limited requests never take a slot.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitWebFilter implements WebFilter {
+
+    private static final PathPattern COUPON_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/**");
+    private static final PathPattern VALIDATE_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/{id}/validate");
+    private static final PathPattern REDEEM_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/{id}/redeem");
+    private static final PathPattern PRICING_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/pricing/**");
+    private static final PathPattern EXPORT_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/export");
+    private static final PathPattern IMPORT_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/import/**");
+    private static final PathPattern BULK_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/bulk/**");
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ConcurrencyLimitProperties properties;
+    private final MessageSource messageSource;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public ConcurrencyLimitWebFilter(AdaptiveConcurrencyLimiter concurrencyLimiter, ConcurrencyLimitProperties properties,
+                                     MessageSource messageSource, ObjectMapper objectMapper) {
+        this(concurrencyLimiter, properties, messageSource, objectMapper, System::nanoTime);
+    }
+
+    ConcurrencyLimitWebFilter(AdaptiveConcurrencyLimiter concurrencyLimiter, ConcurrencyLimitProperties properties,
+                              MessageSource messageSource, ObjectMapper objectMapper, LongSupplier nanoClock) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.properties = properties;
+        this.messageSource = messageSource;
+        this.objectMapper = objectMapper;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        RequestPriority priority = priority(exchange.getRequest());
+        if (priority == null) {
+            return chain.filter(exchange);
+        }
+
+        if (!concurrencyLimiter.tryAcquire(priority)) {
+            long retryAfterSeconds = Math.max(1, properties.getRetryAfter().toSeconds());
+            return RejectedResponses.write(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds,
+                    GeneralErrorCode.SERVICE_OVERLOADED, messageSource, objectMapper);
+        }
+
+        long start = nanoClock.getAsLong();
+        return chain.filter(exchange)
+                .doFinally(signal -> concurrencyLimiter.release(signal == SignalType.CANCEL ? -1 : nanoClock.getAsLong() - start));
+    }
+
+    // Redeems complete purchases, so they keep the whole limit; admin and search traffic is shed first
+    private RequestPriority priority(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        // Exports and imports stream for minutes, and bulk changes write whole campaigns, which would skew the round-trip
+        // times the limit follows. They are bounded by their own caps and database deadlines.
+        if (!COUPON_PATTERN.matches(path) || EXPORT_PATTERN.matches(path) || IMPORT_PATTERN.matches(path)
+                || BULK_PATTERN.matches(path)) {
+            return null;
+        }
+        if (request.getMethod() == HttpMethod.PUT && REDEEM_PATTERN.matches(path)) {
+            return RequestPriority.CRITICAL;
+        }
+        if ((request.getMethod() == HttpMethod.GET && VALIDATE_PATTERN.matches(path)) || PRICING_PATTERN.matches(path)) {
+            return RequestPriority.NORMAL;
+        }
+        return RequestPriority.LOW;
+    }
+
+}
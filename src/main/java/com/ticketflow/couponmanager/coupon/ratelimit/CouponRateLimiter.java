@@ -0,0 +1,82 @@
+package com.ticketflow.couponmanager.coupon.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketflow.couponmanager.coupon.configuration.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+@Component
+public class CouponRateLimiter {
+
+    private static final String REQUESTS_METRIC = "coupon.ratelimit.requests";
+    private static final String BUCKETS_METRIC = "coupon.ratelimit.buckets";
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Cache<String, TokenBucket> couponBuckets;
+    private final Counter allowed;
+    private final Counter rejectedByClient;
+    private final Counter rejectedByCoupon;
+
+    @Autowired
+    public CouponRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    CouponRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.clientBuckets = newBucketCache(properties);
+        this.couponBuckets = newBucketCache(properties);
+
+        this.allowed = Counter.builder(REQUESTS_METRIC).tag("outcome", "allowed").tag("scope", "none").register(meterRegistry);
+        this.rejectedByClient = Counter.builder(REQUESTS_METRIC).tag("outcome", "rejected").tag("scope", "client").register(meterRegistry);
+        this.rejectedByCoupon = Counter.builder(REQUESTS_METRIC).tag("outcome", "rejected").tag("scope", "coupon").register(meterRegistry);
+        Gauge.builder(BUCKETS_METRIC, clientBuckets, Cache::estimatedSize).tag("scope", "client").register(meterRegistry);
+        Gauge.builder(BUCKETS_METRIC, couponBuckets, Cache::estimatedSize).tag("scope", "coupon").register(meterRegistry);
+    }
+
+    /**
+     * @return {@code 0} when the request is allowed, otherwise the nanoseconds the caller should wait before retrying.
+     */
+    public long tryAcquire(String clientId, String couponId) {
+        long now = nanoClock.getAsLong();
+
+        TokenBucket clientBucket = bucket(clientBuckets, clientId, properties.getClient(), now);
+        long clientWait = clientBucket.tryAcquire(now);
+        if (clientWait > 0) {
+            rejectedByClient.increment();
+            return clientWait;
+        }
+
+        // A client hammering a hot coupon should not use up its budget for the other coupons
+        long couponWait = bucket(couponBuckets, couponId, properties.getCoupon(), now).tryAcquire(now);
+        if (couponWait > 0) {
+            clientBucket.refund();
+            rejectedByCoupon.increment();
+            return couponWait;
+        }
+
+        allowed.increment();
+        return 0;
+    }
+
+    private static TokenBucket bucket(Cache<String, TokenBucket> buckets, String key, RateLimitProperties.Bucket limits, long now) {
+        return buckets.get(key, k -> new TokenBucket(limits.getCapacity(), limits.getRefillPerSecond(), now));
+    }
+
+    private static Cache<String, TokenBucket> newBucketCache(RateLimitProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+}
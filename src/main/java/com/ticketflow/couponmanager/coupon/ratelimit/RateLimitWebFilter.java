@@ -0,0 +1,97 @@
+package com.ticketflow.couponmanager.coupon.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.RateLimitProperties;
+import com.ticketflow.couponmanager.coupon.exception.util.GeneralErrorCode;
+import org.springframework.context.MessageSource;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitWebFilter implements WebFilter {
+
+    private static final PathPattern VALIDATE_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/{id}/validate");
+    private static final PathPattern REDEEM_PATTERN = PathPatternParser.defaultInstance.parse("/coupon/{id}/redeem");
+    private static final String ANONYMOUS_CLIENT = "anonymous";
+
+    private final CouponRateLimiter couponRateLimiter;
+    private final RateLimitProperties properties;
+    private final MessageSource messageSource;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitWebFilter(CouponRateLimiter couponRateLimiter, RateLimitProperties properties,
+                              MessageSource messageSource, ObjectMapper objectMapper) {
+        this.couponRateLimiter = couponRateLimiter;
+        this.properties = properties;
+        this.messageSource = messageSource;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        String couponId = extractCouponId(exchange.getRequest());
+        if (couponId == null) {
+            return chain.filter(exchange);
+        }
+
+        long waitNanos = couponRateLimiter.tryAcquire(resolveClientId(exchange.getRequest()), couponId);
+        if (waitNanos > 0) {
+            return reject(exchange.getResponse(), waitNanos);
+        }
+
+        return chain.filter(exchange);
+    }
+
+    private String extractCouponId(ServerHttpRequest request) {
+        PathPattern pattern;
+        if (request.getMethod() == HttpMethod.GET) {
+            pattern = VALIDATE_PATTERN;
+        } else if (request.getMethod() == HttpMethod.PUT) {
+            pattern = REDEEM_PATTERN;
+        } else {
+            return null;
+        }
+
+        PathPattern.PathMatchInfo matchInfo = pattern.matchAndExtract(request.getPath().pathWithinApplication());
+        return matchInfo != null ? matchInfo.getUriVariables().get("id") : null;
+    }
+
+    private String resolveClientId(ServerHttpRequest request) {
+        String clientId = request.getHeaders().getFirst(properties.getClientHeader());
+        if (clientId != null && !clientId.isBlank()) {
+            return clientId;
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress != null && remoteAddress.getAddress() != null) {
+            return remoteAddress.getAddress().getHostAddress();
+        }
+        return ANONYMOUS_CLIENT;
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return RejectedResponses.write(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds, GeneralErrorCode.TOO_MANY_REQUESTS,
+                messageSource, objectMapper);
+    }
+
+}
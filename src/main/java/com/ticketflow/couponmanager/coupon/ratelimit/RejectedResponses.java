@@ -0,0 +1,48 @@
+package com.ticketflow.couponmanager.coupon.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.exception.util.ErrorMessage;
+import com.ticketflow.couponmanager.coupon.exception.util.GeneralErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Writes the response of a request turned away before reaching the controllers, with the same error body the
+ * controllers return.
+ */
+@Slf4j
+final class RejectedResponses {
+
+    private RejectedResponses() {
+    }
+
+    static Mono<Void> write(ServerHttpResponse response, HttpStatus status, long retryAfterSeconds, GeneralErrorCode errorCode,
+                            MessageSource messageSource, ObjectMapper objectMapper) {
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        ErrorMessage error = new ErrorMessage(
+                errorCode.getCode(),
+                messageSource.getMessage(errorCode.getCode(), null, errorCode.getCode(), Locale.getDefault())
+        );
+
+        try {
+            DataBuffer body = response.bufferFactory().wrap(objectMapper.writeValueAsBytes(error));
+            return response.writeWith(Mono.just(body));
+        } catch (JsonProcessingException ex) {
+            log.warn("Could not write {} response body: {}", status.value(), ex.getMessage());
+            return response.setComplete();
+        }
+    }
+
+}
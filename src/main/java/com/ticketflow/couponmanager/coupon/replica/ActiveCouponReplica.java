@@ -0,0 +1,179 @@
+package com.ticketflow.couponmanager.coupon.replica;
+
+import com.ticketflow.couponmanager.coupon.configuration.CouponReplicaProperties;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.CouponReplicaState;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.event.CouponChangeFollower;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * A replica of every active coupon in this instance's memory, loaded from a scan and kept current from the coupon
+ * change stream, so validations and lookups by code are answered without a database call.
+ * <p>
+ * The replica answers like a secondary read: it trails the database by the replication lag. Coupons it does not hold
+ * (inactive, expired, deleted or not replicated yet) are looked up in the database, and redeems never use it. Until
+ * the first scan completes every lookup goes to the database.
+ */
+@Component
+public class ActiveCouponReplica {
+
+    private static final String SIZE_METRIC = "coupon.replica.coupons";
+    private static final String BYTES_PER_COUPON_METRIC = "coupon.replica.bytes-per-coupon";
+    private static final String LAG_METRIC = "coupon.replica.lag";
+
+    private final CouponReplicaProperties properties;
+    private final Clock clock;
+    private final CouponChangeFollower follower;
+    private final Timer lag;
+
+    private volatile CompactCouponStore store;
+    private volatile CouponReplicaState state = CouponReplicaState.PENDING;
+    private volatile String resumeToken;
+    private volatile Instant lastChangeAt;
+    private volatile Instant liveSince;
+
+    @Autowired
+    public ActiveCouponReplica(CouponRepository couponRepository, CouponReplicaProperties properties, MeterRegistry meterRegistry) {
+        this(couponRepository, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    ActiveCouponReplica(CouponRepository couponRepository, CouponReplicaProperties properties, MeterRegistry meterRegistry,
+                        Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.follower = new CouponChangeFollower("active coupon replica", couponRepository,
+                CouponFilter.builder().status(Status.ACTIVE).build(), new ReplicaTarget(),
+                properties.getRebuildOverlap(), properties.getRetryBackoff(), properties.getMaxRetryBackoff(), clock);
+
+        Gauge.builder(SIZE_METRIC, this, ActiveCouponReplica::getSize).register(meterRegistry);
+        Gauge.builder(BYTES_PER_COUPON_METRIC, this, ActiveCouponReplica::getBytesPerCoupon).baseUnit("bytes").register(meterRegistry);
+        this.lag = Timer.builder(LAG_METRIC)
+                .description("Time from a coupon change being committed to it being applied to the replica")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (state != CouponReplicaState.PENDING) {
+            return;
+        }
+        if (!properties.isEnabled()) {
+            state = CouponReplicaState.DISABLED;
+            return;
+        }
+        follower.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        follower.stop();
+    }
+
+    /**
+     * The active coupon with this id, or {@code null} when the replica does not hold it.
+     */
+    public Coupon findById(String id) {
+        CompactCouponStore current = store;
+        return current == null ? null : current.findById(id);
+    }
+
+    /**
+     * An active coupon with this code, or {@code null} when the replica does not hold one.
+     */
+    public Coupon findByCode(String code) {
+        CompactCouponStore current = store;
+        return current == null ? null : current.findByCode(code);
+    }
+
+    public boolean isLive() {
+        return store != null;
+    }
+
+    public CouponReplicaState getState() {
+        return state;
+    }
+
+    public int getSize() {
+        CompactCouponStore current = store;
+        return current == null ? 0 : current.size();
+    }
+
+    public double getBytesPerCoupon() {
+        CompactCouponStore current = store;
+        int size = current == null ? 0 : current.size();
+        return size == 0 ? 0 : (double) current.estimatedBytes() / size;
+    }
+
+    public Optional<Instant> getLastChangeAt() {
+        return Optional.ofNullable(lastChangeAt);
+    }
+
+    public Optional<String> getLastError() {
+        return follower.getLastError();
+    }
+
+    private class ReplicaTarget implements CouponChangeFollower.Target {
+
+        @Override
+        public String resumeToken() {
+            return store == null ? null : resumeToken;
+        }
+
+        @Override
+        public void forgetResumeToken() {
+            resumeToken = null;
+        }
+
+        // The previous store keeps answering while the new one is loaded
+        @Override
+        public Mono<Void> rebuild(Flux<Coupon> coupons) {
+            return Mono.defer(() -> {
+                state = CouponReplicaState.REBUILDING;
+                CompactCouponStore rebuilt = new CompactCouponStore();
+                return coupons.doOnNext(rebuilt::put)
+                        .then(Mono.fromRunnable(() -> {
+                            resumeToken = null;
+                            liveSince = clock.instant();
+                            store = rebuilt;
+                            state = CouponReplicaState.LIVE;
+                        }));
+            });
+        }
+
+        @Override
+        public void apply(CouponChange change) {
+            if (change.isDeletion()) {
+                store.remove(change.couponId());
+            } else {
+                store.put(change.coupon());
+            }
+            resumeToken = change.resumeToken();
+            lastChangeAt = change.changedAt();
+            // Changes replayed from before the scan would count the rebuild as lag
+            if (!change.changedAt().isBefore(liveSince)) {
+                lag.record(Duration.between(change.changedAt(), clock.instant()));
+            }
+        }
+
+    }
+
+}
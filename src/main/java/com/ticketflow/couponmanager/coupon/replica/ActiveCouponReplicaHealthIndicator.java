@@ -0,0 +1,28 @@
+package com.ticketflow.couponmanager.coupon.replica;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the state of the active coupon replica. A replica that is not live yet does not take the service down:
+ * lookups go to the database until it is.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveCouponReplicaHealthIndicator extends AbstractHealthIndicator {
+
+    private final ActiveCouponReplica replica;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        builder.up()
+                .withDetail("state", replica.getState())
+                .withDetail("coupons", replica.getSize())
+                .withDetail("bytesPerCoupon", Math.round(replica.getBytesPerCoupon()));
+        replica.getLastChangeAt().ifPresent(lastChangeAt -> builder.withDetail("lastChangeAt", lastChangeAt.toString()));
+        replica.getLastError().ifPresent(lastError -> builder.withDetail("lastError", lastError));
+    }
+
+}
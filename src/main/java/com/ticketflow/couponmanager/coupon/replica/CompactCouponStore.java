@@ -0,0 +1,270 @@
+package com.ticketflow.couponmanager.coupon.replica;
+
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Active coupons laid out as parallel arrays, one slot per coupon: primitive fields instead of boxed ones, category
+ * ids and responsible users interned into a shared dictionary, and ids and codes in open-addressing indexes of slot
+ * numbers. Only active coupons are stored, so the status is not. The search keys are not kept either, since
+ * lookups by id and code never return them.
+ * <p>
+ * Changes are written by a single thread. Lookups read optimistically and only take the read lock when a write got
+ * in between.
+ */
+class CompactCouponStore {
+
+    private static final int NO_INT = Integer.MIN_VALUE;
+    private static final long NO_LONG = Long.MIN_VALUE;
+    private static final int[] NO_CATEGORIES = new int[0];
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Bytes per slot of the fixed-width arrays, with compressed references: four String references, the responsible
+    // user, two floats, two ints and the category array reference (4 each), the expiration and the version (8 each)
+    private static final int SLOT_BYTES = 4 * 4 + 4 + 2 * 4 + 2 * 4 + 4 + 2 * 8;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int STRING_BYTES = 24 + ARRAY_HEADER_BYTES;
+
+    private final StampedLock lock = new StampedLock();
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] codes = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private int[] responsibleUsers = new int[INITIAL_CAPACITY];
+    private float[] discountValues = new float[INITIAL_CAPACITY];
+    private float[] discountPercentages = new float[INITIAL_CAPACITY];
+    private long[] expirationDates = new long[INITIAL_CAPACITY];
+    private int[] useLimits = new int[INITIAL_CAPACITY];
+    private int[] usesPerUser = new int[INITIAL_CAPACITY];
+    private int[][] categories = new int[INITIAL_CAPACITY][];
+    private long[] versions = new long[INITIAL_CAPACITY];
+
+    private final SlotIndex idIndex = new SlotIndex();
+    private final SlotIndex codeIndex = new SlotIndex();
+
+    private final Map<String, Integer> dictionaryIndexes = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+
+    private int[] freeSlots = new int[0];
+    private int freeSlotCount;
+    private int highestSlot;
+    private int size;
+    private long stringBytes;
+    private long categoryBytes;
+    private long dictionaryBytes;
+
+    /**
+     * Stores the coupon when it is active and drops it otherwise.
+     */
+    void put(Coupon coupon) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = idIndex.find(coupon.getId(), ids);
+            if (slot >= 0) {
+                release(slot);
+            }
+            if (coupon.getStatus() == Status.ACTIVE) {
+                store(coupon);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(String id) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = idIndex.find(id, ids);
+            if (slot >= 0) {
+                release(slot);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    Coupon findById(String id) {
+        return id == null ? null : read(id, true);
+    }
+
+    Coupon findByCode(String code) {
+        return code == null ? null : read(code, false);
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Estimated heap taken by the store, assuming compressed references and Latin-1 strings.
+     */
+    long estimatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            long arrays = (long) ids.length * SLOT_BYTES + 4L * (idIndex.capacity() + codeIndex.capacity() + freeSlots.length);
+            return arrays + stringBytes + categoryBytes + dictionaryBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Coupon read(String key, boolean byId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Coupon coupon = lookup(key, byId);
+                if (lock.validate(stamp)) {
+                    return coupon;
+                }
+            } catch (RuntimeException ex) {
+                // Arrays caught in the middle of a write; read again under the lock
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return lookup(key, byId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Coupon lookup(String key, boolean byId) {
+        int slot = byId ? idIndex.find(key, ids) : codeIndex.find(key, codes);
+        return slot < 0 ? null : materialize(slot);
+    }
+
+    private Coupon materialize(int slot) {
+        int[] categoryIndexes = categories[slot];
+        List<String> applicableCategories = new ArrayList<>(categoryIndexes.length);
+        for (int categoryIndex : categoryIndexes) {
+            applicableCategories.add(dictionary.get(categoryIndex));
+        }
+        return Coupon.builder()
+                .id(ids[slot])
+                .code(codes[slot])
+                .name(names[slot])
+                .description(descriptions[slot])
+                .status(Status.ACTIVE)
+                .responsibleUser(responsibleUsers[slot] == NO_INT ? null : dictionary.get(responsibleUsers[slot]))
+                .discountValue(Float.isNaN(discountValues[slot]) ? null : discountValues[slot])
+                .discountPercentage(Float.isNaN(discountPercentages[slot]) ? null : discountPercentages[slot])
+                .expirationDate(expirationDates[slot] == NO_LONG ? null
+                        : LocalDateTime.ofInstant(Instant.ofEpochMilli(expirationDates[slot]), ZoneOffset.UTC))
+                .useLimit(useLimits[slot] == NO_INT ? null : useLimits[slot])
+                .usesPerUser(usesPerUser[slot] == NO_INT ? null : usesPerUser[slot])
+                .applicableCategories(applicableCategories)
+                .version(versions[slot] == NO_LONG ? null : versions[slot])
+                .build();
+    }
+
+    private void store(Coupon coupon) {
+        int slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : nextSlot();
+        ids[slot] = coupon.getId();
+        codes[slot] = coupon.getCode();
+        names[slot] = coupon.getName();
+        descriptions[slot] = coupon.getDescription();
+        responsibleUsers[slot] = coupon.getResponsibleUser() == null ? NO_INT : intern(coupon.getResponsibleUser());
+        discountValues[slot] = coupon.getDiscountValue() == null ? Float.NaN : coupon.getDiscountValue();
+        discountPercentages[slot] = coupon.getDiscountPercentage() == null ? Float.NaN : coupon.getDiscountPercentage();
+        expirationDates[slot] = coupon.getExpirationDate() == null ? NO_LONG
+                : coupon.getExpirationDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+        useLimits[slot] = coupon.getUseLimit() == null ? NO_INT : coupon.getUseLimit();
+        usesPerUser[slot] = coupon.getUsesPerUser() == null ? NO_INT : coupon.getUsesPerUser();
+        categories[slot] = coupon.getApplicableCategories() == null || coupon.getApplicableCategories().isEmpty()
+                ? NO_CATEGORIES
+                : coupon.getApplicableCategories().stream().mapToInt(this::intern).toArray();
+        versions[slot] = coupon.getVersion() == null ? NO_LONG : coupon.getVersion();
+
+        idIndex.add(slot, ids);
+        if (codes[slot] != null) {
+            codeIndex.add(slot, codes);
+        }
+        stringBytes += stringBytes(slot);
+        categoryBytes += categoryBytes(categories[slot]);
+        size++;
+    }
+
+    private void release(int slot) {
+        idIndex.remove(slot, ids);
+        if (codes[slot] != null) {
+            codeIndex.remove(slot, codes);
+        }
+        stringBytes -= stringBytes(slot);
+        categoryBytes -= categoryBytes(categories[slot]);
+        ids[slot] = null;
+        codes[slot] = null;
+        names[slot] = null;
+        descriptions[slot] = null;
+        categories[slot] = null;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeSlots.length * 2));
+        }
+        freeSlots[freeSlotCount++] = slot;
+        size--;
+    }
+
+    private int nextSlot() {
+        if (highestSlot == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            responsibleUsers = Arrays.copyOf(responsibleUsers, capacity);
+            discountValues = Arrays.copyOf(discountValues, capacity);
+            discountPercentages = Arrays.copyOf(discountPercentages, capacity);
+            expirationDates = Arrays.copyOf(expirationDates, capacity);
+            useLimits = Arrays.copyOf(useLimits, capacity);
+            usesPerUser = Arrays.copyOf(usesPerUser, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        return highestSlot++;
+    }
+
+    // Interned values are never dropped: category ids and responsible users are few compared to coupons
+    private int intern(String value) {
+        Integer index = dictionaryIndexes.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndexes.put(value, index);
+            dictionaryBytes += stringBytes(value) + 48;
+        }
+        return index;
+    }
+
+    private long stringBytes(int slot) {
+        return stringBytes(ids[slot]) + stringBytes(codes[slot]) + stringBytes(names[slot]) + stringBytes(descriptions[slot]);
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : align(STRING_BYTES + value.length());
+    }
+
+    private static long categoryBytes(int[] categoryIndexes) {
+        return categoryIndexes.length == 0 ? 0 : align(ARRAY_HEADER_BYTES + 4L * categoryIndexes.length);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.ticketflow.couponmanager.coupon.replica;
+
+/**
+ * Open-addressing hash index from a string key to the slots holding it, stored in a single {@code int[]} instead of
+ * a map of boxed entries. The keys themselves live in the store's key array, so the index only holds slot numbers.
+ * A key may be held by several slots; lookups return the first one found.
+ */
+class SlotIndex {
+
+    private static final int EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] table = new int[MIN_CAPACITY];
+    private int size;
+
+    int find(String key, String[] keys) {
+        int[] current = table;
+        int mask = current.length - 1;
+        for (int i = home(key, mask), probes = 0; probes < current.length; i = (i + 1) & mask, probes++) {
+            int entry = current[i];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (key.equals(keys[entry - 1])) {
+                return entry - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Indexes {@code slot} under {@code keys[slot]}.
+     */
+    void add(int slot, String[] keys) {
+        // Kept at most half full, so probe sequences stay short
+        if ((size + 1) * 2 > table.length) {
+            int[] resized = new int[table.length * 2];
+            for (int entry : table) {
+                if (entry != EMPTY) {
+                    insert(resized, entry - 1, keys);
+                }
+            }
+            table = resized;
+        }
+        insert(table, slot, keys);
+        size++;
+    }
+
+    /**
+     * Removes {@code slot} from the index. Called while {@code keys[slot]} still holds the key it was indexed under.
+     */
+    void remove(int slot, String[] keys) {
+        int mask = table.length - 1;
+        int i = home(keys[slot], mask);
+        while (table[i] != slot + 1) {
+            if (table[i] == EMPTY) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = EMPTY;
+        size--;
+
+        // Entries after the hole move back when their probe sequence passes it, so no lookup stops short at the hole
+        int hole = i;
+        for (i = (i + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            int home = home(keys[table[i] - 1], mask);
+            boolean probesThroughHole = hole <= i ? home <= hole || home > i : home <= hole && home > i;
+            if (probesThroughHole) {
+                table[hole] = table[i];
+                table[i] = EMPTY;
+                hole = i;
+            }
+        }
+    }
+
+    int capacity() {
+        return table.length;
+    }
+
+    private static void insert(int[] target, int slot, String[] keys) {
+        int mask = target.length - 1;
+        int i = home(keys[slot], mask);
+        while (target[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        target[i] = slot + 1;
+    }
+
+    private static int home(String key, int mask) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+}
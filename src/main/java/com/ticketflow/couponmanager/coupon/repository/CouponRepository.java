@@ -1,7 +1,32 @@
 package com.ticketflow.couponmanager.coupon.repository;
 
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
 import com.ticketflow.couponmanager.coupon.model.Coupon;
-import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface  CouponRepository extends ReactiveMongoRepository<Coupon, String>, CustomCouponRepository {
-}
\ No newline at end of file
+/**
+ * Every write stores a new {@code version} of the coupon. Writes of a coupon that carries a version only apply while
+ * the stored coupon still has that version, otherwise they fail with {@link PreconditionFailedException}; writes
+ * without a version apply to whatever is stored.
+ * <p>
+ * Searches ({@code findByFilter}, {@code searchText} and the prefix lookups) may be served by secondaries and lag
+ * behind the latest writes. Every other read sees them unless it asks for another {@link ReadRoute}.
+ */
+public interface CouponRepository extends CustomCouponRepository {
+
+    Mono<Coupon> findById(String id);
+
+    /**
+     * Reads the coupon from the nodes configured for the route, which may not have the latest writes yet.
+     */
+    Mono<Coupon> findById(String id, ReadRoute route);
+
+    Flux<Coupon> findAll();
+
+    Mono<Coupon> save(Coupon coupon);
+
+    Mono<Void> deleteById(String id);
+
+}
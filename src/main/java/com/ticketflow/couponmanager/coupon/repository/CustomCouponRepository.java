@@ -1,20 +1,104 @@
 package com.ticketflow.couponmanager.coupon.repository;
 
 import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.model.BulkUpdateResult;
+import com.ticketflow.couponmanager.coupon.model.BulkUpsertResult;
 import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponBulkChange;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.model.UsageGrant;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
 public interface CustomCouponRepository {
 
     Mono<Coupon> update(Coupon coupon);
 
     Flux<Coupon> findByFilter(CouponFilter couponFilter);
 
+    /**
+     * The same coupons as {@link #findByFilter(CouponFilter)}, for long reads such as exports whose consumer may be
+     * slower than the database.
+     */
+    Flux<Coupon> streamByFilter(CouponFilter couponFilter);
+
+    /**
+     * Inserts or replaces each coupon by its code, in no particular order and without stopping at the first failure.
+     * Ids and versions of the given coupons are ignored. A coupon without a status keeps the stored one, or is
+     * inserted as active. Codes should be distinct within a call.
+     */
+    Mono<BulkUpsertResult> upsertByCode(List<Coupon> coupons);
+
+    /**
+     * Counts the coupons matching the filter that the change would write, as {@link #updateByFilter} would match them
+     * now.
+     */
+    Mono<Long> countByFilter(CouponFilter couponFilter, CouponBulkChange change);
+
+    /**
+     * Applies the change to every coupon matching the filter in a single write, without reading them. Coupons the
+     * change would leave as they are (already inactive, expiring later, with the same discount, already having or
+     * missing all the categories) are not written and keep their version, so they count neither as matched nor as
+     * modified.
+     */
+    Mono<BulkUpdateResult> updateByFilter(CouponFilter couponFilter, CouponBulkChange change);
+
+    /**
+     * Same as {@link #updateByFilter(CouponFilter, CouponBulkChange)}, restricted to the coupons with the given ids.
+     */
+    Mono<BulkUpdateResult> updateByFilter(CouponFilter couponFilter, Collection<String> ids, CouponBulkChange change);
+
     Mono<Coupon> updateUsage(Coupon coupon);
 
+    Mono<UsageGrant> decrementUsage(String couponId, int uses);
+
     Mono<Coupon> findByCode(String code);
 
-    Mono<Coupon> updateApplicableCategories(Coupon coupon);
+    Flux<Coupon> findByCodes(Collection<String> codes);
+
+    /**
+     * Coupons with the given ids, in no particular order. Missing ids are skipped.
+     */
+    Flux<Coupon> findByIds(Collection<String> ids);
+
+    /**
+     * Coupons whose name or description contain any of the words, most relevant first. Name matches weigh twice as
+     * much as description matches.
+     */
+    Flux<Coupon> searchText(String text, long skip, int limit);
+
+    /**
+     * Coupons whose {@link Coupon#searchKey(String) code key} starts with the prefix, in key order.
+     */
+    Flux<Coupon> findByCodePrefix(String prefix, int limit);
+
+    /**
+     * Coupons whose {@link Coupon#searchKey(String) name key} starts with the prefix, in key order.
+     */
+    Flux<Coupon> findByNamePrefix(String prefix, int limit);
+
+    /**
+     * Adds the categories in a single conditional write. Completes empty, without changing anything, when the coupon
+     * does not exist, is not at {@code expectedVersion} (when given) or already has one of the categories.
+     */
+    Mono<Coupon> addApplicableCategories(String couponId, Collection<String> categories, Long expectedVersion);
+
+    /**
+     * Removes the categories in a single conditional write. Completes empty, without changing anything, when the
+     * coupon does not exist, is not at {@code expectedVersion} (when given) or is missing one of the categories.
+     */
+    Mono<Coupon> removeApplicableCategories(String couponId, Collection<String> categories, Long expectedVersion);
+
+    /**
+     * Changes to coupons in commit order, without end. Starts right after {@code resumeToken} when given, otherwise
+     * with the changes committed from {@code startAt} on. Fails with
+     * {@link com.ticketflow.couponmanager.coupon.exception.ChangeHistoryLostException} when those changes are no
+     * longer retained or the token is not recognized.
+     */
+    Flux<CouponChange> watch(String resumeToken, Instant startAt);
 
 }
@@ -0,0 +1,21 @@
+package com.ticketflow.couponmanager.coupon.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Error reports of finished imports, readable from every instance until they expire.
+ */
+public interface ImportReportRepository {
+
+    Mono<Void> save(String importId, Path report, Instant expiresAt);
+
+    /**
+     * The report in order, as consecutive pieces of the file. Empty when there is no such report or it expired.
+     */
+    Flux<byte[]> find(String importId);
+
+}
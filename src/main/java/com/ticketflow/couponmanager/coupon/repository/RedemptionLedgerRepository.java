@@ -0,0 +1,11 @@
+package com.ticketflow.couponmanager.coupon.repository;
+
+import reactor.core.publisher.Mono;
+
+public interface RedemptionLedgerRepository {
+
+    Mono<Integer> recordRedemption(String couponId, String userId, int usesPerUser);
+
+    Mono<Void> revertRedemption(String couponId, String userId);
+
+}
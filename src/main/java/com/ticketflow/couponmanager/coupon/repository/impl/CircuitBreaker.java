@@ -0,0 +1,112 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.configuration.MongoResilienceProperties;
+import com.ticketflow.couponmanager.coupon.enums.CircuitState;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. It opens when too many of the last calls failed, rejects calls while open, and after
+ * the open duration lets a few trial calls through to decide whether to close again.
+ */
+final class CircuitBreaker {
+
+    private final MongoResilienceProperties.Breaker settings;
+    private final LongSupplier nanoClock;
+    private final boolean[] failures;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int recorded;
+    private int next;
+    private int failed;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    CircuitBreaker(MongoResilienceProperties.Breaker settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.failures = new boolean[Math.max(1, settings.getWindow())];
+    }
+
+    synchronized boolean tryAcquire() {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        if (state == CircuitState.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < settings.getOpenDuration().toNanos()) {
+                return false;
+            }
+            state = CircuitState.HALF_OPEN;
+            trialPermits = settings.getHalfOpenCalls();
+            trialSuccesses = 0;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == CircuitState.HALF_OPEN) {
+            if (++trialSuccesses >= settings.getHalfOpenCalls()) {
+                transition(CircuitState.CLOSED);
+            }
+        } else if (state == CircuitState.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == CircuitState.HALF_OPEN) {
+            transition(CircuitState.OPEN);
+        } else if (state == CircuitState.CLOSED) {
+            record(true);
+            if (recorded >= settings.getMinimumCalls() && failed >= settings.getFailureRate() * recorded) {
+                transition(CircuitState.OPEN);
+            }
+        }
+    }
+
+    /**
+     * A call that was let through ended without an outcome, for instance because the caller cancelled it.
+     */
+    synchronized void onCancel() {
+        if (state == CircuitState.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    synchronized CircuitState getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[next]) {
+                failed--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        if (failure) {
+            failed++;
+        }
+        next = (next + 1) % failures.length;
+    }
+
+    private void transition(CircuitState newState) {
+        state = newState;
+        recorded = 0;
+        next = 0;
+        failed = 0;
+        if (newState == CircuitState.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+
+}
@@ -0,0 +1,744 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.ChangeHistoryLostException;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.BulkUpdateResult;
+import com.ticketflow.couponmanager.coupon.model.BulkUpsertResult;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponBulkChange;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.model.UsageGrant;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps coupons in memory, for tests and for running without Mongo.
+ * <p>
+ * Each coupon is an immutable snapshot held in an {@link AtomicReference}. Updates that do not touch an indexed
+ * field, such as usage and categories, are compare-and-set loops on that reference. Writes that can move a coupon
+ * between index entries ({@code code}, {@code expirationDate}) are serialized among themselves. Index entries are
+ * re-checked against the current snapshot on read, so a reader never sees a coupon under a stale key. Every new
+ * snapshot gets the next version, and a write that expects a version is checked against the snapshot it replaces.
+ * <p>
+ * After each write the coupon's id is queued, and its current snapshot is then published to the watchers and kept in
+ * a bounded history, which is what {@link #watch} resumes from. Whichever writer finds nobody publishing drains the
+ * queue, so writers never wait on each other to publish. The snapshot is read when its id is drained, after the write,
+ * so the last change published for a coupon always carries its latest state even when two writes race.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "in-memory")
+public class InMemoryCouponRepository implements CouponRepository {
+
+    private final ConcurrentHashMap<String, AtomicReference<Coupon>> couponsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> idsByCode = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<ExpirationKey> expirationIndex = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<SearchKey> codeKeyIndex = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<SearchKey> nameKeyIndex = new ConcurrentSkipListSet<>();
+    private final Object indexLock = new Object();
+    private final String instanceId = new ObjectId().toHexString();
+    private final ConcurrentLinkedQueue<String> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger publishing = new AtomicInteger();
+    private final Object changeLock = new Object();
+    private final ArrayDeque<CouponChange> changeHistory = new ArrayDeque<>();
+    private final List<FluxSink<CouponChange>> watchers = new ArrayList<>();
+    private long changeSequence;
+    private CouponChange lastEvicted;
+
+    // What $inc gives a coupon that has no version yet, so inserted, imported and legacy coupons agree
+    private static final long INITIAL_VERSION = 1L;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 2;
+    private static final int CHANGE_HISTORY = 10_000;
+
+    @Override
+    public Mono<Coupon> findById(String id) {
+        return Mono.fromSupplier(() -> copyOf(current(id)));
+    }
+
+    @Override
+    public Mono<Coupon> findById(String id, ReadRoute route) {
+        return findById(id);
+    }
+
+    @Override
+    public Flux<Coupon> findAll() {
+        return Flux.defer(() -> Flux.fromStream(couponsById.values().stream()
+                .map(AtomicReference::get)
+                .map(InMemoryCouponRepository::copyOf)));
+    }
+
+    @Override
+    public Mono<Coupon> save(Coupon coupon) {
+        return Mono.fromSupplier(() -> {
+            Coupon snapshot = copyOf(coupon);
+            snapshot.refreshSearchKeys();
+            if (snapshot.getId() == null) {
+                snapshot.setId(new ObjectId().toHexString());
+            }
+
+            Coupon saved;
+            synchronized (indexLock) {
+                if (!couponsById.containsKey(snapshot.getId())) {
+                    // a coupon that was read with a version and has been deleted since is not saved again
+                    if (snapshot.getVersion() != null) {
+                        return null;
+                    }
+                    saved = snapshot.toBuilder().version(INITIAL_VERSION).build();
+                    index(saved);
+                    couponsById.put(saved.getId(), new AtomicReference<>(saved));
+                    publish(saved.getId());
+                } else {
+                    Coupon[] previous = new Coupon[1];
+                    saved = modify(snapshot.getId(), snapshot.getVersion(), current -> {
+                        previous[0] = current;
+                        index(snapshot);
+                        return snapshot;
+                    });
+                    unindexStale(previous[0], saved);
+                }
+            }
+
+            coupon.setId(saved.getId());
+            return copyOf(saved);
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> {
+            synchronized (indexLock) {
+                AtomicReference<Coupon> record = couponsById.remove(id);
+                if (record != null) {
+                    unindexStale(record.get(), null);
+                    publish(id);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Mono<Coupon> update(Coupon coupon) {
+        if (coupon.getId() == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        return Mono.fromSupplier(() -> {
+            synchronized (indexLock) {
+                Coupon[] previous = new Coupon[1];
+                Coupon updated = modify(coupon.getId(), coupon.getVersion(), current -> {
+                    previous[0] = current;
+                    Coupon.CouponBuilder next = current.toBuilder();
+                    if (coupon.getStatus() != null) {
+                        next.status(coupon.getStatus());
+                    }
+                    if (coupon.getExpirationDate() != null) {
+                        next.expirationDate(coupon.getExpirationDate());
+                    }
+                    if (coupon.getDescription() != null) {
+                        next.description(coupon.getDescription());
+                    }
+                    if (coupon.getDiscountValue() != null) {
+                        next.discountValue(coupon.getDiscountValue());
+                    }
+                    if (coupon.getDiscountPercentage() != null) {
+                        next.discountPercentage(coupon.getDiscountPercentage());
+                    }
+                    Coupon candidate = next.build();
+                    index(candidate);
+                    return candidate;
+                });
+
+                if (updated != null) {
+                    unindexStale(previous[0], updated);
+                }
+                return copyOf(updated);
+            }
+        });
+    }
+
+    @Override
+    public Mono<BulkUpsertResult> upsertByCode(List<Coupon> coupons) {
+        return Mono.fromSupplier(() -> {
+            int inserted = 0;
+            int updated = 0;
+            synchronized (indexLock) {
+                for (Coupon coupon : coupons) {
+                    Coupon stored = codeLookup(coupon.getCode()).findFirst().orElse(null);
+                    if (stored == null) {
+                        Coupon snapshot = copyOf(coupon).toBuilder()
+                                .id(new ObjectId().toHexString())
+                                .status(coupon.getStatus() == null ? Status.ACTIVE : coupon.getStatus())
+                                .version(INITIAL_VERSION)
+                                .build();
+                        snapshot.refreshSearchKeys();
+                        index(snapshot);
+                        couponsById.put(snapshot.getId(), new AtomicReference<>(snapshot));
+                        publish(snapshot.getId());
+                        inserted++;
+                    } else {
+                        Coupon[] previous = new Coupon[1];
+                        Coupon saved = modify(stored.getId(), null, current -> {
+                            previous[0] = current;
+                            Coupon next = copyOf(coupon).toBuilder()
+                                    .id(current.getId())
+                                    .status(coupon.getStatus() == null ? current.getStatus() : coupon.getStatus())
+                                    .build();
+                            next.refreshSearchKeys();
+                            index(next);
+                            return next;
+                        });
+                        unindexStale(previous[0], saved);
+                        updated++;
+                    }
+                }
+            }
+            return new BulkUpsertResult(inserted, updated, Map.of());
+        });
+    }
+
+    @Override
+    public Mono<Long> countByFilter(CouponFilter couponFilter, CouponBulkChange change) {
+        return Mono.fromSupplier(() -> candidates(couponFilter)
+                .filter(coupon -> matches(coupon, couponFilter) && changes(coupon, change))
+                .count());
+    }
+
+    @Override
+    public Mono<BulkUpdateResult> updateByFilter(CouponFilter couponFilter, CouponBulkChange change) {
+        return Mono.fromSupplier(() -> updateAll(candidates(couponFilter), couponFilter, change));
+    }
+
+    @Override
+    public Mono<BulkUpdateResult> updateByFilter(CouponFilter couponFilter, Collection<String> ids, CouponBulkChange change) {
+        return Mono.fromSupplier(() -> updateAll(ids.stream().distinct().map(this::current).filter(Objects::nonNull),
+                couponFilter, change));
+    }
+
+    private BulkUpdateResult updateAll(Stream<Coupon> candidates, CouponFilter couponFilter, CouponBulkChange change) {
+        long modified = 0;
+        synchronized (indexLock) {
+            // Collected first, since moving a coupon in the expiration index could bring it up again
+            List<String> ids = candidates
+                    .filter(coupon -> matches(coupon, couponFilter) && changes(coupon, change))
+                    .map(Coupon::getId)
+                    .toList();
+            for (String id : ids) {
+                Coupon[] previous = new Coupon[1];
+                Coupon saved = modifyIf(id, null, current -> matches(current, couponFilter) && changes(current, change), current -> {
+                    previous[0] = current;
+                    Coupon next = applyChange(current, change);
+                    index(next);
+                    return next;
+                });
+                if (saved != null) {
+                    unindexStale(previous[0], saved);
+                    modified++;
+                }
+            }
+            return new BulkUpdateResult(ids.size(), modified);
+        }
+    }
+
+    @Override
+    public Mono<Coupon> updateUsage(Coupon coupon) {
+        if (coupon.getId() == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        return Mono.fromSupplier(() -> copyOf(modify(coupon.getId(), coupon.getVersion(), current -> coupon.getUseLimit() == null
+                ? current
+                : current.toBuilder().useLimit(coupon.getUseLimit()).build())));
+    }
+
+    @Override
+    public Mono<UsageGrant> decrementUsage(String couponId, int uses) {
+        if (couponId == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        return Mono.fromSupplier(() -> {
+            AtomicReference<Coupon> record = couponsById.get(couponId);
+            if (record == null) {
+                return null;
+            }
+
+            while (true) {
+                Coupon current = record.get();
+                if (!current.hasAvailableUses()) {
+                    return null;
+                }
+
+                int granted = Math.min(uses, current.getUseLimit());
+                int remaining = current.getUseLimit() - granted;
+                Coupon next = current.toBuilder().useLimit(remaining).version(nextVersion(current)).build();
+                if (record.compareAndSet(current, next)) {
+                    publish(couponId);
+                    return new UsageGrant(granted, remaining);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Mono<Coupon> findByCode(String code) {
+        return Mono.fromSupplier(() -> codeLookup(code).findFirst().map(InMemoryCouponRepository::copyOf).orElse(null));
+    }
+
+    @Override
+    public Flux<Coupon> findByCodes(Collection<String> codes) {
+        return Flux.defer(() -> Flux.fromStream(codes.stream()
+                .distinct()
+                .flatMap(this::codeLookup)
+                .map(InMemoryCouponRepository::copyOf)));
+    }
+
+    @Override
+    public Flux<Coupon> findByIds(Collection<String> ids) {
+        return Flux.defer(() -> Flux.fromStream(ids.stream()
+                .distinct()
+                .map(this::current)
+                .filter(Objects::nonNull)
+                .map(InMemoryCouponRepository::copyOf)));
+    }
+
+    @Override
+    public Flux<Coupon> findByFilter(CouponFilter couponFilter) {
+        return Flux.defer(() -> Flux.fromStream(candidates(couponFilter)
+                .filter(coupon -> matches(coupon, couponFilter))
+                .map(InMemoryCouponRepository::copyOf)));
+    }
+
+    @Override
+    public Flux<Coupon> streamByFilter(CouponFilter couponFilter) {
+        return findByFilter(couponFilter);
+    }
+
+    @Override
+    public Mono<Coupon> addApplicableCategories(String couponId, Collection<String> categories, Long expectedVersion) {
+        if (couponId == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        Set<String> added = new HashSet<>(categories);
+        return Mono.fromSupplier(() -> copyOf(modifyIf(couponId, expectedVersion,
+                current -> categoriesOf(current).stream().noneMatch(added::contains),
+                current -> {
+                    List<String> next = new ArrayList<>(categoriesOf(current));
+                    next.addAll(categories);
+                    return current.toBuilder().applicableCategories(next).build();
+                })));
+    }
+
+    @Override
+    public Mono<Coupon> removeApplicableCategories(String couponId, Collection<String> categories, Long expectedVersion) {
+        if (couponId == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        return Mono.fromSupplier(() -> copyOf(modifyIf(couponId, expectedVersion,
+                current -> new HashSet<>(categoriesOf(current)).containsAll(categories),
+                current -> {
+                    List<String> next = new ArrayList<>(categoriesOf(current));
+                    next.removeAll(categories);
+                    return current.toBuilder().applicableCategories(next).build();
+                })));
+    }
+
+    @Override
+    public Flux<CouponChange> watch(String resumeToken, Instant startAt) {
+        return Flux.create(sink -> {
+            synchronized (changeLock) {
+                Predicate<CouponChange> pending;
+                if (resumeToken != null) {
+                    long after = sequenceOf(resumeToken);
+                    long oldestRetained = changeSequence - changeHistory.size() + 1;
+                    if (after < oldestRetained - 1 || after > changeSequence) {
+                        sink.error(new ChangeHistoryLostException("Changes after " + resumeToken + " are no longer retained"));
+                        return;
+                    }
+                    pending = change -> sequenceOf(change.resumeToken()) > after;
+                } else {
+                    if (lastEvicted != null && !lastEvicted.changedAt().isBefore(startAt)) {
+                        sink.error(new ChangeHistoryLostException("Changes since " + startAt + " are no longer retained"));
+                        return;
+                    }
+                    pending = change -> !change.changedAt().isBefore(startAt);
+                }
+
+                changeHistory.stream().filter(pending).forEach(sink::next);
+                watchers.add(sink);
+            }
+            sink.onDispose(() -> {
+                synchronized (changeLock) {
+                    watchers.remove(sink);
+                }
+            });
+        });
+    }
+
+    @Override
+    public Flux<Coupon> searchText(String text, long skip, int limit) {
+        Set<String> words = words(text).collect(Collectors.toSet());
+        return Flux.defer(() -> Flux.fromStream(couponsById.values().stream()
+                .map(AtomicReference::get)
+                .map(coupon -> new ScoredCoupon(coupon, NAME_WEIGHT * matches(coupon.getName(), words) + matches(coupon.getDescription(), words)))
+                .filter(scored -> scored.score() > 0)
+                .sorted(Comparator.comparingInt(ScoredCoupon::score).reversed().thenComparing(scored -> scored.coupon().getId()))
+                .skip(skip)
+                .limit(limit)
+                .map(scored -> copyOf(scored.coupon()))));
+    }
+
+    @Override
+    public Flux<Coupon> findByCodePrefix(String prefix, int limit) {
+        return findByKeyPrefix(codeKeyIndex, Coupon::getCodeKey, prefix, limit);
+    }
+
+    @Override
+    public Flux<Coupon> findByNamePrefix(String prefix, int limit) {
+        return findByKeyPrefix(nameKeyIndex, Coupon::getNameKey, prefix, limit);
+    }
+
+    private Flux<Coupon> findByKeyPrefix(NavigableSet<SearchKey> index, Function<Coupon, String> key, String prefix, int limit) {
+        String lower = Coupon.searchKey(prefix);
+        return Flux.defer(() -> Flux.fromStream(index.tailSet(SearchKey.lowest(lower), true).stream()
+                .takeWhile(entry -> entry.key().startsWith(lower))
+                .map(entry -> {
+                    Coupon coupon = current(entry.id());
+                    return coupon != null && entry.key().equals(key.apply(coupon)) ? coupon : null;
+                })
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .map(InMemoryCouponRepository::copyOf)));
+    }
+
+    private static int matches(String field, Set<String> words) {
+        return field == null ? 0 : (int) words(field).filter(words::contains).count();
+    }
+
+    private static Stream<String> words(String text) {
+        return WORD_SEPARATOR.splitAsStream(Coupon.searchKey(text)).filter(word -> !word.isEmpty());
+    }
+
+    private static boolean changes(Coupon coupon, CouponBulkChange change) {
+        return switch (change.action()) {
+            case DEACTIVATE -> coupon.getStatus() != Status.INACTIVE;
+            case EXTEND_EXPIRATION -> coupon.getExpirationDate() != null && coupon.getExpirationDate().isBefore(change.expirationDate());
+            case CHANGE_DISCOUNT -> change.discountValue() != null && !change.discountValue().equals(coupon.getDiscountValue())
+                    || change.discountPercentage() != null && !change.discountPercentage().equals(coupon.getDiscountPercentage());
+            case ADD_CATEGORIES -> !categoriesOf(coupon).containsAll(change.categories());
+            case REMOVE_CATEGORIES -> change.categories().stream().anyMatch(categoriesOf(coupon)::contains);
+        };
+    }
+
+    private static Coupon applyChange(Coupon coupon, CouponBulkChange change) {
+        Coupon.CouponBuilder next = coupon.toBuilder();
+        switch (change.action()) {
+            case DEACTIVATE -> next.status(Status.INACTIVE);
+            case EXTEND_EXPIRATION -> next.expirationDate(change.expirationDate());
+            case CHANGE_DISCOUNT -> {
+                if (change.discountValue() != null) {
+                    next.discountValue(change.discountValue());
+                }
+                if (change.discountPercentage() != null) {
+                    next.discountPercentage(change.discountPercentage());
+                }
+            }
+            case ADD_CATEGORIES -> {
+                List<String> categories = new ArrayList<>(categoriesOf(coupon));
+                change.categories().stream().filter(category -> !categories.contains(category)).distinct().forEach(categories::add);
+                next.applicableCategories(categories);
+            }
+            case REMOVE_CATEGORIES -> {
+                List<String> categories = new ArrayList<>(categoriesOf(coupon));
+                categories.removeAll(change.categories());
+                next.applicableCategories(categories);
+            }
+        }
+        return next.build();
+    }
+
+    private void publish(String id) {
+        pendingChanges.offer(id);
+        if (publishing.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            String pending;
+            while ((pending = pendingChanges.poll()) != null) {
+                append(pending);
+            }
+            missed = publishing.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    // Only called by the writer draining the queue; the lock just keeps watch() from registering mid-append
+    private void append(String id) {
+        Coupon current = current(id);
+        synchronized (changeLock) {
+            CouponChange change = new CouponChange(id, current == null ? null : copyOf(current),
+                    instanceId + ":" + ++changeSequence, Instant.now());
+            changeHistory.addLast(change);
+            if (changeHistory.size() > CHANGE_HISTORY) {
+                lastEvicted = changeHistory.removeFirst();
+            }
+            watchers.forEach(watcher -> watcher.next(change));
+        }
+    }
+
+    // Tokens of another instance (or of a restarted one) are not recognized
+    private long sequenceOf(String resumeToken) {
+        int separator = resumeToken.indexOf(':');
+        if (separator < 0 || !instanceId.equals(resumeToken.substring(0, separator))) {
+            throw new ChangeHistoryLostException("Unrecognized resume token " + resumeToken);
+        }
+        try {
+            return Long.parseLong(resumeToken.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            throw new ChangeHistoryLostException("Unrecognized resume token " + resumeToken, ex);
+        }
+    }
+
+    private static List<String> categoriesOf(Coupon coupon) {
+        return coupon.getApplicableCategories() == null ? List.of() : coupon.getApplicableCategories();
+    }
+
+    private Coupon current(String id) {
+        AtomicReference<Coupon> record = id == null ? null : couponsById.get(id);
+        return record == null ? null : record.get();
+    }
+
+    private Coupon modify(String id, Long expectedVersion, UnaryOperator<Coupon> change) {
+        AtomicReference<Coupon> record = couponsById.get(id);
+        if (record == null) {
+            return null;
+        }
+
+        while (true) {
+            Coupon current = record.get();
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new PreconditionFailedException(CouponErrorCode.COUPON_VERSION_CONFLICT.withParams(id));
+            }
+
+            Coupon next = change.apply(current).toBuilder().version(nextVersion(current)).build();
+            if (record.compareAndSet(current, next)) {
+                publish(id);
+                return next;
+            }
+        }
+    }
+
+    // Like modify, but completes without a result instead of failing when the coupon does not meet the condition
+    private Coupon modifyIf(String id, Long expectedVersion, Predicate<Coupon> condition, UnaryOperator<Coupon> change) {
+        AtomicReference<Coupon> record = couponsById.get(id);
+        if (record == null) {
+            return null;
+        }
+
+        while (true) {
+            Coupon current = record.get();
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion()) || !condition.test(current)) {
+                return null;
+            }
+
+            Coupon next = change.apply(current).toBuilder().version(nextVersion(current)).build();
+            if (record.compareAndSet(current, next)) {
+                publish(id);
+                return next;
+            }
+        }
+    }
+
+    private static long nextVersion(Coupon coupon) {
+        return coupon.getVersion() == null ? INITIAL_VERSION : coupon.getVersion() + 1;
+    }
+
+    private Stream<Coupon> codeLookup(String code) {
+        Set<String> ids = code == null ? null : idsByCode.get(code);
+        if (ids == null) {
+            return Stream.empty();
+        }
+        return ids.stream()
+                .map(this::current)
+                .filter(coupon -> coupon != null && code.equals(coupon.getCode()));
+    }
+
+    private Stream<Coupon> candidates(CouponFilter filter) {
+        if (filter.getId() != null) {
+            return Stream.ofNullable(current(filter.getId()));
+        }
+
+        if (filter.getCode() != null) {
+            return codeLookup(filter.getCode());
+        }
+
+        LocalDateTime from = lowerExpirationBound(filter);
+        LocalDateTime to = upperExpirationBound(filter);
+        if (from == null && to == null) {
+            return couponsById.values().stream().map(AtomicReference::get);
+        }
+
+        NavigableSet<ExpirationKey> range = expirationIndex;
+        if (from != null) {
+            range = range.tailSet(ExpirationKey.lowest(from), true);
+        }
+        if (to != null) {
+            range = range.headSet(ExpirationKey.lowest(to), false);
+        }
+        return range.stream()
+                .map(key -> {
+                    Coupon coupon = current(key.id());
+                    return coupon != null && key.expirationDate().equals(coupon.getExpirationDate()) ? coupon : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    private static boolean matches(Coupon coupon, CouponFilter filter) {
+        LocalDateTime from = lowerExpirationBound(filter);
+        LocalDateTime to = upperExpirationBound(filter);
+
+        return matches(filter.getId(), coupon.getId())
+                && matches(filter.getName(), coupon.getName())
+                && matches(filter.getDescription(), coupon.getDescription())
+                && matches(filter.getDiscountValue(), coupon.getDiscountValue())
+                && matches(filter.getDiscountPercentage(), coupon.getDiscountPercentage())
+                && matches(filter.getStatus(), coupon.getStatus())
+                && matches(filter.getResponsibleUser(), coupon.getResponsibleUser())
+                && matches(filter.getCode(), coupon.getCode())
+                && (from == null || coupon.getExpirationDate() != null && !coupon.getExpirationDate().isBefore(from))
+                && (to == null || coupon.getExpirationDate() != null && coupon.getExpirationDate().isBefore(to));
+    }
+
+    private static boolean matches(Object expected, Object actual) {
+        return expected == null || expected.equals(actual);
+    }
+
+    private static LocalDateTime lowerExpirationBound(CouponFilter filter) {
+        LocalDate start = filter.getExpirationDate() != null ? filter.getExpirationDate() : filter.getExpirationDateStart();
+        return start == null ? null : start.atStartOfDay();
+    }
+
+    private static LocalDateTime upperExpirationBound(CouponFilter filter) {
+        LocalDate end = filter.getExpirationDate() != null ? filter.getExpirationDate() : filter.getExpirationDateEnd();
+        return end == null ? null : end.plusDays(1).atStartOfDay();
+    }
+
+    private void index(Coupon coupon) {
+        if (coupon.getCode() != null) {
+            idsByCode.computeIfAbsent(coupon.getCode(), code -> ConcurrentHashMap.newKeySet()).add(coupon.getId());
+        }
+        if (coupon.getExpirationDate() != null) {
+            expirationIndex.add(new ExpirationKey(coupon.getExpirationDate(), coupon.getId()));
+        }
+        if (coupon.getCodeKey() != null) {
+            codeKeyIndex.add(new SearchKey(coupon.getCodeKey(), coupon.getId()));
+        }
+        if (coupon.getNameKey() != null) {
+            nameKeyIndex.add(new SearchKey(coupon.getNameKey(), coupon.getId()));
+        }
+    }
+
+    private void unindexStale(Coupon previous, Coupon current) {
+        if (previous == null) {
+            return;
+        }
+
+        String previousCode = previous.getCode();
+        if (previousCode != null && (current == null || !previousCode.equals(current.getCode()))) {
+            idsByCode.computeIfPresent(previousCode, (code, ids) -> {
+                ids.remove(previous.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+
+        LocalDateTime previousExpiration = previous.getExpirationDate();
+        if (previousExpiration != null && (current == null || !previousExpiration.equals(current.getExpirationDate()))) {
+            expirationIndex.remove(new ExpirationKey(previousExpiration, previous.getId()));
+        }
+
+        String previousCodeKey = previous.getCodeKey();
+        if (previousCodeKey != null && (current == null || !previousCodeKey.equals(current.getCodeKey()))) {
+            codeKeyIndex.remove(new SearchKey(previousCodeKey, previous.getId()));
+        }
+
+        String previousNameKey = previous.getNameKey();
+        if (previousNameKey != null && (current == null || !previousNameKey.equals(current.getNameKey()))) {
+            nameKeyIndex.remove(new SearchKey(previousNameKey, previous.getId()));
+        }
+    }
+
+    private static Coupon copyOf(Coupon coupon) {
+        return coupon == null ? null : coupon.copy();
+    }
+
+    private record ExpirationKey(LocalDateTime expirationDate, String id) implements Comparable<ExpirationKey> {
+
+        private static final Comparator<ExpirationKey> ORDER = Comparator.comparing(ExpirationKey::expirationDate)
+                .thenComparing(ExpirationKey::id);
+
+        private static ExpirationKey lowest(LocalDateTime expirationDate) {
+            return new ExpirationKey(expirationDate, "");
+        }
+
+        @Override
+        public int compareTo(ExpirationKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record SearchKey(String key, String id) implements Comparable<SearchKey> {
+
+        private static final Comparator<SearchKey> ORDER = Comparator.comparing(SearchKey::key)
+                .thenComparing(SearchKey::id);
+
+        private static SearchKey lowest(String key) {
+            return new SearchKey(key, "");
+        }
+
+        @Override
+        public int compareTo(SearchKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record ScoredCoupon(Coupon coupon, int score) {
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.repository.ImportReportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "in-memory")
+public class InMemoryImportReportRepository implements ImportReportRepository {
+
+    private final Clock clock;
+    private final Map<String, StoredReport> reports = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InMemoryImportReportRepository() {
+        this(Clock.systemUTC());
+    }
+
+    InMemoryImportReportRepository(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<Void> save(String importId, Path report, Instant expiresAt) {
+        return Mono.fromCallable(() -> Files.readAllBytes(report))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(data -> {
+                    deleteExpired();
+                    reports.put(importId, new StoredReport(data, expiresAt));
+                })
+                .then();
+    }
+
+    @Override
+    public Flux<byte[]> find(String importId) {
+        return Mono.fromSupplier(() -> {
+                    deleteExpired();
+                    StoredReport report = reports.get(importId);
+                    return report == null ? null : report.data();
+                })
+                .flux();
+    }
+
+    private void deleteExpired() {
+        Instant now = clock.instant();
+        reports.values().removeIf(report -> !report.expiresAt().isAfter(now));
+    }
+
+    private record StoredReport(byte[] data, Instant expiresAt) {
+    }
+
+}
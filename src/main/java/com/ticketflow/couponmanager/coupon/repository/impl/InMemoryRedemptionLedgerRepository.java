@@ -0,0 +1,47 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.repository.RedemptionLedgerRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Repository
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "in-memory")
+public class InMemoryRedemptionLedgerRepository implements RedemptionLedgerRepository {
+
+    private final ConcurrentHashMap<String, AtomicInteger> redemptions = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Integer> recordRedemption(String couponId, String userId, int usesPerUser) {
+        return Mono.fromSupplier(() -> {
+            AtomicInteger count = redemptions.computeIfAbsent(key(couponId, userId), key -> new AtomicInteger());
+            while (true) {
+                int current = count.get();
+                if (current >= usesPerUser) {
+                    return null;
+                }
+                if (count.compareAndSet(current, current + 1)) {
+                    return current + 1;
+                }
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> revertRedemption(String couponId, String userId) {
+        return Mono.fromRunnable(() -> {
+            AtomicInteger count = redemptions.get(key(couponId, userId));
+            if (count != null) {
+                count.getAndUpdate(current -> current > 0 ? current - 1 : current);
+            }
+        });
+    }
+
+    private static String key(String couponId, String userId) {
+        return couponId + '\u0000' + userId;
+    }
+
+}
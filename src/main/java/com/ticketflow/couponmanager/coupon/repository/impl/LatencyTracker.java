@@ -0,0 +1,50 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A latency percentile over the most recent calls. The percentile is recomputed every few calls, so reading it is a
+ * single volatile read.
+ */
+final class LatencyTracker {
+
+    private static final int SAMPLES = 256;
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long percentileNanos = -1;
+
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        long count = recorded.incrementAndGet();
+        samples.set((int) ((count - 1) % SAMPLES), nanos);
+        if (count >= SAMPLES && count % RECOMPUTE_EVERY == 0) {
+            recompute();
+        }
+    }
+
+    /**
+     * @return the latency percentile in nanoseconds, or {@code -1} until enough calls were seen
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute() {
+        long[] sorted = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * SAMPLES) - 1;
+        percentileNanos = sorted[Math.max(0, Math.min(SAMPLES - 1, rank))];
+    }
+
+}
@@ -0,0 +1,582 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.enums.StorageOperation;
+import com.ticketflow.couponmanager.coupon.exception.ChangeHistoryLostException;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.BulkUpdateResult;
+import com.ticketflow.couponmanager.coupon.model.BulkUpsertResult;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponBulkChange;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.model.UsageGrant;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoCouponRepository implements CouponRepository {
+
+    private static final String EXPIRATION_DATE_STRING = "expirationDate";
+    private static final String USE_LIMIT_STRING = "useLimit";
+    private static final String VERSION_STRING = "version";
+    private static final String APPLICABLE_CATEGORIES_STRING = "applicableCategories";
+    private static final String NAME_KEY_STRING = "nameKey";
+    private static final String CODE_KEY_STRING = "codeKey";
+    // What $inc gives a coupon that has no version yet, so inserted, imported and legacy coupons agree
+    private static final long INITIAL_VERSION = 1L;
+    private static final int BLIND_SAVE_ATTEMPTS = 3;
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+    // CappedPositionLost, InvalidResumeToken, ChangeStreamFatalError and ChangeStreamHistoryLost
+    private static final Set<Integer> UNRESUMABLE_CHANGE_STREAM_CODES = Set.of(136, 260, 280, 286);
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoRoutes mongoRoutes;
+    private final MongoResilience resilience;
+
+    @Override
+    public Mono<Coupon> findById(String id) {
+        return resilience.read(StorageOperation.LOOKUP, () -> mongoTemplate.findById(id, Coupon.class));
+    }
+
+    @Override
+    public Mono<Coupon> findById(String id, ReadRoute route) {
+        return resilience.read(StorageOperation.LOOKUP, () -> mongoRoutes.read(route).findById(id, Coupon.class));
+    }
+
+    @Override
+    public Flux<Coupon> findAll() {
+        return resilience.readMany(StorageOperation.SEARCH, () -> mongoTemplate.findAll(Coupon.class));
+    }
+
+    @Override
+    public Mono<Coupon> save(Coupon coupon) {
+        coupon.refreshSearchKeys();
+        if (coupon.getId() == null) {
+            coupon.setVersion(INITIAL_VERSION);
+            return insert(coupon);
+        }
+
+        if (coupon.getVersion() != null) {
+            return replace(coupon, coupon.getVersion());
+        }
+
+        // Without a version the coupon replaces whatever is stored, but still gets a newer version than it
+        return Mono.defer(() -> findById(coupon.getId())
+                        .flatMap(stored -> replace(coupon, stored.getVersion()))
+                        .switchIfEmpty(Mono.defer(() -> {
+                            coupon.setVersion(INITIAL_VERSION);
+                            return insert(coupon);
+                        })))
+                .retryWhen(Retry.max(BLIND_SAVE_ATTEMPTS)
+                        .filter(PreconditionFailedException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<Coupon> replace(Coupon coupon, Long storedVersion) {
+        Coupon replacement = coupon.toBuilder().version(nextVersion(storedVersion)).build();
+        FindAndReplaceOptions options = FindAndReplaceOptions.options().returnNew();
+
+        return resilience.write(StorageOperation.WRITE,
+                        () -> mongoTemplate.findAndReplace(versionQuery(coupon.getId(), storedVersion), replacement, options), false)
+                .switchIfEmpty(versionConflictIfExists(coupon.getId()));
+    }
+
+    private Mono<Coupon> insert(Coupon coupon) {
+        return resilience.write(StorageOperation.WRITE, () -> mongoRoutes.create().insert(coupon), false);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return resilience.write(StorageOperation.WRITE, () -> mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), Coupon.class), true)
+                .then();
+    }
+
+    @Override
+    public Mono<Coupon> update(Coupon coupon) {
+        if (coupon.getId() == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        Update update = new Update().inc(VERSION_STRING, 1);
+
+        if (coupon.getStatus() != null) {
+            update.set("status", coupon.getStatus());
+        }
+
+        if (coupon.getExpirationDate() != null) {
+            update.set(EXPIRATION_DATE_STRING, coupon.getExpirationDate());
+        }
+
+        if (coupon.getDescription() != null) {
+            update.set("description", coupon.getDescription());
+        }
+
+        if (coupon.getDiscountValue() != null) {
+            update.set("discountValue", coupon.getDiscountValue());
+        }
+
+        if (coupon.getDiscountPercentage() != null) {
+            update.set("discountPercentage", coupon.getDiscountPercentage());
+        }
+
+        return modify(coupon, update);
+    }
+
+    @Override
+    public Mono<BulkUpsertResult> upsertByCode(List<Coupon> coupons) {
+        if (coupons.isEmpty()) {
+            return Mono.just(BulkUpsertResult.empty());
+        }
+
+        UpdateMapper updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Coupon.class);
+        List<UpdateOneModel<Document>> upserts = coupons.stream()
+                .map(coupon -> new UpdateOneModel<Document>(Filters.eq("code", coupon.getCode()),
+                        updateMapper.getMappedObject(upsertUpdate(coupon).getUpdateObject(), entity), UPSERT))
+                .toList();
+
+        // A single unordered bulk write per batch; the server applies the rest when one of the upserts fails
+        return resilience.write(StorageOperation.IMPORT, () -> mongoRoutes.create().getCollection(mongoTemplate.getCollectionName(Coupon.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(upserts, UNORDERED)))
+                .map(result -> upsertResult(result, Map.of()))
+                .onErrorResume(MongoBulkWriteException.class, ex -> {
+                    Map<Integer, String> failures = new HashMap<>();
+                    for (BulkWriteError error : ex.getWriteErrors()) {
+                        failures.put(error.getIndex(), error.getMessage());
+                    }
+                    return Mono.just(upsertResult(ex.getWriteResult(), failures));
+                }), false);
+    }
+
+    private static Update upsertUpdate(Coupon coupon) {
+        Coupon upserted = coupon.copy();
+        upserted.refreshSearchKeys();
+
+        Update update = new Update().inc(VERSION_STRING, 1)
+                .set("name", upserted.getName())
+                .set("description", upserted.getDescription())
+                .set("discountValue", upserted.getDiscountValue())
+                .set("discountPercentage", upserted.getDiscountPercentage())
+                .set(EXPIRATION_DATE_STRING, upserted.getExpirationDate())
+                .set("responsibleUser", upserted.getResponsibleUser())
+                .set(USE_LIMIT_STRING, upserted.getUseLimit())
+                .set("usesPerUser", upserted.getUsesPerUser())
+                .set(APPLICABLE_CATEGORIES_STRING, upserted.getApplicableCategories())
+                .set(NAME_KEY_STRING, upserted.getNameKey())
+                .set(CODE_KEY_STRING, upserted.getCodeKey());
+
+        if (upserted.getStatus() != null) {
+            update.set("status", upserted.getStatus());
+        } else {
+            update.setOnInsert("status", Status.ACTIVE);
+        }
+        return update;
+    }
+
+    private static BulkUpsertResult upsertResult(BulkWriteResult result, Map<Integer, String> failures) {
+        if (!result.wasAcknowledged()) {
+            return new BulkUpsertResult(0, 0, failures);
+        }
+        return new BulkUpsertResult(result.getUpserts().size(), result.getMatchedCount(), failures);
+    }
+
+    @Override
+    public Mono<Coupon> updateUsage(Coupon coupon) {
+        if (coupon.getId() == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        Update update = new Update().inc(VERSION_STRING, 1);
+
+        if (coupon.getUseLimit() != null) {
+            update.set(USE_LIMIT_STRING, coupon.getUseLimit());
+        }
+
+        return modify(coupon, update);
+    }
+
+    @Override
+    public Mono<UsageGrant> decrementUsage(String couponId, int uses) {
+        if (couponId == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        // Fast path: a single conditional $inc grants the whole batch. When fewer uses remain,
+        // the current balance is read and the remainder is granted with the same conditional update.
+        return decrementUsageIfAvailable(couponId, uses)
+                .switchIfEmpty(Mono.defer(() -> findById(couponId)
+                        .filter(Coupon::hasAvailableUses)
+                        .flatMap(coupon -> decrementUsage(couponId, Math.min(uses, coupon.getUseLimit())))));
+    }
+
+    private Mono<UsageGrant> decrementUsageIfAvailable(String couponId, int uses) {
+        Query query = new Query(Criteria.where("_id").is(couponId).and(USE_LIMIT_STRING).gte(uses));
+
+        Update update = new Update().inc(USE_LIMIT_STRING, -uses).inc(VERSION_STRING, 1);
+
+        FindAndModifyOptions options = new FindAndModifyOptions().returnNew(true);
+
+        return resilience.write(StorageOperation.REDEEM, () -> mongoRoutes.redeem().findAndModify(query, update, options, Coupon.class), false)
+                .map(coupon -> new UsageGrant(uses, coupon.getUseLimit()));
+    }
+
+    @Override
+    public Mono<Coupon> findByCode(String code) {
+        Query query = new Query(Criteria.where("code").is(code));
+        return resilience.read(StorageOperation.LOOKUP, () -> mongoTemplate.findOne(query, Coupon.class));
+    }
+
+    @Override
+    public Flux<Coupon> findByCodes(Collection<String> codes) {
+        Query query = new Query(Criteria.where("code").in(codes));
+        return resilience.readMany(StorageOperation.LOOKUP, () -> mongoTemplate.find(query, Coupon.class));
+    }
+
+    @Override
+    public Flux<Coupon> findByIds(Collection<String> ids) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        return resilience.readMany(StorageOperation.LOOKUP, () -> mongoTemplate.find(query, Coupon.class));
+    }
+
+    @Override
+    public Flux<Coupon> findByFilter(CouponFilter couponFilter) {
+        Query query = filterQuery(couponFilter);
+        return resilience.readMany(StorageOperation.SEARCH, () -> mongoRoutes.search().find(query, Coupon.class));
+    }
+
+    @Override
+    public Flux<Coupon> streamByFilter(CouponFilter couponFilter) {
+        Query query = filterQuery(couponFilter);
+        return resilience.readMany(StorageOperation.EXPORT, () -> mongoRoutes.search().find(query, Coupon.class));
+    }
+
+    private static Query filterQuery(CouponFilter couponFilter) {
+        Query query = new Query();
+        filterCriteria(couponFilter).forEach(query::addCriteria);
+        return query;
+    }
+
+    private static List<Criteria> filterCriteria(CouponFilter couponFilter) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (couponFilter.getId() != null) {
+            criteria.add(Criteria.where("_id").is(couponFilter.getId()));
+        }
+
+        if (couponFilter.getName() != null) {
+            criteria.add(Criteria.where("name").is(couponFilter.getName()));
+        }
+
+        if (couponFilter.getDescription() != null) {
+            criteria.add(Criteria.where("description").is(couponFilter.getDescription()));
+        }
+
+        if (couponFilter.getDiscountValue() != null) {
+            criteria.add(Criteria.where("discountValue").is(couponFilter.getDiscountValue()));
+        }
+
+        if (couponFilter.getDiscountPercentage() != null) {
+            criteria.add(Criteria.where("discountPercentage").is(couponFilter.getDiscountPercentage()));
+        }
+
+        if (couponFilter.getStatus() != null) {
+            criteria.add(Criteria.where("status").is(couponFilter.getStatus()));
+        }
+
+        if (couponFilter.getResponsibleUser() != null) {
+            criteria.add(Criteria.where("responsibleUser").is(couponFilter.getResponsibleUser()));
+        }
+
+        if (couponFilter.getCode() != null) {
+            criteria.add(Criteria.where("code").is(couponFilter.getCode()));
+        }
+
+        if (couponFilter.getExpirationDate() != null) {
+            LocalDate expirationDate = couponFilter.getExpirationDate();
+            criteria.add(Criteria.where(EXPIRATION_DATE_STRING).gte(expirationDate.atStartOfDay()).lt(expirationDate.plusDays(1).atStartOfDay()));
+        }
+
+        if (couponFilter.getExpirationDateStart() != null && couponFilter.getExpirationDateEnd() != null) {
+            LocalDate startDate = couponFilter.getExpirationDateStart();
+            LocalDate endDate = couponFilter.getExpirationDateEnd();
+            criteria.add(Criteria.where(EXPIRATION_DATE_STRING).gte(startDate.atStartOfDay()).lt(endDate.plusDays(1).atStartOfDay()));
+        } else if (couponFilter.getExpirationDateStart() != null) {
+            LocalDate startDate = couponFilter.getExpirationDateStart();
+            criteria.add(Criteria.where(EXPIRATION_DATE_STRING).gte(startDate.atStartOfDay()));
+        } else if (couponFilter.getExpirationDateEnd() != null) {
+            LocalDate endDate = couponFilter.getExpirationDateEnd();
+            criteria.add(Criteria.where(EXPIRATION_DATE_STRING).lt(endDate.plusDays(1).atStartOfDay()));
+        }
+
+        return criteria;
+    }
+
+    @Override
+    public Mono<Long> countByFilter(CouponFilter couponFilter, CouponBulkChange change) {
+        Query query = changeQuery(couponFilter, null, change);
+        return resilience.read(StorageOperation.BULK_UPDATE, () -> mongoTemplate.count(query, Coupon.class));
+    }
+
+    @Override
+    public Mono<BulkUpdateResult> updateByFilter(CouponFilter couponFilter, CouponBulkChange change) {
+        return updateByFilter(couponFilter, null, change);
+    }
+
+    @Override
+    public Mono<BulkUpdateResult> updateByFilter(CouponFilter couponFilter, Collection<String> ids, CouponBulkChange change) {
+        Query query = changeQuery(couponFilter, ids, change);
+        Update update = bulkUpdate(change);
+        return resilience.write(StorageOperation.BULK_UPDATE, () -> mongoTemplate.updateMulti(query, update, Coupon.class), false)
+                .map(result -> new BulkUpdateResult(result.getMatchedCount(), result.getModifiedCount()));
+    }
+
+    // The coupons the change would leave as they are are excluded from the write, so they keep their version.
+    // The criteria are combined with $and because the filter may already constrain the same fields.
+    private static Query changeQuery(CouponFilter couponFilter, Collection<String> ids, CouponBulkChange change) {
+        List<Criteria> criteria = filterCriteria(couponFilter);
+        criteria.add(changedCriteria(change));
+        if (ids != null) {
+            criteria.add(Criteria.where("_id").in(ids));
+        }
+        return new Query(new Criteria().andOperator(criteria));
+    }
+
+    private static Criteria changedCriteria(CouponBulkChange change) {
+        return switch (change.action()) {
+            case DEACTIVATE -> Criteria.where("status").ne(Status.INACTIVE);
+            case EXTEND_EXPIRATION -> Criteria.where(EXPIRATION_DATE_STRING).lt(change.expirationDate());
+            case CHANGE_DISCOUNT -> {
+                List<Criteria> differences = new ArrayList<>();
+                if (change.discountValue() != null) {
+                    differences.add(Criteria.where("discountValue").ne(change.discountValue()));
+                }
+                if (change.discountPercentage() != null) {
+                    differences.add(Criteria.where("discountPercentage").ne(change.discountPercentage()));
+                }
+                yield new Criteria().orOperator(differences);
+            }
+            case ADD_CATEGORIES -> new Criteria().orOperator(change.categories().stream()
+                    .map(category -> Criteria.where(APPLICABLE_CATEGORIES_STRING).ne(category))
+                    .toList());
+            case REMOVE_CATEGORIES -> Criteria.where(APPLICABLE_CATEGORIES_STRING).in(change.categories());
+        };
+    }
+
+    private static Update bulkUpdate(CouponBulkChange change) {
+        Update update = new Update().inc(VERSION_STRING, 1);
+        switch (change.action()) {
+            case DEACTIVATE -> update.set("status", Status.INACTIVE);
+            case EXTEND_EXPIRATION -> update.set(EXPIRATION_DATE_STRING, change.expirationDate());
+            case CHANGE_DISCOUNT -> {
+                if (change.discountValue() != null) {
+                    update.set("discountValue", change.discountValue());
+                }
+                if (change.discountPercentage() != null) {
+                    update.set("discountPercentage", change.discountPercentage());
+                }
+            }
+            case ADD_CATEGORIES -> update.addToSet(APPLICABLE_CATEGORIES_STRING).each(change.categories().toArray());
+            case REMOVE_CATEGORIES -> update.pullAll(APPLICABLE_CATEGORIES_STRING, change.categories().toArray());
+        }
+        return update;
+    }
+
+    @Override
+    public Flux<Coupon> searchText(String text, long skip, int limit) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .skip(skip)
+                .limit(limit);
+        return resilience.readMany(StorageOperation.SEARCH, () -> mongoRoutes.search().find(query, Coupon.class));
+    }
+
+    @Override
+    public Flux<Coupon> findByCodePrefix(String prefix, int limit) {
+        return findByKeyPrefix(CODE_KEY_STRING, prefix, limit);
+    }
+
+    @Override
+    public Flux<Coupon> findByNamePrefix(String prefix, int limit) {
+        return findByKeyPrefix(NAME_KEY_STRING, prefix, limit);
+    }
+
+    // A range instead of a regex, so the bounds on the key index are exact
+    private Flux<Coupon> findByKeyPrefix(String keyField, String prefix, int limit) {
+        String key = Coupon.searchKey(prefix);
+        Query query = new Query(Criteria.where(keyField).gte(key).lt(key + Character.MAX_VALUE))
+                .with(Sort.by(keyField))
+                .limit(limit);
+        return resilience.readMany(StorageOperation.SEARCH, () -> mongoRoutes.search().find(query, Coupon.class));
+    }
+
+    @Override
+    public Mono<Coupon> addApplicableCategories(String couponId, Collection<String> categories, Long expectedVersion) {
+        if (couponId == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        Criteria criteria = Criteria.where("_id").is(couponId).and(APPLICABLE_CATEGORIES_STRING).nin(categories);
+        Update update = new Update().inc(VERSION_STRING, 1);
+        update.addToSet(APPLICABLE_CATEGORIES_STRING).each(categories.toArray());
+
+        return modifyIf(criteria, expectedVersion, update);
+    }
+
+    @Override
+    public Mono<Coupon> removeApplicableCategories(String couponId, Collection<String> categories, Long expectedVersion) {
+        if (couponId == null) {
+            return Mono.error(new CouponException(CouponErrorCode.COUPON_ID_REQUIRED.withParams()));
+        }
+
+        Criteria criteria = Criteria.where("_id").is(couponId).and(APPLICABLE_CATEGORIES_STRING).all(categories);
+        Update update = new Update().inc(VERSION_STRING, 1).pullAll(APPLICABLE_CATEGORIES_STRING, categories.toArray());
+
+        return modifyIf(criteria, expectedVersion, update);
+    }
+
+    // Not behind the resilience policies: the stream stays open for as long as it is followed, and the follower
+    // resumes it from its last token after a failure
+    @Override
+    public Flux<CouponChange> watch(String resumeToken, Instant startAt) {
+        return Flux.defer(() -> {
+            ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                    .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+            if (resumeToken != null) {
+                options.resumeAfter(parseResumeToken(resumeToken));
+            } else {
+                options.resumeAt(startAt);
+            }
+            return mongoTemplate.changeStream(null, mongoTemplate.getCollectionName(Coupon.class), options.build(), Coupon.class);
+        })
+                .<CouponChange>handle((event, sink) -> {
+                    OperationType type = event.getOperationType();
+                    String couponId = documentId(event.getRaw().getDocumentKey());
+                    String token = event.getResumeToken().asDocument().toJson();
+                    // The wall time has millisecond precision, the cluster time only seconds
+                    Instant changedAt = event.getRaw().getWallTime() == null
+                            ? event.getTimestamp()
+                            : Instant.ofEpochMilli(event.getRaw().getWallTime().getValue());
+                    if (type == OperationType.DELETE) {
+                        sink.next(new CouponChange(couponId, null, token, changedAt));
+                    } else if (type == OperationType.INSERT || type == OperationType.UPDATE || type == OperationType.REPLACE) {
+                        // An update whose coupon was deleted before the lookup has no body; its deletion follows
+                        if (event.getBody() != null) {
+                            sink.next(new CouponChange(couponId, event.getBody(), token, changedAt));
+                        }
+                    } else if (type == OperationType.INVALIDATE || type == OperationType.DROP || type == OperationType.RENAME
+                            || type == OperationType.DROP_DATABASE) {
+                        sink.error(new ChangeHistoryLostException("The coupon collection was " + type.getValue()));
+                    }
+                })
+                .onErrorMap(MongoCouponRepository::historyLostIfUnresumable);
+    }
+
+    private static BsonDocument parseResumeToken(String resumeToken) {
+        try {
+            return BsonDocument.parse(resumeToken);
+        } catch (RuntimeException ex) {
+            throw new ChangeHistoryLostException("Unreadable resume token", ex);
+        }
+    }
+
+    private static String documentId(BsonDocument documentKey) {
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static Throwable historyLostIfUnresumable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException && UNRESUMABLE_CHANGE_STREAM_CODES.contains(mongoException.getCode())) {
+                return new ChangeHistoryLostException(mongoException.getMessage(), error);
+            }
+        }
+        return error;
+    }
+
+    private Mono<Coupon> modifyIf(Criteria criteria, Long expectedVersion, Update update) {
+        if (expectedVersion != null) {
+            criteria.and(VERSION_STRING).is(expectedVersion);
+        }
+
+        FindAndModifyOptions options = new FindAndModifyOptions().returnNew(true);
+
+        return resilience.write(StorageOperation.WRITE, () -> mongoTemplate.findAndModify(new Query(criteria), update, options, Coupon.class), false);
+    }
+
+    private Mono<Coupon> modify(Coupon coupon, Update update) {
+        FindAndModifyOptions options = new FindAndModifyOptions().returnNew(true);
+
+        if (coupon.getVersion() == null) {
+            Query query = new Query(Criteria.where("_id").is(coupon.getId()));
+            return resilience.write(StorageOperation.WRITE, () -> mongoTemplate.findAndModify(query, update, options, Coupon.class), false);
+        }
+        Query query = versionQuery(coupon.getId(), coupon.getVersion());
+        return resilience.write(StorageOperation.WRITE, () -> mongoTemplate.findAndModify(query, update, options, Coupon.class), false)
+                .switchIfEmpty(versionConflictIfExists(coupon.getId()));
+    }
+
+    // Coupons stored before versions were introduced have no version field, which matches a null version
+    private static Query versionQuery(String couponId, Long version) {
+        return new Query(Criteria.where("_id").is(couponId).and(VERSION_STRING).is(version));
+    }
+
+    private Mono<Coupon> versionConflictIfExists(String couponId) {
+        return resilience.read(StorageOperation.LOOKUP, () -> mongoTemplate.exists(new Query(Criteria.where("_id").is(couponId)), Coupon.class))
+                .flatMap(exists -> Boolean.TRUE.equals(exists)
+                        ? Mono.error(new PreconditionFailedException(CouponErrorCode.COUPON_VERSION_CONFLICT.withParams(couponId)))
+                        : Mono.empty());
+    }
+
+    private static long nextVersion(Long version) {
+        return version == null ? INITIAL_VERSION : version + 1;
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.model.ImportReportChunk;
+import com.ticketflow.couponmanager.coupon.repository.ImportReportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+
+@Repository
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoImportReportRepository implements ImportReportRepository {
+
+    // Same chunk size as GridFS
+    static final int CHUNK_SIZE = 255 * 1024;
+
+    private static final String IMPORT_ID_STRING = "importId";
+
+    private final MongoRoutes mongoRoutes;
+    private final Clock clock;
+
+    @Autowired
+    public MongoImportReportRepository(MongoRoutes mongoRoutes) {
+        this(mongoRoutes, Clock.systemUTC());
+    }
+
+    MongoImportReportRepository(MongoRoutes mongoRoutes, Clock clock) {
+        this.mongoRoutes = mongoRoutes;
+        this.clock = clock;
+    }
+
+    // Written with the create write concern, so an instance that reads the report from the primary finds all of it
+    @Override
+    public Mono<Void> save(String importId, Path report, Instant expiresAt) {
+        return Flux.using(() -> Files.newInputStream(report),
+                        input -> Flux.<byte[]>generate(sink -> {
+                            byte[] data = readChunk(input);
+                            if (data.length == 0) {
+                                sink.complete();
+                            } else {
+                                sink.next(data);
+                            }
+                        }),
+                        MongoImportReportRepository::close)
+                .index()
+                .map(chunk -> ImportReportChunk.builder()
+                        .importId(importId)
+                        .sequence(chunk.getT1().intValue())
+                        .data(chunk.getT2())
+                        .expiresAt(expiresAt)
+                        .build())
+                .subscribeOn(Schedulers.boundedElastic())
+                .concatMap(chunk -> mongoRoutes.create().insert(chunk))
+                .then();
+    }
+
+    @Override
+    public Flux<byte[]> find(String importId) {
+        // The TTL monitor only runs every minute, so expired reports can still be there for a while
+        return Flux.defer(() -> {
+                    Query query = new Query(Criteria.where(IMPORT_ID_STRING).is(importId).and("expiresAt").gt(clock.instant()))
+                            .with(Sort.by("sequence"));
+                    return mongoRoutes.read(ReadRoute.PRIMARY).find(query, ImportReportChunk.class);
+                })
+                .map(ImportReportChunk::getData);
+    }
+
+    private static void close(InputStream input) {
+        try {
+            input.close();
+        } catch (IOException ex) {
+            // nothing left to read
+        }
+    }
+
+    private static byte[] readChunk(InputStream input) {
+        try {
+            byte[] buffer = input.readNBytes(CHUNK_SIZE);
+            return buffer.length == CHUNK_SIZE ? buffer : Arrays.copyOf(buffer, buffer.length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.configuration.RedemptionLedgerProperties;
+import com.ticketflow.couponmanager.coupon.model.RedemptionLedgerEntry;
+import com.ticketflow.couponmanager.coupon.repository.RedemptionLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoRedemptionLedgerRepository implements RedemptionLedgerRepository {
+
+    private static final String COUPON_ID_STRING = "couponId";
+    private static final String USER_ID_STRING = "userId";
+    private static final String COUNT_STRING = "count";
+
+    private final MongoRoutes mongoRoutes;
+    private final RedemptionLedgerProperties properties;
+
+    @Override
+    public Mono<Integer> recordRedemption(String couponId, String userId, int usesPerUser) {
+        // The per-user check and the insert are one upsert: when the user already reached the limit the
+        // filter does not match, the upsert collides with the unique (couponId, userId) index and nothing is written.
+        Query query = new Query(Criteria.where(COUPON_ID_STRING).is(couponId)
+                .and(USER_ID_STRING).is(userId)
+                .and(COUNT_STRING).lt(usesPerUser));
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .inc(COUNT_STRING, 1)
+                .set("lastRedemption", now);
+        update.push("recentRedemptions").slice(-properties.getRecentRedemptions()).each(now);
+
+        FindAndModifyOptions options = new FindAndModifyOptions().upsert(true).returnNew(true);
+
+        return mongoRoutes.redeem().findAndModify(query, update, options, RedemptionLedgerEntry.class)
+                .map(RedemptionLedgerEntry::getCount)
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> revertRedemption(String couponId, String userId) {
+        Query query = new Query(Criteria.where(COUPON_ID_STRING).is(couponId)
+                .and(USER_ID_STRING).is(userId)
+                .and(COUNT_STRING).gt(0));
+
+        return mongoRoutes.redeem().updateFirst(query, new Update().inc(COUNT_STRING, -1), RedemptionLedgerEntry.class)
+                .then();
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.ticketflow.couponmanager.coupon.configuration.MongoResilienceProperties;
+import com.ticketflow.couponmanager.coupon.enums.StorageOperation;
+import com.ticketflow.couponmanager.coupon.exception.StorageUnavailableException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Deadlines, jittered retries, hedged lookups and a circuit breaker per kind of Mongo operation. Calls that still fail
+ * because Mongo is slow or unreachable, or that are rejected by an open breaker, fail with
+ * {@link StorageUnavailableException}. Other errors, such as version conflicts, pass through untouched and do not
+ * count against the breaker.
+ * <p>
+ * A timed out write may still be applied by the server, so writes are only retried when they are idempotent.
+ */
+@Component
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoResilience {
+
+    private static final String CALLS_METRIC = "coupon.mongo.calls";
+
+    private final MongoResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Map<StorageOperation, CircuitBreaker> circuitBreakers = new EnumMap<>(StorageOperation.class);
+    private final Map<StorageOperation, LatencyTracker> latencies = new EnumMap<>(StorageOperation.class);
+    private final Map<StorageOperation, Counter> retries = new EnumMap<>(StorageOperation.class);
+    private final Map<StorageOperation, Counter> hedges = new EnumMap<>(StorageOperation.class);
+
+    @Autowired
+    public MongoResilience(MongoResilienceProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    MongoResilience(MongoResilienceProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+
+        for (StorageOperation operation : StorageOperation.values()) {
+            String tag = tag(operation);
+            CircuitBreaker circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker(), nanoClock);
+            circuitBreakers.put(operation, circuitBreaker);
+            latencies.put(operation, new LatencyTracker(policy(operation).getHedgePercentile()));
+            retries.put(operation, Counter.builder("coupon.mongo.retries").tag("operation", tag).register(meterRegistry));
+            hedges.put(operation, Counter.builder("coupon.mongo.hedges").tag("operation", tag).register(meterRegistry));
+            Gauge.builder("coupon.mongo.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .tag("operation", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * A read of at most one document. Lookups are hedged when their policy says so.
+     */
+    public <T> Mono<T> read(StorageOperation operation, Supplier<Mono<T>> call) {
+        return mono(operation, call, true);
+    }
+
+    public <T> Flux<T> readMany(StorageOperation operation, Supplier<Flux<T>> call) {
+        if (!properties.isEnabled()) {
+            return Flux.defer(call);
+        }
+
+        MongoResilienceProperties.Policy policy = policy(operation);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(operation);
+        return Flux.defer(() -> {
+                    // Once documents were emitted a retry would emit them again
+                    AtomicBoolean emitted = new AtomicBoolean();
+                    return Flux.defer(() -> guarded(circuitBreaker, Flux.defer(call).timeout(policy.getTimeout())))
+                            .doOnNext(document -> emitted.set(true))
+                            .retryWhen(retry(operation, policy, error -> !emitted.get()));
+                })
+                .doOnComplete(() -> count(operation, "success"))
+                .onErrorMap(error -> outcome(operation, error));
+    }
+
+    public <T> Mono<T> write(StorageOperation operation, Supplier<Mono<T>> call, boolean idempotent) {
+        return mono(operation, call, idempotent);
+    }
+
+    private <T> Mono<T> mono(StorageOperation operation, Supplier<Mono<T>> call, boolean retryable) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(call);
+        }
+
+        MongoResilienceProperties.Policy policy = policy(operation);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(operation);
+        LatencyTracker latency = latencies.get(operation);
+        Mono<T> attempt = Mono.defer(() -> {
+            long start = nanoClock.getAsLong();
+            Mono<T> sent = policy.isHedge() ? hedged(operation, policy, latency, call) : Mono.defer(call);
+            return guarded(circuitBreaker, sent.timeout(policy.getTimeout()).flux())
+                    .doOnComplete(() -> latency.record(nanoClock.getAsLong() - start))
+                    .singleOrEmpty();
+        });
+
+        return (retryable ? attempt.retryWhen(retry(operation, policy, error -> true)) : attempt)
+                .doOnSuccess(result -> count(operation, "success"))
+                .onErrorMap(error -> outcome(operation, error));
+    }
+
+    // The second request only goes out when the first one is slower than the usual latency of the operation
+    private <T> Mono<T> hedged(StorageOperation operation, MongoResilienceProperties.Policy policy, LatencyTracker latency,
+                               Supplier<Mono<T>> call) {
+        long hedgeAfterNanos = latency.percentileNanos();
+        if (hedgeAfterNanos < 0) {
+            return Mono.defer(call);
+        }
+
+        Duration delay = Duration.ofNanos(Math.max(hedgeAfterNanos, policy.getMinHedgeDelay().toNanos()));
+        Mono<Optional<T>> first = Mono.defer(call).map(Optional::of).defaultIfEmpty(Optional.empty());
+        Mono<Optional<T>> second = Mono.delay(delay)
+                .then(Mono.defer(() -> {
+                    hedges.get(operation).increment();
+                    return Mono.defer(call).map(Optional::of).defaultIfEmpty(Optional.empty());
+                }))
+                // The first request decides the outcome when the hedge fails
+                .onErrorResume(ex -> Mono.never());
+        return Mono.firstWithSignal(first, second).flatMap(Mono::justOrEmpty);
+    }
+
+    private <T> Flux<T> guarded(CircuitBreaker circuitBreaker, Flux<T> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            return Flux.error(new CircuitOpenException());
+        }
+        return call
+                .doOnError(error -> {
+                    if (isTransient(error)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.ON_COMPLETE) {
+                        circuitBreaker.onSuccess();
+                    } else if (signal == SignalType.CANCEL) {
+                        circuitBreaker.onCancel();
+                    }
+                });
+    }
+
+    private Retry retry(StorageOperation operation, MongoResilienceProperties.Policy policy, Predicate<Throwable> retryable) {
+        return Retry.backoff(policy.getRetries(), policy.getBackoff())
+                .maxBackoff(policy.getMaxBackoff())
+                .jitter(0.5)
+                .filter(error -> isTransient(error) && retryable.test(error))
+                .doBeforeRetry(signal -> retries.get(operation).increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private Throwable outcome(StorageOperation operation, Throwable error) {
+        if (error instanceof CircuitOpenException) {
+            count(operation, "rejected");
+        } else if (error instanceof TimeoutException) {
+            count(operation, "timeout");
+        } else if (isTransient(error)) {
+            count(operation, "unavailable");
+        } else {
+            count(operation, "error");
+            return error;
+        }
+        return new StorageUnavailableException(CouponErrorCode.STORAGE_UNAVAILABLE.withParams());
+    }
+
+    private void count(StorageOperation operation, String outcome) {
+        meterRegistry.counter(CALLS_METRIC, "operation", tag(operation), "outcome", outcome).increment();
+    }
+
+    private MongoResilienceProperties.Policy policy(StorageOperation operation) {
+        return switch (operation) {
+            case LOOKUP -> properties.getLookup();
+            case SEARCH -> properties.getSearch();
+            case WRITE -> properties.getWrite();
+            case REDEEM -> properties.getRedeem();
+            case EXPORT -> properties.getExport();
+            case IMPORT -> properties.getBulkImport();
+            case BULK_UPDATE -> properties.getBulkUpdate();
+        };
+    }
+
+    static boolean isTransient(Throwable error) {
+        return error instanceof TimeoutException
+                || error instanceof DataAccessResourceFailureException
+                || error instanceof TransientDataAccessException
+                || error instanceof MongoSocketException
+                || error instanceof MongoTimeoutException;
+    }
+
+    private static String tag(StorageOperation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static class CircuitOpenException extends RuntimeException {
+
+        CircuitOpenException() {
+            super("Circuit breaker is open", null, false, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.ticketflow.couponmanager.coupon.configuration.MongoRoutingProperties;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Templates that send each kind of operation to the nodes and with the guarantees configured for it. They share the
+ * client, and so the connection pools, of the application's template and only differ in read preference and write
+ * concern.
+ */
+@Component
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoRoutes {
+
+    // The lowest max staleness Mongo accepts
+    private static final Duration MIN_MAX_STALENESS = Duration.ofSeconds(90);
+
+    private final ReactiveMongoTemplate primary;
+    private final ReactiveMongoTemplate search;
+    private final ReactiveMongoTemplate validate;
+    private final ReactiveMongoTemplate redeem;
+    private final ReactiveMongoTemplate create;
+
+    public MongoRoutes(ReactiveMongoTemplate mongoTemplate, MongoRoutingProperties properties) {
+        this.primary = mongoTemplate;
+        this.search = routed(mongoTemplate, properties.getSearch());
+        this.validate = routed(mongoTemplate, properties.getValidate());
+        this.redeem = routed(mongoTemplate, properties.getRedeem());
+        this.create = routed(mongoTemplate, properties.getCreate());
+    }
+
+    public ReactiveMongoTemplate search() {
+        return search;
+    }
+
+    public ReactiveMongoTemplate read(ReadRoute route) {
+        return route == ReadRoute.VALIDATE ? validate : primary;
+    }
+
+    public ReactiveMongoTemplate redeem() {
+        return redeem;
+    }
+
+    public ReactiveMongoTemplate create() {
+        return create;
+    }
+
+    private static ReactiveMongoTemplate routed(ReactiveMongoTemplate mongoTemplate, MongoRoutingProperties.Route route) {
+        ReadPreference readPreference = readPreference(route);
+        WriteConcern writeConcern = writeConcern(route);
+        if (readPreference == null && writeConcern == null) {
+            return mongoTemplate;
+        }
+
+        UnaryOperator<MongoDatabase> routing = database -> {
+            MongoDatabase routedDatabase = readPreference == null ? database : database.withReadPreference(readPreference);
+            return writeConcern == null ? routedDatabase : routedDatabase.withWriteConcern(writeConcern);
+        };
+        return new ReactiveMongoTemplate(new RoutedDatabaseFactory(mongoTemplate.getMongoDatabaseFactory(), routing),
+                mongoTemplate.getConverter());
+    }
+
+    static ReadPreference readPreference(MongoRoutingProperties.Route route) {
+        if (route.getReadPreference() == null || route.getReadPreference().isBlank()) {
+            return null;
+        }
+        ReadPreference readPreference = ReadPreference.valueOf(route.getReadPreference());
+        if (readPreference.equals(ReadPreference.primary()) || route.getMaxStaleness() == null) {
+            return readPreference;
+        }
+        if (route.getMaxStaleness().compareTo(MIN_MAX_STALENESS) < 0) {
+            throw new IllegalArgumentException("Max staleness must be at least " + MIN_MAX_STALENESS + ": " + route.getMaxStaleness());
+        }
+        return ReadPreference.valueOf(route.getReadPreference(), List.of(), route.getMaxStaleness().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    static WriteConcern writeConcern(MongoRoutingProperties.Route route) {
+        if (route.getWriteConcern() == null || route.getWriteConcern().isBlank()) {
+            return null;
+        }
+        WriteConcern writeConcern = WriteConcern.valueOf(route.getWriteConcern());
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + route.getWriteConcern());
+        }
+        return route.getWriteTimeout() == null ? writeConcern : writeConcern.withWTimeout(route.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private record RoutedDatabaseFactory(ReactiveMongoDatabaseFactory delegate, UnaryOperator<MongoDatabase> routing)
+            implements ReactiveMongoDatabaseFactory {
+
+        @Override
+        public Mono<MongoDatabase> getMongoDatabase() {
+            return delegate.getMongoDatabase().map(routing);
+        }
+
+        @Override
+        public Mono<MongoDatabase> getMongoDatabase(String dbName) {
+            return delegate.getMongoDatabase(dbName).map(routing);
+        }
+
+        @Override
+        public PersistenceExceptionTranslator getExceptionTranslator() {
+            return delegate.getExceptionTranslator();
+        }
+
+        @Override
+        public CodecRegistry getCodecRegistry() {
+            return delegate.getCodecRegistry();
+        }
+
+        @Override
+        public Mono<ClientSession> getSession(ClientSessionOptions options) {
+            return delegate.getSession(options);
+        }
+
+        @Override
+        public ReactiveMongoDatabaseFactory withSession(ClientSession session) {
+            return new RoutedDatabaseFactory(delegate.withSession(session), routing);
+        }
+
+        @Override
+        public boolean isTransactionActive() {
+            return delegate.isTransactionActive();
+        }
+    }
+
+}
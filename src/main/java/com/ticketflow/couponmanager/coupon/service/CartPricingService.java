@@ -0,0 +1,97 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.AppliedCouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CartDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.PricingResultDTO;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.hotkey.HotKeyTracker;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.service.pricing.CartPricing;
+import com.ticketflow.couponmanager.coupon.service.pricing.CartPricingEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class CartPricingService {
+
+    private final CouponLookupCoalescer couponLookupCoalescer;
+    private final CartPricingEngine cartPricingEngine;
+    private final HotKeyTracker hotKeyTracker;
+
+    public CartPricingService(CouponLookupCoalescer couponLookupCoalescer, CartPricingEngine cartPricingEngine,
+                              HotKeyTracker hotKeyTracker) {
+        this.couponLookupCoalescer = couponLookupCoalescer;
+        this.cartPricingEngine = cartPricingEngine;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    public Mono<PricingResultDTO> priceCart(CartDTO cart) {
+        log.debug("Pricing cart with {} coupon codes", cart.getCouponCodes() == null ? 0 : cart.getCouponCodes().size());
+
+        if (cart.getItems() == null || cart.getItems().isEmpty()) {
+            return Mono.error(new CouponException(CouponErrorCode.CART_ITEMS_REQUIRED.withParams()));
+        }
+
+        Set<String> codes = cart.getCouponCodes() == null ? Set.of() : new LinkedHashSet<>(cart.getCouponCodes());
+        if (codes.size() > CartPricingEngine.MAX_CANDIDATE_COUPONS) {
+            return Mono.error(new CouponException(CouponErrorCode.TOO_MANY_CANDIDATE_COUPONS.withParams(CartPricingEngine.MAX_CANDIDATE_COUPONS)));
+        }
+
+        codes.forEach(code -> hotKeyTracker.record(HotKeyType.CODE, code));
+        return candidates(codes).filter(this::isRedeemable).collectList()
+                .map(coupons -> toPricingResult(cart, codes, coupons));
+    }
+
+    // Most carts carry a single code, usually the one on sale, so that lookup is shared with concurrent carts
+    private Flux<Coupon> candidates(Set<String> codes) {
+        if (codes.isEmpty()) {
+            return Flux.empty();
+        }
+        if (codes.size() == 1) {
+            return couponLookupCoalescer.findByCode(codes.iterator().next()).flux();
+        }
+        return couponLookupCoalescer.findByCodes(codes);
+    }
+
+    private boolean isRedeemable(Coupon coupon) {
+        return !coupon.isInactive() && !coupon.isExpired() && coupon.hasAvailableUses();
+    }
+
+    private PricingResultDTO toPricingResult(CartDTO cart, Set<String> codes, List<Coupon> coupons) {
+        CartPricing pricing = cartPricingEngine.price(cart.getItems(), coupons);
+
+        List<AppliedCouponDTO> appliedCoupons = new ArrayList<>();
+        Set<String> rejectedCoupons = new LinkedHashSet<>(codes);
+
+        for (int i = 0; i < coupons.size(); i++) {
+            Coupon coupon = coupons.get(i);
+            if (pricing.isApplied(i)) {
+                rejectedCoupons.remove(coupon.getCode());
+                appliedCoupons.add(AppliedCouponDTO.builder()
+                        .id(coupon.getId())
+                        .code(coupon.getCode())
+                        .discount(CartPricingEngine.fromCents(pricing.couponDiscountCents()[i]))
+                        .build());
+            }
+        }
+
+        return PricingResultDTO.builder()
+                .subtotal(CartPricingEngine.fromCents(pricing.subtotalCents()))
+                .discount(CartPricingEngine.fromCents(pricing.discountCents()))
+                .total(CartPricingEngine.fromCents(pricing.totalCents()))
+                .appliedCoupons(appliedCoupons)
+                .rejectedCoupons(new ArrayList<>(rejectedCoupons))
+                .build();
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkUpdateDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.BulkCouponAction;
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import com.ticketflow.couponmanager.coupon.event.CouponChangePublisher;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.logging.RequestLogging;
+import com.ticketflow.couponmanager.coupon.model.BulkUpdateResult;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponBulkChange;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Changes every coupon matching a filter with one write, instead of reading and saving them one by one. A dry run
+ * only counts the coupons the change would write.
+ * <p>
+ * While someone follows the coupon changes, the matching coupons are instead streamed in batches, and each batch is
+ * written and read back on its own, so each coupon whose version moved is published without holding every match in
+ * memory. Coupons that start matching the filter during the stream may be left out.
+ */
+@Slf4j
+@Service
+public class CouponBulkUpdateService {
+
+    private static final int CHANGE_BATCH_SIZE = 500;
+
+    private final CouponRepository couponRepository;
+    private final CouponChangePublisher couponChangePublisher;
+    @Qualifier("modelMapperConfig")
+    private final ModelMapper modelMapper;
+
+    public CouponBulkUpdateService(CouponRepository couponRepository, CouponChangePublisher couponChangePublisher,
+                                   ModelMapper modelMapper) {
+        this.couponRepository = couponRepository;
+        this.couponChangePublisher = couponChangePublisher;
+        this.modelMapper = modelMapper;
+    }
+
+    public Mono<CouponBulkUpdateDTO> deactivateCoupons(CouponFilter couponFilter, boolean dryRun) {
+        return apply(couponFilter, Mono.just(CouponBulkChange.deactivate()), dryRun);
+    }
+
+    public Mono<CouponBulkUpdateDTO> extendExpiration(CouponFilter couponFilter, CouponBulkChangeDTO change, boolean dryRun) {
+        return apply(couponFilter, Mono.fromCallable(() -> {
+            LocalDateTime expirationDate = change == null ? null : change.getExpirationDate();
+            if (expirationDate == null) {
+                throw new CouponException(CouponErrorCode.FIELD_CANNOT_BE_EMPTY.withParams("expirationDate"));
+            }
+            if (!expirationDate.isAfter(LocalDateTime.now())) {
+                throw new CouponException(CouponErrorCode.EXPIRATION_DATE_LESS_THAN_CURRENT_DATE.withParams());
+            }
+            return CouponBulkChange.extendExpiration(expirationDate);
+        }), dryRun);
+    }
+
+    public Mono<CouponBulkUpdateDTO> changeDiscount(CouponFilter couponFilter, CouponBulkChangeDTO change, boolean dryRun) {
+        return apply(couponFilter, Mono.fromCallable(() -> {
+            if (change == null || change.getDiscountValue() == null && change.getDiscountPercentage() == null) {
+                throw new CouponException(CouponErrorCode.DISCOUNT_FIELD_MUST_BE_INFORMED.withParams());
+            }
+            if (change.getDiscountValue() != null && change.getDiscountValue() < 0) {
+                throw new CouponException(CouponErrorCode.DISCOUNT_VALUE_LESS_THAN_ZERO.withParams());
+            }
+            if (change.getDiscountPercentage() != null && change.getDiscountPercentage() < 0) {
+                throw new CouponException(CouponErrorCode.DISCOUNT_PERCENTAGE_LESS_THAN_ZERO.withParams());
+            }
+            return CouponBulkChange.changeDiscount(change.getDiscountValue(), change.getDiscountPercentage());
+        }), dryRun);
+    }
+
+    public Mono<CouponBulkUpdateDTO> addApplicableCategories(CouponFilter couponFilter, List<String> categoryIds, boolean dryRun) {
+        return apply(couponFilter, distinctCategories(categoryIds).map(CouponBulkChange::addCategories), dryRun);
+    }
+
+    public Mono<CouponBulkUpdateDTO> removeApplicableCategories(CouponFilter couponFilter, List<String> categoryIds, boolean dryRun) {
+        return apply(couponFilter, distinctCategories(categoryIds).map(CouponBulkChange::removeCategories), dryRun);
+    }
+
+    private static Mono<List<String>> distinctCategories(List<String> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty() || categoryIds.stream().anyMatch(categoryId -> categoryId == null || categoryId.isBlank())) {
+            return Mono.error(new CouponException(CouponErrorCode.FIELD_CANNOT_BE_EMPTY.withParams("applicableCategories")));
+        }
+        return Mono.just(categoryIds.stream().distinct().toList());
+    }
+
+    // An empty filter would change every coupon, which is never what a campaign change means
+    private Mono<CouponBulkUpdateDTO> apply(CouponFilter couponFilter, Mono<CouponBulkChange> validatedChange, boolean dryRun) {
+        if (couponFilter == null || !couponFilter.hasCriteria()) {
+            return Mono.error(new CouponException(CouponErrorCode.BULK_FILTER_REQUIRED.withParams()));
+        }
+
+        return validatedChange.flatMap(change -> Mono.deferContextual(context -> {
+            if (dryRun) {
+                return couponRepository.countByFilter(couponFilter, change)
+                        .map(matched -> CouponBulkUpdateDTO.builder().matched(matched).dryRun(true).build());
+            }
+
+            RequestLogging.atInfo(log, context).log("Applying {} to coupons by filter", change.action());
+            return updateByFilter(couponFilter, change)
+                    .doOnNext(result -> RequestLogging.atInfo(log, context)
+                            .log("Applied {} to {} of {} matching coupons", change.action(), result.modified(), result.matched()))
+                    .map(result -> CouponBulkUpdateDTO.builder()
+                            .matched(result.matched())
+                            .modified(result.modified())
+                            .build());
+        }));
+    }
+
+    private Mono<BulkUpdateResult> updateByFilter(CouponFilter couponFilter, CouponBulkChange change) {
+        if (couponChangePublisher.getSubscriberCount() == 0) {
+            return couponRepository.updateByFilter(couponFilter, change);
+        }
+
+        return couponRepository.streamByFilter(couponFilter)
+                .buffer(CHANGE_BATCH_SIZE)
+                .concatMap(batch -> updateBatch(couponFilter, batch, change))
+                .reduce(new BulkUpdateResult(0, 0), (total, result) ->
+                        new BulkUpdateResult(total.matched() + result.matched(), total.modified() + result.modified()));
+    }
+
+    private Mono<BulkUpdateResult> updateBatch(CouponFilter couponFilter, List<Coupon> batch, CouponBulkChange change) {
+        Map<String, Long> previousVersions = batch.stream().collect(Collectors.toMap(Coupon::getId, Coupon::getVersion,
+                (first, second) -> first));
+        return couponRepository.updateByFilter(couponFilter, previousVersions.keySet(), change)
+                .flatMap(result -> result.modified() == 0
+                        ? Mono.just(result)
+                        : publishModified(previousVersions, change).thenReturn(result));
+    }
+
+    private Mono<Void> publishModified(Map<String, Long> previousVersions, CouponBulkChange change) {
+        CouponChangeType type = change.action() == BulkCouponAction.DEACTIVATE ? CouponChangeType.DEACTIVATED : CouponChangeType.UPDATED;
+        return couponRepository.findByIds(previousVersions.keySet())
+                .filter(coupon -> !Objects.equals(coupon.getVersion(), previousVersions.get(coupon.getId())))
+                .doOnNext(coupon -> couponChangePublisher.publish(type, modelMapper.map(coupon, CouponDTO.class)))
+                .then();
+    }
+
+}
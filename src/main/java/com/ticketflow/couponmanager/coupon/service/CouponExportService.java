@@ -0,0 +1,49 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.ExportProperties;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.exception.TooManyRequestsException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.export.CouponExporter;
+import com.ticketflow.couponmanager.coupon.logging.RequestLogging;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class CouponExportService {
+
+    private final CouponRepository couponRepository;
+    private final CouponExporter couponExporter;
+    private final ExportProperties properties;
+    private final AtomicInteger runningExports = new AtomicInteger();
+
+    public CouponExportService(CouponRepository couponRepository, CouponExporter couponExporter, ExportProperties properties) {
+        this.couponRepository = couponRepository;
+        this.couponExporter = couponExporter;
+        this.properties = properties;
+    }
+
+    // Each export scans the whole filter on the search nodes, so only a few may run at once
+    public Flux<DataBuffer> exportCoupons(CouponFilter couponFilter, ExportFormat format, boolean gzip, DataBufferFactory bufferFactory) {
+        return Flux.deferContextual(context -> {
+            if (runningExports.incrementAndGet() > properties.getMaxConcurrent()) {
+                runningExports.decrementAndGet();
+                return Flux.error(new TooManyRequestsException(CouponErrorCode.TOO_MANY_EXPORTS.withParams(properties.getMaxConcurrent()),
+                        properties.getRetryAfter()));
+            }
+
+            RequestLogging.atInfo(log, context).log("Exporting coupons as {}", format);
+            return couponExporter.export(couponRepository.streamByFilter(couponFilter), format, gzip, properties.getBatchSize(), bufferFactory)
+                    .doFinally(signal -> runningExports.decrementAndGet());
+        });
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.LookupCoalescingProperties;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.replica.ActiveCouponReplica;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight lookups for the validate and pricing paths: concurrent lookups of the same coupon share one database
+ * read. The read is shared only while it is in flight, nothing is cached after it completes. Every caller gets its own
+ * copy of the coupon.
+ * <p>
+ * Validate-route and code lookups that the {@link ActiveCouponReplica} can answer do not read the database at all.
+ */
+@Component
+public class CouponLookupCoalescer {
+
+    private static final String LOOKUPS_METRIC = "coupon.lookups";
+    private static final String IN_FLIGHT_METRIC = "coupon.lookups.in-flight";
+
+    private final CouponRepository couponRepository;
+    private final LookupCoalescingProperties properties;
+    private final Map<LookupKey, Mono<Coupon>> inFlight = new ConcurrentHashMap<>();
+    private final Counter databaseLookups;
+    private final Counter coalescedLookups;
+    private final Counter replicaLookups;
+    private final ActiveCouponReplica replica;
+
+    public CouponLookupCoalescer(CouponRepository couponRepository, LookupCoalescingProperties properties,
+                                 ActiveCouponReplica replica, MeterRegistry meterRegistry) {
+        this.couponRepository = couponRepository;
+        this.properties = properties;
+        this.replica = replica;
+
+        this.databaseLookups = Counter.builder(LOOKUPS_METRIC).tag("outcome", "database").register(meterRegistry);
+        this.coalescedLookups = Counter.builder(LOOKUPS_METRIC).tag("outcome", "coalesced").register(meterRegistry);
+        this.replicaLookups = Counter.builder(LOOKUPS_METRIC).tag("outcome", "replica").register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Validate-route lookup. Reads that a write depends on, such as the primary read of a redeem or the read of an
+     * update, must not join a lookup that may have started before their own previous write, so they do not come here.
+     */
+    public Mono<Coupon> findById(String id) {
+        return fromReplica(() -> replica.findById(id),
+                lookup(new LookupKey("id", id), () -> couponRepository.findById(id, ReadRoute.VALIDATE)));
+    }
+
+    public Mono<Coupon> findByCode(String code) {
+        return fromReplica(() -> replica.findByCode(code),
+                lookup(new LookupKey("code", code), () -> couponRepository.findByCode(code)));
+    }
+
+    /**
+     * The coupons with any of the codes. Only the codes the replica does not hold are read from the database, in one
+     * query.
+     */
+    public Flux<Coupon> findByCodes(Collection<String> codes) {
+        return Flux.defer(() -> {
+            if (!replica.isLive()) {
+                return couponRepository.findByCodes(codes);
+            }
+
+            List<Coupon> replicated = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (String code : codes) {
+                Coupon coupon = replica.findByCode(code);
+                if (coupon == null) {
+                    missing.add(code);
+                } else {
+                    replicated.add(coupon);
+                }
+            }
+            replicaLookups.increment(replicated.size());
+            return missing.isEmpty()
+                    ? Flux.fromIterable(replicated)
+                    : Flux.fromIterable(replicated).concatWith(couponRepository.findByCodes(missing));
+        });
+    }
+
+    private Mono<Coupon> fromReplica(Supplier<Coupon> replicated, Mono<Coupon> database) {
+        return Mono.defer(() -> {
+            Coupon coupon = replicated.get();
+            if (coupon == null) {
+                return database;
+            }
+            replicaLookups.increment();
+            return Mono.just(coupon);
+        });
+    }
+
+    private Mono<Coupon> lookup(LookupKey key, Supplier<Mono<Coupon>> read) {
+        if (!properties.isEnabled() || key.value() == null) {
+            return Mono.defer(read);
+        }
+
+        return Mono.defer(() -> {
+            boolean[] leader = new boolean[1];
+            Mono<Coupon> shared = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                // Removed once the read terminates, so later lookups read again. cache() keeps the read going when
+                // one of the callers cancels.
+                return Mono.defer(read)
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+
+            (leader[0] ? databaseLookups : coalescedLookups).increment();
+            return shared.map(Coupon::copy);
+        });
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private record LookupKey(String kind, String value) {
+    }
+
+}
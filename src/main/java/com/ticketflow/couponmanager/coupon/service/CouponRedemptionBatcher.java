@@ -0,0 +1,134 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.RedemptionBatchProperties;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.UsageGrant;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class CouponRedemptionBatcher {
+
+    private final CouponRepository couponRepository;
+    private final RedemptionBatchProperties properties;
+    private final Scheduler scheduler;
+    private final Map<String, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CouponRedemptionBatcher(CouponRepository couponRepository, RedemptionBatchProperties properties) {
+        this(couponRepository, properties, Schedulers.parallel());
+    }
+
+    CouponRedemptionBatcher(CouponRepository couponRepository, RedemptionBatchProperties properties, Scheduler scheduler) {
+        this.couponRepository = couponRepository;
+        this.properties = properties;
+        this.scheduler = scheduler;
+    }
+
+    public Mono<Integer> redeem(String couponId) {
+        if (!properties.isEnabled() || properties.getMaxSize() <= 1) {
+            return couponRepository.decrementUsage(couponId, 1)
+                    .map(UsageGrant::remaining)
+                    .switchIfEmpty(usageLimitReached(couponId));
+        }
+
+        return Mono.defer(() -> {
+            Sinks.One<Integer> waiter = Sinks.one();
+            enqueue(couponId, waiter);
+            return waiter.asMono();
+        });
+    }
+
+    private void enqueue(String couponId, Sinks.One<Integer> waiter) {
+        boolean[] opened = new boolean[1];
+        PendingBatch[] full = new PendingBatch[1];
+
+        PendingBatch batch = pendingBatches.compute(couponId, (id, current) -> {
+            PendingBatch target = current;
+            if (target == null) {
+                target = new PendingBatch(id);
+                opened[0] = true;
+            }
+            target.waiters.add(waiter);
+
+            if (target.waiters.size() >= properties.getMaxSize()) {
+                full[0] = target;
+                return null;
+            }
+            return target;
+        });
+
+        if (full[0] != null) {
+            full[0].cancelTimer();
+            flush(full[0]);
+        } else if (opened[0]) {
+            batch.timer = scheduler.schedule(() -> flushIfPending(batch),
+                    properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushIfPending(PendingBatch batch) {
+        if (pendingBatches.remove(batch.couponId, batch)) {
+            flush(batch);
+        }
+    }
+
+    private void flush(PendingBatch batch) {
+        List<Sinks.One<Integer>> waiters = batch.waiters;
+        log.debug("Redeeming {} uses of coupon {} in one batch", waiters.size(), batch.couponId);
+
+        couponRepository.decrementUsage(batch.couponId, waiters.size())
+                .defaultIfEmpty(new UsageGrant(0, 0))
+                .subscribe(grant -> handOut(batch.couponId, waiters, grant),
+                        error -> waiters.forEach(waiter -> waiter.tryEmitError(error)));
+    }
+
+    private void handOut(String couponId, List<Sinks.One<Integer>> waiters, UsageGrant grant) {
+        for (int position = 0; position < waiters.size(); position++) {
+            Sinks.One<Integer> waiter = waiters.get(position);
+            if (position < grant.granted()) {
+                waiter.tryEmitValue(grant.remainingAfter(position));
+            } else {
+                waiter.tryEmitError(new CouponException(CouponErrorCode.COUPON_USAGE_LIMIT_REACHED.withParams(couponId)));
+            }
+        }
+    }
+
+    private static Mono<Integer> usageLimitReached(String couponId) {
+        return Mono.error(new CouponException(CouponErrorCode.COUPON_USAGE_LIMIT_REACHED.withParams(couponId)));
+    }
+
+    private static final class PendingBatch {
+
+        private final String couponId;
+        private final List<Sinks.One<Integer>> waiters = new ArrayList<>();
+        private volatile Disposable timer;
+
+        private PendingBatch(String couponId) {
+            this.couponId = couponId;
+        }
+
+        private void cancelTimer() {
+            Disposable scheduled = timer;
+            if (scheduled != null) {
+                scheduled.dispose();
+            }
+        }
+    }
+
+}
@@ -2,131 +2,272 @@ package com.ticketflow.couponmanager.coupon.service;
 
 import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
 import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponSearch;
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.enums.SearchMode;
+import com.ticketflow.couponmanager.coupon.event.CouponChangePublisher;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
 import com.ticketflow.couponmanager.coupon.exception.NotFoundException;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
 import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.hotkey.HotKeyTracker;
+import com.ticketflow.couponmanager.coupon.logging.RequestLogging;
 import com.ticketflow.couponmanager.coupon.model.Coupon;
 import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.slf4j.spi.LoggingEventBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+import java.util.function.Function;
 
 
 @Slf4j
 @Service
 public class CouponService {
 
+    // Read-modify-write operations without an expected version re-read the coupon when another write got in between
+    private static final int CONFLICT_RETRIES = 3;
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // Both search modes read every result before the page, so deep pages are not served
+    static final int MAX_SEARCH_RESULTS = 1000;
+
     private final CouponRepository couponRepository;
+    private final CouponLookupCoalescer couponLookupCoalescer;
     private final CouponValidatorService couponValidatorService;
+    private final CouponRedemptionBatcher couponRedemptionBatcher;
+    private final RedemptionLedgerService redemptionLedgerService;
+    private final CouponChangePublisher couponChangePublisher;
+    private final HotKeyTracker hotKeyTracker;
     @Qualifier("modelMapperConfig")
     private final ModelMapper modelMapper;
 
-    public CouponService(CouponRepository couponRepository, CouponValidatorService couponValidatorService, ModelMapper modelMapper) {
+    public CouponService(CouponRepository couponRepository, CouponLookupCoalescer couponLookupCoalescer,
+                         CouponValidatorService couponValidatorService, CouponRedemptionBatcher couponRedemptionBatcher,
+                         RedemptionLedgerService redemptionLedgerService, CouponChangePublisher couponChangePublisher,
+                         HotKeyTracker hotKeyTracker, ModelMapper modelMapper) {
         this.couponRepository = couponRepository;
+        this.couponLookupCoalescer = couponLookupCoalescer;
         this.couponValidatorService = couponValidatorService;
+        this.couponRedemptionBatcher = couponRedemptionBatcher;
+        this.redemptionLedgerService = redemptionLedgerService;
+        this.couponChangePublisher = couponChangePublisher;
+        this.hotKeyTracker = hotKeyTracker;
         this.modelMapper = modelMapper;
     }
 
     public Flux<CouponDTO> getCoupons(CouponFilter couponFilter) {
-        log.info("Getting coupons");
+        return logRequest("Getting coupons", null)
+                .thenMany(couponRepository.findByFilter(couponFilter))
+                .map(this::toCouponDTO);
+    }
+
+    public Flux<CouponDTO> searchCoupons(CouponSearch search) {
+        if (search.getQ() == null || search.getQ().isBlank()) {
+            return Flux.error(new CouponException(CouponErrorCode.FIELD_CANNOT_BE_EMPTY.withParams("q")));
+        }
+        if (search.getPage() < 0 || search.getSize() < 1 || search.getSize() > MAX_SEARCH_PAGE_SIZE
+                || ((long) search.getPage() + 1) * search.getSize() > MAX_SEARCH_RESULTS) {
+            return Flux.error(new CouponException(CouponErrorCode.INVALID_SEARCH_PAGE.withParams(MAX_SEARCH_PAGE_SIZE, MAX_SEARCH_RESULTS)));
+        }
 
-        return couponRepository.findByFilter(couponFilter)
+        long skip = (long) search.getPage() * search.getSize();
+        Flux<Coupon> found = search.getMode() == SearchMode.PREFIX
+                ? prefixSearch(search.getQ(), skip, search.getSize())
+                : couponRepository.searchText(search.getQ(), skip, search.getSize());
+        return found.map(this::toCouponDTO);
+    }
+
+    // Code matches come before name matches. Each side is read up to the end of the page so duplicates can be dropped.
+    private Flux<Coupon> prefixSearch(String prefix, long skip, int size) {
+        int depth = (int) (skip + size);
+        return Flux.concat(couponRepository.findByCodePrefix(prefix, depth), couponRepository.findByNamePrefix(prefix, depth))
+                .distinct(Coupon::getId)
+                .skip(skip)
+                .take(size);
+    }
+
+    public Mono<CouponDTO> getCoupon(String couponId) {
+        return findCouponById(couponId)
                 .map(this::toCouponDTO);
     }
 
     public Mono<CouponDTO> createCoupon(CouponDTO coupon) {
-        log.info("Creating new coupon");
-
-        return couponValidatorService.validateCreate(coupon)
+        return logRequest("Creating new coupon", null)
+                .then(couponValidatorService.validateCreate(coupon))
                 .flatMap(couponValidatorService::validateCouponCode)
                 .doOnNext(CouponDTO::activate)
                 .map(this::toCoupon)
+                .doOnNext(created -> created.setVersion(null))
                 .flatMap(couponRepository::save)
-                .map(this::toCouponDTO);
+                .map(this::toCouponDTO)
+                .doOnNext(created -> couponChangePublisher.publish(CouponChangeType.CREATED, created));
     }
 
+    // Without an expected version the write is still conditional on the version that was read, and is retried on a
+    // conflict, so a concurrent write is never silently overwritten
     public Mono<CouponDTO> updateCoupon(CouponDTO couponDTO) {
-        log.info("Updating coupon id: {}", couponDTO.getId());
-
-        return couponValidatorService.validateCouponId(couponDTO.getId())
-                .then(findCouponById(couponDTO.getId()))
-                .switchIfEmpty(Mono.error(new NotFoundException(CouponErrorCode.COUPON_NOT_FOUND.withParams(couponDTO.getId()))))
-                .flatMap(couponEntity -> couponValidatorService.validateUpdate(couponDTO))
-                .map(this::toCoupon)
-                .flatMap(couponRepository::update)
-                .map(this::toCouponDTO);
+        Long expectedVersion = couponDTO.getVersion();
+        return logRequest("Updating coupon", couponDTO.getId())
+                .then(couponValidatorService.validateCouponId(couponDTO.getId()))
+                .then(findCouponById(couponDTO.getId(), expectedVersion)
+                        .flatMap(couponEntity -> couponValidatorService.validateUpdate(couponDTO)
+                                .map(this::toCoupon)
+                                .doOnNext(coupon -> coupon.setVersion(couponEntity.getVersion())))
+                        .flatMap(couponRepository::update)
+                        .transform(retryOnConflict(expectedVersion)))
+                .map(this::toCouponDTO)
+                .doOnNext(updated -> couponChangePublisher.publish(CouponChangeType.UPDATED, updated));
     }
 
-    public Mono<CouponDTO> validateAndDecreaseAvailableCoupons(String couponId) {
-        return validateCoupon(couponId)
-                .flatMap(couponDTO -> {
-                    couponDTO.decrementUseLimit();
-                    return updateCouponUsage(couponDTO);
-                });
+    public Mono<CouponDTO> validateAndDecreaseAvailableCoupons(String couponId, String userId) {
+        return validateCoupon(couponId, ReadRoute.PRIMARY)
+                .flatMap(couponDTO -> redemptionLedgerService.recordRedemption(couponId, couponDTO.getUsesPerUser(), userId)
+                        .then(Mono.defer(() -> redeemAvailableUse(couponDTO, userId))));
     }
 
-    private Mono<CouponDTO> updateCouponUsage(CouponDTO couponDTO) {
-        return Mono.just(couponDTO)
-                .map(this::toCoupon)
-                .flatMap(couponRepository::updateUsage)
-                .map(this::toCouponDTO);
+    private Mono<CouponDTO> redeemAvailableUse(CouponDTO couponDTO, String userId) {
+        return couponRedemptionBatcher.redeem(couponDTO.getId())
+                .map(remainingUses -> {
+                    couponDTO.setUseLimit(remainingUses);
+                    return couponDTO;
+                })
+                .doOnNext(redeemed -> couponChangePublisher.publish(CouponChangeType.REDEEMED, redeemed))
+                .onErrorResume(ex -> redemptionLedgerService.revertRedemption(couponDTO.getId(), couponDTO.getUsesPerUser(), userId)
+                        .then(Mono.error(ex)));
     }
 
     public Mono<CouponDTO> validateCoupon(String couponId) {
-        log.info("Validate coupon id: {}", couponId);
+        return validateCoupon(couponId, ReadRoute.VALIDATE);
+    }
 
-        return findCouponById(couponId)
+    // Redeems validate on the primary, so a coupon that was just deactivated or used up is never redeemed again
+    private Mono<CouponDTO> validateCoupon(String couponId, ReadRoute route) {
+        hotKeyTracker.record(HotKeyType.ID, couponId);
+
+        return logRequest("Validating coupon", couponId)
+                .then(findCouponById(couponId, route))
                 .flatMap(couponValidatorService::checkIfCouponIsExpired)
                 .flatMap(couponValidatorService::checkIfCouponIsInactive)
                 .flatMap(couponValidatorService::checkIfCouponHaveAvailableUses)
                 .map(this::toCouponDTO);
     }
 
-    public Mono<CouponDTO> deactivateCoupon(String couponId) {
-        return findCouponById(couponId)
+    public Mono<CouponDTO> deactivateCoupon(String couponId, Long expectedVersion) {
+        return findCouponById(couponId, expectedVersion)
                 .flatMap(couponValidatorService::returnErrorIfCouponIsAlreadyInactive)
                 .flatMap(this::deactivateAndSaveCoupon)
-                .map(this::toCouponDTO);
+                .transform(retryOnConflict(expectedVersion))
+                .map(this::toCouponDTO)
+                .doOnNext(deactivated -> couponChangePublisher.publish(CouponChangeType.DEACTIVATED, deactivated));
+    }
+
+    public Mono<CouponDTO> addApplicableCategory(String couponId, String categoryId, Long expectedVersion) {
+        return addApplicableCategories(couponId, List.of(categoryId), expectedVersion);
     }
 
-    public Mono<CouponDTO> addApplicableCategory(String couponId, String categoryId) {
+    public Mono<CouponDTO> addApplicableCategories(String couponId, List<String> categoryIds, Long expectedVersion) {
         // todo - validar a categoria
-        log.info("Adding applicable category: {} to coupon {}", categoryId, couponId);
+        return logRequest("Adding applicable categories {}", couponId, categoryIds)
+                .then(distinctCategories(categoryIds))
+                .flatMap(categories -> Mono.defer(() -> couponRepository.addApplicableCategories(couponId, categories, expectedVersion))
+                        .switchIfEmpty(Mono.defer(() -> rejectedCategoryChange(couponId, expectedVersion, coupon -> Flux.fromIterable(categories)
+                                .concatMap(categoryId -> couponValidatorService.checkIfApplicableCategoryIsUnique(coupon, categoryId))
+                                .then())))
+                        .transform(retryOnConflict(expectedVersion)))
+                .map(this::toCouponDTO)
+                .doOnNext(updated -> couponChangePublisher.publish(CouponChangeType.UPDATED, updated));
+    }
 
-        return findCouponById(couponId)
-                .flatMap(coupon -> validateAndAddApplicableCategory(coupon, categoryId))
-                .flatMap(couponRepository::updateApplicableCategories)
-                .map(this::toCouponDTO);
+    public Mono<CouponDTO> removeApplicableCategory(String couponId, String categoryId, Long expectedVersion) {
+        return removeApplicableCategories(couponId, List.of(categoryId), expectedVersion);
     }
 
-    public Mono<CouponDTO> removeApplicableCategory(String couponId, String categoryId) {
-        log.info("Removing applicable category: {} from coupon {}", categoryId, couponId);
+    public Mono<CouponDTO> removeApplicableCategories(String couponId, List<String> categoryIds, Long expectedVersion) {
+        return logRequest("Removing applicable categories {}", couponId, categoryIds)
+                .then(distinctCategories(categoryIds))
+                .flatMap(categories -> Mono.defer(() -> couponRepository.removeApplicableCategories(couponId, categories, expectedVersion))
+                        .switchIfEmpty(Mono.defer(() -> rejectedCategoryChange(couponId, expectedVersion, coupon -> Flux.fromIterable(categories)
+                                .concatMap(categoryId -> couponValidatorService.checkIfCategoryIsInCoupon(coupon, categoryId))
+                                .then())))
+                        .transform(retryOnConflict(expectedVersion)))
+                .map(this::toCouponDTO)
+                .doOnNext(updated -> couponChangePublisher.publish(CouponChangeType.UPDATED, updated));
+    }
 
-        return findCouponById(couponId)
-                .flatMap(coupon -> couponValidatorService.checkIfCategoryIsInCoupon(coupon, categoryId))
-                .doOnNext(coupon -> coupon.removeApplicableCategory(categoryId))
-                .flatMap(couponRepository::updateApplicableCategories)
-                .map(this::toCouponDTO);
+    private static Mono<List<String>> distinctCategories(List<String> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty() || categoryIds.stream().anyMatch(categoryId -> categoryId == null || categoryId.isBlank())) {
+            return Mono.error(new CouponException(CouponErrorCode.FIELD_CANNOT_BE_EMPTY.withParams("applicableCategories")));
+        }
+        return Mono.just(categoryIds.stream().distinct().toList());
     }
 
-    private Mono<Coupon> validateAndAddApplicableCategory(Coupon coupon, String categoryId) {
-        return couponValidatorService.checkIfApplicableCategoryIsUnique(coupon, categoryId)
-                .flatMap(validatedCoupon -> {
-                    validatedCoupon.addApplicableCategory(categoryId);
-                    return Mono.just(validatedCoupon);
-                });
+    // The category checks are part of the conditional write, so the coupon is only read to explain why it did not
+    // apply. When nothing explains it, another write got in between.
+    private Mono<Coupon> rejectedCategoryChange(String couponId, Long expectedVersion, Function<Coupon, Mono<Void>> categoryChecks) {
+        return findCouponById(couponId, expectedVersion)
+                .flatMap(categoryChecks)
+                .then(Mono.error(new PreconditionFailedException(CouponErrorCode.COUPON_VERSION_CONFLICT.withParams(couponId))));
     }
 
+    // Reads of the coupon that writes depend on go to the repository: a shared lookup may have started before the
+    // caller's own previous write
     private Mono<Coupon> findCouponById(String couponId) {
         return couponRepository.findById(couponId)
                 .switchIfEmpty(Mono.error(new NotFoundException(CouponErrorCode.COUPON_NOT_FOUND.withParams(couponId))));
     }
 
+    private Mono<Coupon> findCouponById(String couponId, ReadRoute route) {
+        Mono<Coupon> coupon = route == ReadRoute.VALIDATE
+                ? couponLookupCoalescer.findById(couponId)
+                : couponRepository.findById(couponId, route);
+        return coupon.switchIfEmpty(Mono.error(new NotFoundException(CouponErrorCode.COUPON_NOT_FOUND.withParams(couponId))));
+    }
+
+    private Mono<Coupon> findCouponById(String couponId, Long expectedVersion) {
+        return Mono.defer(() -> findCouponById(couponId))
+                .flatMap(coupon -> expectedVersion == null || expectedVersion.equals(coupon.getVersion())
+                        ? Mono.just(coupon)
+                        : Mono.error(new PreconditionFailedException(CouponErrorCode.COUPON_VERSION_CONFLICT.withParams(couponId))));
+    }
+
+    // The write is conditional on the version that was read; a conflict is only the caller's to resolve when it
+    // asked for a specific version
+    private static Function<Mono<Coupon>, Mono<Coupon>> retryOnConflict(Long expectedVersion) {
+        if (expectedVersion != null) {
+            return Function.identity();
+        }
+        return coupon -> coupon.retryWhen(Retry.max(CONFLICT_RETRIES)
+                .filter(PreconditionFailedException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
     private Mono<Coupon> deactivateAndSaveCoupon(Coupon coupon) {
         coupon.deactivate();
-        return couponRepository.save(coupon);
+        return couponRepository.update(Coupon.builder()
+                .id(coupon.getId())
+                .status(coupon.getStatus())
+                .version(coupon.getVersion())
+                .build());
+    }
+
+    // Logged on subscription, where the request id is in the context
+    private static Mono<Void> logRequest(String message, String couponId, Object... arguments) {
+        return Mono.deferContextual(context -> {
+            LoggingEventBuilder event = RequestLogging.atInfo(log, context);
+            if (couponId != null) {
+                event = event.addKeyValue(RequestLogging.COUPON_ID, couponId);
+            }
+            event.log(message, arguments);
+            return Mono.empty();
+        });
     }
 
     private CouponDTO toCouponDTO(Coupon coupon) {
@@ -28,7 +28,8 @@ public class CouponValidatorService {
 
         return checkForEmptyFields(coupon)
                 .flatMap(this::ensureExpirationDateIsNotInThePast)
-                .flatMap(this::validateDiscountFields);
+                .flatMap(this::validateDiscountFields)
+                .flatMap(this::validateUsesPerUser);
     }
 
     public Mono<Void> validateCouponId(String couponId) {
@@ -40,7 +41,8 @@ public class CouponValidatorService {
 
     public Mono<CouponDTO> validateUpdate(CouponDTO couponDTO) {
         return checkForEmptyFields(couponDTO)
-                .flatMap(this::validateDiscountFields);
+                .flatMap(this::validateDiscountFields)
+                .flatMap(this::validateUsesPerUser);
     }
 
     public Mono<Coupon> checkIfCouponIsExpired(Coupon coupon) {
@@ -106,6 +108,13 @@ public class CouponValidatorService {
         return Mono.just(couponDTO);
     }
 
+    private Mono<CouponDTO> validateUsesPerUser(CouponDTO couponDTO) {
+        if (couponDTO.getUsesPerUser() != null && couponDTO.getUsesPerUser() <= 0) {
+            return Mono.error(new CouponException(CouponErrorCode.USES_PER_USER_NOT_POSITIVE.withParams()));
+        }
+        return Mono.just(couponDTO);
+    }
+
     private Mono<CouponDTO> checkForEmptyFields(CouponDTO coupon) {
         List<String> emptyFields = coupon.getEmptyFields();
 
@@ -131,7 +140,7 @@ public class CouponValidatorService {
     }
 
     public Mono<Coupon> checkIfCategoryIsInCoupon(Coupon coupon, String categoryId) {
-        if (!coupon.getApplicableCategories().contains(categoryId)) {
+        if (coupon.getApplicableCategories() == null || !coupon.getApplicableCategories().contains(categoryId)) {
             return Mono.error(new CouponException(CouponErrorCode.CATEGORY_NOT_IN_COUPON.withParams(categoryId)));
         }
 
@@ -0,0 +1,74 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketflow.couponmanager.coupon.configuration.RedemptionLedgerProperties;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.repository.RedemptionLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Service
+public class RedemptionLedgerService {
+
+    private final RedemptionLedgerRepository redemptionLedgerRepository;
+    private final Cache<LedgerKey, Integer> recentCounts;
+
+    public RedemptionLedgerService(RedemptionLedgerRepository redemptionLedgerRepository, RedemptionLedgerProperties properties) {
+        this.redemptionLedgerRepository = redemptionLedgerRepository;
+        this.recentCounts = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .build();
+    }
+
+    public Mono<Void> recordRedemption(String couponId, Integer usesPerUser, String userId) {
+        if (usesPerUser == null) {
+            return Mono.empty();
+        }
+
+        if (userId == null || userId.isBlank()) {
+            return Mono.error(new CouponException(CouponErrorCode.USER_ID_REQUIRED.withParams(couponId)));
+        }
+
+        // Coupons stored before usesPerUser was validated; the Mongo ledger would let the first redemption through
+        if (usesPerUser <= 0) {
+            return userLimitReached(couponId);
+        }
+
+        LedgerKey key = new LedgerKey(couponId, userId);
+        Integer cachedCount = recentCounts.getIfPresent(key);
+        if (cachedCount != null && cachedCount >= usesPerUser) {
+            return userLimitReached(couponId);
+        }
+
+        return redemptionLedgerRepository.recordRedemption(couponId, userId, usesPerUser)
+                .doOnNext(count -> recentCounts.put(key, count))
+                .switchIfEmpty(Mono.defer(() -> {
+                    recentCounts.put(key, usesPerUser);
+                    return userLimitReached(couponId);
+                }))
+                .then();
+    }
+
+    public Mono<Void> revertRedemption(String couponId, Integer usesPerUser, String userId) {
+        if (usesPerUser == null) {
+            return Mono.empty();
+        }
+
+        log.debug("Reverting redemption of coupon {} by user {}", couponId, userId);
+        recentCounts.invalidate(new LedgerKey(couponId, userId));
+        return redemptionLedgerRepository.revertRedemption(couponId, userId);
+    }
+
+    private static <T> Mono<T> userLimitReached(String couponId) {
+        return Mono.error(new CouponException(CouponErrorCode.COUPON_USER_LIMIT_REACHED.withParams(couponId)));
+    }
+
+    private record LedgerKey(String couponId, String userId) {
+    }
+
+}
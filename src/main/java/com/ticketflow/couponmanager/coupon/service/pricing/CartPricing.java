@@ -0,0 +1,13 @@
+package com.ticketflow.couponmanager.coupon.service.pricing;
+
+public record CartPricing(long subtotalCents, long discountCents, int appliedCoupons, long[] couponDiscountCents) {
+
+    public long totalCents() {
+        return subtotalCents - discountCents;
+    }
+
+    public boolean isApplied(int couponIndex) {
+        return (appliedCoupons & (1 << couponIndex)) != 0;
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.ticketflow.couponmanager.coupon.service.pricing;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CartItemDTO;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prices a cart against candidate coupons. Each line item can be discounted by at most one coupon, so coupons whose
+ * applicable categories overlap in the cart conflict, and the engine picks the non-conflicting set with the largest
+ * total discount. Amounts are handled as cents and per-coupon state as bit masks, which is why at most
+ * {@link #MAX_CANDIDATE_COUPONS} coupons are evaluated per cart.
+ */
+@Component
+public class CartPricingEngine {
+
+    public static final int MAX_CANDIDATE_COUPONS = 16;
+
+    public CartPricing price(List<CartItemDTO> items, List<Coupon> coupons) {
+        if (coupons.size() > MAX_CANDIDATE_COUPONS) {
+            throw new IllegalArgumentException("At most " + MAX_CANDIDATE_COUPONS + " coupons can be evaluated for a cart");
+        }
+
+        Map<String, Integer> categoryIndex = new HashMap<>(Math.max(16, items.size() * 2));
+        long[] categorySubtotals = new long[items.size()];
+        long subtotal = 0;
+
+        for (CartItemDTO item : items) {
+            long amount = lineAmountCents(item);
+            Integer index = categoryIndex.putIfAbsent(item.getCategoryId(), categoryIndex.size());
+            categorySubtotals[index == null ? categoryIndex.size() - 1 : index] += amount;
+            subtotal += amount;
+        }
+
+        int couponCount = coupons.size();
+        int categoryCount = categoryIndex.size();
+        int[] coverage = new int[categoryCount];
+        long[] discounts = new long[couponCount];
+
+        for (int c = 0; c < couponCount; c++) {
+            Coupon coupon = coupons.get(c);
+            int bit = 1 << c;
+            long eligible = 0;
+
+            if (coupon.getApplicableCategories() == null || coupon.getApplicableCategories().isEmpty()) {
+                for (int category = 0; category < categoryCount; category++) {
+                    coverage[category] |= bit;
+                }
+                eligible = subtotal;
+            } else {
+                for (String categoryId : coupon.getApplicableCategories()) {
+                    Integer category = categoryIndex.get(categoryId);
+                    if (category != null && (coverage[category] & bit) == 0) {
+                        coverage[category] |= bit;
+                        eligible += categorySubtotals[category];
+                    }
+                }
+            }
+
+            discounts[c] = discountCents(coupon, eligible);
+        }
+
+        int[] conflicts = new int[couponCount];
+        for (int category = 0; category < categoryCount; category++) {
+            int mask = coverage[category];
+            for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                int c = Integer.numberOfTrailingZeros(remaining);
+                conflicts[c] |= mask & ~(1 << c);
+            }
+        }
+
+        Selection selection = new Selection(discounts, conflicts);
+        selection.search(0, 0, 0, 0);
+
+        return new CartPricing(subtotal, selection.bestDiscount, selection.bestMask, discounts);
+    }
+
+    private static long lineAmountCents(CartItemDTO item) {
+        if (item.getPrice() == null || item.getPrice().signum() < 0 || item.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Cart items must have a non negative price and a positive quantity");
+        }
+        return toCents(item.getPrice()) * item.getQuantity();
+    }
+
+    private static long discountCents(Coupon coupon, long eligibleCents) {
+        if (eligibleCents <= 0) {
+            return 0;
+        }
+
+        long discount = 0;
+        if (coupon.getDiscountPercentage() != null) {
+            discount += Math.round(eligibleCents * coupon.getDiscountPercentage().doubleValue() / 100.0);
+        }
+        if (coupon.getDiscountValue() != null) {
+            discount += Math.round(coupon.getDiscountValue() * 100.0);
+        }
+        return Math.min(eligibleCents, discount);
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static final class Selection {
+
+        private final long[] discounts;
+        private final int[] conflicts;
+        private final int[] order;
+        private final long[] upperBounds;
+        private long bestDiscount;
+        private int bestMask;
+
+        private Selection(long[] discounts, int[] conflicts) {
+            this.discounts = discounts;
+            this.conflicts = conflicts;
+            this.order = new int[discounts.length];
+            this.upperBounds = new long[discounts.length + 1];
+
+            for (int i = 0; i < order.length; i++) {
+                int j = i;
+                while (j > 0 && discounts[order[j - 1]] < discounts[i]) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+                order[j] = i;
+            }
+            for (int i = order.length - 1; i >= 0; i--) {
+                upperBounds[i] = upperBounds[i + 1] + discounts[order[i]];
+            }
+        }
+
+        private void search(int position, int chosen, int blocked, long discount) {
+            if (discount > bestDiscount) {
+                bestDiscount = discount;
+                bestMask = chosen;
+            }
+
+            if (position == order.length || discount + upperBounds[position] <= bestDiscount) {
+                return;
+            }
+
+            int coupon = order[position];
+            int bit = 1 << coupon;
+            if ((blocked & bit) == 0 && discounts[coupon] > 0) {
+                search(position + 1, chosen | bit, blocked | conflicts[coupon], discount + discounts[coupon]);
+            }
+            search(position + 1, chosen, blocked, discount);
+        }
+    }
+
+}
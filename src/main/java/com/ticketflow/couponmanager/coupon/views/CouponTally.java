@@ -0,0 +1,18 @@
+package com.ticketflow.couponmanager.coupon.views;
+
+/**
+ * Coupon counts under one key of a view. {@code remainingUses} only counts active coupons with a use limit.
+ */
+public record CouponTally(long coupons, long activeCoupons, long remainingUses) {
+
+    public static final CouponTally EMPTY = new CouponTally(0, 0, 0);
+
+    CouponTally plus(CouponViewEntry entry) {
+        return new CouponTally(coupons + 1, activeCoupons + (entry.active() ? 1 : 0), remainingUses + entry.remainingUses());
+    }
+
+    CouponTally minus(CouponViewEntry entry) {
+        return new CouponTally(coupons - 1, activeCoupons - (entry.active() ? 1 : 0), remainingUses - entry.remainingUses());
+    }
+
+}
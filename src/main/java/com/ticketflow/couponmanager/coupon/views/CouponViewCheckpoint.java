@@ -0,0 +1,92 @@
+package com.ticketflow.couponmanager.coupon.views;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The views as stored on local disk, with the resume token of the last change they include, so a restart follows the
+ * changes from there instead of rebuilding from the whole collection.
+ */
+record CouponViewCheckpoint(String resumeToken, Instant lastChangeAt, Map<String, CouponViewEntry> entries) {
+
+    private static final int FORMAT = 1;
+
+    static CouponViewCheckpoint read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FORMAT) {
+                throw new IOException("Unknown checkpoint format in " + path);
+            }
+            String resumeToken = readNullable(in);
+            long lastChangeAt = in.readLong();
+            int size = in.readInt();
+            Map<String, CouponViewEntry> entries = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                String id = in.readUTF();
+                boolean active = in.readBoolean();
+                String responsibleUser = readNullable(in);
+                int remainingUses = in.readInt();
+                int categoryCount = in.readInt();
+                List<String> categories = new ArrayList<>(categoryCount);
+                for (int c = 0; c < categoryCount; c++) {
+                    categories.add(in.readUTF());
+                }
+                entries.put(id, new CouponViewEntry(active, responsibleUser, List.copyOf(categories), remainingUses));
+            }
+            return new CouponViewCheckpoint(resumeToken, lastChangeAt < 0 ? null : Instant.ofEpochMilli(lastChangeAt), entries);
+        }
+    }
+
+    /**
+     * Replaces the checkpoint at {@code path} atomically, so a crash while writing never leaves a truncated checkpoint.
+     */
+    void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FORMAT);
+                writeNullable(out, resumeToken);
+                out.writeLong(lastChangeAt == null ? -1 : lastChangeAt.toEpochMilli());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, CouponViewEntry> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeBoolean(entry.getValue().active());
+                    writeNullable(out, entry.getValue().responsibleUser());
+                    out.writeInt(entry.getValue().remainingUses());
+                    out.writeInt(entry.getValue().categories().size());
+                    for (String category : entry.getValue().categories()) {
+                        out.writeUTF(category);
+                    }
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+}
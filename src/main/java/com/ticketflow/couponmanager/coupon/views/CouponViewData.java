@@ -0,0 +1,139 @@
+package com.ticketflow.couponmanager.coupon.views;
+
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One generation of the views: the entry of every coupon, the tallies derived from them and the resume token of the
+ * last change applied. Changes are applied by a single follower; lookups read the tallies without locking.
+ * <p>
+ * Checkpoints are incremental: the entries changed since the previous checkpoint are collected as changes are applied,
+ * and each checkpoint only takes those under the lock. They are then merged, outside the lock, into the entries of the
+ * previous checkpoint.
+ */
+class CouponViewData {
+
+    private final Map<String, CouponViewEntry> entries = new HashMap<>();
+    private final ConcurrentHashMap<String, CouponTally> byResponsibleUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CouponTally> byCategory = new ConcurrentHashMap<>();
+    // Entries changed since the last checkpoint, with null for deleted coupons
+    private Map<String, CouponViewEntry> uncheckpointed = new HashMap<>();
+    // Only used by checkpoint()
+    private final Map<String, CouponViewEntry> checkpointed = new HashMap<>();
+    private String resumeToken;
+    private Instant lastChangeAt;
+
+    static CouponViewData restore(CouponViewCheckpoint checkpoint) {
+        CouponViewData data = new CouponViewData();
+        checkpoint.entries().forEach(data::put);
+        data.uncheckpointed.clear();
+        data.checkpointed.putAll(checkpoint.entries());
+        data.resumeToken = checkpoint.resumeToken();
+        data.lastChangeAt = checkpoint.lastChangeAt();
+        return data;
+    }
+
+    synchronized void put(Coupon coupon) {
+        put(coupon.getId(), CouponViewEntry.of(coupon));
+    }
+
+    synchronized void apply(CouponChange change) {
+        if (change.isDeletion()) {
+            put(change.couponId(), null);
+        } else {
+            put(change.couponId(), CouponViewEntry.of(change.coupon()));
+        }
+        resumeToken = change.resumeToken();
+        lastChangeAt = change.changedAt();
+    }
+
+    synchronized String getResumeToken() {
+        return resumeToken;
+    }
+
+    // The views keep answering from these entries while the next attempt rebuilds them
+    synchronized void forgetResumeToken() {
+        resumeToken = null;
+    }
+
+    synchronized Instant getLastChangeAt() {
+        return lastChangeAt;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * The changes and the token are taken together under the lock, so they always belong together. The checkpoint
+     * reads entries that the next one updates, so checkpoints must not overlap, and each has to be written before the
+     * next one is taken.
+     */
+    CouponViewCheckpoint checkpoint() {
+        Map<String, CouponViewEntry> changed;
+        String token;
+        Instant changeAt;
+        synchronized (this) {
+            changed = uncheckpointed;
+            uncheckpointed = new HashMap<>();
+            token = resumeToken;
+            changeAt = lastChangeAt;
+        }
+
+        changed.forEach((id, entry) -> {
+            if (entry == null) {
+                checkpointed.remove(id);
+            } else {
+                checkpointed.put(id, entry);
+            }
+        });
+        return new CouponViewCheckpoint(token, changeAt, Collections.unmodifiableMap(checkpointed));
+    }
+
+    CouponTally byResponsibleUser(String responsibleUser) {
+        return byResponsibleUser.getOrDefault(responsibleUser, CouponTally.EMPTY);
+    }
+
+    CouponTally byCategory(String categoryId) {
+        return byCategory.getOrDefault(categoryId, CouponTally.EMPTY);
+    }
+
+    private void put(String id, CouponViewEntry entry) {
+        CouponViewEntry previous = entry == null ? entries.remove(id) : entries.put(id, entry);
+        uncheckpointed.put(id, entry);
+        if (previous != null) {
+            untally(previous);
+        }
+        if (entry != null) {
+            tally(entry);
+        }
+    }
+
+    private void tally(CouponViewEntry entry) {
+        if (entry.responsibleUser() != null) {
+            byResponsibleUser.compute(entry.responsibleUser(), (key, tally) -> (tally == null ? CouponTally.EMPTY : tally).plus(entry));
+        }
+        entry.categories().forEach(category ->
+                byCategory.compute(category, (key, tally) -> (tally == null ? CouponTally.EMPTY : tally).plus(entry)));
+    }
+
+    // Keys without coupons are dropped, so the views do not grow with every responsible user ever seen
+    private void untally(CouponViewEntry entry) {
+        if (entry.responsibleUser() != null) {
+            byResponsibleUser.computeIfPresent(entry.responsibleUser(), (key, tally) -> emptyToNull(tally.minus(entry)));
+        }
+        entry.categories().forEach(category ->
+                byCategory.computeIfPresent(category, (key, tally) -> emptyToNull(tally.minus(entry))));
+    }
+
+    private static CouponTally emptyToNull(CouponTally tally) {
+        return tally.coupons() == 0 ? null : tally;
+    }
+
+}
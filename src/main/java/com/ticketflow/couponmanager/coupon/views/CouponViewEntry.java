@@ -0,0 +1,23 @@
+package com.ticketflow.couponmanager.coupon.views;
+
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+
+import java.util.List;
+
+/**
+ * What one coupon adds to the tallies. Kept per coupon because a change only carries the coupon's new state, and the
+ * old contribution has to be taken back before the new one is added.
+ */
+record CouponViewEntry(boolean active, String responsibleUser, List<String> categories, int remainingUses) {
+
+    static CouponViewEntry of(Coupon coupon) {
+        boolean active = coupon.getStatus() == Status.ACTIVE;
+        List<String> categories = coupon.getApplicableCategories() == null
+                ? List.of()
+                : coupon.getApplicableCategories().stream().distinct().toList();
+        int remainingUses = active && coupon.getUseLimit() != null && coupon.getUseLimit() > 0 ? coupon.getUseLimit() : 0;
+        return new CouponViewEntry(active, coupon.getResponsibleUser(), categories, remainingUses);
+    }
+
+}
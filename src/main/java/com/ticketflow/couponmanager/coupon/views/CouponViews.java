@@ -0,0 +1,197 @@
+package com.ticketflow.couponmanager.coupon.views;
+
+import com.ticketflow.couponmanager.coupon.configuration.CouponViewsProperties;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.CouponViewState;
+import com.ticketflow.couponmanager.coupon.event.CouponChangeFollower;
+import com.ticketflow.couponmanager.coupon.exception.StorageUnavailableException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Coupon counts per responsible user and per category, kept in memory and maintained from the coupon change stream,
+ * so reading them never touches the database.
+ * <p>
+ * On start the views are restored from the local checkpoint and follow the changes after its resume token. Without a
+ * usable checkpoint, or when the changes after the token are no longer retained, they are rebuilt from a full scan
+ * (see {@link CouponChangeFollower}).
+ */
+@Slf4j
+@Component
+public class CouponViews {
+
+    private final CouponViewsProperties properties;
+    private final Clock clock;
+    private final CouponChangeFollower follower;
+
+    private volatile CouponViewData data;
+    private volatile CouponViewState state = CouponViewState.PENDING;
+    private volatile Instant lastCheckpointAt;
+    private Disposable checkpoints;
+
+    @Autowired
+    public CouponViews(CouponRepository couponRepository, CouponViewsProperties properties) {
+        this(couponRepository, properties, Clock.systemUTC());
+    }
+
+    CouponViews(CouponRepository couponRepository, CouponViewsProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.follower = new CouponChangeFollower("coupon views", couponRepository, new CouponFilter(), new ViewTarget(),
+                properties.getRebuildOverlap(), properties.getRetryBackoff(), properties.getMaxRetryBackoff(), clock);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (state != CouponViewState.PENDING) {
+            return;
+        }
+        if (!properties.isEnabled()) {
+            state = CouponViewState.DISABLED;
+            return;
+        }
+
+        restoreCheckpoint();
+        follower.start();
+        checkpoints = Flux.interval(properties.getCheckpointInterval(), properties.getCheckpointInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::checkpoint).onErrorResume(ex -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (checkpoints != null) {
+            checkpoints.dispose();
+        }
+        if (state != CouponViewState.PENDING && state != CouponViewState.DISABLED) {
+            follower.stop();
+            checkpoint();
+        }
+    }
+
+    public CouponTally byResponsibleUser(String responsibleUser) {
+        return available().byResponsibleUser(responsibleUser);
+    }
+
+    public CouponTally byCategory(String categoryId) {
+        return available().byCategory(categoryId);
+    }
+
+    public CouponViewState getState() {
+        return state;
+    }
+
+    public int getSize() {
+        CouponViewData current = data;
+        return current == null ? 0 : current.size();
+    }
+
+    public Optional<Instant> getLastChangeAt() {
+        CouponViewData current = data;
+        return current == null ? Optional.empty() : Optional.ofNullable(current.getLastChangeAt());
+    }
+
+    public Optional<Instant> getLastCheckpointAt() {
+        return Optional.ofNullable(lastCheckpointAt);
+    }
+
+    public Optional<String> getLastError() {
+        return follower.getLastError();
+    }
+
+    // Views that were live keep answering from the previous generation while a new one is rebuilt
+    private CouponViewData available() {
+        CouponViewData current = data;
+        if (current == null) {
+            throw new StorageUnavailableException(CouponErrorCode.COUPON_VIEWS_UNAVAILABLE.withParams());
+        }
+        return current;
+    }
+
+    private void restoreCheckpoint() {
+        if (!Files.exists(properties.getCheckpointPath())) {
+            return;
+        }
+        try {
+            CouponViewCheckpoint checkpoint = CouponViewCheckpoint.read(properties.getCheckpointPath());
+            if (checkpoint.resumeToken() == null) {
+                return;
+            }
+            data = CouponViewData.restore(checkpoint);
+            state = CouponViewState.LIVE;
+            log.info("Restored coupon views of {} coupons from {}", checkpoint.entries().size(), properties.getCheckpointPath());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not read coupon views checkpoint {}, rebuilding the views: {}", properties.getCheckpointPath(), ex.getMessage());
+        }
+    }
+
+    // Synchronized because the checkpoints of a generation must not overlap
+    synchronized void checkpoint() {
+        CouponViewData current = data;
+        if (current == null || current.getResumeToken() == null) {
+            return;
+        }
+        try {
+            current.checkpoint().write(properties.getCheckpointPath());
+            lastCheckpointAt = clock.instant();
+        } catch (IOException ex) {
+            log.warn("Could not write coupon views checkpoint {}: {}", properties.getCheckpointPath(), ex.getMessage());
+        }
+    }
+
+    private class ViewTarget implements CouponChangeFollower.Target {
+
+        @Override
+        public String resumeToken() {
+            CouponViewData current = data;
+            return current == null ? null : current.getResumeToken();
+        }
+
+        @Override
+        public void forgetResumeToken() {
+            CouponViewData current = data;
+            if (current != null) {
+                current.forgetResumeToken();
+            }
+        }
+
+        @Override
+        public Mono<Void> rebuild(Flux<Coupon> coupons) {
+            return Mono.defer(() -> {
+                state = CouponViewState.REBUILDING;
+                CouponViewData rebuilt = new CouponViewData();
+                return coupons.doOnNext(rebuilt::put)
+                        .then(Mono.fromRunnable(() -> {
+                            data = rebuilt;
+                            state = CouponViewState.LIVE;
+                        }));
+            });
+        }
+
+        @Override
+        public void apply(CouponChange change) {
+            data.apply(change);
+        }
+
+    }
+
+}
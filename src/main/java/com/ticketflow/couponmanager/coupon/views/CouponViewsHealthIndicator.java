@@ -0,0 +1,31 @@
+package com.ticketflow.couponmanager.coupon.views;
+
+import com.ticketflow.couponmanager.coupon.configuration.CouponViewsProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports how far the coupon views have got. Views that are not live yet do not take the service down: only their
+ * endpoints answer with 503 until they are.
+ */
+@Component
+@RequiredArgsConstructor
+public class CouponViewsHealthIndicator extends AbstractHealthIndicator {
+
+    private final CouponViews views;
+    private final CouponViewsProperties properties;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        builder.up()
+                .withDetail("state", views.getState())
+                .withDetail("coupons", views.getSize())
+                .withDetail("checkpoint", properties.getCheckpointPath().toString());
+        views.getLastChangeAt().ifPresent(lastChangeAt -> builder.withDetail("lastChangeAt", lastChangeAt.toString()));
+        views.getLastCheckpointAt().ifPresent(lastCheckpointAt -> builder.withDetail("lastCheckpointAt", lastCheckpointAt.toString()));
+        views.getLastError().ifPresent(lastError -> builder.withDetail("lastError", lastError));
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.ticketflow.couponmanager.coupon.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.ticketflow.couponmanager.coupon.configuration.WarmUpProperties;
+import com.ticketflow.couponmanager.coupon.enums.WarmUpState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Warms the service up before it is announced to Eureka.
+ * <p>
+ * The instance registers with {@code eureka.instance.initial-status=STARTING}, so discovery clients do not route to
+ * it yet. The warm-up runs when the context has started, before Spring Boot reports the application ready, and only
+ * then is the instance marked {@code UP}. Steps that fail or do not finish within the budget are skipped: a colder
+ * instance is better than one that never takes traffic.
+ */
+@Slf4j
+@Component
+public class CouponWarmUp {
+
+    private final WarmUpWorkload workload;
+    private final WarmUpProperties properties;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private final ObjectProvider<EurekaInstanceConfigBean> eurekaInstanceConfig;
+    private final Clock clock;
+
+    private volatile WarmUpState state = WarmUpState.PENDING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String currentStep;
+    private volatile int totalSteps;
+    private final Map<String, Long> completedSteps = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, String> failedSteps = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    @Autowired
+    public CouponWarmUp(WarmUpWorkload workload, WarmUpProperties properties,
+                        ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+                        ObjectProvider<EurekaInstanceConfigBean> eurekaInstanceConfig) {
+        this(workload, properties, applicationInfoManager, eurekaInstanceConfig, Clock.systemUTC());
+    }
+
+    CouponWarmUp(WarmUpWorkload workload, WarmUpProperties properties,
+                 ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+                 ObjectProvider<EurekaInstanceConfigBean> eurekaInstanceConfig, Clock clock) {
+        this.workload = workload;
+        this.properties = properties;
+        this.applicationInfoManager = applicationInfoManager;
+        this.eurekaInstanceConfig = eurekaInstanceConfig;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        if (state != WarmUpState.PENDING) {
+            return;
+        }
+        if (!properties.isEnabled()) {
+            state = WarmUpState.DISABLED;
+            markUp();
+            return;
+        }
+
+        List<WarmUpStep> steps = workload.steps();
+        totalSteps = steps.size();
+        startedAt = clock.instant();
+        state = WarmUpState.RUNNING;
+        log.info("Warming up {} steps with a budget of {}", totalSteps, properties.getBudget());
+
+        boolean completed = Boolean.TRUE.equals(Flux.fromIterable(steps)
+                .concatMap(this::run)
+                .then(Mono.just(true))
+                .timeout(properties.getBudget(), Mono.just(false))
+                .subscribeOn(Schedulers.boundedElastic())
+                .block());
+
+        finishedAt = clock.instant();
+        currentStep = null;
+        state = completed ? WarmUpState.COMPLETED : WarmUpState.TIMED_OUT;
+        log.info("Warm-up {} in {} ms, {} of {} steps done", completed ? "completed" : "ran out of budget",
+                getElapsed().toMillis(), completedSteps.size(), totalSteps);
+        markUp();
+    }
+
+    private Mono<Void> run(WarmUpStep step) {
+        return Mono.defer(() -> {
+            currentStep = step.name();
+            long start = System.nanoTime();
+            return step.work()
+                    .doOnSuccess(ignored -> completedSteps.put(step.name(), Duration.ofNanos(System.nanoTime() - start).toMillis()))
+                    .onErrorResume(ex -> {
+                        log.warn("Warm-up step {} failed: {}", step.name(), ex.getMessage());
+                        failedSteps.put(step.name(), String.valueOf(ex.getMessage()));
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    // Later re-registrations, e.g. after a refresh, use the initial status again, so it is moved to UP as well
+    private void markUp() {
+        eurekaInstanceConfig.ifAvailable(config -> config.setInitialStatus(InstanceStatus.UP));
+        applicationInfoManager.ifAvailable(manager -> manager.setInstanceStatus(InstanceStatus.UP));
+    }
+
+    public WarmUpState getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state != WarmUpState.PENDING && state != WarmUpState.RUNNING;
+    }
+
+    public Duration getElapsed() {
+        if (startedAt == null) {
+            return Duration.ZERO;
+        }
+        return Duration.between(startedAt, finishedAt == null ? clock.instant() : finishedAt);
+    }
+
+    public Optional<String> getCurrentStep() {
+        return Optional.ofNullable(currentStep);
+    }
+
+    public int getTotalSteps() {
+        return totalSteps;
+    }
+
+    public Map<String, Long> getCompletedSteps() {
+        synchronized (completedSteps) {
+            return new LinkedHashMap<>(completedSteps);
+        }
+    }
+
+    public Map<String, String> getFailedSteps() {
+        synchronized (failedSteps) {
+            return new LinkedHashMap<>(failedSteps);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.ticketflow.couponmanager.coupon.warmup;
+
+import com.ticketflow.couponmanager.coupon.configuration.WarmUpProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the instance out of service while it warms up and reports the warm-up budget and progress.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private final CouponWarmUp warmUp;
+    private final WarmUpProperties properties;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (warmUp.isFinished()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+
+        builder.withDetail("state", warmUp.getState())
+                .withDetail("budget", properties.getBudget().toString())
+                .withDetail("elapsed", warmUp.getElapsed().toString())
+                .withDetail("steps", warmUp.getCompletedSteps().size() + "/" + warmUp.getTotalSteps())
+                .withDetail("stepMillis", warmUp.getCompletedSteps());
+        warmUp.getCurrentStep().ifPresent(step -> builder.withDetail("currentStep", step));
+        if (!warmUp.getFailedSteps().isEmpty()) {
+            builder.withDetail("failedSteps", warmUp.getFailedSteps());
+        }
+    }
+
+}
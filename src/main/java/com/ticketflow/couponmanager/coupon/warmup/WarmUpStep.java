@@ -0,0 +1,9 @@
+package com.ticketflow.couponmanager.coupon.warmup;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A named part of the warm-up. The work is deferred until the step runs.
+ */
+public record WarmUpStep(String name, Mono<Void> work) {
+}
@@ -0,0 +1,195 @@
+package com.ticketflow.couponmanager.coupon.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.WarmUpProperties;
+import com.ticketflow.couponmanager.coupon.controller.dto.CartDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CartItemDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.PricingResultDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.coupon.service.CouponValidatorService;
+import com.ticketflow.couponmanager.coupon.service.pricing.CartPricing;
+import com.ticketflow.couponmanager.coupon.service.pricing.CartPricingEngine;
+import org.modelmapper.ModelMapper;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Synthetic traffic for the hot request paths. Nothing is written: redeems stop before the usage is decremented and
+ * searches look for coupons that cannot exist, so the warm-up is safe against the production database.
+ */
+@Component
+public class WarmUpWorkload {
+
+    static final String SYNTHETIC_PREFIX = "warm-up-";
+
+    private final CouponRepository couponRepository;
+    private final CouponValidatorService couponValidatorService;
+    private final CartPricingEngine cartPricingEngine;
+    private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
+    private final WarmUpProperties properties;
+
+    public WarmUpWorkload(CouponRepository couponRepository, CouponValidatorService couponValidatorService,
+                          CartPricingEngine cartPricingEngine, ModelMapper modelMapper, ObjectMapper objectMapper,
+                          WarmUpProperties properties) {
+        this.couponRepository = couponRepository;
+        this.couponValidatorService = couponValidatorService;
+        this.cartPricingEngine = cartPricingEngine;
+        this.modelMapper = modelMapper;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public List<WarmUpStep> steps() {
+        return List.of(
+                new WarmUpStep("connection-pool", Mono.defer(this::openConnections)),
+                new WarmUpStep("validate", Mono.defer(this::validate)),
+                new WarmUpStep("redeem-dry-run", Mono.defer(this::redeemDryRun)),
+                new WarmUpStep("search", Mono.defer(this::search)),
+                new WarmUpStep("serialization", Mono.defer(this::serialize)),
+                new WarmUpStep("hot-coupons", Mono.defer(this::preloadHotCoupons)));
+    }
+
+    // Concurrent reads make the driver open that many pooled connections
+    private Mono<Void> openConnections() {
+        int connections = Math.max(1, properties.getConnections());
+        return Flux.range(0, connections)
+                .flatMap(i -> couponRepository.findById(syntheticId(i)), connections)
+                .then();
+    }
+
+    private Mono<Void> validate() {
+        List<Coupon> coupons = syntheticCoupons();
+        return Flux.range(0, properties.getIterations())
+                .concatMap(i -> {
+                    Coupon coupon = coupons.get(i % coupons.size());
+                    return couponValidatorService.checkIfCouponIsExpired(coupon)
+                            .flatMap(couponValidatorService::checkIfCouponIsInactive)
+                            .flatMap(couponValidatorService::checkIfCouponHaveAvailableUses)
+                            .map(this::toCouponDTO)
+                            .onErrorResume(CouponException.class, ex -> Mono.empty());
+                })
+                .then();
+    }
+
+    private Mono<Void> redeemDryRun() {
+        List<Coupon> coupons = syntheticCoupons();
+        List<CartItemDTO> items = syntheticCart().getItems();
+        return Flux.range(0, properties.getIterations())
+                .concatMap(i -> couponValidatorService.validateCreate(toCouponDTO(coupons.get(0)))
+                        .then(couponValidatorService.checkIfCouponHaveAvailableUses(coupons.get(0)))
+                        .map(coupon -> cartPricingEngine.price(items, coupons))
+                        .map(CartPricing::totalCents))
+                .then();
+    }
+
+    private Mono<Void> search() {
+        String responsibleUser = SYNTHETIC_PREFIX + UUID.randomUUID();
+        List<CouponFilter> filters = List.of(
+                CouponFilter.builder().responsibleUser(responsibleUser).status(Status.ACTIVE).build(),
+                CouponFilter.builder().responsibleUser(responsibleUser)
+                        .expirationDateStart(LocalDate.now())
+                        .expirationDateEnd(LocalDate.now().plusDays(30))
+                        .build(),
+                CouponFilter.builder().code(responsibleUser).build());
+
+        return Flux.range(0, properties.getQueries())
+                .flatMap(i -> couponRepository.findByFilter(filters.get(i % filters.size()))
+                        .concatWith(couponRepository.findByCodes(List.of(responsibleUser + "-" + i)))
+                        .concatWith(couponRepository.findByCodePrefix(responsibleUser, 1))
+                        .map(this::toCouponDTO), Math.max(1, properties.getConnections()))
+                .then();
+    }
+
+    private Mono<Void> serialize() {
+        List<CouponDTO> coupons = syntheticCoupons().stream().map(this::toCouponDTO).toList();
+        CartDTO cart = syntheticCart();
+        PricingResultDTO pricingResult = PricingResultDTO.builder()
+                .subtotal(new BigDecimal("120.00"))
+                .discount(new BigDecimal("12.00"))
+                .total(new BigDecimal("108.00"))
+                .appliedCoupons(List.of())
+                .rejectedCoupons(List.of(SYNTHETIC_PREFIX + "code"))
+                .build();
+
+        return Flux.range(0, properties.getIterations())
+                .doOnNext(i -> {
+                    try {
+                        CouponDTO coupon = coupons.get(i % coupons.size());
+                        objectMapper.readValue(objectMapper.writeValueAsBytes(coupon), CouponDTO.class);
+                        objectMapper.readValue(objectMapper.writeValueAsBytes(cart), CartDTO.class);
+                        objectMapper.writeValueAsBytes(pricingResult);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                })
+                .then();
+    }
+
+    // Loads the configured coupons through the same read path as validate
+    private Mono<Void> preloadHotCoupons() {
+        if (properties.getHotCouponCodes().isEmpty()) {
+            return Mono.empty();
+        }
+        return couponRepository.findByCodes(properties.getHotCouponCodes())
+                .flatMap(coupon -> couponRepository.findById(coupon.getId()), Math.max(1, properties.getConnections()))
+                .map(this::toCouponDTO)
+                .then();
+    }
+
+    private List<Coupon> syntheticCoupons() {
+        LocalDateTime now = LocalDateTime.now();
+        Coupon active = Coupon.builder()
+                .id(syntheticId(0))
+                .name("Warm-up coupon")
+                .description("Synthetic coupon used during the warm-up")
+                .code(SYNTHETIC_PREFIX + "code")
+                .discountPercentage(10F)
+                .status(Status.ACTIVE)
+                .responsibleUser(SYNTHETIC_PREFIX + "user")
+                .expirationDate(now.plusDays(1))
+                .useLimit(10)
+                .usesPerUser(1)
+                .applicableCategories(List.of("shows"))
+                .build();
+
+        return List.of(
+                active,
+                active.toBuilder().id(syntheticId(1)).discountPercentage(null).discountValue(5F).applicableCategories(List.of()).build(),
+                active.toBuilder().id(syntheticId(2)).expirationDate(now.minusDays(1)).build(),
+                active.toBuilder().id(syntheticId(3)).status(Status.INACTIVE).build(),
+                active.toBuilder().id(syntheticId(4)).useLimit(0).build());
+    }
+
+    private static CartDTO syntheticCart() {
+        return CartDTO.builder()
+                .items(List.of(
+                        CartItemDTO.builder().categoryId("shows").price(new BigDecimal("50.00")).quantity(2).build(),
+                        CartItemDTO.builder().categoryId("food").price(new BigDecimal("20.00")).build()))
+                .couponCodes(List.of(SYNTHETIC_PREFIX + "code"))
+                .build();
+    }
+
+    private static String syntheticId(int index) {
+        return SYNTHETIC_PREFIX + index;
+    }
+
+    private CouponDTO toCouponDTO(Coupon coupon) {
+        return modelMapper.map(coupon, CouponDTO.class);
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.codec.BinaryObjectMappers;
+import com.ticketflow.couponmanager.coupon.controller.CouponController;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.service.CouponService;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class BinaryCodecConfigurationTest {
+
+    private static final LocalDateTime EXPIRATION_DATE = LocalDateTime.of(2030, 1, 15, 10, 30);
+
+    @Mock
+    private CouponService couponService;
+
+    private WebTestClient webTestClient;
+
+    private ObjectMapper cborMapper;
+
+    private ObjectMapper smileMapper;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        BinaryCodecConfiguration configuration = new BinaryCodecConfiguration(
+                new StaticListableBeanFactory().getBeanProvider(Jackson2ObjectMapperBuilder.class));
+        webTestClient = WebTestClient.bindToController(new CouponController(couponService))
+                .httpMessageCodecs(configuration::configureHttpMessageCodecs)
+                .contentTypeResolver(configuration::configureContentTypeResolver)
+                .build();
+        cborMapper = BinaryObjectMappers.cbor(new Jackson2ObjectMapperBuilder());
+        smileMapper = BinaryObjectMappers.smile(new Jackson2ObjectMapperBuilder());
+    }
+
+    @Test
+    @DisplayName("CBOR - a coupon is written as CBOR with the expiration date as epoch milliseconds")
+    void validateCoupon_WhenCborIsAccepted_WritesCborWithEpochDates() throws IOException {
+        CouponDTO coupon = coupon();
+        when(couponService.validateCoupon("1")).thenReturn(Mono.just(coupon));
+
+        byte[] body = webTestClient.get()
+                .uri("/coupon/1/validate")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        JsonNode tree = cborMapper.readTree(body);
+        assertEquals(EXPIRATION_DATE.toInstant(ZoneOffset.UTC).toEpochMilli(), tree.get("expirationDate").longValue());
+        assertEquals(coupon, cborMapper.readValue(body, CouponDTO.class));
+    }
+
+    @Test
+    @DisplayName("CBOR - a list of coupons is written as a single CBOR array")
+    void getCoupons_WhenCborIsAccepted_WritesCborArray() throws IOException {
+        CouponDTO coupon = coupon();
+        when(couponService.getCoupons(any(CouponFilter.class))).thenReturn(Flux.just(coupon, coupon));
+
+        byte[] body = webTestClient.get()
+                .uri("/coupon")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        List<CouponDTO> coupons = List.of(cborMapper.readValue(body, CouponDTO[].class));
+        assertEquals(List.of(coupon, coupon), coupons);
+    }
+
+    @Test
+    @DisplayName("Smile - a coupon sent and accepted as Smile is read and written with epoch dates")
+    void createCoupon_WhenSmileIsUsed_ReadsAndWritesSmile() throws IOException {
+        CouponDTO coupon = coupon();
+        when(couponService.createCoupon(any(CouponDTO.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        byte[] body = webTestClient.post()
+                .uri("/coupon")
+                .contentType(BinaryCodecConfiguration.APPLICATION_SMILE)
+                .accept(BinaryCodecConfiguration.APPLICATION_SMILE)
+                .bodyValue(smileMapper.writeValueAsBytes(coupon))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(BinaryCodecConfiguration.APPLICATION_SMILE)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertTrue(smileMapper.readTree(body).get("expirationDate").isNumber());
+        assertEquals(coupon, smileMapper.readValue(body, CouponDTO.class));
+    }
+
+    @Test
+    @DisplayName("JSON - stays the default with the formatted expiration date")
+    void validateCoupon_WhenNoEncodingIsRequested_WritesJson() {
+        when(couponService.validateCoupon("1")).thenReturn(Mono.just(coupon()));
+
+        webTestClient.get()
+                .uri("/coupon/1/validate")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.expirationDate").isEqualTo("15/01/2030 10:30");
+    }
+
+    private static CouponDTO coupon() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+        coupon.setExpirationDate(EXPIRATION_DATE);
+        return coupon;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.ticketflow.couponmanager.coupon.model.RedemptionLedgerEntry;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoIndexConfigurationTest {
+
+    @Test
+    @DisplayName("Ledger index - created before the instance starts")
+    void afterSingletonsInstantiated_CreatesUniqueLedgerIndex() {
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        try (MongoClient mongoClient = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort())) {
+            ReactiveMongoTemplate mongoTemplate = new ReactiveMongoTemplate(mongoClient, "coupon-test");
+
+            new MongoIndexConfiguration(mongoTemplate, mappingContext()).afterSingletonsInstantiated();
+
+            IndexInfo index = mongoTemplate.indexOps(RedemptionLedgerEntry.class).getIndexInfo()
+                    .filter(info -> info.getName().equals("coupon_user_idx"))
+                    .blockFirst();
+            assertNotNull(index);
+            assertTrue(index.isUnique());
+        } finally {
+            mongoServer.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Ledger index - the instance does not start without it")
+    void afterSingletonsInstantiated_WhenIndexCannotBeCreated_FailsStartup() {
+        try (MongoClient mongoClient = MongoClients.create("mongodb://localhost:1/?serverSelectionTimeoutMS=200")) {
+            MongoIndexConfiguration configuration = new MongoIndexConfiguration(
+                    new ReactiveMongoTemplate(mongoClient, "coupon-test"), mappingContext());
+
+            assertThrows(IllegalStateException.class, configuration::afterSingletonsInstantiated);
+        }
+    }
+
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.ticketflow.couponmanager.coupon.configuration;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkUpdateDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponImportDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponTallyDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.CouponViewState;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsConfigurationTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    public void setUp() {
+        hints = new RuntimeHints();
+        new NativeHintsConfiguration.CouponRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Hints - mapped types can be introspected and instantiated by ModelMapper")
+    void registerHints_WhenTypesAreMapped_AllowsIntrospectionAndInstantiation() {
+        for (Class<?> type : new Class<?>[]{Coupon.class, CouponDTO.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS)
+                    .test(hints));
+        }
+    }
+
+    @Test
+    @DisplayName("Hints - bound types and their nested types are registered for binding")
+    void registerHints_WhenTypesAreBound_RegistersAccessorsAndNestedTypes() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(CouponFilter.class.getMethod("setExpirationDate", LocalDate.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Status.class).test(hints));
+    }
+
+    @Test
+    @DisplayName("Hints - export, import, bulk change and view payloads are registered for binding")
+    void registerHints_WhenPayloadsAreBound_RegistersLaterPayloads() {
+        for (Class<?> type : new Class<?>[]{ExportFormat.class, CouponImportDTO.class, CouponBulkChangeDTO.class,
+                CouponBulkUpdateDTO.class, CouponTallyDTO.class, CouponViewState.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type).test(hints), type.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Hints - error message bundles are included as resources")
+    void registerHints_WhenRegistered_IncludesMessageBundles() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("messages_en.properties").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("messages_pt_BR.properties").test(hints));
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.ticketflow.couponmanager.coupon.configuration.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigSnapshotEnvironmentPostProcessorTest {
+
+    @TempDir
+    Path directory;
+
+    private Path snapshotPath;
+
+    private MockEnvironment environment;
+
+    private ConfigSnapshotEnvironmentPostProcessor postProcessor;
+
+    @BeforeEach
+    public void setUp() {
+        snapshotPath = directory.resolve("config.properties");
+        environment = new MockEnvironment().withProperty("coupon.config.snapshot.path", snapshotPath.toString());
+        postProcessor = new ConfigSnapshotEnvironmentPostProcessor(Supplier::get);
+    }
+
+    @Test
+    @DisplayName("Post process - without a snapshot the Configuration service import is kept")
+    void postProcessEnvironment_WhenThereIsNoSnapshot_KeepsConfigServerImport() {
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertFalse(environment.getPropertySources().contains(ConfigSnapshotEnvironmentPostProcessor.SNAPSHOT_PROPERTY_SOURCE));
+        assertNull(environment.getProperty(ConfigSnapshotEnvironmentPostProcessor.IMPORT_PROPERTY));
+    }
+
+    @Test
+    @DisplayName("Post process - with a snapshot its properties are used and the import is cleared")
+    void postProcessEnvironment_WhenThereIsASnapshot_UsesItAndClearsImport() throws IOException {
+        new ConfigSnapshot(Map.of("coupon.redeem.batch.max-size", "32"), Instant.now()).write(snapshotPath);
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertEquals("32", environment.getProperty("coupon.redeem.batch.max-size"));
+        assertEquals("", environment.getProperty(ConfigSnapshotEnvironmentPostProcessor.IMPORT_PROPERTY));
+    }
+
+    @Test
+    @DisplayName("Post process - a disabled or unreadable snapshot is ignored")
+    void postProcessEnvironment_WhenSnapshotIsDisabledOrUnreadable_IgnoresIt() throws IOException {
+        new ConfigSnapshot(Map.of("coupon.redeem.batch.max-size", "32"), Instant.now()).write(snapshotPath);
+        environment.setProperty("coupon.config.snapshot.enabled", "false");
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertNull(environment.getProperty("coupon.redeem.batch.max-size"));
+
+        Files.writeString(snapshotPath, "broken=\\u00");
+        environment.setProperty("coupon.config.snapshot.enabled", "true");
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertNull(environment.getProperty(ConfigSnapshotEnvironmentPostProcessor.IMPORT_PROPERTY));
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.ticketflow.couponmanager.coupon.configuration.snapshot;
+
+import com.ticketflow.couponmanager.coupon.configuration.ConfigSnapshotProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConfigSnapshotRefresherTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-10T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Supplier<Map<String, String>> configServerFetcher;
+
+    private ConfigSnapshotProperties properties;
+
+    private MockEnvironment environment;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new ConfigSnapshotProperties();
+        properties.setPath(directory.resolve("config.properties"));
+        properties.setRefreshInterval(Duration.ofHours(1));
+        environment = new MockEnvironment();
+    }
+
+    @Test
+    @DisplayName("Start - configuration fetched during startup is persisted as the snapshot")
+    void start_WhenStartedFromConfigServer_PersistsFetchedConfiguration() throws IOException {
+        environment.getPropertySources().addLast(new MapPropertySource("configserver:app.properties", Map.of("shared", "app", "only-app", "1")));
+        environment.getPropertySources().addLast(new MapPropertySource("configserver:application.properties", Map.of("shared", "global")));
+        ConfigSnapshotRefresher refresher = refresher();
+
+        refresher.start();
+        refresher.stop();
+
+        assertFalse(refresher.isStartedFromSnapshot());
+        assertEquals(Map.of("shared", "app", "only-app", "1"), ConfigSnapshot.read(properties.getPath()).properties());
+    }
+
+    @Test
+    @DisplayName("Refresh - changes fetched after starting from the snapshot are applied and persisted")
+    void refresh_WhenStartedFromSnapshotAndConfigurationChanged_AppliesChanges() throws IOException {
+        environment.getPropertySources().addLast(new MapPropertySource(ConfigSnapshotEnvironmentPostProcessor.SNAPSHOT_PROPERTY_SOURCE,
+                new HashMap<>(Map.of("kept", "1", "changed", "old", "removed", "x"))));
+        when(configServerFetcher.get()).thenReturn(Map.of("kept", "1", "changed", "new", "added", "y"));
+        ConfigSnapshotRefresher refresher = refresher();
+
+        refresher.refresh();
+
+        assertTrue(refresher.isStartedFromSnapshot());
+        assertEquals("new", environment.getProperty("changed"));
+        assertNull(environment.getProperty("removed"));
+        assertEquals(Map.of("kept", "1", "changed", "new", "added", "y"), ConfigSnapshot.read(properties.getPath()).properties());
+
+        ArgumentCaptor<EnvironmentChangeEvent> event = ArgumentCaptor.forClass(EnvironmentChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of("changed", "removed", "added"), event.getValue().getKeys());
+    }
+
+    @Test
+    @DisplayName("Refresh - a failed fetch keeps the current configuration and is reported as stale once too old")
+    void refresh_WhenFetchFails_KeepsConfigurationAndReportsStaleness() throws IOException {
+        new ConfigSnapshot(Map.of("kept", "1"), NOW).write(properties.getPath());
+        environment.getPropertySources().addLast(new MapPropertySource(ConfigSnapshotEnvironmentPostProcessor.SNAPSHOT_PROPERTY_SOURCE,
+                new HashMap<>(Map.of("kept", "1"))));
+        when(configServerFetcher.get()).thenThrow(new IllegalStateException("Configuration service unavailable"));
+        ConfigSnapshotRefresher refresher = refresher();
+        refresher.start();
+        refresher.stop();
+
+        refresher.refresh();
+
+        assertEquals("1", environment.getProperty("kept"));
+        assertEquals(Map.of("kept", "1"), ConfigSnapshot.read(properties.getPath()).properties());
+        assertEquals("Configuration service unavailable", refresher.getLastError().orElseThrow());
+        assertTrue(refresher.isStale());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private ConfigSnapshotRefresher refresher() {
+        return new ConfigSnapshotRefresher(environment, properties, eventPublisher, configServerFetcher,
+                Clock.fixed(NOW.plus(Duration.ofDays(1)), ZoneOffset.UTC));
+    }
+
+}
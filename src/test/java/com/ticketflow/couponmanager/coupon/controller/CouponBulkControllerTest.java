@@ -0,0 +1,84 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkUpdateDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.handler.ControllerExceptionHandler;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.service.CouponBulkUpdateService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CouponBulkControllerTest {
+
+    private final CouponBulkUpdateService couponBulkUpdateService = mock(CouponBulkUpdateService.class);
+
+    private final WebTestClient webTestClient;
+
+    CouponBulkControllerTest() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        webTestClient = WebTestClient.bindToController(new CouponBulkController(couponBulkUpdateService))
+                .controllerAdvice(new ControllerExceptionHandler(messageSource))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Bulk deactivate should bind the filter from the query and answer with the counts")
+    void deactivateCoupons_bindsFilterAndDryRun() {
+        when(couponBulkUpdateService.deactivateCoupons(any(), eq(true)))
+                .thenReturn(Mono.just(CouponBulkUpdateDTO.builder().matched(42).dryRun(true).build()));
+
+        webTestClient.put()
+                .uri("/coupon/bulk/deactivate?status=ACTIVE&expirationDateEnd=31/12/2026&dryRun=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.matched").isEqualTo(42)
+                .jsonPath("$.dryRun").isEqualTo(true)
+                .jsonPath("$.modified").doesNotExist();
+
+        ArgumentCaptor<CouponFilter> filter = ArgumentCaptor.forClass(CouponFilter.class);
+        verify(couponBulkUpdateService).deactivateCoupons(filter.capture(), eq(true));
+        assertEquals(Status.ACTIVE, filter.getValue().getStatus());
+        assertEquals(LocalDate.of(2026, 12, 31), filter.getValue().getExpirationDateEnd());
+    }
+
+    @Test
+    @DisplayName("Bulk expiration change should read the new date from the body and return validation errors")
+    void extendExpiration_whenRejected_returnsError() {
+        when(couponBulkUpdateService.extendExpiration(any(), any(), eq(false)))
+                .thenReturn(Mono.error(new CouponException(CouponErrorCode.BULK_FILTER_REQUIRED.withParams())));
+
+        webTestClient.put()
+                .uri("/coupon/bulk/expiration")
+                .bodyValue(CouponBulkChangeDTO.builder().expirationDate(LocalDateTime.of(2027, 1, 31, 23, 59)).build())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CPM_ERR_28")
+                .jsonPath("$.message").isEqualTo("Coupons can only be changed in bulk with at least one filter.");
+
+        ArgumentCaptor<CouponBulkChangeDTO> change = ArgumentCaptor.forClass(CouponBulkChangeDTO.class);
+        verify(couponBulkUpdateService).extendExpiration(any(), change.capture(), eq(false));
+        assertEquals(LocalDateTime.of(2027, 1, 31, 23, 59), change.getValue().getExpirationDate());
+    }
+
+}
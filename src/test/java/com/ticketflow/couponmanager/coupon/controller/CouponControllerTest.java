@@ -2,7 +2,11 @@ package com.ticketflow.couponmanager.coupon.controller;
 
 import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
 import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponSearch;
+import com.ticketflow.couponmanager.coupon.enums.SearchMode;
 import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
 import com.ticketflow.couponmanager.coupon.service.CouponService;
 import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Flux;
@@ -97,6 +102,27 @@ class CouponControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Search should bind the query, mode and page")
+    void searchCoupons_ReturnsMatchingCoupons() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+
+        when(couponService.searchCoupons(any(CouponSearch.class))).thenReturn(Flux.just(coupon));
+
+        webTestClient.get()
+                .uri("/coupon/search?q=summer&mode=PREFIX&page=1&size=5")
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(CouponDTO.class)
+                .hasSize(1)
+                .contains(coupon);
+
+        verify(couponService).searchCoupons(argThat(search -> "summer".equals(search.getQ())
+                && search.getMode() == SearchMode.PREFIX && search.getPage() == 1 && search.getSize() == 5));
+    }
+
     @Test
     @DisplayName("Creating a coupon should return the created coupon")
     void createCoupon_ReturnsCreatedCoupon() {
@@ -162,7 +188,7 @@ class CouponControllerTest {
                 .status(Status.INACTIVE)
                 .build();
 
-        when(couponService.deactivateCoupon(couponDTO.getId())).thenReturn(Mono.just(couponDTO));
+        when(couponService.deactivateCoupon(couponDTO.getId(), null)).thenReturn(Mono.just(couponDTO));
 
         webTestClient.put()
                 .uri("/coupon/{id}/deactivate", couponDTO.getId())
@@ -171,7 +197,7 @@ class CouponControllerTest {
                 .expectBody(CouponDTO.class)
                 .isEqualTo(couponDTO);
 
-        verify(couponService, times(1)).deactivateCoupon(couponDTO.getId());
+        verify(couponService, times(1)).deactivateCoupon(couponDTO.getId(), null);
     }
 
     @Test
@@ -179,16 +205,16 @@ class CouponControllerTest {
     void redeemCoupon_ReturnsCoupon() {
         CouponDTO couponDTO = CouponTestBuilder.createDefaultCouponDTO();
 
-        when(couponService.validateAndDecreaseAvailableCoupons(couponDTO.getId())).thenReturn(Mono.just(couponDTO));
+        when(couponService.validateAndDecreaseAvailableCoupons(couponDTO.getId(), "user-1")).thenReturn(Mono.just(couponDTO));
 
         webTestClient.put()
-                .uri("/coupon/{id}/redeem", couponDTO.getId())
+                .uri("/coupon/{id}/redeem?userId={userId}", couponDTO.getId(), "user-1")
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody(CouponDTO.class)
                 .isEqualTo(couponDTO);
 
-        verify(couponService, times(1)).validateAndDecreaseAvailableCoupons(couponDTO.getId());
+        verify(couponService, times(1)).validateAndDecreaseAvailableCoupons(couponDTO.getId(), "user-1");
     }
 
     @Test
@@ -197,7 +223,7 @@ class CouponControllerTest {
         CouponDTO couponDTO = CouponTestBuilder.createDefaultCouponDTO();
         String categoryId = "category-123";
 
-        when(couponService.addApplicableCategory(couponDTO.getId(), categoryId)).thenReturn(Mono.just(couponDTO));
+        when(couponService.addApplicableCategory(couponDTO.getId(), categoryId, null)).thenReturn(Mono.just(couponDTO));
 
         webTestClient.put()
                 .uri("/coupon/{id}/applicable-category/add/{categoryId}", couponDTO.getId(), categoryId)
@@ -206,7 +232,7 @@ class CouponControllerTest {
                 .expectBody(CouponDTO.class)
                 .isEqualTo(couponDTO);
 
-        verify(couponService, times(1)).addApplicableCategory(couponDTO.getId(), categoryId);
+        verify(couponService, times(1)).addApplicableCategory(couponDTO.getId(), categoryId, null);
     }
 
     @Test
@@ -221,7 +247,7 @@ class CouponControllerTest {
 
         CouponDTO expectedCouponDTO = CouponTestBuilder.createDefaultCouponDTO();
 
-        when(couponService.removeApplicableCategory(couponDTO.getId(), categoryId)).thenReturn(Mono.just(expectedCouponDTO));
+        when(couponService.removeApplicableCategory(couponDTO.getId(), categoryId, null)).thenReturn(Mono.just(expectedCouponDTO));
 
         webTestClient.put()
                 .uri("/coupon/{id}/applicable-category/remove/{categoryId}", couponDTO.getId(), categoryId)
@@ -230,7 +256,94 @@ class CouponControllerTest {
                 .expectBody(CouponDTO.class)
                 .isEqualTo(expectedCouponDTO);
 
-        verify(couponService, times(1)).removeApplicableCategory(couponDTO.getId(), categoryId);
+        verify(couponService, times(1)).removeApplicableCategory(couponDTO.getId(), categoryId, null);
+    }
+
+    @Test
+    @DisplayName("Get coupon should return the coupon with its version as ETag")
+    void getCoupon_ReturnsCouponWithETag() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+        coupon.setVersion(3L);
+
+        when(couponService.getCoupon(coupon.getId())).thenReturn(Mono.just(coupon));
+
+        webTestClient.get()
+                .uri("/coupon/{id}", coupon.getId())
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody(CouponDTO.class)
+                .isEqualTo(coupon);
+    }
+
+    @Test
+    @DisplayName("Get coupon should return not modified when the ETag still matches")
+    void getCoupon_WhenETagMatches_ReturnsNotModified() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+        coupon.setVersion(3L);
+
+        when(couponService.getCoupon(coupon.getId())).thenReturn(Mono.just(coupon));
+
+        webTestClient.get()
+                .uri("/coupon/{id}", coupon.getId())
+                .header("If-None-Match", "W/\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Update coupon should only apply to the version in If-Match")
+    void updateCoupon_WithIfMatch_UpdatesExpectedVersion() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+        CouponDTO updated = CouponTestBuilder.createDefaultCouponDTO();
+        updated.setVersion(4L);
+
+        when(couponService.updateCoupon(any(CouponDTO.class))).thenReturn(Mono.just(updated));
+
+        webTestClient.put()
+                .uri("/coupon")
+                .header("If-Match", "\"3\"")
+                .bodyValue(coupon)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"");
+
+        verify(couponService).updateCoupon(argThat(sent -> Long.valueOf(3L).equals(sent.getVersion())));
+    }
+
+    @Test
+    @DisplayName("Deactivate coupon should return precondition failed when the coupon changed")
+    void deactivateCoupon_WhenVersionConflicts_ReturnsPreconditionFailed() {
+        when(couponService.deactivateCoupon("1", 3L))
+                .thenReturn(Mono.error(new PreconditionFailedException(CouponErrorCode.COUPON_VERSION_CONFLICT.withParams("1"))));
+
+        webTestClient.put()
+                .uri("/coupon/{id}/deactivate", "1")
+                .header("If-Match", "\"3\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    @DisplayName("Should add many applicable categories at once")
+    void addApplicableCategories_ReturnsCouponWithCategories() {
+        CouponDTO couponDTO = CouponTestBuilder.createDefaultCouponDTO();
+        List<String> categoryIds = List.of("category-1", "category-2");
+
+        when(couponService.addApplicableCategories(couponDTO.getId(), categoryIds, null)).thenReturn(Mono.just(couponDTO));
+
+        webTestClient.put()
+                .uri("/coupon/{id}/applicable-category/add", couponDTO.getId())
+                .bodyValue(categoryIds)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CouponDTO.class)
+                .isEqualTo(couponDTO);
+
+        verify(couponService, times(1)).addApplicableCategories(couponDTO.getId(), categoryIds, null);
     }
 
 }
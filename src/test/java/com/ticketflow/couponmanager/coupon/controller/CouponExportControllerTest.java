@@ -0,0 +1,86 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.exception.TooManyRequestsException;
+import com.ticketflow.couponmanager.coupon.exception.handler.ControllerExceptionHandler;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.service.CouponExportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CouponExportControllerTest {
+
+    private final CouponExportService couponExportService = mock(CouponExportService.class);
+
+    private final WebTestClient webTestClient;
+
+    CouponExportControllerTest() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        webTestClient = WebTestClient.bindToController(new CouponExportController(couponExportService))
+                .controllerAdvice(new ControllerExceptionHandler(messageSource))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Export should stream the encoded coupons as a compressed attachment when gzip is accepted")
+    void exportCoupons_whenGzipIsAccepted_streamsCompressedAttachment() {
+        when(couponExportService.exportCoupons(any(CouponFilter.class), eq(ExportFormat.NDJSON), eq(true), any()))
+                .thenReturn(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("compressed".getBytes(StandardCharsets.UTF_8))));
+
+        webTestClient.get()
+                .uri("/coupon/export?format=ndjson&status=ACTIVE")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/x-ndjson")
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"coupons.ndjson\"")
+                .expectBody(String.class).isEqualTo("compressed");
+
+        verify(couponExportService).exportCoupons(any(CouponFilter.class), eq(ExportFormat.NDJSON), eq(true), any());
+    }
+
+    @Test
+    @DisplayName("Export should answer with an error body when it fails before sending anything")
+    void exportCoupons_whenRejected_returnsError() {
+        when(couponExportService.exportCoupons(any(CouponFilter.class), eq(ExportFormat.CSV), eq(false), any()))
+                .thenReturn(Flux.error(new TooManyRequestsException(CouponErrorCode.TOO_MANY_EXPORTS.withParams(2), Duration.ofSeconds(30))));
+
+        webTestClient.get()
+                .uri("/coupon/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "30")
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CPM_ERR_23");
+    }
+
+    @Test
+    @DisplayName("Export should reject unknown formats")
+    void exportCoupons_whenFormatIsUnknown_returnsBadRequest() {
+        webTestClient.get()
+                .uri("/coupon/export?format=xlsx")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponImportDTO;
+import com.ticketflow.couponmanager.coupon.exception.TooManyRequestsException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.exception.handler.ControllerExceptionHandler;
+import com.ticketflow.couponmanager.coupon.service.CouponImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CouponImportControllerTest {
+
+    private final CouponImportService couponImportService = mock(CouponImportService.class);
+
+    private final WebTestClient webTestClient;
+
+    CouponImportControllerTest() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        webTestClient = WebTestClient.bindToController(new CouponImportController(couponImportService))
+                .controllerAdvice(new ControllerExceptionHandler(messageSource))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Import should pass the uploaded file through and answer with the summary")
+    @SuppressWarnings("unchecked")
+    void importCoupons_returnsSummary() {
+        when(couponImportService.importCoupons(any())).thenAnswer(invocation -> DataBufferUtils.join((Flux<DataBuffer>) invocation.getArgument(0))
+                .map(csv -> {
+                    String text = csv.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(csv);
+                    return CouponImportDTO.builder().importId("import-1").rows(text.lines().count() - 1).inserted(1).build();
+                }));
+
+        webTestClient.post()
+                .uri("/coupon/import")
+                .header(HttpHeaders.CONTENT_TYPE, "text/csv")
+                .bodyValue("code,name\nSAVE10,Save 10\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.importId").isEqualTo("import-1")
+                .jsonPath("$.rows").isEqualTo(1)
+                .jsonPath("$.inserted").isEqualTo(1)
+                .jsonPath("$.errorReport").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Import should answer 429 with Retry-After when too many imports are running")
+    void importCoupons_whenTooManyImports_returnsTooManyRequests() {
+        when(couponImportService.importCoupons(any()))
+                .thenReturn(Mono.error(new TooManyRequestsException(CouponErrorCode.TOO_MANY_IMPORTS.withParams(1), Duration.ofSeconds(30))));
+
+        webTestClient.post()
+                .uri("/coupon/import")
+                .header(HttpHeaders.CONTENT_TYPE, "text/csv")
+                .bodyValue("code,name\nSAVE10,Save 10\n")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "30")
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CPM_ERR_24");
+    }
+
+    @Test
+    @DisplayName("Error report should be downloaded as a CSV attachment")
+    void getErrorReport_streamsReport() {
+        String report = "row,code,errorCode,message\r\n2,SAVE10,CPM_ERR_1,At least one discount field must be informed.\r\n";
+        when(couponImportService.getErrorReport(eq("import-1"), any()))
+                .thenReturn(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(report.getBytes(StandardCharsets.UTF_8))));
+
+        webTestClient.get()
+                .uri("/coupon/import/import-1/errors")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("text/csv;charset=UTF-8")
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"coupon-import-import-1-errors.csv\"")
+                .expectBody(String.class).isEqualTo(report);
+    }
+
+}
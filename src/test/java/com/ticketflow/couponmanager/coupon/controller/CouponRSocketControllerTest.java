@@ -0,0 +1,184 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.RSocketConfiguration;
+import com.ticketflow.couponmanager.coupon.configuration.RateLimitProperties;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponValidationDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.RedeemRequestDTO;
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import com.ticketflow.couponmanager.coupon.event.CouponChangePublisher;
+import com.ticketflow.couponmanager.coupon.exception.NotFoundException;
+import com.ticketflow.couponmanager.coupon.exception.handler.ControllerExceptionHandler;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.ratelimit.CouponRateLimiter;
+import com.ticketflow.couponmanager.coupon.service.CouponService;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.exceptions.ApplicationErrorException;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CouponRSocketControllerTest {
+
+    private final CouponService couponService = mock(CouponService.class);
+    private final CouponChangePublisher couponChangePublisher = new CouponChangePublisher();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CloseableChannel server;
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setUp() {
+        RSocketStrategies.Builder strategiesBuilder = RSocketStrategies.builder();
+        new RSocketConfiguration().couponRSocketStrategiesCustomizer(new StaticListableBeanFactory().getBeanProvider(Jackson2ObjectMapperBuilder.class))
+                .customize(strategiesBuilder);
+        RSocketStrategies strategies = strategiesBuilder.build();
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        CouponRSocketController controller = new CouponRSocketController(couponService, couponChangePublisher,
+                new CouponRateLimiter(rateLimitProperties, new SimpleMeterRegistry()), rateLimitProperties,
+                new ControllerExceptionHandler(messageSource), objectMapper);
+
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setHandlers(List.of(controller));
+        handler.afterPropertiesSet();
+
+        server = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+        requester = RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .setupData("checkout")
+                .tcp(server.address().getHostString(), server.address().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+        server.dispose();
+    }
+
+    @Test
+    @DisplayName("Validate should return the coupon")
+    void validateCoupon_returnsCoupon() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+        when(couponService.validateCoupon(coupon.getId())).thenReturn(Mono.just(coupon));
+
+        StepVerifier.create(requester.route("coupon.validate").data(coupon.getId()).retrieveMono(CouponDTO.class))
+                .assertNext(validated -> {
+                    assertEquals(coupon.getId(), validated.getId());
+                    assertEquals(coupon.getExpirationDate(), validated.getExpirationDate());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Redeem errors should be sent as the same error message as the HTTP API")
+    void redeemCoupon_whenNotFound_returnsErrorMessage() {
+        when(couponService.validateAndDecreaseAvailableCoupons("missing", "user"))
+                .thenReturn(Mono.error(new NotFoundException(CouponErrorCode.COUPON_NOT_FOUND.withParams("missing"))));
+
+        StepVerifier.create(requester.route("coupon.redeem").data(new RedeemRequestDTO("missing", "user")).retrieveMono(CouponDTO.class))
+                .expectErrorSatisfies(ex -> {
+                    assertTrue(ex instanceof ApplicationErrorException);
+                    JsonNode error = readTree(ex.getMessage());
+                    assertEquals("CPM_ERR_7", error.get("code").asText());
+                    assertEquals("Coupon not found: missing.", error.get("message").asText());
+                })
+                .verify(Duration.ofSeconds(5));
+
+        verify(couponService).validateAndDecreaseAvailableCoupons("missing", "user");
+    }
+
+    @Test
+    @DisplayName("Batch validate should report each coupon in request order")
+    void validateCoupons_returnsResultPerCoupon() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+        when(couponService.validateCoupon(coupon.getId())).thenReturn(Mono.just(coupon));
+        when(couponService.validateCoupon("missing"))
+                .thenReturn(Mono.error(new NotFoundException(CouponErrorCode.COUPON_NOT_FOUND.withParams("missing"))));
+
+        StepVerifier.create(requester.route("coupon.validate.batch").data(List.of("missing", coupon.getId()))
+                        .retrieveMono(new ParameterizedTypeReference<List<CouponValidationDTO>>() {}))
+                .assertNext(results -> {
+                    assertEquals(2, results.size());
+                    assertEquals("missing", results.get(0).getCouponId());
+                    assertFalse(results.get(0).isValid());
+                    assertEquals("CPM_ERR_7", results.get(0).getError().getCode());
+                    assertTrue(results.get(1).isValid());
+                    assertEquals(coupon.getId(), results.get(1).getCoupon().getId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Batch validate should reject more coupons than the maximum")
+    void validateCoupons_whenTooMany_returnsError() {
+        List<String> couponIds = IntStream.rangeClosed(0, CouponRSocketController.MAX_BATCH_SIZE).mapToObj(String::valueOf).toList();
+
+        StepVerifier.create(requester.route("coupon.validate.batch").data(couponIds)
+                        .retrieveMono(new ParameterizedTypeReference<List<CouponValidationDTO>>() {}))
+                .expectErrorSatisfies(ex -> assertEquals("CPM_ERR_19", readTree(ex.getMessage()).get("code").asText()))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Coupon changes should be streamed to subscribers")
+    void couponChanges_streamsPublishedChanges() {
+        CouponDTO coupon = CouponTestBuilder.createDefaultCouponDTO();
+
+        StepVerifier.create(requester.route("coupon.changes").retrieveFlux(CouponChangeDTO.class).take(1))
+                .then(() -> {
+                    // the subscription reaches the server asynchronously
+                    while (couponChangePublisher.getSubscriberCount() == 0) {
+                        Thread.onSpinWait();
+                    }
+                    couponChangePublisher.publish(CouponChangeType.REDEEMED, coupon);
+                })
+                .assertNext(change -> {
+                    assertEquals(CouponChangeType.REDEEMED, change.getType());
+                    assertEquals(coupon.getId(), change.getCoupon().getId());
+                })
+                .verifyComplete();
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception ex) {
+            throw new AssertionError("Not an error message: " + json, ex);
+        }
+    }
+
+}
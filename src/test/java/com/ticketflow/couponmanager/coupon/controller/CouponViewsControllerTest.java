@@ -0,0 +1,61 @@
+package com.ticketflow.couponmanager.coupon.controller;
+
+import com.ticketflow.couponmanager.coupon.exception.StorageUnavailableException;
+import com.ticketflow.couponmanager.coupon.exception.handler.ControllerExceptionHandler;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.views.CouponTally;
+import com.ticketflow.couponmanager.coupon.views.CouponViews;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CouponViewsControllerTest {
+
+    private final CouponViews couponViews = mock(CouponViews.class);
+
+    private final WebTestClient webTestClient;
+
+    CouponViewsControllerTest() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        webTestClient = WebTestClient.bindToController(new CouponViewsController(couponViews))
+                .controllerAdvice(new ControllerExceptionHandler(messageSource))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Views by responsible user should answer with the tally of the user")
+    void byResponsibleUser_returnsTally() {
+        when(couponViews.byResponsibleUser("black-friday")).thenReturn(new CouponTally(12, 10, 340));
+
+        webTestClient.get()
+                .uri("/coupon/views/responsible-users/black-friday")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.coupons").isEqualTo(12)
+                .jsonPath("$.activeCoupons").isEqualTo(10)
+                .jsonPath("$.remainingUses").isEqualTo(340);
+    }
+
+    @Test
+    @DisplayName("Views by category should answer 503 while the views are being built")
+    void byCategory_whenViewsAreNotBuilt_returnsServiceUnavailable() {
+        when(couponViews.byCategory("shows"))
+                .thenThrow(new StorageUnavailableException(CouponErrorCode.COUPON_VIEWS_UNAVAILABLE.withParams()));
+
+        webTestClient.get()
+                .uri("/coupon/views/categories/shows")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CPM_ERR_29")
+                .jsonPath("$.message").isEqualTo("Coupon views are not available yet. Please try again later.");
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.ticketflow.couponmanager.coupon.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CouponExporter couponExporter = new CouponExporter(objectMapper);
+
+    @Test
+    @DisplayName("CSV - a header and one escaped row per coupon")
+    void export_Csv_WritesEscapedRows() {
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+        coupon.setName("Summer, \"early\" sale");
+        coupon.setDescription("=HYPERLINK(\"http://example.com\")");
+        coupon.setApplicableCategories(List.of("shows", "theater"));
+
+        List<String> lines = text(export(Flux.just(coupon), ExportFormat.CSV, false, 10)).lines().toList();
+
+        assertEquals(2, lines.size());
+        assertEquals(CsvCouponRowWriter.HEADER, lines.get(0));
+        assertTrue(lines.get(1).startsWith(coupon.getId() + "," + coupon.getCode() + ",\"Summer, \"\"early\"\" sale\",\"'=HYPERLINK(\"\"http://example.com\"\")\","));
+        assertTrue(lines.get(1).contains("," + coupon.getExpirationDate() + ","));
+        assertTrue(lines.get(1).contains(",shows|theater,"));
+    }
+
+    @Test
+    @DisplayName("NDJSON - one JSON object per line, across batches")
+    void export_Ndjson_WritesOneObjectPerLine() throws IOException {
+        List<Coupon> coupons = IntStream.range(0, 5).mapToObj(i -> {
+            Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+            coupon.setId("coupon-" + i);
+            return coupon;
+        }).toList();
+
+        List<byte[]> buffers = export(Flux.fromIterable(coupons), ExportFormat.NDJSON, false, 2);
+        List<String> lines = text(buffers).lines().toList();
+
+        assertEquals(4, buffers.size());
+        assertEquals(5, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode json = objectMapper.readTree(lines.get(i));
+            assertEquals("coupon-" + i, json.get("id").asText());
+            assertEquals(coupons.get(i).getUseLimit(), json.get("useLimit").asInt());
+        }
+    }
+
+    @Test
+    @DisplayName("Gzip - every batch is a complete chunk of one gzip stream")
+    void export_Gzip_CompressesOnTheFly() throws IOException {
+        List<Coupon> coupons = IntStream.range(0, 50).mapToObj(i -> CouponTestBuilder.createDefaultCoupon()).toList();
+        String plain = text(export(Flux.fromIterable(coupons), ExportFormat.CSV, false, 8));
+
+        List<byte[]> compressed = export(Flux.fromIterable(coupons), ExportFormat.CSV, true, 8);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(concat(compressed)))) {
+            assertEquals(plain, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // the first chunk alone already decodes to the header and the first batch
+        ByteArrayOutputStream firstBatch = new ByteArrayOutputStream();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.get(0)))) {
+            byte[] chunk = new byte[64 * 1024];
+            int read;
+            while ((read = readAvailable(gzip, chunk)) > 0) {
+                firstBatch.write(chunk, 0, read);
+            }
+        }
+        assertEquals(9, firstBatch.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    @Test
+    @DisplayName("Nothing is sent when the query fails before the first coupon")
+    void export_WhenQueryFails_EmitsNothing() {
+        StepVerifier.create(couponExporter.export(Flux.error(new IllegalStateException("down")), ExportFormat.CSV, true, 10,
+                        DefaultDataBufferFactory.sharedInstance))
+                .expectErrorMessage("down")
+                .verify();
+    }
+
+    @Test
+    @DisplayName("An empty export is just the header")
+    void export_WhenNoCoupons_WritesHeader() {
+        assertEquals(CsvCouponRowWriter.HEADER + "\r\n", text(export(Flux.empty(), ExportFormat.CSV, false, 10)));
+    }
+
+    private List<byte[]> export(Flux<Coupon> coupons, ExportFormat format, boolean gzip, int batchSize) {
+        return couponExporter.export(coupons, format, gzip, batchSize, DefaultDataBufferFactory.sharedInstance)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .collectList()
+                .block();
+    }
+
+    private static String text(List<byte[]> buffers) {
+        return new String(concat(buffers), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(List<byte[]> buffers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffers.forEach(out::writeBytes);
+        return out.toByteArray();
+    }
+
+    // A truncated gzip stream ends with an EOFException once the available data is decoded
+    private static int readAvailable(GZIPInputStream gzip, byte[] chunk) {
+        try {
+            return gzip.read(chunk);
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+import com.ticketflow.couponmanager.coupon.configuration.HotKeyProperties;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyTrackerTest {
+
+    private final List<String> events = new ArrayList<>();
+
+    private HotKeyProperties properties;
+
+    private HotKeyTracker hotKeyTracker;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new HotKeyProperties();
+        properties.setTopK(3);
+        properties.setWindowSlices(2);
+        properties.setMinRequests(50);
+
+        HotKeyListener listener = new HotKeyListener() {
+            @Override
+            public void onHot(HotKey hotKey) {
+                events.add("hot:" + hotKey.key());
+            }
+
+            @Override
+            public void onCooled(HotKey hotKey) {
+                events.add("cooled:" + hotKey.key());
+            }
+        };
+        hotKeyTracker = new HotKeyTracker(properties, List.of(listener));
+    }
+
+    @Test
+    @DisplayName("Top keys - the most requested keys are kept, most requested first")
+    void topKeys_ReturnsMostRequestedKeys() {
+        record(HotKeyType.ID, "hot", 500);
+        record(HotKeyType.ID, "warm", 200);
+        IntStream.range(0, 1000).forEach(i -> hotKeyTracker.record(HotKeyType.ID, "cold-" + i));
+        record(HotKeyType.ID, "lukewarm", 100);
+
+        List<HotKey> topKeys = hotKeyTracker.topKeys(HotKeyType.ID);
+
+        assertEquals(List.of("hot", "warm", "lukewarm"), topKeys.stream().map(HotKey::key).toList());
+        assertTrue(topKeys.get(0).requests() >= 500);
+        assertTrue(hotKeyTracker.topKeys(HotKeyType.CODE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Slide - counts leave the window after every slice was replaced")
+    void slide_WhenWindowHasPassed_ForgetsOldCounts() {
+        record(HotKeyType.CODE, "SALE", 10);
+
+        hotKeyTracker.slide();
+        assertEquals(10, hotKeyTracker.topKeys(HotKeyType.CODE).get(0).requests());
+
+        hotKeyTracker.slide();
+        assertTrue(hotKeyTracker.topKeys(HotKeyType.CODE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Slide - listeners are told when a key becomes hot and when it cools down")
+    void slide_NotifiesListeners() {
+        record(HotKeyType.ID, "hot", 60);
+        record(HotKeyType.ID, "quiet", 10);
+
+        hotKeyTracker.slide();
+        hotKeyTracker.slide();
+        hotKeyTracker.slide();
+
+        assertEquals(List.of("hot:hot", "cooled:hot"), events);
+    }
+
+    @Test
+    @DisplayName("Record - nothing is tracked when hot-key tracking is disabled")
+    void record_WhenDisabled_TracksNothing() {
+        properties.setEnabled(false);
+
+        record(HotKeyType.ID, "hot", 100);
+
+        assertTrue(hotKeyTracker.topKeys(HotKeyType.ID).isEmpty());
+    }
+
+    private void record(HotKeyType type, String key, int times) {
+        IntStream.range(0, times).forEach(i -> hotKeyTracker.record(type, key));
+    }
+
+}
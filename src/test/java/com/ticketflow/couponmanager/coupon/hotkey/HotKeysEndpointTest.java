@@ -0,0 +1,33 @@
+package com.ticketflow.couponmanager.coupon.hotkey;
+
+import com.ticketflow.couponmanager.coupon.configuration.HotKeyProperties;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeysEndpointTest {
+
+    @Test
+    @DisplayName("Hot keys - ids are reported as they are, codes only as hashes")
+    void hotKeys_ReportsIdsAndHashedCodes() {
+        HotKeyProperties properties = new HotKeyProperties();
+        HotKeyTracker hotKeyTracker = new HotKeyTracker(properties, List.of());
+        hotKeyTracker.record(HotKeyType.ID, "64a1f0c2e4b0a1b2c3d4e5f6");
+        hotKeyTracker.record(HotKeyType.CODE, "BLACKFRIDAY50");
+
+        Map<String, Object> report = new HotKeysEndpoint(hotKeyTracker, properties).hotKeys();
+
+        List<?> ids = (List<?>) report.get("ids");
+        List<?> codes = (List<?>) report.get("codes");
+        assertEquals("64a1f0c2e4b0a1b2c3d4e5f6", ((HotKeysEndpoint.HotKeyRate) ids.get(0)).key());
+        String code = ((HotKeysEndpoint.HotKeyRate) codes.get(0)).key();
+        assertEquals(new HotKey(HotKeyType.CODE, "BLACKFRIDAY50", 1).reportedKey(), code);
+        assertTrue(code.matches("sha256:[0-9a-f]{16}"), code);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.ticketflow.couponmanager.coupon.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
+import com.ticketflow.couponmanager.coupon.enums.ExportFormat;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.export.CouponExporter;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponCsvReaderTest {
+
+    private final CouponCsvReader couponCsvReader = new CouponCsvReader();
+
+    @Test
+    @DisplayName("Read - maps columns by header name, across quoted line breaks and split buffers")
+    void read_WhenValuesAreQuoted_MapsColumnsByName() {
+        String csv = "\uFEFFCode,name,description,discountPercentage,expirationDate,useLimit,applicableCategories,id\r\n"
+                + "\r\n"
+                + "SAVE10,\"Promoção, \"\"verão\"\"\",\"Two\r\nlines\",10,2030-01-31T23:59,5,shows| theater,ignored\r\n"
+                + "'-5OFF,Five off,\"'=SUM(A1)\",5.5,31/01/2030 10:00,,,\r\n";
+
+        List<ImportRow> rows = couponCsvReader.read(buffers(csv, 7)).collectList().block();
+
+        assertEquals(2, rows.size());
+        ImportRow first = rows.get(0);
+        assertEquals(3, first.row());
+        assertNull(first.error());
+        CouponDTO coupon = first.coupon();
+        assertEquals("SAVE10", coupon.getCode());
+        assertNull(coupon.getId());
+        assertEquals("Promoção, \"verão\"", coupon.getName());
+        assertEquals("Two\r\nlines", coupon.getDescription());
+        assertEquals(10f, coupon.getDiscountPercentage());
+        assertEquals(LocalDateTime.of(2030, 1, 31, 23, 59), coupon.getExpirationDate());
+        assertEquals(5, coupon.getUseLimit());
+        assertEquals(List.of("shows", "theater"), coupon.getApplicableCategories());
+
+        CouponDTO second = rows.get(1).coupon();
+        assertEquals("-5OFF", second.getCode());
+        assertEquals("=SUM(A1)", second.getDescription());
+        assertEquals(LocalDateTime.of(2030, 1, 31, 10, 0), second.getExpirationDate());
+        assertEquals(0, second.getUseLimit());
+        assertNull(second.getApplicableCategories());
+    }
+
+    @Test
+    @DisplayName("Read - a value that cannot be parsed fails only its row")
+    void read_WhenValueIsInvalid_ReturnsRowError() {
+        String csv = "code,name,discountValue,status\nBAD,Bad,ten,ACTIVE\nGOOD,Good,10,inactive";
+
+        List<ImportRow> rows = couponCsvReader.read(buffers(csv, 1024)).collectList().block();
+
+        assertEquals(2, rows.size());
+        assertEquals("BAD", rows.get(0).code());
+        assertNull(rows.get(0).coupon());
+        assertEquals(CouponErrorCode.INVALID_IMPORT_VALUE.getCode(), rows.get(0).error().getErrorCode().code());
+        assertEquals(Status.INACTIVE, rows.get(1).coupon().getStatus());
+        assertEquals(10f, rows.get(1).coupon().getDiscountValue());
+    }
+
+    @Test
+    @DisplayName("Read - a CSV export is read back into the same coupons")
+    void read_WhenFileIsAnExport_ReadsSameCoupons() {
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+        coupon.setName("Summer, \"early\" sale");
+        coupon.setDescription("=HYPERLINK(\"http://example.com\")\nnow");
+        coupon.setApplicableCategories(List.of("shows", "theater"));
+
+        Flux<DataBuffer> export = new CouponExporter(new ObjectMapper())
+                .export(Flux.just(coupon), ExportFormat.CSV, false, 10, DefaultDataBufferFactory.sharedInstance);
+        CouponDTO read = couponCsvReader.read(export).single().block().coupon();
+
+        assertEquals(coupon.getCode(), read.getCode());
+        assertEquals(coupon.getName(), read.getName());
+        assertEquals(coupon.getDescription(), read.getDescription());
+        assertEquals(coupon.getStatus(), read.getStatus());
+        assertEquals(coupon.getDiscountValue(), read.getDiscountValue());
+        assertEquals(coupon.getExpirationDate(), read.getExpirationDate());
+        assertEquals(coupon.getUseLimit(), read.getUseLimit());
+        assertEquals(coupon.getApplicableCategories(), read.getApplicableCategories());
+    }
+
+    private static Flux<DataBuffer> buffers(String csv, int size) {
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int start = 0; start < bytes.length; start += size) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, start, Math.min(bytes.length, start + size))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLogEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Logger logger = new LoggerContext().getLogger("com.ticketflow.couponmanager.coupon.service.CouponService");
+
+    private JsonLogEncoder encoder;
+
+    @BeforeEach
+    public void setUp() {
+        encoder = new JsonLogEncoder();
+        encoder.setMaxStackTraceDepth(2);
+        encoder.start();
+    }
+
+    @Test
+    @DisplayName("Encode - writes one JSON line with the message and the key-value pairs")
+    void encode_WritesKeyValuePairs() throws Exception {
+        LoggingEvent event = new LoggingEvent(Logger.FQCN, logger, Level.INFO, "Adding applicable categories {}", null,
+                new Object[]{List.of("shows")});
+        event.addKeyValuePair(new KeyValuePair(RequestLogging.REQUEST_ID, "request-1"));
+        event.addKeyValuePair(new KeyValuePair(RequestLogging.COUPON_ID, "coupon-1"));
+        event.addKeyValuePair(new KeyValuePair("attempt", 2));
+
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+        JsonNode json = objectMapper.readTree(line);
+
+        assertTrue(line.endsWith("\n"));
+        assertEquals(1, line.lines().count());
+        assertEquals("INFO", json.get("level").asText());
+        assertEquals(logger.getName(), json.get("logger").asText());
+        assertEquals("Adding applicable categories [shows]", json.get("message").asText());
+        assertEquals("request-1", json.get(RequestLogging.REQUEST_ID).asText());
+        assertEquals("coupon-1", json.get(RequestLogging.COUPON_ID).asText());
+        assertEquals(2, json.get("attempt").asInt());
+        assertFalse(json.has("exception"));
+    }
+
+    @Test
+    @DisplayName("Encode - cuts stack traces after the maximum depth and keeps the causes")
+    void encode_CutsStackTraces() throws Exception {
+        IllegalStateException exception = new IllegalStateException("Config missing", new IllegalArgumentException("Bad value"));
+        LoggingEvent event = new LoggingEvent(Logger.FQCN, logger, Level.WARN, "Failed", exception, null);
+
+        JsonNode thrown = objectMapper.readTree(encoder.encode(event)).get("exception");
+
+        assertEquals(IllegalStateException.class.getName(), thrown.get("class").asText());
+        assertEquals("Config missing", thrown.get("message").asText());
+        assertEquals(3, thrown.get("stackTrace").size());
+        assertTrue(thrown.get("stackTrace").get(2).asText().matches("\\.\\.\\. \\d+ more"));
+        assertEquals("Bad value", thrown.get("cause").get("message").asText());
+    }
+
+}
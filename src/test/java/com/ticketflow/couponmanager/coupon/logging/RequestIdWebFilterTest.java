@@ -0,0 +1,53 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdWebFilterTest {
+
+    private final AtomicReference<String> contextRequestId = new AtomicReference<>();
+
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        contextRequestId.set(context.get(RequestLogging.REQUEST_ID));
+        return Mono.empty();
+    });
+
+    private final RequestIdWebFilter requestIdWebFilter = new RequestIdWebFilter();
+
+    @Test
+    @DisplayName("The caller's request id is kept and echoed in the response")
+    void filter_UsesCallerRequestId() {
+        MockServerWebExchange exchange = filter(MockServerHttpRequest.get("/coupon/1/validate")
+                .header(RequestIdWebFilter.REQUEST_ID_HEADER, "checkout-42"));
+
+        assertEquals("checkout-42", contextRequestId.get());
+        assertEquals("checkout-42", exchange.getAttribute(RequestLogging.REQUEST_ID));
+        assertEquals("checkout-42", exchange.getResponse().getHeaders().getFirst(RequestIdWebFilter.REQUEST_ID_HEADER));
+    }
+
+    @Test
+    @DisplayName("Invalid request ids are replaced by the server's own")
+    void filter_WhenRequestIdIsInvalid_UsesServerRequestId() {
+        MockServerWebExchange exchange = filter(MockServerHttpRequest.get("/coupon/1/validate")
+                .header(RequestIdWebFilter.REQUEST_ID_HEADER, "{\"forged\": true}"));
+
+        assertEquals(exchange.getRequest().getId(), contextRequestId.get());
+        assertEquals(exchange.getRequest().getId(), exchange.getResponse().getHeaders().getFirst(RequestIdWebFilter.REQUEST_ID_HEADER));
+    }
+
+    private MockServerWebExchange filter(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        StepVerifier.create(requestIdWebFilter.filter(exchange, chain)).verifyComplete();
+        return exchange;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.ticketflow.couponmanager.coupon.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import com.ticketflow.couponmanager.coupon.enums.LogDropReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    private SamplingFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        filter = new SamplingFilter();
+        filter.setSampling("com.ticketflow.couponmanager.coupon=1, com.ticketflow.couponmanager.coupon.service=0, broken=2");
+        filter.start();
+    }
+
+    @Test
+    @DisplayName("Decide - the most specific rule applies and dropped events are counted")
+    void decide_AppliesMostSpecificRule() {
+        long sampled = LogDrops.count(LogDropReason.SAMPLED);
+
+        assertEquals(FilterReply.DENY, filter.decide(event("com.ticketflow.couponmanager.coupon.service.CouponService", Level.INFO)));
+        assertEquals(FilterReply.DENY, filter.decide(event("com.ticketflow.couponmanager.coupon.service.CouponService", Level.WARN)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("com.ticketflow.couponmanager.coupon.hotkey.HotKeyTracker", Level.INFO)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("org.springframework.web", Level.INFO)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("broken", Level.INFO)));
+        assertEquals(sampled + 2, LogDrops.count(LogDropReason.SAMPLED));
+    }
+
+    @Test
+    @DisplayName("Decide - errors are never sampled")
+    void decide_KeepsErrors() {
+        IntStream.range(0, 100).forEach(i ->
+                assertEquals(FilterReply.NEUTRAL, filter.decide(event("com.ticketflow.couponmanager.coupon.service.CouponService", Level.ERROR))));
+    }
+
+    private LoggingEvent event(String loggerName, Level level) {
+        Logger logger = loggerContext.getLogger(loggerName);
+        return new LoggingEvent(Logger.FQCN, logger, level, "message", null, null);
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.ticketflow.couponmanager.coupon.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitWebFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final List<Sinks.Empty<Void>> inFlight = new ArrayList<>();
+
+    // Requests stay in flight until the test completes them
+    private final WebFilterChain chain = exchange -> {
+        Sinks.Empty<Void> response = Sinks.empty();
+        inFlight.add(response);
+        return response.asMono();
+    };
+
+    private ConcurrencyLimitProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private ConcurrencyLimitWebFilter concurrencyLimitWebFilter;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setShortWindow(2);
+        properties.setLongWindow(100);
+
+        meterRegistry = new SimpleMeterRegistry();
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        concurrencyLimitWebFilter = new ConcurrencyLimitWebFilter(concurrencyLimiter, properties, new StaticMessageSource(),
+                new ObjectMapper(), clock::get);
+    }
+
+    @Test
+    @DisplayName("Requests over the concurrency limit are shed with 503 and Retry-After")
+    void filter_WhenLimitIsReached_Returns503() {
+        for (int i = 0; i < 10; i++) {
+            start(MockServerHttpRequest.put("/coupon/1/redeem"));
+        }
+
+        MockServerWebExchange shed = start(MockServerHttpRequest.put("/coupon/1/redeem"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals("1", shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(10, inFlight.size());
+        assertEquals(1.0, meterRegistry.get("coupon.concurrency.requests").tag("outcome", "shed").tag("priority", "critical").counter().count());
+    }
+
+    @Test
+    @DisplayName("Search is shed before redeem once half of the limit is in use")
+    void filter_WhenBusy_ShedsSearchButAdmitsRedeem() {
+        for (int i = 0; i < 5; i++) {
+            start(MockServerHttpRequest.get("/coupon/1/validate"));
+        }
+
+        MockServerWebExchange search = start(MockServerHttpRequest.get("/coupon/search").queryParam("q", "sale"));
+        MockServerWebExchange redeem = start(MockServerHttpRequest.put("/coupon/1/redeem"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, search.getResponse().getStatusCode());
+        assertNull(redeem.getResponse().getStatusCode());
+        assertEquals(6, inFlight.size());
+    }
+
+    @Test
+    @DisplayName("The limit drops when latency rises and completed requests free their slot")
+    void filter_WhenLatencyRises_LowersLimit() {
+        for (int i = 0; i < 20; i++) {
+            completeRequest(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int steadyLimit = concurrencyLimiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            completeRequest(TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        assertTrue(concurrencyLimiter.getLimit() < steadyLimit);
+        assertTrue(concurrencyLimiter.getLimit() >= properties.getMinLimit());
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Requests outside the coupon API are not limited")
+    void filter_WhenPathIsNotCouponApi_ForwardsRequest() {
+        properties.setInitialLimit(1);
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        concurrencyLimitWebFilter = new ConcurrencyLimitWebFilter(concurrencyLimiter, properties, new StaticMessageSource(),
+                new ObjectMapper(), clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(start(MockServerHttpRequest.get("/actuator/health")).getResponse().getStatusCode());
+        }
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    private void completeRequest(long latencyNanos) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/coupon/1/validate"));
+        StepVerifier.create(concurrencyLimitWebFilter.filter(exchange, chain))
+                .then(() -> {
+                    clock.addAndGet(latencyNanos);
+                    inFlight.get(inFlight.size() - 1).tryEmitEmpty();
+                })
+                .verifyComplete();
+    }
+
+    private MockServerWebExchange start(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        concurrencyLimitWebFilter.filter(exchange, chain).subscribe();
+        return exchange;
+    }
+
+}
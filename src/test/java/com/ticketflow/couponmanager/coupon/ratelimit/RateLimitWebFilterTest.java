@@ -0,0 +1,134 @@
+package com.ticketflow.couponmanager.coupon.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketflow.couponmanager.coupon.configuration.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitWebFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicInteger forwardedRequests = new AtomicInteger();
+
+    private final WebFilterChain chain = exchange -> {
+        forwardedRequests.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RateLimitWebFilter rateLimitWebFilter;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setClient(new RateLimitProperties.Bucket(2, 1));
+        properties.setCoupon(new RateLimitProperties.Bucket(3, 1));
+
+        meterRegistry = new SimpleMeterRegistry();
+        CouponRateLimiter couponRateLimiter = new CouponRateLimiter(properties, meterRegistry, clock::get);
+        rateLimitWebFilter = new RateLimitWebFilter(couponRateLimiter, properties, new StaticMessageSource(), new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Validate - requests over the client limit are rejected with 429 before reaching the controller")
+    void filter_WhenClientIsOverLimit_Returns429() {
+        assertNull(validate("client-a").getResponse().getStatusCode());
+        assertNull(validate("client-a").getResponse().getStatusCode());
+
+        MockServerWebExchange rejected = validate("client-a");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(2, forwardedRequests.get());
+        assertEquals(1.0, meterRegistry.get("coupon.ratelimit.requests").tag("scope", "client").counter().count());
+    }
+
+    @Test
+    @DisplayName("Validate and redeem - requests over the coupon limit are rejected regardless of client")
+    void filter_WhenCouponIsOverLimit_Returns429() {
+        validate("client-a");
+        validate("client-b");
+        redeem("client-c");
+
+        MockServerWebExchange rejected = redeem("client-d");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals(3, forwardedRequests.get());
+        assertEquals(1.0, meterRegistry.get("coupon.ratelimit.requests").tag("scope", "coupon").counter().count());
+    }
+
+    @Test
+    @DisplayName("Validate - requests rejected by the coupon limit do not use up the client limit")
+    void filter_WhenCouponIsOverLimit_KeepsClientTokens() {
+        validate("client-b");
+        validate("client-c");
+        validate("client-d");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, validate("client-a").getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, validate("client-a").getResponse().getStatusCode());
+
+        assertNull(validate("client-a", "2").getResponse().getStatusCode());
+        assertNull(validate("client-a", "2").getResponse().getStatusCode());
+        assertEquals(5, forwardedRequests.get());
+    }
+
+    @Test
+    @DisplayName("Validate - tokens are refilled over time")
+    void filter_WhenTokensAreRefilled_AllowsRequestsAgain() {
+        validate("client-a");
+        validate("client-a");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, validate("client-a").getResponse().getStatusCode());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertNull(validate("client-a").getResponse().getStatusCode());
+        assertEquals(3, forwardedRequests.get());
+    }
+
+    @Test
+    @DisplayName("Other endpoints are not rate limited")
+    void filter_WhenEndpointIsNotLimited_ForwardsRequest() {
+        for (int i = 0; i < 10; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/coupon").header("X-Client-Id", "client-a"));
+            StepVerifier.create(rateLimitWebFilter.filter(exchange, chain)).verifyComplete();
+        }
+
+        assertEquals(10, forwardedRequests.get());
+    }
+
+    private MockServerWebExchange validate(String clientId) {
+        return validate(clientId, "1");
+    }
+
+    private MockServerWebExchange validate(String clientId, String couponId) {
+        return execute(MockServerHttpRequest.get("/coupon/" + couponId + "/validate").header("X-Client-Id", clientId));
+    }
+
+    private MockServerWebExchange redeem(String clientId) {
+        return execute(MockServerHttpRequest.put("/coupon/1/redeem").header("X-Client-Id", clientId));
+    }
+
+    private MockServerWebExchange execute(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        StepVerifier.create(rateLimitWebFilter.filter(exchange, chain)).verifyComplete();
+        return exchange;
+    }
+
+}
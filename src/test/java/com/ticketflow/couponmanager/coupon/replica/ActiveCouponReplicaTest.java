@@ -0,0 +1,166 @@
+package com.ticketflow.couponmanager.coupon.replica;
+
+import com.ticketflow.couponmanager.coupon.configuration.CouponReplicaProperties;
+import com.ticketflow.couponmanager.coupon.enums.CouponReplicaState;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.coupon.repository.impl.InMemoryCouponRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveCouponReplicaTest {
+
+    private static final LocalDateTime EXPIRATION_DATE = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.MILLIS);
+
+    private final CouponRepository couponRepository = new InMemoryCouponRepository();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CouponReplicaProperties properties;
+    private ActiveCouponReplica replica;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new CouponReplicaProperties();
+        properties.setEnabled(true);
+        replica = new ActiveCouponReplica(couponRepository, properties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        replica.stop();
+    }
+
+    @Test
+    @DisplayName("Replica - loads the active coupons and follows their changes")
+    void replica_WhenCouponsChange_HoldsCurrentActiveCoupons() {
+        couponRepository.save(coupon("1", "SALE10", Status.ACTIVE)).block();
+        couponRepository.save(coupon("2", "OLD", Status.INACTIVE)).block();
+
+        replica.start();
+        awaitUntil(replica::isLive);
+        assertEquals(CouponReplicaState.LIVE, replica.getState());
+        Coupon loaded = replica.findByCode("SALE10");
+        assertEquals(couponRepository.findById("1").block().toBuilder().codeKey(null).nameKey(null).build(), loaded);
+        assertNull(replica.findById("2"));
+
+        couponRepository.decrementUsage("1", 2).block();
+        couponRepository.update(Coupon.builder().id("2").status(Status.ACTIVE).build()).block();
+        Coupon renamed = couponRepository.findById("1").block();
+        renamed.setCode("SALE20");
+        couponRepository.save(renamed).block();
+
+        awaitUntil(() -> replica.findByCode("SALE20") != null && replica.findById("2") != null);
+        assertEquals(3, replica.findById("1").getUseLimit());
+        assertNull(replica.findByCode("SALE10"));
+
+        couponRepository.update(Coupon.builder().id("1").status(Status.INACTIVE).build()).block();
+        couponRepository.deleteById("2").block();
+        awaitUntil(() -> replica.getSize() == 0);
+        assertNull(replica.findById("1"));
+    }
+
+    @Test
+    @DisplayName("Replica - reports its size, memory per coupon and replication lag")
+    void replica_WhenLive_ReportsMetrics() {
+        couponRepository.save(coupon("1", "SALE10", Status.ACTIVE)).block();
+        replica.start();
+        awaitUntil(replica::isLive);
+        couponRepository.save(coupon("2", "SALE20", Status.ACTIVE)).block();
+        awaitUntil(() -> replica.getSize() == 2);
+
+        assertEquals(2.0, meterRegistry.get("coupon.replica.coupons").gauge().value());
+        double bytesPerCoupon = meterRegistry.get("coupon.replica.bytes-per-coupon").gauge().value();
+        assertTrue(bytesPerCoupon > 0, "bytes per coupon " + bytesPerCoupon);
+        assertTrue(meterRegistry.get("coupon.replica.lag").timer().count() >= 1);
+    }
+
+    @Test
+    @DisplayName("Replica - disabled by default, so every lookup goes to the database")
+    void replica_WhenDisabled_HoldsNothing() {
+        couponRepository.save(coupon("1", "SALE10", Status.ACTIVE)).block();
+        replica = new ActiveCouponReplica(couponRepository, new CouponReplicaProperties(), meterRegistry);
+
+        replica.start();
+
+        assertEquals(CouponReplicaState.DISABLED, replica.getState());
+        assertFalse(replica.isLive());
+        assertNull(replica.findById("1"));
+    }
+
+    @Test
+    @DisplayName("Compact store - ids and codes stay findable as coupons come and go")
+    void store_WhenCouponsChurn_KeepsIndexesConsistent() {
+        CompactCouponStore store = new CompactCouponStore();
+        Random random = new Random(42);
+        boolean[] present = new boolean[5_000];
+        for (int round = 0; round < 20_000; round++) {
+            int n = random.nextInt(present.length);
+            if (random.nextBoolean()) {
+                store.put(coupon(String.valueOf(n), "CODE" + n, Status.ACTIVE));
+                present[n] = true;
+            } else {
+                store.remove(String.valueOf(n));
+                present[n] = false;
+            }
+        }
+
+        int expected = 0;
+        for (int n = 0; n < present.length; n++) {
+            Coupon byId = store.findById(String.valueOf(n));
+            Coupon byCode = store.findByCode("CODE" + n);
+            if (present[n]) {
+                expected++;
+                assertEquals(List.of("shows", "sports"), byId.getApplicableCategories());
+                assertEquals(String.valueOf(n), byCode.getId());
+            } else {
+                assertNull(byId);
+                assertNull(byCode);
+            }
+        }
+        assertEquals(expected, store.size());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+        }
+    }
+
+    private static Coupon coupon(String id, String code, Status status) {
+        return Coupon.builder()
+                .id(id)
+                .name("Coupon " + code)
+                .description("Description " + code)
+                .code(code)
+                .discountValue(10f)
+                .status(status)
+                .responsibleUser("black-friday")
+                .expirationDate(EXPIRATION_DATE)
+                .useLimit(5)
+                .usesPerUser(1)
+                .applicableCategories(List.of("shows", "sports"))
+                .build();
+    }
+
+}
@@ -0,0 +1,600 @@
+package com.ticketflow.couponmanager.coupon.repository;
+
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.ChangeHistoryLostException;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.BulkUpdateResult;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponBulkChange;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.model.UsageGrant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Behaviour every {@link CouponRepository} engine has to provide. Each engine runs it through a subclass.
+ */
+public abstract class CouponRepositoryContractTest {
+
+    private static final LocalDateTime EXPIRATION_DATE = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.MILLIS);
+
+    protected CouponRepository couponRepository;
+
+    protected abstract CouponRepository createRepository();
+
+    protected boolean supportsTextSearch() {
+        return true;
+    }
+
+    @BeforeEach
+    public void setUpRepository() {
+        couponRepository = createRepository();
+    }
+
+    @Test
+    @DisplayName("Save - a new coupon gets an id and can be found by it")
+    void save_WhenCouponIsNew_AssignsIdAndFindsIt() {
+        Coupon saved = couponRepository.save(coupon(null, "SAVE10")).block();
+
+        assertNotNull(saved);
+        assertNotNull(saved.getId());
+        StepVerifier.create(couponRepository.findById(saved.getId()))
+                .expectNextMatches(found -> "SAVE10".equals(found.getCode()) && EXPIRATION_DATE.equals(found.getExpirationDate()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find by id - every read route finds the coupon")
+    void findById_WithEveryReadRoute_FindsCoupon() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+
+        for (ReadRoute route : ReadRoute.values()) {
+            StepVerifier.create(couponRepository.findById("1", route))
+                    .expectNextMatches(found -> "SAVE10".equals(found.getCode()))
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    @DisplayName("Find by id - unknown ids complete empty")
+    void findById_WhenCouponDoesNotExist_ReturnsEmpty() {
+        StepVerifier.create(couponRepository.findById("missing"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find by id - changing a returned coupon does not change the stored one")
+    void findById_WhenReturnedCouponIsChanged_KeepsStoredCoupon() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+
+        Coupon found = couponRepository.findById("1").block();
+        found.deactivate();
+        found.addApplicableCategory("music");
+
+        StepVerifier.create(couponRepository.findById("1"))
+                .expectNextMatches(stored -> stored.getStatus() == Status.ACTIVE && stored.getApplicableCategories().isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find by code - coupons are found by one or many codes")
+    void findByCode_WhenCodesExist_ReturnsCoupons() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+        couponRepository.save(coupon("2", "SAVE20")).block();
+        couponRepository.save(coupon("3", "SAVE30")).block();
+
+        StepVerifier.create(couponRepository.findByCode("SAVE20"))
+                .expectNextMatches(found -> "2".equals(found.getId()))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.findByCode("UNKNOWN"))
+                .verifyComplete();
+
+        Set<String> ids = Set.copyOf(couponRepository.findByCodes(List.of("SAVE10", "SAVE30", "UNKNOWN"))
+                .map(Coupon::getId)
+                .collectList()
+                .block());
+        assertEquals(Set.of("1", "3"), ids);
+    }
+
+    @Test
+    @DisplayName("Find by code - saving a coupon with a new code moves it to that code")
+    void findByCode_WhenCodeChanges_FindsCouponOnlyByNewCode() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+        couponRepository.save(coupon("1", "SAVE15")).block();
+
+        StepVerifier.create(couponRepository.findByCode("SAVE10"))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.findByCode("SAVE15"))
+                .expectNextMatches(found -> "1".equals(found.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find by filter - all informed fields must match")
+    void findByFilter_WhenFieldsAreInformed_ReturnsMatchingCoupons() {
+        Coupon inactive = coupon("2", "SAVE20");
+        inactive.deactivate();
+        Coupon otherUser = coupon("3", "SAVE30");
+        otherUser.setResponsibleUser("other");
+        couponRepository.save(coupon("1", "SAVE10")).block();
+        couponRepository.save(inactive).block();
+        couponRepository.save(otherUser).block();
+
+        CouponFilter filter = CouponFilter.builder()
+                .status(Status.ACTIVE)
+                .responsibleUser("responsible")
+                .build();
+
+        StepVerifier.create(couponRepository.findByFilter(filter))
+                .expectNextMatches(found -> "1".equals(found.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find by filter - expiration date ranges include both days and follow updates")
+    void findByFilter_WhenExpirationRangeIsInformed_ReturnsCouponsInRange() {
+        Coupon early = coupon("1", "SAVE10");
+        early.setExpirationDate(EXPIRATION_DATE.minusDays(5));
+        Coupon late = coupon("3", "SAVE30");
+        late.setExpirationDate(EXPIRATION_DATE.plusDays(5));
+        couponRepository.save(early).block();
+        couponRepository.save(coupon("2", "SAVE20")).block();
+        couponRepository.save(late).block();
+
+        CouponFilter range = CouponFilter.builder()
+                .expirationDateStart(EXPIRATION_DATE.minusDays(5).toLocalDate())
+                .expirationDateEnd(EXPIRATION_DATE.toLocalDate())
+                .build();
+        assertEquals(Set.of("1", "2"), ids(couponRepository.findByFilter(range)));
+
+        couponRepository.update(Coupon.builder().id("1").expirationDate(EXPIRATION_DATE.plusDays(5)).build()).block();
+
+        assertEquals(Set.of("2"), ids(couponRepository.findByFilter(range)));
+        CouponFilter day = CouponFilter.builder()
+                .expirationDate(EXPIRATION_DATE.plusDays(5).toLocalDate())
+                .build();
+        assertEquals(Set.of("1", "3"), ids(couponRepository.findByFilter(day)));
+    }
+
+    @Test
+    @DisplayName("Stream by filter - returns the same coupons as find by filter")
+    void streamByFilter_ReturnsMatchingCoupons() {
+        Coupon inactive = coupon("2", "SAVE20");
+        inactive.deactivate();
+        couponRepository.save(coupon("1", "SAVE10")).block();
+        couponRepository.save(inactive).block();
+        couponRepository.save(coupon("3", "SAVE30")).block();
+
+        CouponFilter filter = CouponFilter.builder()
+                .status(Status.ACTIVE)
+                .build();
+
+        assertEquals(Set.of("1", "3"), ids(couponRepository.streamByFilter(filter)));
+        assertEquals(Set.of("1", "2", "3"), ids(couponRepository.streamByFilter(new CouponFilter())));
+    }
+
+    @Test
+    @DisplayName("Upsert by code - inserts new codes and replaces existing coupons, keeping their id and status")
+    void upsertByCode_InsertsNewAndReplacesExistingCoupons() {
+        Coupon stored = coupon("1", "SAVE10");
+        stored.deactivate();
+        Long storedVersion = couponRepository.save(stored).block().getVersion();
+
+        Coupon replacement = coupon(null, "SAVE10");
+        replacement.setStatus(null);
+        replacement.setDescription("Imported");
+        Coupon added = coupon(null, "SAVE20");
+        added.setStatus(null);
+
+        StepVerifier.create(couponRepository.upsertByCode(List.of(replacement, added)))
+                .assertNext(result -> {
+                    assertEquals(1, result.inserted());
+                    assertEquals(1, result.updated());
+                    assertTrue(result.failures().isEmpty());
+                })
+                .verifyComplete();
+
+        Coupon updated = couponRepository.findById("1").block();
+        assertEquals("Imported", updated.getDescription());
+        assertEquals(Status.INACTIVE, updated.getStatus());
+        assertTrue(updated.getVersion() > storedVersion);
+
+        Coupon inserted = couponRepository.findByCode("SAVE20").block();
+        assertNotNull(inserted.getId());
+        assertEquals(Status.ACTIVE, inserted.getStatus());
+        assertEquals(EXPIRATION_DATE, inserted.getExpirationDate());
+        StepVerifier.create(couponRepository.findByCodePrefix("save2", 10))
+                .expectNextMatches(found -> inserted.getId().equals(found.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Update by filter - changes matching coupons and skips those already changed")
+    void updateByFilter_WhenDeactivating_CountsMatchedAndModifiedCoupons() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+        couponRepository.save(coupon("2", "SAVE20")).block();
+        Coupon inactive = coupon("3", "SAVE30");
+        inactive.deactivate();
+        Long inactiveVersion = couponRepository.save(inactive).block().getVersion();
+        Coupon other = coupon("4", "SAVE40");
+        other.setResponsibleUser("other");
+        couponRepository.save(other).block();
+        CouponFilter filter = CouponFilter.builder().responsibleUser("responsible").build();
+
+        StepVerifier.create(couponRepository.countByFilter(filter, CouponBulkChange.deactivate()))
+                .expectNext(2L)
+                .verifyComplete();
+
+        StepVerifier.create(couponRepository.updateByFilter(filter, CouponBulkChange.deactivate()))
+                .expectNext(new BulkUpdateResult(2, 2))
+                .verifyComplete();
+
+        assertEquals(Set.of("1", "2", "3"), ids(couponRepository.findByFilter(CouponFilter.builder().status(Status.INACTIVE).build())));
+        assertEquals(inactiveVersion, couponRepository.findById("3").block().getVersion());
+        assertEquals(Status.ACTIVE, couponRepository.findById("4").block().getStatus());
+    }
+
+    @Test
+    @DisplayName("Update by filter - restricted to ids, only those coupons are changed and they can be read back")
+    void updateByFilter_WhenRestrictedToIds_ChangesOnlyThoseCoupons() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+        couponRepository.save(coupon("2", "SAVE20")).block();
+        couponRepository.save(coupon("3", "SAVE30")).block();
+        CouponFilter filter = CouponFilter.builder().responsibleUser("responsible").build();
+
+        StepVerifier.create(couponRepository.updateByFilter(filter, List.of("1", "3", "missing"), CouponBulkChange.deactivate()))
+                .expectNext(new BulkUpdateResult(2, 2))
+                .verifyComplete();
+
+        assertEquals(Set.of("1", "3"), ids(couponRepository.findByFilter(CouponFilter.builder().status(Status.INACTIVE).build())));
+        assertEquals(Set.of("1", "2"), ids(couponRepository.findByIds(List.of("1", "2", "missing"))));
+    }
+
+    @Test
+    @DisplayName("Update by filter - expiration, discount and categories are changed in one write each")
+    void updateByFilter_WhenChangingFields_AppliesOnlyWhereNeeded() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+        Coupon categorized = coupon("2", "SAVE20");
+        categorized.setApplicableCategories(List.of("shows", "sports"));
+        couponRepository.save(categorized).block();
+        Coupon later = coupon("3", "SAVE30");
+        later.setExpirationDate(EXPIRATION_DATE.plusDays(30));
+        couponRepository.save(later).block();
+        CouponFilter filter = CouponFilter.builder().expirationDateStart(EXPIRATION_DATE.toLocalDate()).build();
+        LocalDateTime extended = EXPIRATION_DATE.plusDays(5);
+
+        StepVerifier.create(couponRepository.updateByFilter(filter, CouponBulkChange.extendExpiration(extended)))
+                .expectNext(new BulkUpdateResult(2, 2))
+                .verifyComplete();
+        assertEquals(Set.of("1", "2"), ids(couponRepository.findByFilter(CouponFilter.builder().expirationDate(extended.toLocalDate()).build())));
+        assertEquals(EXPIRATION_DATE.plusDays(30), couponRepository.findById("3").block().getExpirationDate());
+
+        StepVerifier.create(couponRepository.updateByFilter(filter, CouponBulkChange.addCategories(List.of("shows", "sports"))))
+                .expectNext(new BulkUpdateResult(2, 2))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.updateByFilter(filter, CouponBulkChange.removeCategories(List.of("sports"))))
+                .expectNext(new BulkUpdateResult(3, 3))
+                .verifyComplete();
+        assertEquals(List.of("shows"), couponRepository.findById("1").block().getApplicableCategories());
+
+        StepVerifier.create(couponRepository.updateByFilter(CouponFilter.builder().code("SAVE10").build(), CouponBulkChange.changeDiscount(10f, 5f)))
+                .expectNext(new BulkUpdateResult(1, 1))
+                .verifyComplete();
+        Coupon discounted = couponRepository.findById("1").block();
+        assertEquals(10f, discounted.getDiscountValue());
+        assertEquals(5f, discounted.getDiscountPercentage());
+    }
+
+    @Test
+    @DisplayName("Update - only informed fields are changed")
+    void update_WhenFieldsAreInformed_ChangesOnlyThoseFields() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+
+        StepVerifier.create(couponRepository.update(Coupon.builder().id("1").description("Updated").status(Status.INACTIVE).build()))
+                .expectNextMatches(updated -> "Updated".equals(updated.getDescription())
+                        && updated.getStatus() == Status.INACTIVE
+                        && "SAVE10".equals(updated.getCode())
+                        && updated.getDiscountValue() == 10f)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Update - id is required and unknown coupons complete empty")
+    void update_WhenIdIsMissingOrUnknown_ReturnsErrorOrEmpty() {
+        StepVerifier.create(couponRepository.update(Coupon.builder().description("Updated").build()))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_ID_REQUIRED.getCode()))
+                .verify();
+        StepVerifier.create(couponRepository.update(Coupon.builder().id("missing").description("Updated").build()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Update usage - the new value is stored")
+    void updateUsage_WhenInformed_StoresNewValue() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+
+        couponRepository.updateUsage(Coupon.builder().id("1").useLimit(3).build()).block();
+
+        StepVerifier.create(couponRepository.findById("1"))
+                .expectNextMatches(found -> found.getUseLimit() == 3)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Applicable categories - categories are added and removed in one write")
+    void applicableCategories_WhenConditionsHold_AddsAndRemovesCategories() {
+        Coupon saved = couponRepository.save(coupon(null, "SAVE10")).block();
+
+        StepVerifier.create(couponRepository.addApplicableCategories(saved.getId(), List.of("music", "sports", "theater"), 1L))
+                .expectNextMatches(updated -> List.of("music", "sports", "theater").equals(updated.getApplicableCategories())
+                        && updated.getVersion() == 2L)
+                .verifyComplete();
+        StepVerifier.create(couponRepository.removeApplicableCategories(saved.getId(), List.of("music", "theater"), null))
+                .expectNextMatches(updated -> List.of("sports").equals(updated.getApplicableCategories())
+                        && updated.getVersion() == 3L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Applicable categories - nothing changes when a condition does not hold")
+    void applicableCategories_WhenConditionsDoNotHold_CompleteEmpty() {
+        Coupon stored = coupon(null, "SAVE10");
+        stored.setApplicableCategories(List.of("music"));
+        Coupon saved = couponRepository.save(stored).block();
+
+        StepVerifier.create(couponRepository.addApplicableCategories(saved.getId(), List.of("sports", "music"), null))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.removeApplicableCategories(saved.getId(), List.of("music", "sports"), null))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.addApplicableCategories(saved.getId(), List.of("sports"), 5L))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.addApplicableCategories("missing", List.of("sports"), null))
+                .verifyComplete();
+
+        StepVerifier.create(couponRepository.findById(saved.getId()))
+                .expectNextMatches(found -> List.of("music").equals(found.getApplicableCategories()) && found.getVersion() == 1L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Applicable categories - concurrent adds of the same category add it once")
+    void addApplicableCategories_WhenCalledConcurrently_AddsOnce() {
+        Coupon saved = couponRepository.save(coupon(null, "SAVE10")).block();
+
+        Long applied = Flux.range(0, 50)
+                .flatMap(i -> couponRepository.addApplicableCategories(saved.getId(), List.of("music"), null), 16)
+                .count()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(1L, applied);
+        StepVerifier.create(couponRepository.findById(saved.getId()))
+                .expectNextMatches(found -> List.of("music").equals(found.getApplicableCategories()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Versions - every write stores a new version")
+    void writes_WhenApplied_IncrementVersion() {
+        Coupon saved = couponRepository.save(coupon(null, "SAVE10")).block();
+        assertEquals(1L, saved.getVersion());
+
+        Coupon updated = couponRepository.update(Coupon.builder().id(saved.getId()).description("Updated").version(1L).build()).block();
+        assertEquals(2L, updated.getVersion());
+
+        couponRepository.addApplicableCategories(saved.getId(), List.of("music"), null).block();
+        couponRepository.decrementUsage(saved.getId(), 1).block();
+
+        Coupon resaved = couponRepository.save(couponRepository.findById(saved.getId()).block()).block();
+        assertEquals(5L, resaved.getVersion());
+    }
+
+    @Test
+    @DisplayName("Versions - imported coupons start at the same version as saved ones")
+    void upsertByCode_WhenInserting_StartsAtTheSavedVersion() {
+        Coupon saved = couponRepository.save(coupon(null, "SAVE10")).block();
+        couponRepository.upsertByCode(List.of(coupon(null, "SAVE20"))).block();
+
+        assertEquals(saved.getVersion(), couponRepository.findByCode("SAVE20").block().getVersion());
+    }
+
+    @Test
+    @DisplayName("Versions - writes expecting an older version fail and keep the stored coupon")
+    void writes_WhenVersionIsStale_FailWithConflict() {
+        Coupon saved = couponRepository.save(coupon(null, "SAVE10")).block();
+        couponRepository.decrementUsage(saved.getId(), 1).block();
+
+        StepVerifier.create(couponRepository.update(Coupon.builder().id(saved.getId()).description("Updated").version(1L).build()))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        StepVerifier.create(couponRepository.addApplicableCategories(saved.getId(), List.of("music"), 1L))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.save(saved))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+
+        StepVerifier.create(couponRepository.findById(saved.getId()))
+                .expectNextMatches(found -> found.getVersion() == 2L
+                        && "Description SAVE10".equals(found.getDescription())
+                        && found.getApplicableCategories().isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Decrement usage - grants what is available and completes empty when exhausted")
+    void decrementUsage_WhenUsesAreRequested_GrantsAvailableUses() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+
+        StepVerifier.create(couponRepository.decrementUsage("1", 3))
+                .expectNext(new UsageGrant(3, 2))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.decrementUsage("1", 3))
+                .expectNext(new UsageGrant(2, 0))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.decrementUsage("1", 1))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.decrementUsage("missing", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Decrement usage - concurrent decrements never grant more uses than the limit")
+    void decrementUsage_WhenCalledConcurrently_NeverOversells() {
+        Coupon coupon = coupon("1", "SAVE10");
+        coupon.setUseLimit(50);
+        couponRepository.save(coupon).block();
+
+        Integer granted = Flux.range(0, 200)
+                .flatMap(i -> couponRepository.decrementUsage("1", 1), 32)
+                .map(UsageGrant::granted)
+                .reduce(0, Integer::sum)
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(50, granted);
+        StepVerifier.create(couponRepository.findById("1"))
+                .expectNextMatches(found -> found.getUseLimit() == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Delete - removed coupons are no longer found by id or code")
+    void deleteById_WhenCouponExists_RemovesIt() {
+        couponRepository.save(coupon("1", "SAVE10")).block();
+
+        couponRepository.deleteById("1").block();
+
+        StepVerifier.create(couponRepository.findById("1"))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.findByCode("SAVE10"))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.findAll())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Prefix search - codes and names match regardless of case and accents, in key order")
+    void findByPrefix_WhenKeysStartWithPrefix_ReturnsCouponsInKeyOrder() {
+        couponRepository.save(named("1", "SUMMER-20", "Promoção de Verão")).block();
+        couponRepository.save(named("2", "summer-10", "Summer sale")).block();
+        couponRepository.save(named("3", "WINTER", "Promo de inverno")).block();
+
+        StepVerifier.create(couponRepository.findByCodePrefix("Summer", 10).map(Coupon::getId))
+                .expectNext("2", "1")
+                .verifyComplete();
+        StepVerifier.create(couponRepository.findByNamePrefix("PROMOCAO", 10).map(Coupon::getId))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(couponRepository.findByNamePrefix("promo", 1).map(Coupon::getId))
+                .expectNext("3")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Prefix search - a changed code is only found under the new code")
+    void findByCodePrefix_WhenCodeChanges_FindsOnlyNewCode() {
+        couponRepository.save(named("1", "SUMMER", "Summer sale")).block();
+        Coupon renamed = couponRepository.findById("1").block();
+        renamed.setCode("AUTUMN");
+        couponRepository.save(renamed).block();
+
+        StepVerifier.create(couponRepository.findByCodePrefix("sum", 10))
+                .verifyComplete();
+        StepVerifier.create(couponRepository.findByCodePrefix("aut", 10).map(Coupon::getId))
+                .expectNext("1")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Text search - name matches rank above description matches")
+    void searchText_WhenWordsMatch_RanksNameMatchesFirst() {
+        assumeTrue(supportsTextSearch());
+        couponRepository.save(named("1", "A", "Concert tickets").toBuilder().description("Festival weekend").build()).block();
+        couponRepository.save(named("2", "B", "Festival tickets").toBuilder().description("Any concert").build()).block();
+        couponRepository.save(named("3", "C", "Theatre").toBuilder().description("Plays only").build()).block();
+
+        StepVerifier.create(couponRepository.searchText("festival", 0, 10).map(Coupon::getId))
+                .expectNext("2", "1")
+                .verifyComplete();
+        StepVerifier.create(couponRepository.searchText("festival", 1, 10).map(Coupon::getId))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(couponRepository.searchText("opera", 0, 10))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Watch - changes since a point in time arrive in order, and a resume token continues after its change")
+    void watch_WhenCouponsChange_StreamsChangesInOrderAndResumes() {
+        Instant startAt = Instant.now().minusSeconds(1);
+        couponRepository.save(coupon("watched-1", "WATCH10")).block();
+        couponRepository.save(coupon("watched-2", "WATCH20")).block();
+        couponRepository.deleteById("watched-1").block();
+
+        List<CouponChange> changes = couponRepository.watch(null, startAt)
+                .filter(change -> change.couponId().startsWith("watched"))
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(List.of("watched-1", "watched-2", "watched-1"), changes.stream().map(CouponChange::couponId).toList());
+        assertEquals("WATCH10", changes.get(0).coupon().getCode());
+        assertTrue(changes.get(2).isDeletion());
+        StepVerifier.create(couponRepository.watch(changes.get(0).resumeToken(), null)
+                        .filter(change -> change.couponId().startsWith("watched")))
+                .expectNextMatches(change -> "WATCH20".equals(change.coupon().getCode()))
+                .expectNextMatches(CouponChange::isDeletion)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("Watch - an unreadable resume token fails as lost history")
+    void watch_WhenResumeTokenIsUnreadable_FailsWithHistoryLost() {
+        StepVerifier.create(couponRepository.watch("not a token", null))
+                .expectError(ChangeHistoryLostException.class)
+                .verify(Duration.ofSeconds(10));
+    }
+
+    private static Set<String> ids(Flux<Coupon> coupons) {
+        return Set.copyOf(coupons.map(Coupon::getId).collectList().block());
+    }
+
+    private static Coupon named(String id, String code, String name) {
+        Coupon coupon = coupon(id, code);
+        coupon.setName(name);
+        return coupon;
+    }
+
+    private static Coupon coupon(String id, String code) {
+        return Coupon.builder()
+                .id(id)
+                .name("Coupon " + code)
+                .description("Description " + code)
+                .code(code)
+                .discountValue(10f)
+                .status(Status.ACTIVE)
+                .responsibleUser("responsible")
+                .expirationDate(EXPIRATION_DATE)
+                .useLimit(5)
+                .applicableCategories(List.of())
+                .build();
+    }
+
+}
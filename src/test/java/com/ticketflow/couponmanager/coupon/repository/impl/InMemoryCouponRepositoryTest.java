@@ -0,0 +1,51 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.model.CouponChange;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepositoryContractTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryCouponRepositoryTest extends CouponRepositoryContractTest {
+
+    @Override
+    protected CouponRepository createRepository() {
+        return new InMemoryCouponRepository();
+    }
+
+    @Test
+    @DisplayName("Watch - concurrent usage updates publish every change and end with the latest state")
+    void watch_WhenUsageIsDecrementedConcurrently_LastChangeIsLatest() {
+        couponRepository.save(Coupon.builder().id("1").code("SAVE10").name("Coupon").description("Coupon")
+                .discountValue(10f).status(Status.ACTIVE).expirationDate(LocalDateTime.now().plusDays(1)).useLimit(100).build()).block();
+        List<CouponChange> changes = new CopyOnWriteArrayList<>();
+        Disposable watching = couponRepository.watch(null, Instant.now().minusSeconds(60)).subscribe(changes::add);
+        try {
+            Flux.range(0, 100)
+                    .parallel(8)
+                    .runOn(Schedulers.parallel())
+                    .flatMap(i -> couponRepository.decrementUsage("1", 1))
+                    .sequential()
+                    .blockLast(Duration.ofSeconds(30));
+        } finally {
+            watching.dispose();
+        }
+
+        assertEquals(101, changes.size());
+        assertEquals(0, changes.get(changes.size() - 1).coupon().getUseLimit());
+    }
+
+}
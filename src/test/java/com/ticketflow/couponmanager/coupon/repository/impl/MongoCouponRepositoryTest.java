@@ -0,0 +1,55 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.ticketflow.couponmanager.coupon.configuration.MongoResilienceProperties;
+import com.ticketflow.couponmanager.coupon.configuration.MongoRoutingProperties;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepositoryContractTest;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.net.InetSocketAddress;
+
+class MongoCouponRepositoryTest extends CouponRepositoryContractTest {
+
+    private static MongoServer mongoServer;
+    private static MongoClient mongoClient;
+    private static ReactiveMongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void startMongo() {
+        MemoryBackend backend = new MemoryBackend();
+        backend.enableOplog();
+        mongoServer = new MongoServer(backend);
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new ReactiveMongoTemplate(mongoClient, "coupon-test");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoClient.close();
+        mongoServer.shutdownNow();
+    }
+
+    @Override
+    protected CouponRepository createRepository() {
+        mongoTemplate.remove(new Query(), Coupon.class).block();
+        return new MongoCouponRepository(mongoTemplate, new MongoRoutes(mongoTemplate, new MongoRoutingProperties()),
+                new MongoResilience(new MongoResilienceProperties(), new SimpleMeterRegistry()));
+    }
+
+    // mongo-java-server has no text indexes or $text queries
+    @Override
+    protected boolean supportsTextSearch() {
+        return false;
+    }
+
+}
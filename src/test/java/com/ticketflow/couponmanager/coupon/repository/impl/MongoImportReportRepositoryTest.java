@@ -0,0 +1,100 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.ticketflow.couponmanager.coupon.configuration.MongoRoutingProperties;
+import com.ticketflow.couponmanager.coupon.model.ImportReportChunk;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MongoImportReportRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static MongoServer mongoServer;
+    private static MongoClient mongoClient;
+    private static ReactiveMongoTemplate mongoTemplate;
+
+    private Path report;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new ReactiveMongoTemplate(mongoClient, "coupon-test");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoClient.close();
+        mongoServer.shutdownNow();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mongoTemplate.remove(new Query(), ImportReportChunk.class).block();
+        if (report != null) {
+            Files.delete(report);
+        }
+    }
+
+    @Test
+    @DisplayName("A report saved by one instance should be read whole by another")
+    void find_WhenSavedByAnotherInstance_ReturnsWholeReport() throws IOException {
+        byte[] data = new byte[MongoImportReportRepository.CHUNK_SIZE * 2 + 100];
+        new Random(42).nextBytes(data);
+        report = Files.write(Files.createTempFile("coupon-import-test-", ".csv"), data);
+
+        repository().save("import-1", report, NOW.plus(Duration.ofHours(1))).block();
+
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        StepVerifier.create(repository().find("import-1"))
+                .thenConsumeWhile(chunk -> {
+                    read.writeBytes(chunk);
+                    return true;
+                })
+                .verifyComplete();
+        assertArrayEquals(data, read.toByteArray());
+        assertEquals(3, mongoTemplate.count(new Query(), ImportReportChunk.class).block());
+    }
+
+    @Test
+    @DisplayName("An expired report should not be found even before the TTL monitor removes it")
+    void find_WhenExpired_ReturnsNothing() throws IOException {
+        report = Files.writeString(Files.createTempFile("coupon-import-test-", ".csv"), "row,code,errorCode,message\r\n");
+
+        repository().save("import-1", report, NOW.minusSeconds(1)).block();
+
+        StepVerifier.create(repository().find("import-1"))
+                .verifyComplete();
+    }
+
+    private static MongoImportReportRepository repository() {
+        return new MongoImportReportRepository(new MongoRoutes(mongoTemplate, new MongoRoutingProperties()),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.ticketflow.couponmanager.coupon.configuration.MongoResilienceProperties;
+import com.ticketflow.couponmanager.coupon.enums.StorageOperation;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
+import com.ticketflow.couponmanager.coupon.exception.StorageUnavailableException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoResilienceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private MongoResilienceProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MongoResilience resilience;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new MongoResilienceProperties();
+        properties.getCircuitBreaker().setWindow(4);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+
+        meterRegistry = new SimpleMeterRegistry();
+        resilience = new MongoResilience(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("Reads that time out are retried")
+    void read_WhenFirstAttemptTimesOut_Retries() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> resilience.read(StorageOperation.SEARCH,
+                        () -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("coupon")))
+                .thenAwait(Duration.ofSeconds(10))
+                .expectNext("coupon")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.get("coupon.mongo.retries").tag("operation", "search").counter().count());
+    }
+
+    @Test
+    @DisplayName("Writes that are not idempotent are not retried and fail as unavailable")
+    void write_WhenNotIdempotentAndTimesOut_FailsWithoutRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> resilience.write(StorageOperation.REDEEM, () -> {
+                    attempts.incrementAndGet();
+                    return Mono.never();
+                }, false))
+                .thenAwait(Duration.ofSeconds(10))
+                .expectError(StorageUnavailableException.class)
+                .verify();
+
+        assertEquals(1, attempts.get());
+        assertEquals(1.0, meterRegistry.get("coupon.mongo.calls").tag("operation", "redeem").tag("outcome", "timeout").counter().count());
+    }
+
+    @Test
+    @DisplayName("Errors that are not about availability are neither retried nor mapped")
+    void write_WhenErrorIsNotTransient_PassesItThrough() {
+        AtomicInteger attempts = new AtomicInteger();
+        PreconditionFailedException conflict = new PreconditionFailedException(CouponErrorCode.COUPON_VERSION_CONFLICT.withParams("1"));
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(resilience.write(StorageOperation.WRITE, () -> {
+                        attempts.incrementAndGet();
+                        return Mono.error(conflict);
+                    }, true))
+                    .expectErrorMatches(conflict::equals)
+                    .verify();
+        }
+
+        assertEquals(5, attempts.get());
+        StepVerifier.create(resilience.write(StorageOperation.WRITE, () -> Mono.just("saved"), true))
+                .expectNext("saved")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("The circuit opens after repeated failures and fails fast until a trial call succeeds")
+    void read_WhenMongoKeepsFailing_OpensCircuit() {
+        properties.getLookup().setRetries(0);
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> failing = resilience.read(StorageOperation.LOOKUP, () -> {
+            attempts.incrementAndGet();
+            return Mono.error(new DataAccessResourceFailureException("primary unreachable"));
+        });
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(failing).expectError(StorageUnavailableException.class).verify();
+        }
+        StepVerifier.create(failing).expectError(StorageUnavailableException.class).verify();
+
+        assertEquals(4, attempts.get());
+        assertEquals(1.0, meterRegistry.get("coupon.mongo.calls").tag("operation", "lookup").tag("outcome", "rejected").counter().count());
+        assertEquals(2.0, meterRegistry.get("coupon.mongo.circuit.state").tag("operation", "lookup").gauge().value());
+
+        clock.addAndGet(properties.getCircuitBreaker().getOpenDuration().toNanos());
+
+        StepVerifier.create(resilience.read(StorageOperation.LOOKUP, () -> Mono.just("coupon")))
+                .expectNext("coupon")
+                .verifyComplete();
+        assertEquals(0.0, meterRegistry.get("coupon.mongo.circuit.state").tag("operation", "lookup").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Lookups slower than usual send a second request and take the first answer")
+    void read_WhenLookupIsSlowerThanUsual_SendsHedge() {
+        for (int i = 0; i < 256; i++) {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            StepVerifier.create(resilience.read(StorageOperation.LOOKUP, () -> Mono.just("warm"))).expectNext("warm").verifyComplete();
+        }
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> resilience.read(StorageOperation.LOOKUP,
+                        () -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("coupon")))
+                .thenAwait(properties.getLookup().getMinHedgeDelay())
+                .expectNext("coupon")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.get("coupon.mongo.hedges").tag("operation", "lookup").counter().count());
+    }
+
+    @Test
+    @DisplayName("Reads of many documents are not retried once documents were emitted")
+    void readMany_WhenFailingAfterEmitting_DoesNotRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(resilience.readMany(StorageOperation.SEARCH, () -> {
+                    attempts.incrementAndGet();
+                    return Flux.concat(Flux.just("first"), Flux.error(new DataAccessResourceFailureException("cursor lost")));
+                }))
+                .expectNext("first")
+                .expectError(StorageUnavailableException.class)
+                .verify();
+
+        assertEquals(1, attempts.get());
+    }
+
+}
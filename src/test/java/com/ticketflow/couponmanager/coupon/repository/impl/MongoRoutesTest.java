@@ -0,0 +1,78 @@
+package com.ticketflow.couponmanager.coupon.repository.impl;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.ticketflow.couponmanager.coupon.configuration.MongoRoutingProperties;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoRoutesTest {
+
+    // Nothing is sent to the server, the client connects lazily
+    private final MongoClient mongoClient = MongoClients.create("mongodb://localhost:1");
+    private final ReactiveMongoTemplate mongoTemplate = new ReactiveMongoTemplate(mongoClient, "coupon-test");
+
+    @AfterEach
+    void closeClient() {
+        mongoClient.close();
+    }
+
+    @Test
+    @DisplayName("Default routes read searches from secondaries and write redeems and creates with majority")
+    void defaultRoutes_RouteSearchesAndWrites() {
+        MongoRoutes routes = new MongoRoutes(mongoTemplate, new MongoRoutingProperties());
+
+        MongoDatabase search = database(routes.search());
+        assertEquals("secondaryPreferred", search.getReadPreference().getName());
+        assertEquals(90_000L, ((TaggableReadPreference) search.getReadPreference()).getMaxStaleness(TimeUnit.MILLISECONDS));
+
+        assertSame(mongoTemplate, routes.read(ReadRoute.PRIMARY));
+        assertEquals(ReadPreference.primary(), database(routes.read(ReadRoute.VALIDATE)).getReadPreference());
+        assertEquals(WriteConcern.MAJORITY.withWTimeout(5, TimeUnit.SECONDS), database(routes.redeem()).getWriteConcern());
+        assertEquals(WriteConcern.MAJORITY.withWTimeout(5, TimeUnit.SECONDS), database(routes.create()).getWriteConcern());
+    }
+
+    @Test
+    @DisplayName("Validate reads can be sent to the nearest node")
+    void validateRoute_WhenNearest_ReadsFromNearest() {
+        MongoRoutingProperties properties = new MongoRoutingProperties();
+        properties.getValidate().setReadPreference("nearest");
+
+        MongoRoutes routes = new MongoRoutes(mongoTemplate, properties);
+
+        assertEquals(ReadPreference.nearest(90, TimeUnit.SECONDS), database(routes.read(ReadRoute.VALIDATE)).getReadPreference());
+    }
+
+    @Test
+    @DisplayName("Invalid read preferences and write concerns fail at startup")
+    void routes_WhenSettingsAreInvalid_Fail() {
+        MongoRoutingProperties unknownWriteConcern = new MongoRoutingProperties();
+        unknownWriteConcern.getRedeem().setWriteConcern("most");
+        assertThrows(IllegalArgumentException.class, () -> new MongoRoutes(mongoTemplate, unknownWriteConcern));
+
+        MongoRoutingProperties unknownReadPreference = new MongoRoutingProperties();
+        unknownReadPreference.getSearch().setReadPreference("anywhere");
+        assertThrows(IllegalArgumentException.class, () -> new MongoRoutes(mongoTemplate, unknownReadPreference));
+
+        MongoRoutingProperties tooFresh = new MongoRoutingProperties();
+        tooFresh.getSearch().setMaxStaleness(Duration.ofSeconds(10));
+        assertThrows(IllegalArgumentException.class, () -> new MongoRoutes(mongoTemplate, tooFresh));
+    }
+
+    private static MongoDatabase database(ReactiveMongoTemplate template) {
+        return template.getMongoDatabase().block();
+    }
+
+}
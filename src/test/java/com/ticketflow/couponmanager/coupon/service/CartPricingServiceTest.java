@@ -0,0 +1,144 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.CouponReplicaProperties;
+import com.ticketflow.couponmanager.coupon.configuration.LookupCoalescingProperties;
+import com.ticketflow.couponmanager.coupon.controller.dto.CartDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CartItemDTO;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.hotkey.HotKeyTracker;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.replica.ActiveCouponReplica;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.coupon.service.pricing.CartPricingEngine;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CartPricingServiceTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    private CartPricingService cartPricingService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        CouponLookupCoalescer couponLookupCoalescer = new CouponLookupCoalescer(couponRepository, new LookupCoalescingProperties(),
+                new ActiveCouponReplica(couponRepository, new CouponReplicaProperties(), new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        cartPricingService = new CartPricingService(couponLookupCoalescer, new CartPricingEngine(), hotKeyTracker);
+    }
+
+    @Test
+    @DisplayName("Price cart - coupons are looked up in one query and inactive coupons are rejected")
+    void priceCart_WhenCouponsAreFound_AppliesRedeemableCoupons() {
+        Coupon active = CouponTestBuilder.init()
+                .buildModelWithDefaultValues()
+                .code("ACTIVE")
+                .discountValue(null)
+                .discountPercentage(10F)
+                .applicableCategories(null)
+                .build();
+        Coupon inactive = CouponTestBuilder.init()
+                .buildModelWithDefaultValues()
+                .code("INACTIVE")
+                .status(Status.INACTIVE)
+                .build();
+
+        CartDTO cart = CartDTO.builder()
+                .items(List.of(CartItemDTO.builder().categoryId("shows").price(new BigDecimal("50.00")).quantity(2).build()))
+                .couponCodes(List.of("ACTIVE", "INACTIVE", "UNKNOWN"))
+                .build();
+
+        when(couponRepository.findByCodes(Set.of("ACTIVE", "INACTIVE", "UNKNOWN"))).thenReturn(Flux.just(active, inactive));
+
+        StepVerifier.create(cartPricingService.priceCart(cart))
+                .assertNext(result -> {
+                    assertEquals(new BigDecimal("100.00"), result.getSubtotal());
+                    assertEquals(new BigDecimal("10.00"), result.getDiscount());
+                    assertEquals(new BigDecimal("90.00"), result.getTotal());
+                    assertEquals(1, result.getAppliedCoupons().size());
+                    assertEquals("ACTIVE", result.getAppliedCoupons().get(0).getCode());
+                    assertEquals(List.of("INACTIVE", "UNKNOWN"), result.getRejectedCoupons());
+                })
+                .verifyComplete();
+
+        verify(couponRepository, times(1)).findByCodes(any());
+    }
+
+    @Test
+    @DisplayName("Price cart - a single coupon code is looked up by code")
+    void priceCart_WhenCartHasOneCode_LooksUpThatCode() {
+        Coupon coupon = CouponTestBuilder.init()
+                .buildModelWithDefaultValues()
+                .code("SALE")
+                .discountValue(5F)
+                .discountPercentage(null)
+                .applicableCategories(null)
+                .build();
+
+        CartDTO cart = CartDTO.builder()
+                .items(List.of(CartItemDTO.builder().categoryId("shows").price(new BigDecimal("50.00")).build()))
+                .couponCodes(List.of("SALE", "SALE"))
+                .build();
+
+        when(couponRepository.findByCode("SALE")).thenReturn(Mono.just(coupon));
+
+        StepVerifier.create(cartPricingService.priceCart(cart))
+                .assertNext(result -> assertEquals(new BigDecimal("45.00"), result.getTotal()))
+                .verifyComplete();
+
+        verify(couponRepository, never()).findByCodes(any());
+        verify(hotKeyTracker).record(HotKeyType.CODE, "SALE");
+    }
+
+    @Test
+    @DisplayName("Price cart - empty carts are rejected")
+    void priceCart_WhenCartIsEmpty_ReturnsCouponException() {
+        StepVerifier.create(cartPricingService.priceCart(new CartDTO(List.of(), List.of("A"))))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.CART_ITEMS_REQUIRED.getCode()))
+                .verify();
+
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    @DisplayName("Price cart - carts without coupon codes are priced without a lookup")
+    void priceCart_WhenNoCouponCodes_ReturnsSubtotal() {
+        CartDTO cart = CartDTO.builder()
+                .items(List.of(CartItemDTO.builder().categoryId("shows").price(new BigDecimal("12.30")).build()))
+                .build();
+
+        StepVerifier.create(cartPricingService.priceCart(cart))
+                .assertNext(result -> {
+                    assertEquals(new BigDecimal("12.30"), result.getTotal());
+                    assertEquals(new BigDecimal("0.00"), result.getDiscount());
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(couponRepository);
+    }
+
+}
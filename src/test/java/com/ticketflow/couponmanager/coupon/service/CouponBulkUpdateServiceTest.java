@@ -0,0 +1,142 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponBulkChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.event.CouponChangePublisher;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.repository.impl.InMemoryCouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponBulkUpdateServiceTest {
+
+    private static final CouponFilter CAMPAIGN = CouponFilter.builder().responsibleUser("campaign").build();
+
+    private InMemoryCouponRepository couponRepository;
+    private CouponChangePublisher couponChangePublisher;
+    private CouponBulkUpdateService couponBulkUpdateService;
+
+    @BeforeEach
+    public void setUp() {
+        couponRepository = new InMemoryCouponRepository();
+        couponChangePublisher = new CouponChangePublisher();
+        couponBulkUpdateService = new CouponBulkUpdateService(couponRepository, couponChangePublisher, new ModelMapper());
+        for (int i = 0; i < 3; i++) {
+            couponRepository.save(Coupon.builder().code("CODE-" + i).name("Coupon " + i).description("Campaign")
+                    .discountValue(5f).status(Status.ACTIVE).responsibleUser("campaign")
+                    .expirationDate(LocalDateTime.now().plusDays(1)).useLimit(10).build()).block();
+        }
+    }
+
+    @Test
+    @DisplayName("Deactivate - a dry run only counts the coupons, the real run deactivates them")
+    void deactivateCoupons_WhenDryRun_OnlyCounts() {
+        StepVerifier.create(couponBulkUpdateService.deactivateCoupons(CAMPAIGN, true))
+                .assertNext(result -> {
+                    assertTrue(result.isDryRun());
+                    assertEquals(3, result.getMatched());
+                    assertNull(result.getModified());
+                })
+                .verifyComplete();
+        assertEquals(3, couponRepository.findByFilter(CouponFilter.builder().status(Status.ACTIVE).build()).count().block());
+
+        StepVerifier.create(couponBulkUpdateService.deactivateCoupons(CAMPAIGN, false))
+                .assertNext(result -> {
+                    assertFalse(result.isDryRun());
+                    assertEquals(3, result.getMatched());
+                    assertEquals(3, result.getModified());
+                })
+                .verifyComplete();
+        assertEquals(0, couponRepository.findByFilter(CouponFilter.builder().status(Status.ACTIVE).build()).count().block());
+    }
+
+    @Test
+    @DisplayName("Bulk changes - an empty filter and invalid values are rejected before anything is written")
+    void bulkChanges_WhenFilterOrValuesAreInvalid_ReturnErrors() {
+        StepVerifier.create(couponBulkUpdateService.deactivateCoupons(CouponFilter.builder().applicableCategories("shows").build(), false))
+                .expectErrorMatches(failsWith(CouponErrorCode.BULK_FILTER_REQUIRED))
+                .verify();
+        StepVerifier.create(couponBulkUpdateService.extendExpiration(CAMPAIGN,
+                        CouponBulkChangeDTO.builder().expirationDate(LocalDateTime.now().minusDays(1)).build(), false))
+                .expectErrorMatches(failsWith(CouponErrorCode.EXPIRATION_DATE_LESS_THAN_CURRENT_DATE))
+                .verify();
+        StepVerifier.create(couponBulkUpdateService.changeDiscount(CAMPAIGN, new CouponBulkChangeDTO(), false))
+                .expectErrorMatches(failsWith(CouponErrorCode.DISCOUNT_FIELD_MUST_BE_INFORMED))
+                .verify();
+        StepVerifier.create(couponBulkUpdateService.addApplicableCategories(CAMPAIGN, List.of(" "), false))
+                .expectErrorMatches(failsWith(CouponErrorCode.FIELD_CANNOT_BE_EMPTY))
+                .verify();
+
+        assertTrue(couponRepository.findAll().all(coupon -> coupon.getVersion() == 1L).block());
+    }
+
+    @Test
+    @DisplayName("Bulk changes - each modified coupon is published to the change subscribers")
+    void deactivateCoupons_WhenFollowed_PublishesModifiedCoupons() {
+        couponBulkUpdateService.deactivateCoupons(CouponFilter.builder().code("CODE-0").build(), false).block();
+        List<CouponChangeDTO> changes = new CopyOnWriteArrayList<>();
+        Disposable subscription = couponChangePublisher.changes().subscribe(changes::add);
+        try {
+            couponBulkUpdateService.deactivateCoupons(CAMPAIGN, false).block();
+        } finally {
+            subscription.dispose();
+        }
+
+        assertEquals(2, changes.size());
+        assertTrue(changes.stream().allMatch(change -> change.getType() == CouponChangeType.DEACTIVATED
+                && change.getCoupon().getStatus() == Status.INACTIVE), changes.toString());
+        assertEquals(Set.of("CODE-1", "CODE-2"), changes.stream().map(change -> change.getCoupon().getCode()).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("Bulk changes - when followed, coupons are written and published in batches and counted once each")
+    void extendExpiration_WhenFollowedAcrossBatches_PublishesEveryModifiedCoupon() {
+        for (int i = 3; i < 1200; i++) {
+            couponRepository.save(Coupon.builder().code("CODE-" + i).name("Coupon " + i).description("Campaign")
+                    .discountValue(5f).status(Status.ACTIVE).responsibleUser("campaign")
+                    .expirationDate(LocalDateTime.now().plusDays(1)).useLimit(10).build()).block();
+        }
+        List<CouponChangeDTO> changes = new CopyOnWriteArrayList<>();
+        Disposable subscription = couponChangePublisher.changes().subscribe(changes::add);
+        try {
+            StepVerifier.create(couponBulkUpdateService.extendExpiration(CAMPAIGN,
+                            CouponBulkChangeDTO.builder().expirationDate(LocalDateTime.now().plusDays(30)).build(), false))
+                    .assertNext(result -> {
+                        assertEquals(1200, result.getMatched());
+                        assertEquals(1200, result.getModified());
+                    })
+                    .verifyComplete();
+        } finally {
+            subscription.dispose();
+        }
+
+        assertEquals(1200, changes.size());
+        assertEquals(1200, changes.stream().map(change -> change.getCoupon().getCode()).distinct().count());
+        assertTrue(changes.stream().allMatch(change -> change.getType() == CouponChangeType.UPDATED
+                && change.getCoupon().getVersion() == 2L), changes.get(0).toString());
+    }
+
+    private static Predicate<Throwable> failsWith(CouponErrorCode errorCode) {
+        return throwable -> throwable instanceof CouponException couponException
+                && errorCode.getCode().equals(couponException.getErrorCode().code());
+    }
+
+}
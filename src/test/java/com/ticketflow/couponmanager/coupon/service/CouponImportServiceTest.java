@@ -0,0 +1,147 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.ImportProperties;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponChangeDTO;
+import com.ticketflow.couponmanager.coupon.controller.dto.CouponImportDTO;
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.event.CouponChangePublisher;
+import com.ticketflow.couponmanager.coupon.exception.NotFoundException;
+import com.ticketflow.couponmanager.coupon.imports.CouponCsvReader;
+import com.ticketflow.couponmanager.coupon.imports.ImportReports;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.repository.impl.InMemoryCouponRepository;
+import com.ticketflow.couponmanager.coupon.repository.impl.InMemoryImportReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponImportServiceTest {
+
+    private static final String HEADER = "code,name,description,discountPercentage,expirationDate,useLimit\n";
+    private static final String EXPIRATION_DATE = LocalDateTime.now().plusDays(10).withSecond(0).withNano(0)
+            .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+
+    private InMemoryCouponRepository couponRepository;
+    private ImportReports importReports;
+    private CouponChangePublisher couponChangePublisher;
+    private CouponImportService couponImportService;
+
+    @BeforeEach
+    public void setUp() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        ImportProperties properties = new ImportProperties();
+        properties.setBatchSize(3);
+        properties.setWriteConcurrency(2);
+
+        couponRepository = new InMemoryCouponRepository();
+        importReports = new ImportReports(new InMemoryImportReportRepository(), properties);
+        couponChangePublisher = new CouponChangePublisher();
+        couponImportService = new CouponImportService(couponRepository, new CouponValidatorService(couponRepository),
+                new CouponCsvReader(), importReports, properties, messageSource, couponChangePublisher, new ModelMapper());
+    }
+
+    @Test
+    @DisplayName("Import - valid rows are upserted by code and invalid rows go to the error report")
+    void importCoupons_WhenSomeRowsAreInvalid_ReportsThem() {
+        Coupon existing = couponRepository.save(Coupon.builder().code("CODE-1").name("Old").description("Old")
+                .discountValue(1f).status(Status.INACTIVE).expirationDate(LocalDateTime.now().plusDays(1)).useLimit(1).build()).block();
+        String rows = IntStream.range(0, 10)
+                .mapToObj(i -> "CODE-" + i + ",Coupon " + i + ",Imported," + i + "," + EXPIRATION_DATE + ",5")
+                .collect(Collectors.joining("\n", HEADER, "\n"))
+                + "NO-DISCOUNT,No discount,Imported,," + EXPIRATION_DATE + ",5\n"
+                + ",No code,Imported,10," + EXPIRATION_DATE + ",5\n"
+                + "BAD-DATE,Bad date,Imported,10,tomorrow,5\n";
+
+        CouponImportDTO summary = couponImportService.importCoupons(csv(rows)).block();
+
+        assertEquals(13, summary.getRows());
+        assertEquals(9, summary.getInserted());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(3, summary.getFailed());
+        assertEquals("/coupon/import/" + summary.getImportId() + "/errors", summary.getErrorReport());
+
+        Coupon updated = couponRepository.findById(existing.getId()).block();
+        assertEquals("Coupon 1", updated.getName());
+        assertEquals(Status.INACTIVE, updated.getStatus());
+        assertEquals(Status.ACTIVE, couponRepository.findByCode("CODE-7").block().getStatus());
+
+        DataBuffer joined = DataBufferUtils.join(couponImportService.getErrorReport(summary.getImportId(),
+                DefaultDataBufferFactory.sharedInstance)).block();
+        List<String> report = joined.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, report.size());
+        assertEquals("row,code,errorCode,message", report.get(0));
+        assertTrue(report.contains("12,NO-DISCOUNT,CPM_ERR_1,At least one discount field must be informed."), report.toString());
+        assertTrue(report.contains("13,,CPM_ERR_5,Fields cannot be empty: code."), report.toString());
+        assertTrue(report.contains("14,BAD-DATE,CPM_ERR_25,Invalid value for expirationDate: tomorrow."), report.toString());
+    }
+
+    @Test
+    @DisplayName("Import - the last row of a repeated code wins and clean imports keep no report")
+    void importCoupons_WhenCodeRepeats_LastRowWins() {
+        String rows = IntStream.range(0, 7)
+                .mapToObj(i -> "REPEATED,Version " + i + ",Imported,10," + EXPIRATION_DATE + ",5")
+                .collect(Collectors.joining("\n", HEADER, ""));
+
+        CouponImportDTO summary = couponImportService.importCoupons(csv(rows)).block();
+
+        assertEquals(7, summary.getRows());
+        assertEquals(0, summary.getFailed());
+        assertEquals(7, summary.getInserted() + summary.getUpdated() + summary.getSuperseded());
+        assertNull(summary.getErrorReport());
+        assertEquals("Version 6", couponRepository.findByCode("REPEATED").block().getName());
+        StepVerifier.create(couponImportService.getErrorReport(summary.getImportId(),
+                        DefaultDataBufferFactory.sharedInstance))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Import - each written coupon is published to the change subscribers")
+    void importCoupons_WhenFollowed_PublishesWrittenCoupons() {
+        couponRepository.save(Coupon.builder().code("CODE-0").name("Old").description("Old")
+                .discountValue(1f).status(Status.ACTIVE).expirationDate(LocalDateTime.now().plusDays(1)).useLimit(1).build()).block();
+        String rows = HEADER
+                + "CODE-0,Coupon 0,Imported,10," + EXPIRATION_DATE + ",5\n"
+                + "CODE-1,Coupon 1,Imported,10," + EXPIRATION_DATE + ",5\n"
+                + "NO-DISCOUNT,No discount,Imported,," + EXPIRATION_DATE + ",5\n";
+        List<CouponChangeDTO> changes = new CopyOnWriteArrayList<>();
+        Disposable subscription = couponChangePublisher.changes().subscribe(changes::add);
+        try {
+            couponImportService.importCoupons(csv(rows)).block();
+        } finally {
+            subscription.dispose();
+        }
+
+        Map<String, CouponChangeType> types = changes.stream()
+                .collect(Collectors.toMap(change -> change.getCoupon().getCode(), CouponChangeDTO::getType));
+        assertEquals(Map.of("CODE-0", CouponChangeType.UPDATED, "CODE-1", CouponChangeType.CREATED), types);
+        assertTrue(changes.stream().allMatch(change -> change.getCoupon().getId() != null
+                && "Imported".equals(change.getCoupon().getDescription())), changes.toString());
+    }
+
+    private static Flux<DataBuffer> csv(String text) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.LookupCoalescingProperties;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.replica.ActiveCouponReplica;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CouponLookupCoalescerTest {
+
+    private final CouponRepository couponRepository = mock(CouponRepository.class);
+    private final LookupCoalescingProperties properties = new LookupCoalescingProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ActiveCouponReplica replica = mock(ActiveCouponReplica.class);
+
+    private CouponLookupCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new CouponLookupCoalescer(couponRepository, properties, replica, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups of the same coupon share one read and get their own copies")
+    void findById_WhenLookupsOverlap_SharesOneRead() {
+        Sinks.One<Coupon> read = Sinks.one();
+        AtomicInteger reads = new AtomicInteger();
+        when(couponRepository.findById("1", ReadRoute.VALIDATE)).thenAnswer(invocation -> {
+            reads.incrementAndGet();
+            return read.asMono();
+        });
+
+        List<Coupon> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            coalescer.findById("1").subscribe(results::add);
+        }
+        assertEquals(1, coalescer.inFlightCount());
+
+        Coupon coupon = CouponTestBuilder.init().buildModelWithDefaultValues().id("1").build();
+        read.tryEmitValue(coupon);
+
+        assertEquals(1, reads.get());
+        assertEquals(3, results.size());
+        assertEquals(0, coalescer.inFlightCount());
+        results.forEach(result -> assertEquals(coupon, result));
+        assertNotSame(results.get(0), results.get(1));
+        assertNotSame(results.get(0).getApplicableCategories(), results.get(1).getApplicableCategories());
+        assertEquals(1.0, meterRegistry.get("coupon.lookups").tag("outcome", "database").counter().count());
+        assertEquals(2.0, meterRegistry.get("coupon.lookups").tag("outcome", "coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("A lookup after the shared read completed reads again")
+    void findById_WhenPreviousReadCompleted_ReadsAgain() {
+        Coupon coupon = CouponTestBuilder.init().buildModelWithDefaultValues().id("1").build();
+        when(couponRepository.findById("1", ReadRoute.VALIDATE)).thenReturn(Mono.just(coupon));
+
+        StepVerifier.create(coalescer.findById("1")).expectNext(coupon).verifyComplete();
+        StepVerifier.create(coalescer.findById("1")).expectNext(coupon).verifyComplete();
+
+        verify(couponRepository, times(2)).findById("1", ReadRoute.VALIDATE);
+    }
+
+    @Test
+    @DisplayName("Lookups of different keys or kinds are not shared")
+    void lookups_WhenKeysDiffer_ReadSeparately() {
+        when(couponRepository.findById(anyString(), any())).thenReturn(Mono.never());
+        when(couponRepository.findByCode(anyString())).thenReturn(Mono.never());
+
+        coalescer.findById("1").subscribe();
+        coalescer.findById("2").subscribe();
+        coalescer.findByCode("1").subscribe();
+
+        assertEquals(3, coalescer.inFlightCount());
+    }
+
+    @Test
+    @DisplayName("A failed read fails every caller that shared it")
+    void findByCode_WhenReadFails_FailsEveryCaller() {
+        Sinks.One<Coupon> read = Sinks.one();
+        when(couponRepository.findByCode("SALE")).thenReturn(read.asMono());
+
+        List<Throwable> errors = new ArrayList<>();
+        coalescer.findByCode("SALE").subscribe(coupon -> {}, errors::add);
+        coalescer.findByCode("SALE").subscribe(coupon -> {}, errors::add);
+        read.tryEmitError(new CouponException(CouponErrorCode.INVALID_COUPON.withParams()));
+
+        assertEquals(2, errors.size());
+        assertEquals(0, coalescer.inFlightCount());
+        verify(couponRepository, times(1)).findByCode("SALE");
+    }
+
+    @Test
+    @DisplayName("With coalescing disabled every lookup reads")
+    void findById_WhenDisabled_ReadsEveryTime() {
+        properties.setEnabled(false);
+        when(couponRepository.findById("1", ReadRoute.VALIDATE)).thenReturn(Mono.never());
+
+        coalescer.findById("1").subscribe();
+        coalescer.findById("1").subscribe();
+
+        verify(couponRepository, times(2)).findById("1", ReadRoute.VALIDATE);
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    @DisplayName("Id and code lookups the replica holds do not read the database")
+    void lookups_WhenReplicaHoldsCoupon_SkipDatabase() {
+        Coupon coupon = CouponTestBuilder.init().buildModelWithDefaultValues().id("1").code("SALE").build();
+        when(replica.findById("1")).thenReturn(coupon);
+        when(replica.findByCode("SALE")).thenReturn(coupon);
+
+        StepVerifier.create(coalescer.findById("1")).expectNext(coupon).verifyComplete();
+        StepVerifier.create(coalescer.findByCode("SALE")).expectNext(coupon).verifyComplete();
+
+        verifyNoInteractions(couponRepository);
+        assertEquals(2.0, meterRegistry.get("coupon.lookups").tag("outcome", "replica").counter().count());
+    }
+
+    @Test
+    @DisplayName("Codes the replica does not hold are read from the database in one query")
+    void findByCodes_WhenReplicaIsLive_ReadsOnlyMissingCodes() {
+        Coupon replicated = CouponTestBuilder.init().buildModelWithDefaultValues().id("1").code("SALE").build();
+        Coupon stored = CouponTestBuilder.init().buildModelWithDefaultValues().id("2").code("OLD").build();
+        when(replica.isLive()).thenReturn(true);
+        when(replica.findByCode("SALE")).thenReturn(replicated);
+        when(couponRepository.findByCodes(List.of("OLD", "UNKNOWN"))).thenReturn(Flux.just(stored));
+
+        StepVerifier.create(coalescer.findByCodes(List.of("SALE", "OLD", "UNKNOWN")))
+                .expectNext(replicated, stored)
+                .verifyComplete();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.RedemptionBatchProperties;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.model.UsageGrant;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CouponRedemptionBatcherTest {
+
+    private static final String COUPON_ID = "1";
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    private RedemptionBatchProperties properties;
+
+    private CouponRedemptionBatcher couponRedemptionBatcher;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new RedemptionBatchProperties();
+        properties.setMaxWait(Duration.ofMillis(50));
+        properties.setMaxSize(5);
+        couponRedemptionBatcher = new CouponRedemptionBatcher(couponRepository, properties, Schedulers.parallel());
+    }
+
+    @Test
+    @DisplayName("Redeem - concurrent redeems are applied with a single decrement and handed out in arrival order")
+    void redeem_WhenBatchIsFull_DecrementsOnceAndHandsOutUsesInOrder() {
+        when(couponRepository.decrementUsage(COUPON_ID, 5)).thenReturn(Mono.just(new UsageGrant(5, 5)));
+
+        List<Integer> remainingUses = Flux.range(0, 5)
+                .flatMapSequential(i -> couponRedemptionBatcher.redeem(COUPON_ID))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(9, 8, 7, 6, 5), remainingUses);
+        verify(couponRepository, times(1)).decrementUsage(COUPON_ID, 5);
+    }
+
+    @Test
+    @DisplayName("Redeem - callers beyond the remaining uses get COUPON_USAGE_LIMIT_REACHED")
+    void redeem_WhenFewerUsesRemain_RejectsCallersBeyondTheLimit() {
+        when(couponRepository.decrementUsage(COUPON_ID, 5)).thenReturn(Mono.just(new UsageGrant(2, 0)));
+
+        List<Object> results = Flux.range(0, 5)
+                .flatMapSequential(i -> couponRedemptionBatcher.redeem(COUPON_ID)
+                        .cast(Object.class)
+                        .onErrorResume(Mono::just))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, results.get(0));
+        assertEquals(0, results.get(1));
+        results.subList(2, 5).forEach(result -> assertTrue(result instanceof CouponException
+                && ((CouponException) result).getMessage().contains(CouponErrorCode.COUPON_USAGE_LIMIT_REACHED.getCode())));
+    }
+
+    @Test
+    @DisplayName("Redeem - a partial batch is flushed once the max wait elapses")
+    void redeem_WhenMaxWaitElapses_FlushesPartialBatch() {
+        when(couponRepository.decrementUsage(COUPON_ID, 1)).thenReturn(Mono.just(new UsageGrant(1, 3)));
+
+        StepVerifier.create(couponRedemptionBatcher.redeem(COUPON_ID))
+                .expectNext(3)
+                .verifyComplete();
+
+        verify(couponRepository, times(1)).decrementUsage(COUPON_ID, 1);
+    }
+
+    @Test
+    @DisplayName("Redeem - when batching is disabled each redeem decrements directly")
+    void redeem_WhenBatchingIsDisabled_DecrementsDirectly() {
+        properties.setEnabled(false);
+        when(couponRepository.decrementUsage(COUPON_ID, 1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(couponRedemptionBatcher.redeem(COUPON_ID))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_USAGE_LIMIT_REACHED.getCode()))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Redeem - a repository failure is propagated to every waiting caller")
+    void redeem_WhenRepositoryFails_PropagatesErrorToAllCallers() {
+        when(couponRepository.decrementUsage(anyString(), anyInt())).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        StepVerifier.create(Flux.range(0, 5).flatMap(i -> couponRedemptionBatcher.redeem(COUPON_ID)
+                        .onErrorResume(IllegalStateException.class, ex -> Mono.just(-1))))
+                .expectNext(-1, -1, -1, -1, -1)
+                .verifyComplete();
+    }
+
+}
@@ -1,15 +1,27 @@
 package com.ticketflow.couponmanager.coupon.service;
 
 
+import com.ticketflow.couponmanager.coupon.configuration.CouponReplicaProperties;
+import com.ticketflow.couponmanager.coupon.configuration.LookupCoalescingProperties;
 import com.ticketflow.couponmanager.coupon.controller.dto.CouponDTO;
 import com.ticketflow.couponmanager.coupon.controller.filter.CouponFilter;
+import com.ticketflow.couponmanager.coupon.controller.filter.CouponSearch;
+import com.ticketflow.couponmanager.coupon.enums.CouponChangeType;
+import com.ticketflow.couponmanager.coupon.enums.HotKeyType;
+import com.ticketflow.couponmanager.coupon.enums.ReadRoute;
+import com.ticketflow.couponmanager.coupon.enums.SearchMode;
 import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.event.CouponChangePublisher;
 import com.ticketflow.couponmanager.coupon.exception.CouponException;
 import com.ticketflow.couponmanager.coupon.exception.NotFoundException;
+import com.ticketflow.couponmanager.coupon.exception.PreconditionFailedException;
 import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.hotkey.HotKeyTracker;
 import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.replica.ActiveCouponReplica;
 import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
 import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +32,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -33,11 +47,26 @@ class CouponServiceTest {
     @Mock
     private CouponValidatorService couponValidatorService;
 
+    @Mock
+    private CouponRedemptionBatcher couponRedemptionBatcher;
+
+    @Mock
+    private RedemptionLedgerService redemptionLedgerService;
+
+    @Mock
+    private CouponChangePublisher couponChangePublisher;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         ModelMapper modelMapper = new ModelMapper();
-        couponService = new CouponService(couponRepository, couponValidatorService, modelMapper);
+        CouponLookupCoalescer couponLookupCoalescer = new CouponLookupCoalescer(couponRepository, new LookupCoalescingProperties(),
+                new ActiveCouponReplica(couponRepository, new CouponReplicaProperties(), new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        couponService = new CouponService(couponRepository, couponLookupCoalescer, couponValidatorService, couponRedemptionBatcher,
+                redemptionLedgerService, couponChangePublisher, hotKeyTracker, modelMapper);
     }
 
     @Test
@@ -66,6 +95,54 @@ class CouponServiceTest {
     }
 
 
+    @Test
+    @DisplayName("Search coupons - prefix search lists code matches before name matches, once each")
+    void searchCoupons_WhenPrefixMode_MergesCodeAndNameMatches() {
+        Coupon byCode = CouponTestBuilder.init().buildModelWithDefaultValues().id("1").build();
+        Coupon byBoth = CouponTestBuilder.init().buildModelWithDefaultValues().id("2").build();
+        Coupon byName = CouponTestBuilder.init().buildModelWithDefaultValues().id("3").build();
+        byName.refreshSearchKeys();
+
+        when(couponRepository.findByCodePrefix("sum", 4)).thenReturn(Flux.just(byCode, byBoth));
+        when(couponRepository.findByNamePrefix("sum", 4)).thenReturn(Flux.just(byBoth, byName));
+
+        CouponSearch search = CouponSearch.builder().q("sum").mode(SearchMode.PREFIX).page(1).size(2).build();
+        StepVerifier.create(couponService.searchCoupons(search))
+                .expectNext(CouponTestBuilder.init().buildDTOWithDefaultValues().id("3").build())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Search coupons - text search asks the repository for the requested page")
+    void searchCoupons_WhenTextMode_SearchesRequestedPage() {
+        Coupon coupon = CouponTestBuilder.init().buildModelWithDefaultValues().id("1").build();
+
+        when(couponRepository.searchText("summer sale", 40, 20)).thenReturn(Flux.just(coupon));
+
+        StepVerifier.create(couponService.searchCoupons(CouponSearch.builder().q("summer sale").page(2).build()))
+                .expectNext(CouponTestBuilder.init().buildDTOWithDefaultValues().id("1").build())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Search coupons - a blank query or an invalid page is rejected")
+    void searchCoupons_WhenQueryIsBlankOrPageIsInvalid_ThrowsError() {
+        StepVerifier.create(couponService.searchCoupons(CouponSearch.builder().q(" ").build()))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.FIELD_CANNOT_BE_EMPTY.getCode()))
+                .verify();
+        StepVerifier.create(couponService.searchCoupons(CouponSearch.builder().q("summer").size(CouponService.MAX_SEARCH_PAGE_SIZE + 1).build()))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.INVALID_SEARCH_PAGE.getCode()))
+                .verify();
+        StepVerifier.create(couponService.searchCoupons(CouponSearch.builder().q("summer").mode(SearchMode.PREFIX).page(Integer.MAX_VALUE).build()))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.INVALID_SEARCH_PAGE.getCode()))
+                .verify();
+
+        verifyNoInteractions(couponRepository);
+    }
+
     @Test
     @DisplayName("Create coupon - when coupon is valid, create new coupon")
     void createCoupon_WhenCouponIsValid_CreateCoupon() {
@@ -106,6 +183,33 @@ class CouponServiceTest {
         verify(couponRepository, times(1)).update(any(Coupon.class));
     }
 
+    @Test
+    @DisplayName("Update coupon - without an expected version the write is conditional on the version read, and retried on a conflict")
+    void updateCoupon_WhenAnotherWriteGetsInBetween_RetriesWithTheNewVersion() {
+        CouponDTO couponDTO = CouponTestBuilder.createDefaultCouponDTO();
+        couponDTO.setVersion(null);
+        Coupon stale = CouponTestBuilder.createDefaultCoupon();
+        stale.setVersion(3L);
+        Coupon current = CouponTestBuilder.createDefaultCoupon();
+        current.setVersion(4L);
+
+        when(couponValidatorService.validateCouponId(couponDTO.getId())).thenReturn(Mono.empty());
+        when(couponRepository.findById(couponDTO.getId())).thenReturn(Mono.just(stale)).thenReturn(Mono.just(current));
+        when(couponValidatorService.validateUpdate(couponDTO)).thenReturn(Mono.just(couponDTO));
+        when(couponRepository.update(argThat(coupon -> coupon != null && Long.valueOf(3L).equals(coupon.getVersion()))))
+                .thenReturn(Mono.error(new PreconditionFailedException(CouponErrorCode.COUPON_VERSION_CONFLICT.withParams(couponDTO.getId()))));
+        when(couponRepository.update(argThat(coupon -> coupon != null && Long.valueOf(4L).equals(coupon.getVersion()))))
+                .thenReturn(Mono.just(current));
+
+        StepVerifier.create(couponService.updateCoupon(couponDTO))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(couponRepository, times(2)).findById(couponDTO.getId());
+        verify(couponRepository, times(2)).update(any(Coupon.class));
+        verify(couponRepository, never()).update(argThat(coupon -> coupon != null && coupon.getVersion() == null));
+    }
+
     @Test
     @DisplayName("Given a couponDTO with invalid id, when updateCoupon is called, then it should throw CouponException with COUPON_NOT_FOUND error code")
     void givenInvalidId_whenUpdateCoupon_thenThrowCouponExceptionWithCouponNotFoundErrorCode() {
@@ -131,7 +235,7 @@ class CouponServiceTest {
         Coupon coupon = CouponTestBuilder.createDefaultCoupon();
         CouponDTO expectedCouponDTO = CouponTestBuilder.createDefaultCouponDTO();
 
-        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
+        when(couponRepository.findById(coupon.getId(), ReadRoute.VALIDATE)).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfCouponIsExpired(coupon)).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfCouponIsInactive(coupon)).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfCouponHaveAvailableUses(coupon)).thenReturn(Mono.just(coupon));
@@ -153,7 +257,7 @@ class CouponServiceTest {
     void checkIfCouponIsValid_WhenCouponIsNotFound_ReturnsCouponNotFoundException() {
         String couponId = "invalid-id";
 
-        when(couponRepository.findById(couponId)).thenReturn(Mono.empty());
+        when(couponRepository.findById(couponId, ReadRoute.VALIDATE)).thenReturn(Mono.empty());
 
         String errorMessage = CouponErrorCode.COUPON_NOT_FOUND.getCode();
 
@@ -177,9 +281,9 @@ class CouponServiceTest {
 
         when(couponRepository.findById(anyString())).thenReturn(Mono.just(coupon));
         when(couponValidatorService.returnErrorIfCouponIsAlreadyInactive(any(Coupon.class))).thenReturn(Mono.just(coupon));
-        when(couponRepository.save(any(Coupon.class))).thenReturn(Mono.just(inactiveCoupon));
+        when(couponRepository.update(any(Coupon.class))).thenReturn(Mono.just(inactiveCoupon));
 
-        StepVerifier.create(couponService.deactivateCoupon(coupon.getId()))
+        StepVerifier.create(couponService.deactivateCoupon(coupon.getId(), null))
                 .assertNext(couponDTO -> {
                     assertEquals(coupon.getId(), couponDTO.getId());
                     assertFalse(couponDTO.isActive());
@@ -187,8 +291,35 @@ class CouponServiceTest {
                 .verifyComplete();
 
         verify(couponRepository).findById(coupon.getId());
-        verify(couponValidatorService).returnErrorIfCouponIsAlreadyInactive(coupon);
-        verify(couponRepository).save(inactiveCoupon);
+        verify(couponValidatorService).returnErrorIfCouponIsAlreadyInactive(argThat(checked -> coupon.getId().equals(checked.getId())));
+        verify(couponRepository).update(Coupon.builder().id(coupon.getId()).status(Status.INACTIVE).build());
+    }
+
+    @Test
+    @DisplayName("Deactivate coupon - reads its own copy instead of joining a read already in flight")
+    void deactivateCoupon_WhenAnotherReadIsInFlight_ReadsAgain() {
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.never());
+
+        couponService.deactivateCoupon(coupon.getId(), null).subscribe();
+        couponService.deactivateCoupon(coupon.getId(), null).subscribe();
+
+        verify(couponRepository, times(2)).findById(coupon.getId());
+    }
+
+    @Test
+    void deactivateCoupon_WhenExpectedVersionIsStale_ReturnsPreconditionFailed() {
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+        coupon.setVersion(4L);
+
+        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
+
+        StepVerifier.create(couponService.deactivateCoupon(coupon.getId(), 3L))
+                .expectErrorMatches(throwable -> throwable instanceof PreconditionFailedException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_VERSION_CONFLICT.getCode()))
+                .verify();
+
+        verify(couponRepository, never()).update(any(Coupon.class));
     }
 
     @Test
@@ -208,18 +339,14 @@ class CouponServiceTest {
                 .useLimit(5)
                 .build();
 
-        Coupon couponUpdated = CouponTestBuilder.init()
-                .buildModelWithDefaultValues()
-                .useLimit(4)
-                .build();
-
-        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
+        when(couponRepository.findById(coupon.getId(), ReadRoute.PRIMARY)).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfCouponIsExpired(coupon)).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfCouponIsInactive(coupon)).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfCouponHaveAvailableUses(coupon)).thenReturn(Mono.just(coupon));
-        when(couponRepository.updateUsage(any(Coupon.class))).thenReturn(Mono.just(couponUpdated));
+        when(redemptionLedgerService.recordRedemption(coupon.getId(), null, "user-1")).thenReturn(Mono.empty());
+        when(couponRedemptionBatcher.redeem(coupon.getId())).thenReturn(Mono.just(4));
 
-        StepVerifier.create(couponService.validateAndDecreaseAvailableCoupons(couponDTO.getId()))
+        StepVerifier.create(couponService.validateAndDecreaseAvailableCoupons(couponDTO.getId(), "user-1"))
                 .expectNext(expectedCouponDTO)
                 .expectComplete()
                 .verify();
@@ -227,87 +354,178 @@ class CouponServiceTest {
         verify(couponValidatorService, times(1)).checkIfCouponIsExpired(coupon);
         verify(couponValidatorService, times(1)).checkIfCouponIsInactive(coupon);
         verify(couponValidatorService, times(1)).checkIfCouponHaveAvailableUses(coupon);
+        verify(couponRedemptionBatcher, times(1)).redeem(coupon.getId());
+        verify(couponChangePublisher, times(1)).publish(CouponChangeType.REDEEMED, expectedCouponDTO);
+        verify(hotKeyTracker).record(HotKeyType.ID, coupon.getId());
+    }
+
+    @Test
+    void validateAndDecreaseAvailableCoupons_WhenUsageLimitIsReached_ReturnsCouponException() {
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+
+        when(couponRepository.findById(coupon.getId(), ReadRoute.PRIMARY)).thenReturn(Mono.just(coupon));
+        when(couponValidatorService.checkIfCouponIsExpired(coupon)).thenReturn(Mono.just(coupon));
+        when(couponValidatorService.checkIfCouponIsInactive(coupon)).thenReturn(Mono.just(coupon));
+        when(couponValidatorService.checkIfCouponHaveAvailableUses(coupon)).thenReturn(Mono.just(coupon));
+        when(redemptionLedgerService.recordRedemption(coupon.getId(), null, "user-1")).thenReturn(Mono.empty());
+        when(redemptionLedgerService.revertRedemption(coupon.getId(), null, "user-1")).thenReturn(Mono.empty());
+        when(couponRedemptionBatcher.redeem(coupon.getId()))
+                .thenReturn(Mono.error(new CouponException(CouponErrorCode.COUPON_USAGE_LIMIT_REACHED.withParams(coupon.getId()))));
+
+        StepVerifier.create(couponService.validateAndDecreaseAvailableCoupons(coupon.getId(), "user-1"))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_USAGE_LIMIT_REACHED.getCode()))
+                .verify();
+
+        verify(redemptionLedgerService, times(1)).revertRedemption(coupon.getId(), null, "user-1");
+        verifyNoInteractions(couponChangePublisher);
+    }
+
+    @Test
+    void validateAndDecreaseAvailableCoupons_WhenUserLimitIsReached_DoesNotRedeem() {
+        Coupon coupon = CouponTestBuilder.init()
+                .buildModelWithDefaultValues()
+                .usesPerUser(1)
+                .build();
+
+        when(couponRepository.findById(coupon.getId(), ReadRoute.PRIMARY)).thenReturn(Mono.just(coupon));
+        when(couponValidatorService.checkIfCouponIsExpired(coupon)).thenReturn(Mono.just(coupon));
+        when(couponValidatorService.checkIfCouponIsInactive(coupon)).thenReturn(Mono.just(coupon));
+        when(couponValidatorService.checkIfCouponHaveAvailableUses(coupon)).thenReturn(Mono.just(coupon));
+        when(redemptionLedgerService.recordRedemption(coupon.getId(), 1, "user-1"))
+                .thenReturn(Mono.error(new CouponException(CouponErrorCode.COUPON_USER_LIMIT_REACHED.withParams(coupon.getId()))));
+
+        StepVerifier.create(couponService.validateAndDecreaseAvailableCoupons(coupon.getId(), "user-1"))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_USER_LIMIT_REACHED.getCode()))
+                .verify();
+
+        verify(couponRedemptionBatcher, never()).redeem(anyString());
     }
 
     @Test
     void addApplicableCategory_WhenCategoryIsUnique_AddsCategoryAndReturnsCouponDTO() {
         String categoryId = "100";
 
-        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
         Coupon updatedCoupon = CouponTestBuilder.createDefaultCoupon();
         updatedCoupon.addApplicableCategory(categoryId);
 
-        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
-        when(couponValidatorService.checkIfApplicableCategoryIsUnique(coupon, categoryId)).thenReturn(Mono.just(coupon));
-        when(couponRepository.updateApplicableCategories(coupon)).thenReturn(Mono.just(updatedCoupon));
+        when(couponRepository.addApplicableCategories(updatedCoupon.getId(), List.of(categoryId), null)).thenReturn(Mono.just(updatedCoupon));
 
-        StepVerifier.create(couponService.addApplicableCategory(coupon.getId(), categoryId))
+        StepVerifier.create(couponService.addApplicableCategory(updatedCoupon.getId(), categoryId, null))
                 .assertNext(couponDTO -> {
-                    assertEquals(coupon.getId(), couponDTO.getId());
+                    assertEquals(updatedCoupon.getId(), couponDTO.getId());
                     assertTrue(couponDTO.getApplicableCategories().contains(categoryId));
                 })
                 .verifyComplete();
 
-        verify(couponRepository).findById(coupon.getId());
-        verify(couponValidatorService).checkIfApplicableCategoryIsUnique(coupon, categoryId);
-        verify(couponRepository).updateApplicableCategories(coupon);
+        verify(couponRepository).addApplicableCategories(updatedCoupon.getId(), List.of(categoryId), null);
+        verifyNoMoreInteractions(couponRepository);
+    }
+
+    @Test
+    void addApplicableCategories_WhenCategoriesRepeat_AddsEachOnce() {
+        Coupon updatedCoupon = CouponTestBuilder.createDefaultCoupon();
+
+        when(couponRepository.addApplicableCategories(updatedCoupon.getId(), List.of("100", "200"), 3L)).thenReturn(Mono.just(updatedCoupon));
+
+        StepVerifier.create(couponService.addApplicableCategories(updatedCoupon.getId(), List.of("100", "200", "100"), 3L))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(couponRepository).addApplicableCategories(updatedCoupon.getId(), List.of("100", "200"), 3L);
     }
 
     @Test
-    void addApplicableCategory_WhenHaveNoOtherCategory_AddsCategoryAndReturnsCouponDTO() {
+    void addApplicableCategories_WhenNoCategoryIsInformed_ReturnsCouponException() {
+        StepVerifier.create(couponService.addApplicableCategories("1", List.of(), null))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.FIELD_CANNOT_BE_EMPTY.getCode()))
+                .verify();
+
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    void addApplicableCategory_WhenCategoryIsAlreadyAdded_ReturnsCouponException() {
         String categoryId = "100";
 
-        Coupon coupon = CouponTestBuilder.init()
-                .buildModelWithDefaultValues()
-                .applicableCategories(null)
-                .build();
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+        coupon.addApplicableCategory(categoryId);
 
+        when(couponRepository.addApplicableCategories(coupon.getId(), List.of(categoryId), null)).thenReturn(Mono.empty());
+        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
+        when(couponValidatorService.checkIfApplicableCategoryIsUnique(coupon, categoryId))
+                .thenReturn(Mono.error(new CouponException(CouponErrorCode.APPLICABLE_CATEGORY_ALREADY_ADDED.withParams(categoryId))));
+
+        StepVerifier.create(couponService.addApplicableCategory(coupon.getId(), categoryId, null))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.APPLICABLE_CATEGORY_ALREADY_ADDED.getCode()))
+                .verify();
+
+        verify(couponRepository).addApplicableCategories(coupon.getId(), List.of(categoryId), null);
+        verify(couponRepository).findById(coupon.getId());
+        verifyNoMoreInteractions(couponRepository);
+    }
+
+    @Test
+    void addApplicableCategory_WhenAnotherWriteGetsInBetween_Retries() {
+        String categoryId = "100";
+
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
         Coupon updatedCoupon = CouponTestBuilder.createDefaultCoupon();
         updatedCoupon.addApplicableCategory(categoryId);
 
+        when(couponRepository.addApplicableCategories(coupon.getId(), List.of(categoryId), null))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(updatedCoupon));
         when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfApplicableCategoryIsUnique(coupon, categoryId)).thenReturn(Mono.just(coupon));
-        when(couponRepository.updateApplicableCategories(coupon)).thenReturn(Mono.just(updatedCoupon));
 
-        StepVerifier.create(couponService.addApplicableCategory(coupon.getId(), categoryId))
-                .assertNext(couponDTO -> {
-                    assertEquals(coupon.getId(), couponDTO.getId());
-                    assertTrue(couponDTO.getApplicableCategories().contains(categoryId));
-                })
+        StepVerifier.create(couponService.addApplicableCategory(coupon.getId(), categoryId, null))
+                .assertNext(couponDTO -> assertTrue(couponDTO.getApplicableCategories().contains(categoryId)))
                 .verifyComplete();
 
-        verify(couponRepository).findById(coupon.getId());
-        verify(couponValidatorService).checkIfApplicableCategoryIsUnique(coupon, categoryId);
-        verify(couponRepository).updateApplicableCategories(coupon);
+        verify(couponRepository, times(2)).addApplicableCategories(coupon.getId(), List.of(categoryId), null);
+    }
+
+    @Test
+    void addApplicableCategory_WhenExpectedVersionIsStale_ReturnsPreconditionFailed() {
+        String categoryId = "100";
+
+        Coupon coupon = CouponTestBuilder.createDefaultCoupon();
+        coupon.setVersion(4L);
+
+        when(couponRepository.addApplicableCategories(coupon.getId(), List.of(categoryId), 3L)).thenReturn(Mono.empty());
+        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
+
+        StepVerifier.create(couponService.addApplicableCategory(coupon.getId(), categoryId, 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+
+        verify(couponRepository, times(1)).addApplicableCategories(coupon.getId(), List.of(categoryId), 3L);
     }
 
     @Test
     void removeApplicableCategory_WhenCategoryExists_RemovesCategoryAndReturnsCouponDTO() {
         String categoryId = "category1";
 
-        Coupon coupon = CouponTestBuilder.init()
-                .buildModelWithDefaultValues()
-                .build();
-
         Coupon updatedCoupon = CouponTestBuilder.createDefaultCoupon();
         updatedCoupon.removeApplicableCategory(categoryId);
 
-        when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
-        when(couponValidatorService.checkIfCategoryIsInCoupon(coupon, categoryId)).thenReturn(Mono.just(coupon));
-        when(couponRepository.updateApplicableCategories(eq(updatedCoupon))).thenReturn(Mono.just(updatedCoupon));
+        when(couponRepository.removeApplicableCategories(updatedCoupon.getId(), List.of(categoryId), null)).thenReturn(Mono.just(updatedCoupon));
 
-        StepVerifier.create(couponService.removeApplicableCategory(coupon.getId(), categoryId))
+        StepVerifier.create(couponService.removeApplicableCategory(updatedCoupon.getId(), categoryId, null))
                 .assertNext(couponDTO -> {
-                    assertEquals(coupon.getId(), couponDTO.getId());
+                    assertEquals(updatedCoupon.getId(), couponDTO.getId());
                     assertFalse(couponDTO.getApplicableCategories().contains(categoryId));
                 })
                 .verifyComplete();
 
-        verify(couponRepository).findById(coupon.getId());
-        verify(couponRepository).updateApplicableCategories(any(Coupon.class));
+        verify(couponRepository).removeApplicableCategories(updatedCoupon.getId(), List.of(categoryId), null);
+        verifyNoMoreInteractions(couponRepository);
     }
 
-
     @Test
     void removeApplicableCategory_WhenApplicableCategoriesIsNull_ReturnsCouponException() {
         String categoryId = "category1";
@@ -317,18 +535,20 @@ class CouponServiceTest {
                 .applicableCategories(null)
                 .build();
 
+        when(couponRepository.removeApplicableCategories(coupon.getId(), List.of(categoryId), null)).thenReturn(Mono.empty());
         when(couponRepository.findById(coupon.getId())).thenReturn(Mono.just(coupon));
         when(couponValidatorService.checkIfCategoryIsInCoupon(coupon, categoryId))
                 .thenReturn(Mono.error(new CouponException(CouponErrorCode.CATEGORY_NOT_IN_COUPON.withParams(categoryId))));
 
         String errorMessage = CouponErrorCode.CATEGORY_NOT_IN_COUPON.getCode();
 
-        StepVerifier.create(couponService.removeApplicableCategory(coupon.getId(), categoryId))
+        StepVerifier.create(couponService.removeApplicableCategory(coupon.getId(), categoryId, null))
                 .expectErrorMatches(throwable -> throwable instanceof CouponException
                         && throwable.getMessage().contains(errorMessage)
                         && throwable.getMessage().contains(categoryId))
                 .verify();
 
+        verify(couponRepository).removeApplicableCategories(coupon.getId(), List.of(categoryId), null);
         verify(couponRepository).findById(coupon.getId());
         verifyNoMoreInteractions(couponRepository);
     }
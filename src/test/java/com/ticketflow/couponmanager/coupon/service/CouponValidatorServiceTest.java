@@ -258,6 +258,36 @@ class CouponValidatorServiceTest {
                 .verify();
     }
 
+    @Test
+    void validateCreate_ShouldThrowCouponException_WhenUsesPerUserIsZero() {
+        CouponDTO couponDTO = CouponTestBuilder.init()
+                .buildDTOWithDefaultValues()
+                .usesPerUser(0)
+                .build();
+
+        String errorMessage = CouponErrorCode.USES_PER_USER_NOT_POSITIVE.getCode();
+
+        StepVerifier.create(couponValidatorService.validateCreate(couponDTO))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(errorMessage))
+                .verify();
+    }
+
+    @Test
+    void validateUpdate_ShouldThrowCouponException_WhenUsesPerUserIsNegative() {
+        CouponDTO couponDTO = CouponTestBuilder.init()
+                .buildDTOWithDefaultValues()
+                .usesPerUser(-1)
+                .build();
+
+        String errorMessage = CouponErrorCode.USES_PER_USER_NOT_POSITIVE.getCode();
+
+        StepVerifier.create(couponValidatorService.validateUpdate(couponDTO))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(errorMessage))
+                .verify();
+    }
+
     @Test
     void validateUpdate_ShouldReturnCouponDTO_whenDiscountValueIsZero() {
         CouponDTO couponDTO = CouponTestBuilder.init()
@@ -0,0 +1,118 @@
+package com.ticketflow.couponmanager.coupon.service;
+
+import com.ticketflow.couponmanager.coupon.configuration.RedemptionLedgerProperties;
+import com.ticketflow.couponmanager.coupon.exception.CouponException;
+import com.ticketflow.couponmanager.coupon.exception.util.CouponErrorCode;
+import com.ticketflow.couponmanager.coupon.repository.RedemptionLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedemptionLedgerServiceTest {
+
+    private static final String COUPON_ID = "1";
+    private static final String USER_ID = "user-1";
+
+    @Mock
+    private RedemptionLedgerRepository redemptionLedgerRepository;
+
+    private RedemptionLedgerService redemptionLedgerService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        redemptionLedgerService = new RedemptionLedgerService(redemptionLedgerRepository, new RedemptionLedgerProperties());
+    }
+
+    @Test
+    @DisplayName("Record redemption - coupons without a per user limit skip the ledger")
+    void recordRedemption_WhenCouponHasNoUserLimit_SkipsLedger() {
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, null, null))
+                .verifyComplete();
+
+        verifyNoInteractions(redemptionLedgerRepository);
+    }
+
+    @Test
+    @DisplayName("Record redemption - user id is required when the coupon has a per user limit")
+    void recordRedemption_WhenUserIdIsMissing_ReturnsCouponException() {
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, 1, " "))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.USER_ID_REQUIRED.getCode()))
+                .verify();
+
+        verifyNoInteractions(redemptionLedgerRepository);
+    }
+
+    @Test
+    @DisplayName("Record redemption - when the user is under the limit, the redemption is recorded")
+    void recordRedemption_WhenUserIsUnderLimit_RecordsRedemption() {
+        when(redemptionLedgerRepository.recordRedemption(COUPON_ID, USER_ID, 2)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, 2, USER_ID))
+                .verifyComplete();
+
+        verify(redemptionLedgerRepository, times(1)).recordRedemption(COUPON_ID, USER_ID, 2);
+    }
+
+    @Test
+    @DisplayName("Record redemption - when the user reached the limit, later checks are answered from the cache")
+    void recordRedemption_WhenUserReachedLimit_ReturnsCouponExceptionFromCache() {
+        when(redemptionLedgerRepository.recordRedemption(COUPON_ID, USER_ID, 1)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, 1, USER_ID))
+                .verifyComplete();
+
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, 1, USER_ID))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_USER_LIMIT_REACHED.getCode()))
+                .verify();
+
+        verify(redemptionLedgerRepository, times(1)).recordRedemption(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Record redemption - when the ledger rejects the upsert, the user limit is reached")
+    void recordRedemption_WhenLedgerRejects_ReturnsCouponException() {
+        when(redemptionLedgerRepository.recordRedemption(COUPON_ID, USER_ID, 1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, 1, USER_ID))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_USER_LIMIT_REACHED.getCode()))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Record redemption - a non-positive per user limit rejects every redemption")
+    void recordRedemption_WhenUserLimitIsNotPositive_ReturnsCouponException() {
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, 0, USER_ID))
+                .expectErrorMatches(throwable -> throwable instanceof CouponException
+                        && throwable.getMessage().contains(CouponErrorCode.COUPON_USER_LIMIT_REACHED.getCode()))
+                .verify();
+
+        verifyNoInteractions(redemptionLedgerRepository);
+    }
+
+    @Test
+    @DisplayName("Revert redemption - the ledger is decremented and the cached count is dropped")
+    void revertRedemption_WhenCouponHasUserLimit_RevertsLedger() {
+        when(redemptionLedgerRepository.recordRedemption(COUPON_ID, USER_ID, 1)).thenReturn(Mono.just(1));
+        when(redemptionLedgerRepository.revertRedemption(COUPON_ID, USER_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(redemptionLedgerService.recordRedemption(COUPON_ID, 1, USER_ID)
+                        .then(redemptionLedgerService.revertRedemption(COUPON_ID, 1, USER_ID))
+                        .then(redemptionLedgerService.recordRedemption(COUPON_ID, 1, USER_ID)))
+                .verifyComplete();
+
+        verify(redemptionLedgerRepository, times(2)).recordRedemption(COUPON_ID, USER_ID, 1);
+        verify(redemptionLedgerRepository, times(1)).revertRedemption(COUPON_ID, USER_ID);
+    }
+
+}
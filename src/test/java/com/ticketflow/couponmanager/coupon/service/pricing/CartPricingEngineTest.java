@@ -0,0 +1,143 @@
+package com.ticketflow.couponmanager.coupon.service.pricing;
+
+import com.ticketflow.couponmanager.coupon.controller.dto.CartItemDTO;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartPricingEngineTest {
+
+    private final CartPricingEngine cartPricingEngine = new CartPricingEngine();
+
+    @Test
+    @DisplayName("Price - percentage coupon discounts only the items of its applicable categories")
+    void price_WhenPercentageCoupon_DiscountsApplicableCategories() {
+        List<CartItemDTO> items = List.of(item("shows", "100.00", 2), item("food", "50.00", 1));
+        Coupon coupon = coupon("A", null, 10F, List.of("shows"));
+
+        CartPricing pricing = cartPricingEngine.price(items, List.of(coupon));
+
+        assertEquals(25000, pricing.subtotalCents());
+        assertEquals(2000, pricing.discountCents());
+        assertEquals(23000, pricing.totalCents());
+        assertTrue(pricing.isApplied(0));
+    }
+
+    @Test
+    @DisplayName("Price - fixed value coupon never discounts more than its eligible items")
+    void price_WhenFixedValueExceedsEligibleItems_CapsDiscount() {
+        List<CartItemDTO> items = List.of(item("food", "8.50", 1), item("shows", "100.00", 1));
+        Coupon coupon = coupon("A", 20F, null, List.of("food"));
+
+        CartPricing pricing = cartPricingEngine.price(items, List.of(coupon));
+
+        assertEquals(850, pricing.discountCents());
+    }
+
+    @Test
+    @DisplayName("Price - coupons on disjoint categories are combined")
+    void price_WhenCouponsDoNotConflict_AppliesAll() {
+        List<CartItemDTO> items = List.of(item("shows", "100.00", 1), item("food", "40.00", 1));
+        Coupon shows = coupon("A", null, 10F, List.of("shows"));
+        Coupon food = coupon("B", 5F, null, List.of("food"));
+
+        CartPricing pricing = cartPricingEngine.price(items, List.of(shows, food));
+
+        assertEquals(1500, pricing.discountCents());
+        assertTrue(pricing.isApplied(0));
+        assertTrue(pricing.isApplied(1));
+    }
+
+    @Test
+    @DisplayName("Price - among conflicting coupons the best combination is chosen")
+    void price_WhenCouponsConflict_ChoosesBestCombination() {
+        List<CartItemDTO> items = List.of(item("shows", "100.00", 1), item("food", "40.00", 1));
+        Coupon everything = coupon("ALL", null, 15F, null);
+        Coupon shows = coupon("SHOWS", null, 12F, List.of("shows"));
+        Coupon food = coupon("FOOD", 10F, null, List.of("food"));
+
+        CartPricing pricing = cartPricingEngine.price(items, List.of(everything, shows, food));
+
+        assertEquals(2200, pricing.discountCents());
+        assertFalse(pricing.isApplied(0));
+        assertTrue(pricing.isApplied(1));
+        assertTrue(pricing.isApplied(2));
+    }
+
+    @Test
+    @DisplayName("Price - coupons without matching items are not applied")
+    void price_WhenCouponHasNoMatchingItems_IsNotApplied() {
+        List<CartItemDTO> items = List.of(item("shows", "100.00", 1));
+        Coupon coupon = coupon("A", 10F, null, List.of("food"));
+
+        CartPricing pricing = cartPricingEngine.price(items, List.of(coupon));
+
+        assertEquals(0, pricing.discountCents());
+        assertFalse(pricing.isApplied(0));
+    }
+
+    @Test
+    @DisplayName("Price - large carts with many candidate coupons are priced")
+    void price_WhenCartIsLarge_PricesAllItems() {
+        List<CartItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            items.add(item("category" + (i % 40), "10.00", 1));
+        }
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < CartPricingEngine.MAX_CANDIDATE_COUPONS; i++) {
+            coupons.add(coupon("C" + i, null, 5F + i, List.of("category" + i, "category" + (i + 1))));
+        }
+
+        CartPricing pricing = cartPricingEngine.price(items, coupons);
+
+        assertEquals(500000, pricing.subtotalCents());
+        assertTrue(pricing.discountCents() > 0);
+        for (int i = 0; i < coupons.size() - 1; i++) {
+            assertFalse(pricing.isApplied(i) && pricing.isApplied(i + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Price - more candidate coupons than supported are rejected")
+    void price_WhenTooManyCoupons_ThrowsIllegalArgumentException() {
+        List<CartItemDTO> items = List.of(item("shows", "100.00", 1));
+        List<Coupon> coupons = Collections.nCopies(CartPricingEngine.MAX_CANDIDATE_COUPONS + 1, coupon("A", 1F, null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> cartPricingEngine.price(items, coupons));
+    }
+
+    @Test
+    @DisplayName("Price - negative prices are rejected")
+    void price_WhenPriceIsNegative_ThrowsIllegalArgumentException() {
+        List<CartItemDTO> items = List.of(item("shows", "-1.00", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> cartPricingEngine.price(items, List.of()));
+    }
+
+    private static CartItemDTO item(String categoryId, String price, int quantity) {
+        return CartItemDTO.builder()
+                .categoryId(categoryId)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .build();
+    }
+
+    private static Coupon coupon(String code, Float discountValue, Float discountPercentage, List<String> categories) {
+        return CouponTestBuilder.init()
+                .buildModelWithDefaultValues()
+                .code(code)
+                .discountValue(discountValue)
+                .discountPercentage(discountPercentage)
+                .applicableCategories(categories)
+                .build();
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.ticketflow.couponmanager.coupon.views;
+
+import com.ticketflow.couponmanager.coupon.configuration.CouponViewsProperties;
+import com.ticketflow.couponmanager.coupon.enums.CouponViewState;
+import com.ticketflow.couponmanager.coupon.enums.Status;
+import com.ticketflow.couponmanager.coupon.exception.StorageUnavailableException;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.coupon.repository.impl.InMemoryCouponRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponViewsTest {
+
+    @TempDir
+    private Path directory;
+
+    private CouponViewsProperties properties;
+
+    private final List<CouponViews> started = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        properties = new CouponViewsProperties();
+        properties.setEnabled(true);
+        properties.setCheckpointPath(directory.resolve("coupon-views.checkpoint"));
+        properties.setRetryBackoff(Duration.ofMillis(10));
+        properties.setMaxRetryBackoff(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        started.forEach(CouponViews::stop);
+    }
+
+    @Test
+    @DisplayName("Views - built from the stored coupons and kept current as coupons change")
+    void views_WhenCouponsChange_AreUpdatedIncrementally() {
+        CouponRepository repository = new InMemoryCouponRepository();
+        repository.save(coupon("1", "black-friday", 5, "shows", "sports")).block();
+        repository.save(coupon("2", "black-friday", 3, "shows")).block();
+        repository.save(coupon("3", "christmas", 10, "sports")).block();
+
+        CouponViews views = start(repository);
+        awaitUntil(() -> views.getState() == CouponViewState.LIVE);
+        assertEquals(new CouponTally(2, 2, 8), views.byResponsibleUser("black-friday"));
+        assertEquals(new CouponTally(2, 2, 15), views.byCategory("sports"));
+
+        repository.decrementUsage("1", 2).block();
+        repository.update(Coupon.builder().id("2").status(Status.INACTIVE).build()).block();
+        repository.deleteById("3").block();
+        repository.addApplicableCategories("1", List.of("theatre"), null).block();
+
+        awaitUntil(() -> views.byResponsibleUser("black-friday").equals(new CouponTally(2, 1, 3)));
+        awaitUntil(() -> views.byCategory("sports").equals(new CouponTally(1, 1, 3)));
+        assertEquals(new CouponTally(1, 1, 3), views.byCategory("theatre"));
+        assertEquals(CouponTally.EMPTY, views.byResponsibleUser("christmas"));
+        assertEquals(2, views.getSize());
+    }
+
+    @Test
+    @DisplayName("Views - a restart resumes from the checkpoint and applies the changes made after it")
+    void views_WhenRestarted_ResumeFromCheckpoint() {
+        CouponRepository repository = new InMemoryCouponRepository();
+        repository.save(coupon("1", "black-friday", 5, "shows")).block();
+        CouponViews first = start(repository);
+        awaitUntil(() -> first.getState() == CouponViewState.LIVE);
+        repository.save(coupon("2", "black-friday", 3, "shows")).block();
+        awaitUntil(() -> first.getSize() == 2);
+        first.stop();
+
+        repository.save(coupon("3", "black-friday", 1, "shows")).block();
+        CouponViews restarted = new CouponViews(repository, properties);
+        restarted.start();
+        started.add(restarted);
+
+        assertEquals(CouponViewState.LIVE, restarted.getState());
+        awaitUntil(() -> restarted.byResponsibleUser("black-friday").equals(new CouponTally(3, 3, 9)));
+    }
+
+    @Test
+    @DisplayName("Views - each checkpoint includes the changes, updates and deletions made since the previous one")
+    void checkpoint_WhenCouponsChangeBetweenCheckpoints_WritesCurrentEntries() throws IOException {
+        CouponRepository repository = new InMemoryCouponRepository();
+        repository.save(coupon("1", "black-friday", 5, "shows")).block();
+        repository.save(coupon("2", "black-friday", 3, "shows")).block();
+        CouponViews views = start(repository);
+        awaitUntil(() -> views.getState() == CouponViewState.LIVE);
+        views.checkpoint();
+
+        repository.deleteById("1").block();
+        repository.decrementUsage("2", 1).block();
+        repository.save(coupon("3", "christmas", 7, "sports")).block();
+        awaitUntil(() -> views.byResponsibleUser("christmas").coupons() == 1 && views.byResponsibleUser("black-friday").coupons() == 1);
+        views.checkpoint();
+
+        Map<String, CouponViewEntry> entries = CouponViewCheckpoint.read(properties.getCheckpointPath()).entries();
+        assertEquals(Set.of("2", "3"), entries.keySet());
+        assertEquals(2, entries.get("2").remainingUses());
+    }
+
+    @Test
+    @DisplayName("Views - a checkpoint whose changes are no longer retained is replaced by a rebuild")
+    void views_WhenHistoryIsLost_Rebuild() {
+        CouponRepository previous = new InMemoryCouponRepository();
+        previous.save(coupon("1", "black-friday", 5, "shows")).block();
+        CouponViews first = start(previous);
+        awaitUntil(() -> first.getState() == CouponViewState.LIVE);
+        previous.save(coupon("2", "black-friday", 3, "shows")).block();
+        awaitUntil(() -> first.getSize() == 2);
+        first.stop();
+
+        // Resume tokens of one repository instance are unknown to another
+        CouponRepository repository = new InMemoryCouponRepository();
+        repository.save(coupon("9", "christmas", 7, "sports")).block();
+        CouponViews views = start(repository);
+
+        awaitUntil(() -> views.byResponsibleUser("christmas").equals(new CouponTally(1, 1, 7)));
+        assertEquals(CouponTally.EMPTY, views.byResponsibleUser("black-friday"));
+        assertTrue(views.getLastError().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Views - lookups before the first build fail as unavailable")
+    void views_WhenNotBuilt_AreUnavailable() {
+        properties.setEnabled(false);
+        CouponViews views = start(new InMemoryCouponRepository());
+
+        assertEquals(CouponViewState.DISABLED, views.getState());
+        assertThrows(StorageUnavailableException.class, () -> views.byCategory("shows"));
+    }
+
+    private CouponViews start(CouponRepository repository) {
+        CouponViews views = new CouponViews(repository, properties);
+        views.start();
+        started.add(views);
+        return views;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+        }
+    }
+
+    private static Coupon coupon(String id, String responsibleUser, int useLimit, String... categories) {
+        return Coupon.builder()
+                .id(id)
+                .name("Coupon " + id)
+                .code("CODE" + id)
+                .discountValue(10f)
+                .status(Status.ACTIVE)
+                .responsibleUser(responsibleUser)
+                .expirationDate(LocalDateTime.now().plusDays(10))
+                .useLimit(useLimit)
+                .applicableCategories(List.of(categories))
+                .build();
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.ticketflow.couponmanager.coupon.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.ticketflow.couponmanager.coupon.configuration.WarmUpProperties;
+import com.ticketflow.couponmanager.coupon.enums.WarmUpState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CouponWarmUpTest {
+
+    @Mock
+    private WarmUpWorkload workload;
+
+    @Mock
+    private ApplicationInfoManager applicationInfoManager;
+
+    @Mock
+    private EurekaInstanceConfigBean eurekaInstanceConfig;
+
+    private WarmUpProperties properties;
+
+    private CouponWarmUp warmUp;
+
+    private WarmUpHealthIndicator healthIndicator;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new WarmUpProperties();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of(
+                "applicationInfoManager", applicationInfoManager,
+                "eurekaInstanceConfigBean", eurekaInstanceConfig));
+        warmUp = new CouponWarmUp(workload, properties, beanFactory.getBeanProvider(ApplicationInfoManager.class),
+                beanFactory.getBeanProvider(EurekaInstanceConfigBean.class));
+        healthIndicator = new WarmUpHealthIndicator(warmUp, properties);
+    }
+
+    @Test
+    @DisplayName("Warm up - steps run in order and only then is the instance marked UP")
+    void warmUp_WhenStepsComplete_MarksInstanceUp() {
+        List<String> executed = new ArrayList<>();
+        when(workload.steps()).thenReturn(List.of(
+                new WarmUpStep("first", Mono.fromRunnable(() -> executed.add("first"))),
+                new WarmUpStep("second", Mono.fromRunnable(() -> {
+                    assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+                    verifyNoInteractions(applicationInfoManager);
+                    executed.add("second");
+                }))));
+
+        assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+
+        warmUp.warmUp();
+
+        assertEquals(List.of("first", "second"), executed);
+        assertEquals(WarmUpState.COMPLETED, warmUp.getState());
+        assertEquals(List.of("first", "second"), List.copyOf(warmUp.getCompletedSteps().keySet()));
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+        assertEquals("2/2", healthIndicator.health().getDetails().get("steps"));
+        verify(applicationInfoManager).setInstanceStatus(InstanceStatus.UP);
+        verify(eurekaInstanceConfig).setInitialStatus(InstanceStatus.UP);
+    }
+
+    @Test
+    @DisplayName("Warm up - a failed step is reported and the remaining steps still run")
+    void warmUp_WhenAStepFails_RunsRemainingSteps() {
+        when(workload.steps()).thenReturn(List.of(
+                new WarmUpStep("failing", Mono.error(new IllegalStateException("Mongo unavailable"))),
+                new WarmUpStep("last", Mono.empty())));
+
+        warmUp.warmUp();
+
+        assertEquals(WarmUpState.COMPLETED, warmUp.getState());
+        assertEquals(Map.of("failing", "Mongo unavailable"), warmUp.getFailedSteps());
+        assertTrue(warmUp.getCompletedSteps().containsKey("last"));
+        verify(applicationInfoManager).setInstanceStatus(InstanceStatus.UP);
+    }
+
+    @Test
+    @DisplayName("Warm up - running out of budget stops the warm-up and still marks the instance UP")
+    void warmUp_WhenBudgetIsExceeded_StopsAndMarksInstanceUp() {
+        properties.setBudget(Duration.ofMillis(100));
+        when(workload.steps()).thenReturn(List.of(
+                new WarmUpStep("quick", Mono.empty()),
+                new WarmUpStep("endless", Mono.never()),
+                new WarmUpStep("skipped", Mono.empty())));
+
+        warmUp.warmUp();
+
+        assertEquals(WarmUpState.TIMED_OUT, warmUp.getState());
+        assertEquals(List.of("quick"), List.copyOf(warmUp.getCompletedSteps().keySet()));
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+        verify(applicationInfoManager).setInstanceStatus(InstanceStatus.UP);
+    }
+
+    @Test
+    @DisplayName("Warm up - when disabled the instance is marked UP right away")
+    void warmUp_WhenDisabled_MarksInstanceUpWithoutSteps() {
+        properties.setEnabled(false);
+
+        warmUp.warmUp();
+
+        assertEquals(WarmUpState.DISABLED, warmUp.getState());
+        verifyNoInteractions(workload);
+        verify(applicationInfoManager).setInstanceStatus(InstanceStatus.UP);
+    }
+
+}
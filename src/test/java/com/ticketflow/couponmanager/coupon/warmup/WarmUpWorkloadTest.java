@@ -0,0 +1,59 @@
+package com.ticketflow.couponmanager.coupon.warmup;
+
+import com.ticketflow.couponmanager.coupon.configuration.WarmUpProperties;
+import com.ticketflow.couponmanager.coupon.model.Coupon;
+import com.ticketflow.couponmanager.coupon.repository.CouponRepository;
+import com.ticketflow.couponmanager.coupon.repository.impl.InMemoryCouponRepository;
+import com.ticketflow.couponmanager.coupon.service.CouponValidatorService;
+import com.ticketflow.couponmanager.coupon.service.pricing.CartPricingEngine;
+import com.ticketflow.couponmanager.testbuilder.CouponTestBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WarmUpWorkloadTest {
+
+    private CouponRepository couponRepository;
+
+    private WarmUpWorkload workload;
+
+    @BeforeEach
+    public void setUp() {
+        couponRepository = new InMemoryCouponRepository();
+        WarmUpProperties properties = new WarmUpProperties();
+        properties.setIterations(50);
+        properties.setQueries(10);
+        properties.setHotCouponCodes(List.of("HOT", "UNKNOWN"));
+        workload = new WarmUpWorkload(couponRepository, new CouponValidatorService(couponRepository),
+                new CartPricingEngine(), new ModelMapper(), Jackson2ObjectMapperBuilder.json().build(), properties);
+    }
+
+    @Test
+    @DisplayName("Steps - every step completes without changing stored coupons")
+    void steps_WhenRun_CompleteWithoutWrites() {
+        Coupon hot = CouponTestBuilder.init()
+                .buildModelWithDefaultValues()
+                .code("HOT")
+                .useLimit(5)
+                .build();
+        couponRepository.save(hot).block();
+
+        StepVerifier.create(Flux.fromIterable(workload.steps()).concatMap(WarmUpStep::work))
+                .expectComplete()
+                .verify(Duration.ofSeconds(30));
+
+        List<Coupon> stored = couponRepository.findAll().collectList().block();
+        assertEquals(1, stored.size());
+        assertEquals(5, stored.get(0).getUseLimit());
+    }
+
+}